@@ -19,4 +19,30 @@ public abstract class Actor {
 	public void postStop() {
 		// please override when necessary
 	}
+
+	/**
+	 * Invoked on the failed instance before it's replaced by the new one. Calls
+	 * {@link #postStop()} by default.
+	 *
+	 * @param cause the failure cause
+	 */
+	public void preRestart(final Throwable cause) {
+		postStop();
+	}
+
+	/**
+	 * Invoked on the new instance after restart. Calls {@link #preStart()} by default.
+	 *
+	 * @param cause the failure cause
+	 */
+	public void postRestart(final Throwable cause) {
+		preStart();
+	}
+
+	/**
+	 * @return The {@link SupervisorStrategy} used when children of this actor fail
+	 */
+	public SupervisorStrategy supervisorStrategy() {
+		return SupervisorStrategy.DEFAULT;
+	}
 }
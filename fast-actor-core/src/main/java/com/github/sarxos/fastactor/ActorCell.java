@@ -4,6 +4,7 @@ import static com.github.sarxos.fastactor.ActorCell.DeliveryStatus.ACCEPTED;
 import static com.github.sarxos.fastactor.ActorCell.DeliveryStatus.REJECTED;
 import static com.github.sarxos.fastactor.ActorCell.ProcessingStatus.COMPLETE;
 import static com.github.sarxos.fastactor.ActorCell.ProcessingStatus.CONTINUE;
+import static com.github.sarxos.fastactor.ActorSystem.ZERO_UUID;
 import static com.github.sarxos.fastactor.InternalDirectives.DISCARD;
 import static com.github.sarxos.fastactor.InternalDirectives.STOP;
 
@@ -13,13 +14,20 @@ import java.util.function.Consumer;
 
 import com.github.sarxos.fastactor.ActorThreadPool.ActorCellInfo;
 import com.github.sarxos.fastactor.Directive.ExecutionMode;
+import com.github.sarxos.fastactor.Envelope.OfLong;
+import com.github.sarxos.fastactor.Envelope.Timestamped;
+import com.github.sarxos.fastactor.FlightRecorder.CellStarted;
+import com.github.sarxos.fastactor.FlightRecorder.CellStopped;
+import com.github.sarxos.fastactor.FlightRecorder.MailboxHighWaterMark;
+import com.github.sarxos.fastactor.FlightRecorder.MessageProcessed;
+import com.github.sarxos.fastactor.InternalDirectives.Failed;
+import com.github.sarxos.fastactor.InternalDirectives.Restart;
+import com.github.sarxos.fastactor.InternalDirectives.Resume;
 import com.github.sarxos.fastactor.InternalDirectives.StopAck;
-import com.github.sarxos.fastactor.dsl.Base;
+import com.github.sarxos.fastactor.SupervisorStrategy.RestartStatistics;
 import com.github.sarxos.fastactor.message.ActorIdentity;
 import com.github.sarxos.fastactor.message.Unhandled;
 
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
-
 
 /**
  * @author Bartosz Firyn (sarxos)
@@ -31,32 +39,45 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 
 	static final ThreadLocal<Deque<ActorContext>> CONTEXT = ThreadLocal.withInitial(ArrayDeque::new);
 
-	private final Deque<Envelope> inbox = new ArrayDeque<>();
-	private final Deque<Consumer<Object>> behaviours = new ArrayDeque<>(0);
-	private final LongOpenHashSet children = new LongOpenHashSet(0);
-	private final LongOpenHashSet watchers = new LongOpenHashSet(0);
-	private final LongOpenHashSet watchees = new LongOpenHashSet(0);
-	private final Consumer<Object> unhandled = this::unhandled;
+	/**
+	 * Initial capacity of the inbox. It is allocated on the first delivery and grows when needed.
+	 */
+	static final int INITIAL_INBOX_CAPACITY = 4;
+
+	// The cell layout is kept as lean as possible because there can be millions of cells in the
+	// single JVM. Everything which is not required by an idle actor is allocated lazily on the first
+	// use, and everything which can be derived from the other fields (system, uuid, hash) is not
+	// stored at all.
 
-	private final ActorCellInfo info;
-	private final ActorSystem system;
 	private final Props<A> props;
 	private final ActorRef parent;
 	private final ActorRef self;
-	private final int hash;
+
+	private Deque<Envelope> inbox;
+	private Consumer<Object> behaviour;
+	private Deque<Consumer<Object>> behaviours;
+	private ActorRefSet children;
+	private ActorRefSet watchers;
+	private ActorRefSet watchees;
 
 	private boolean started = false;
 	private boolean dead = false;
+	private boolean suspended = false;
 	private Actor actor;
 	private ActorRef sender;
+	private RestartStatistics restarts;
+	private ActorCellMetrics metrics;
+
+	/**
+	 * The sends counted by the {@link CellMigration}, null when migration is not enabled or cell
+	 * has not sent anything yet.
+	 */
+	CellMigration.Traffic traffic;
 
 	ActorCell(final ActorSystem system, final Props<A> props, final ActorCellInfo info, final ActorRef parent) {
-		this.system = system;
 		this.props = props;
-		this.info = info;
 		this.self = new ActorRef(system, info);
 		this.parent = parent;
-		this.hash = Long.hashCode(info.uuid);
 	}
 
 	static ActorContext getActiveContext() {
@@ -82,7 +103,7 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 
 	@Override
 	public int hashCode() {
-		return hash;
+		return Long.hashCode(uuid());
 	}
 
 	@Override
@@ -102,7 +123,7 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 	}
 
 	private boolean equals0(final ActorCell<?> cell) {
-		return cell.info.uuid == this.info.uuid;
+		return cell.uuid() == uuid();
 	}
 
 	/**
@@ -124,29 +145,115 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 
 	void start() {
 
+		// the stop which has overtaken the start directive leaves the cell dead, and the actor is
+		// never created then
+
+		if (started || dead) {
+			return;
+		}
+
 		this.started = true;
 
-		invokeActorConstructor();
-		createReceiver();
-		invokeActorPreStart();
+		try {
+			invokeActorConstructor();
+			createMetrics();
+			createReceiver();
+			invokeActorPreStart();
+		} catch (Throwable cause) {
+			fail(cause);
+			return;
+		}
+
+		// actor may have stopped itself in preStart, it is gone then and never really started
+
+		if (dead || actor == null) {
+			return;
+		}
+
+		final var event = new CellStarted();
+		if (event.shouldCommit()) {
+			event.actorClass = actor.getClass();
+			event.uuid = uuid();
+			event.commit();
+		}
 	}
 
 	private void createReceiver() {
 
 		final Consumer<Object> receiver = actor
 			.receive()
-			.create(unhandled);
+			.create(this::unhandled);
 
 		become(receiver);
 	}
 
+	private void createMetrics() {
+		if (system().metricsEnabled) {
+			metrics = new ActorCellMetrics(actor.getClass());
+		}
+	}
+
+	/**
+	 * @return True if cell is running and can be moved to the other {@link ActorThread}
+	 */
+	boolean isMigratable() {
+		return isRunning() && !suspended && props.threadIndex < 0;
+	}
+
+	/**
+	 * Drop the envelopes waiting in the inbox together with the {@link Payload} references they
+	 * hold, because they will never be processed.
+	 *
+	 * @return The number of envelopes dropped
+	 */
+	int discardPending() {
+
+		final var inbox = this.inbox;
+		if (inbox == null) {
+			return 0;
+		}
+
+		final int pending = inbox.size();
+
+		for (Envelope envelope; (envelope = inbox.poll()) != null;) {
+			envelope.discard();
+		}
+
+		return pending;
+	}
+
+	/**
+	 * @return True if cell has been stopped
+	 */
+	boolean isDead() {
+		return dead;
+	}
+
+	/**
+	 * @return True if cell has been started and is not dead yet
+	 */
+	boolean isRunning() {
+		return started && !dead;
+	}
+
+	/**
+	 * @return The {@link ActorCellMetrics} or null when metrics are disabled
+	 */
+	ActorCellMetrics metrics() {
+		return metrics;
+	}
+
 	private void unhandled(final Object message) {
 
 		final var target = self();
 		final var sender = sender();
 		final var unhandled = new Unhandled(message, target, sender);
 
-		system.emitEvent(unhandled, sender);
+		// the payload is released after this message, so event takes its own reference
+
+		Payload.retain(message);
+
+		system().emitEvent(unhandled, sender);
 	}
 
 	private void invokeActorConstructor() {
@@ -161,7 +268,11 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 
 	private void invokeActorPostStop() {
 		if (actor != null) {
-			actor.postStop();
+			try {
+				actor.postStop();
+			} catch (Exception e) {
+				// failure in the post-stop hook must not prevent the cell from being stopped
+			}
 		}
 	}
 
@@ -188,7 +299,7 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 		if (directive.mode() == ExecutionMode.RUN_IMMEDIATELY) {
 			directive.execute(this);
 		} else {
-			inbox.offer(envelope);
+			inbox().offer(envelope);
 		}
 
 		return ACCEPTED;
@@ -197,13 +308,27 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 	private DeliveryStatus deliverMessage(final Envelope envelope) {
 		if (dead) {
 			return REJECTED;
-		} else if (inbox.offer(envelope)) {
+		} else if (inbox().offer(envelope)) {
+			final int depth = inbox.size();
+			if (depth >= FlightRecorder.MAILBOX_HIGH_WATER_MARK && (depth & (depth - 1)) == 0) {
+				recordHighWaterMark(depth);
+			}
 			return ACCEPTED;
 		} else {
 			return REJECTED;
 		}
 	}
 
+	private void recordHighWaterMark(final int depth) {
+		final var event = new MailboxHighWaterMark();
+		if (event.shouldCommit()) {
+			event.actorClass = actor == null ? null : actor.getClass();
+			event.uuid = uuid();
+			event.depth = depth;
+			event.commit();
+		}
+	}
+
 	static enum ProcessingStatus {
 		COMPLETE,
 		CONTINUE,
@@ -229,20 +354,52 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 			return COMPLETE;
 		}
 
+		// Do not process messages when actor failed and waits for the decision of its supervisor.
+		// The inbox is kept, the cell will be activated again by the resume or restart directive.
+
+		if (suspended) {
+			return COMPLETE;
+		}
+
+		// Nothing was ever delivered to this cell, so there is nothing to process.
+
+		final var inbox = this.inbox;
+		if (inbox == null) {
+			return COMPLETE;
+		}
+
 		// Process given amount of messages. If all messages has been processed, return COMPLETED.
 		// This will cause cell deactivation (it will be removed from the list of active cells).
+		// Otherwise, if not all messages from inbox has been processed in this burst, return
+		// CONTINUE. The cell will remain active and thread will take care of it again at the next
+		// cycle.
+
+		final int depth = inbox.size();
+
+		var status = CONTINUE;
+		var processed = 0;
 
 		for (int i = 0; i < throughput; i++) {
 			if (processItem(inbox.poll())) {
-				return COMPLETE;
+				status = COMPLETE;
+				break;
+			}
+			processed++;
+			if (suspended || dead) {
+				status = COMPLETE;
+				break;
 			}
 		}
 
-		// Otherwise, if not all messages from inbox has been processed in this burst, return
-		// CONTINUE. The cell will remain active and thread will take care of it again at the next
-		// cycle.
+		// The processed items are counted, because the cell stopped by one of them drops the rest
+		// of its inbox.
+
+		final var metrics = this.metrics;
+		if (metrics != null) {
+			metrics.record(depth, processed);
+		}
 
-		return CONTINUE;
+		return status;
 	}
 
 	/**
@@ -262,30 +419,221 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 		if (envelope.message instanceof Directive) {
 			((Directive) envelope.message).execute(this);
 		} else {
-			behaviours
-				.peek()
-				.accept(envelope.message);
+
+			// actor reference is taken before processing because actor may stop itself
+
+			final var actor = this.actor;
+			final var event = new MessageProcessed();
+
+			event.begin();
+
+			try {
+				if (envelope instanceof OfLong) {
+					processLong(((OfLong) envelope).value);
+				} else if (envelope instanceof Timestamped) {
+					processSampled((Timestamped) envelope);
+				} else {
+					behaviour.accept(envelope.message);
+				}
+			} catch (Throwable cause) {
+				fail(cause);
+			}
+
+			final var payload = Payload.of(envelope.message);
+			if (payload != null) {
+				release(payload);
+			}
+
+			event.end();
+
+			if (event.shouldCommit()) {
+				event.actorClass = actor.getClass();
+				event.messageClass = envelope.messageClass();
+				event.uuid = uuid();
+				event.commit();
+			}
 		}
 
 		return false;
 	}
 
+	/**
+	 * Drop the reference the processed {@link Payload} has brought. Actor retains the payload
+	 * when it needs it later. The payload already released by the actor is left as it is, so the
+	 * mistake in the actor does not break the {@link ActorThread}.
+	 *
+	 * @param payload the processed payload
+	 */
+	private static void release(final Payload payload) {
+		payload.tryRelease();
+	}
+
+	/**
+	 * Pass the value to the long consumer of the current behaviour, or box it if behaviour does
+	 * not match longs (e.g. it is a plain {@link Consumer} given to {@link #become(Consumer)}).
+	 *
+	 * @param value the long value
+	 */
+	private void processLong(final long value) {
+		if (behaviour instanceof Receive.LongReceiver) {
+			((Receive.LongReceiver) behaviour).acceptLong(value);
+		} else {
+			behaviour.accept(Long.valueOf(value));
+		}
+	}
+
+	private void processSampled(final Timestamped envelope) {
+
+		final var actorClass = actor.getClass();
+		final var start = System.nanoTime();
+
+		try {
+			behaviour.accept(envelope.message);
+		} finally {
+
+			final var end = System.nanoTime();
+			final var latency = ((ActorThread) Thread.currentThread()).latency;
+
+			if (latency != null) {
+				latency.record(actorClass, start - envelope.timestamp, end - start);
+			}
+		}
+	}
+
+	/**
+	 * Suspend this cell and let the parent decide what to do. The failure must not propagate to
+	 * the {@link ActorThread} because it would kill all the other cells docked there.
+	 *
+	 * @param cause the failure cause
+	 */
+	private void fail(final Throwable cause) {
+
+		if (cause instanceof VirtualMachineError) {
+			throw (VirtualMachineError) cause;
+		}
+
+		suspended = true;
+
+		if (restarts == null) {
+			restarts = new RestartStatistics();
+		}
+
+		if (parent.uuid() == ZERO_UUID) {
+			stop(); // the root actor, there is no one to supervise it
+		} else {
+			parent.tell(new Failed(self, cause, restarts), self);
+		}
+	}
+
+	/**
+	 * Decide what to do with the failed child. Invoked on the parent cell.
+	 *
+	 * @param child the failed child
+	 * @param cause the failure cause
+	 * @param restarts the child {@link RestartStatistics}
+	 */
+	void supervise(final ActorRef child, final Throwable cause, final RestartStatistics restarts) {
+
+		final var strategy = dead || actor == null ? SupervisorStrategy.STOPPING : actor.supervisorStrategy();
+
+		switch (strategy.decide(cause, restarts)) {
+			case RESUME:
+				child.tell(new Resume(cause), self);
+				break;
+			case RESTART:
+				child.tell(new Restart(cause), self);
+				break;
+			case ESCALATE:
+				system().stop(child);
+				fail(cause);
+				break;
+			default:
+				system().stop(child);
+				break;
+		}
+	}
+
+	/**
+	 * Continue with the next message in the inbox, keeping the current actor instance.
+	 *
+	 * @param cause the failure cause
+	 */
+	void resume(final Throwable cause) {
+		if (behaviour == null) {
+			restart(cause); // failed before actor was created, there is nothing to resume
+		} else {
+			suspended = false;
+		}
+	}
+
+	/**
+	 * Replace failed actor instance with a new one created from {@link Props}. The inbox, children
+	 * and watches are kept, so no message is lost.
+	 *
+	 * @param cause the failure cause
+	 */
+	void restart(final Throwable cause) {
+
+		if (dead) {
+			return;
+		}
+
+		final var failed = actor;
+
+		actor = null;
+		behaviour = null;
+		behaviours = null;
+
+		try {
+			if (failed != null) {
+				failed.preRestart(cause);
+			}
+			invokeActorConstructor();
+			createReceiver();
+			actor.postRestart(cause);
+			suspended = false;
+		} catch (Throwable next) {
+			fail(next);
+		}
+	}
+
 	private void setSenderFrom(final Envelope envelope) {
 		sender = envelope.sender;
 	}
 
+	private Deque<Envelope> inbox() {
+		if (inbox == null) {
+			inbox = new ArrayDeque<>(INITIAL_INBOX_CAPACITY);
+		}
+		return inbox;
+	}
+
+	/**
+	 * The current behaviour is stored in the dedicated field. The stack of the previous behaviours
+	 * is allocated only when actor becomes something else for the first time.
+	 */
 	@Override
 	public void become(final Consumer<Object> behaviour) {
-		behaviours.push(behaviour);
+		if (this.behaviour != null) {
+			if (behaviours == null) {
+				behaviours = new ArrayDeque<>(2);
+			}
+			behaviours.push(this.behaviour);
+		}
+		this.behaviour = behaviour;
 	}
 
 	@Override
 	public Consumer<Object> unbecome() {
-		if (behaviours.size() > 1) {
-			return behaviours.pop();
-		} else {
+
+		if (behaviours == null || behaviours.isEmpty()) {
 			return null;
 		}
+
+		final var current = behaviour;
+		behaviour = behaviours.pop();
+
+		return current;
 	}
 
 	/**
@@ -295,12 +643,23 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 	@Override
 	public void stop() {
 
+		// cell can be told to stop many times, e.g. by its parent and by the shutting down system
+
+		if (dead) {
+			return;
+		}
+
 		dead = true;
 
-		invokeActorPostStop();
+		if (started) {
+			invokeActorPostStop();
+			recordStopped();
+		}
+		discardPending();
 
-		inbox.clear();
-		behaviours.clear();
+		inbox = null;
+		behaviour = null;
+		behaviours = null;
 
 		actor = null;
 
@@ -312,32 +671,98 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 		}
 
 		if (hasChildren()) {
+			stopChildren();
+		} else {
+			self.tell(DISCARD, self);
+		}
+	}
 
-			// copy children into new array so we do not leak the cell context to the outside
-			// entities (in this case a reference to the children set)
+	/**
+	 * Tell all the children to stop. The directives are sent in one batch per thread the children
+	 * are docked on, so they stop in parallel. Every child acknowledges when it is discarded (also
+	 * the one which has been discarded already, its acknowledgement is on the way) and this cell is
+	 * discarded after the last one, see {@link #childStopped(ActorRef)}.
+	 */
+	private void stopChildren() {
 
-			final var uuids = children.toLongArray();
-			final var props = Props.create(() -> new ActorStopCoordinator(self, uuids));
+		final var batch = system().batch();
 
-			system.actorOf(props);
-		} else {
+		for (final ActorRef child : children) {
+			batch.tell(STOP, child, self);
+		}
+
+		batch.send();
+	}
+
+	/**
+	 * Remove the child which has been discarded. The last child of the dead cell discards it.
+	 *
+	 * @param child the discarded child
+	 */
+	void childStopped(final ActorRef child) {
+		if (removeChild(child) && dead && children.isEmpty()) {
 			self.tell(DISCARD, self);
 		}
 	}
 
+	/**
+	 * Remove this dead cell from the system and acknowledge it to the parent.
+	 */
+	void discard() {
+
+		system().discard(uuid());
+
+		if (parent.uuid() != ZERO_UUID) {
+			parent.tell(StopAck.INSTANCE, self);
+		}
+	}
+
+	private void recordStopped() {
+		final var event = new CellStopped();
+		if (event.shouldCommit()) {
+			event.actorClass = actor == null ? null : actor.getClass();
+			event.uuid = uuid();
+			event.commit();
+		}
+	}
+
+	@Override
+	public ActorRefSet children() {
+		return children == null ? ActorRefSet.EMPTY : children;
+	}
+
+	@Override
+	public boolean addChild(final ActorRef child) {
+		if (children == null) {
+			children = new ActorRefSet();
+		}
+		return children.add(child);
+	}
+
 	@Override
-	public LongOpenHashSet children() {
-		return children;
+	public ActorRefSet watchers() {
+		return watchers == null ? ActorRefSet.EMPTY : watchers;
 	}
 
 	@Override
-	public LongOpenHashSet watchers() {
-		return watchers;
+	public boolean addWatcher(final ActorRef ref) {
+		if (watchers == null) {
+			watchers = new ActorRefSet();
+		}
+		return watchers.add(ref);
 	}
 
 	@Override
-	public LongOpenHashSet watchees() {
-		return watchees;
+	public ActorRefSet watchees() {
+		return watchees == null ? ActorRefSet.EMPTY : watchees;
+	}
+
+	@Override
+	public boolean addWatchee(final ActorRef ref) {
+		if (watchees == null) {
+			watchees = new ActorRefSet();
+		}
+		return watchees.add(ref);
 	}
 
 	@Override
@@ -357,12 +782,12 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 
 	@Override
 	public ActorSystem system() {
-		return system;
+		return self.system;
 	}
 
 	@Override
 	public long uuid() {
-		return info.uuid;
+		return self.uuid;
 	}
 
 	@Override
@@ -380,83 +805,116 @@ public class ActorCell<A extends Actor> implements ActorContext, ParentChild, De
 }
 
 /**
- * A random ID generator. Caller need to take special care to avoid duplicates.
+ * The {@link Directive}s the cells exchange to run their life cycle, i.e. to start, to stop, to
+ * supervise the children and to be discarded.
  */
+interface InternalDirectives {
 
-class ActorStopCoordinator extends Actor implements Base {
-
-	private final ActorRef parent;
-	private final long[] children;
-	private int howManyAlive;
+	final static Directive START = new Start();
+	final static Directive STOP = new Stop();
+	final static Directive DISCARD = new Discard();
 
-	public ActorStopCoordinator(final ActorRef parent, final long[] children) {
-		this.parent = parent;
-		this.children = children;
-		this.howManyAlive = children.length;
-	}
+	/**
+	 * Mark cell as initialized and start accepting messages.
+	 */
+	class Start implements Directive {
 
-	@Override
-	public void preStart() {
-		for (final long child : children) {
-			tellChildToStop(child);
+		@Override
+		public void execute(final ActorCell<?> cell) {
+			cell.start();
 		}
 	}
 
-	private void tellChildToStop(final long child) {
-		system()
-			.find(child)
-			.tell(STOP, parent);
-	}
+	/**
+	 * Stop the cell and its children. The cell acknowledges to its parent when it is discarded.
+	 */
+	class Stop implements Directive {
 
-	@Override
-	public Receive receive() {
-		return super.receive()
-			.match(StopAck.class, this::onStopAck);
-	}
+		@Override
+		public void execute(final ActorCell<?> cell) {
+
+			// stop can overtake the start when they come from different threads, or come when
+			// the start will never come (parent has gone), the cell is stopped without ever
+			// creating the actor then
 
-	public void onStopAck(final StopAck ack) {
-		if (allChildrenDied()) {
-			parent.tell(DISCARD);
-			stop();
+			cell.stop();
 		}
 	}
 
-	private boolean allChildrenDied() {
-		return --howManyAlive == 0;
-	}
-}
+	/**
+	 * From child to parent. Tell parent that the child has been discarded, so it can be removed
+	 * from the children. The dead parent is discarded when its last child is gone.
+	 */
+	class StopAck implements Directive {
 
-interface InternalDirectives {
+		final static StopAck INSTANCE = new StopAck();
 
-	final static Directive START = new Start();
-	final static Directive STOP = new Stop();
-	final static Directive DISCARD = new Discard();
+		@Override
+		public void execute(final ActorCell<?> cell) {
+			cell.childStopped(cell.sender());
+		}
+	}
 
 	/**
-	 * Mark cell as initialized and start accepting messages.
+	 * From child to parent. Tell parent that child has failed and is suspended until parent
+	 * decides what to do. When parent does not exist anymore, the child is stopped.
 	 */
-	class Start implements Directive {
+	class Failed implements Directive {
+
+		final ActorRef child;
+		final Throwable cause;
+		final RestartStatistics restarts;
+
+		Failed(final ActorRef child, final Throwable cause, final RestartStatistics restarts) {
+			this.child = child;
+			this.cause = cause;
+			this.restarts = restarts;
+		}
 
 		@Override
 		public void execute(final ActorCell<?> cell) {
-			cell.start();
+			cell.supervise(child, cause, restarts);
+		}
+
+		@Override
+		public void failed() {
+			child.tell(STOP);
 		}
 	}
 
 	/**
-	 * Stop the cell and reply to the sender that it was indeed stopped.
+	 * From parent to the failed child. Continue with the next message.
 	 */
-	class Stop implements Directive {
+	class Resume implements Directive {
+
+		final Throwable cause;
+
+		Resume(final Throwable cause) {
+			this.cause = cause;
+		}
 
 		@Override
 		public void execute(final ActorCell<?> cell) {
-			cell.stop();
-			cell.reply(StopAck.INSTANCE);
+			cell.resume(cause);
 		}
 	}
 
-	class StopAck {
-		final static StopAck INSTANCE = new StopAck();
+	/**
+	 * From parent to the failed child. Create new actor instance and continue with the next
+	 * message.
+	 */
+	class Restart implements Directive {
+
+		final Throwable cause;
+
+		Restart(final Throwable cause) {
+			this.cause = cause;
+		}
+
+		@Override
+		public void execute(final ActorCell<?> cell) {
+			cell.restart(cause);
+		}
 	}
 
 	/**
@@ -468,9 +926,7 @@ interface InternalDirectives {
 
 		@Override
 		public void execute(final ActorCell<?> cell) {
-			final var system = cell.system();
-			final var uuid = cell.uuid();
-			system.discard(uuid);
+			cell.discard();
 		}
 	}
 
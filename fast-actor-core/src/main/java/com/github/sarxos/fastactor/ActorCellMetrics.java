@@ -0,0 +1,63 @@
+package com.github.sarxos.fastactor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+import com.github.sarxos.fastactor.MetricsSnapshot.ActorMetrics;
+
+
+/**
+ * The counters of a single {@link ActorCell}. Allocated only when metrics are enabled in the
+ * {@link ActorSystem}. Written only by the {@link ActorThread} the cell is docked on, once per
+ * processing burst, and published with the release store, so the readers from the other threads
+ * see consistent, but possibly slightly outdated, values.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class ActorCellMetrics {
+
+	private static final VarHandle PROCESSED;
+	private static final VarHandle MAX_INBOX_DEPTH;
+
+	static {
+		try {
+			final var lookup = MethodHandles.lookup();
+			PROCESSED = lookup.findVarHandle(ActorCellMetrics.class, "processed", long.class);
+			MAX_INBOX_DEPTH = lookup.findVarHandle(ActorCellMetrics.class, "maxInboxDepth", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	final Class<?> actorClass;
+
+	private long processed;
+	private int maxInboxDepth;
+
+	ActorCellMetrics(final Class<?> actorClass) {
+		this.actorClass = actorClass;
+	}
+
+	/**
+	 * Record processing burst. Must be invoked only by the owning {@link ActorThread}.
+	 *
+	 * @param inboxDepth the inbox depth when burst started
+	 * @param processed how many items were processed
+	 */
+	void record(final int inboxDepth, final int processed) {
+
+		PROCESSED.setRelease(this, this.processed + processed);
+
+		if (inboxDepth > this.maxInboxDepth) {
+			MAX_INBOX_DEPTH.setRelease(this, inboxDepth);
+		}
+	}
+
+	ActorMetrics snapshot(final long uuid) {
+		return new ActorMetrics(
+			uuid,
+			actorClass.getName(),
+			(long) PROCESSED.getAcquire(this),
+			(int) MAX_INBOX_DEPTH.getAcquire(this));
+	}
+}
@@ -1,5 +1,8 @@
 package com.github.sarxos.fastactor;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.Collection;
 import java.util.Objects;
 import java.util.concurrent.CompletionStage;
 
@@ -13,14 +16,35 @@ import com.github.sarxos.fastactor.ActorThreadPool.ActorCellInfo;
  */
 public class ActorRef {
 
+	private static final VarHandle THREAD;
+
+	static {
+		try {
+			THREAD = MethodHandles
+				.lookup()
+				.findVarHandle(ActorRef.class, "thread", Dispatcher.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
 	final ActorSystem system;
-	final Dispatcher thread;
 	final long uuid;
 
+	/**
+	 * The {@link Dispatcher} of the target actor. It changes when the actor is moved to the other
+	 * {@link ActorThread} by the {@link CellMigration}.
+	 */
+	volatile Dispatcher thread;
+
 	ActorRef(final ActorSystem system, final ActorCellInfo info) {
+		this(system, info.thread, info.uuid);
+	}
+
+	ActorRef(final ActorSystem system, final Dispatcher dispatcher, final long uuid) {
 		this.system = system;
-		this.thread = info.thread;
-		this.uuid = info.uuid;
+		this.thread = dispatcher;
+		this.uuid = uuid;
 	}
 
 	public long uuid() {
@@ -31,6 +55,18 @@ public class ActorRef {
 		return thread;
 	}
 
+	/**
+	 * Point this reference to the dispatcher the actor has been moved to, unless it has been
+	 * already switched by the other thread in the meantime.
+	 *
+	 * @param stale the dispatcher this reference is expected to point to
+	 * @param current the dispatcher the actor has been moved to
+	 * @return True if reference has been updated, false otherwise
+	 */
+	boolean heal(final Dispatcher stale, final Dispatcher current) {
+		return THREAD.compareAndSet(this, stale, current);
+	}
+
 	/**
 	 * Send message to the actor represented by this actor-reference. Use no-sender actor-reference
 	 * as the sender. Recipient will be unable to reply to this message. Or to be more clear - it
@@ -46,6 +82,50 @@ public class ActorRef {
 		system.tell(message, this, sender);
 	}
 
+	/**
+	 * Send the long value without boxing it. Actor receives it with
+	 * {@link Receive#matchLong(java.util.function.LongConsumer)}, or as {@link Long} when it does
+	 * not match longs. Use no-sender actor-reference as the sender.
+	 *
+	 * @param value the value
+	 */
+	public void tellLong(final long value) {
+		tellLong(value, system.noSender());
+	}
+
+	public void tellLong(final long value, final ActorRef sender) {
+		system.tellLong(value, this, sender);
+	}
+
+	/**
+	 * Send many messages at once. They are deposited with a single queue operation and delivered
+	 * to the actor contiguously, in the iteration order of the collection. Use no-sender
+	 * actor-reference as the sender.
+	 *
+	 * @param messages the messages
+	 */
+	public void tellAll(final Collection<?> messages) {
+		tellAll(messages, system.noSender());
+	}
+
+	public void tellAll(final Collection<?> messages, final ActorRef sender) {
+		system.tellAll(messages, this, sender);
+	}
+
+	/**
+	 * Send many messages at once. They are deposited with a single queue operation and delivered
+	 * to the actor contiguously, in the array order. Use no-sender actor-reference as the sender.
+	 *
+	 * @param messages the messages
+	 */
+	public void tellAll(final Object[] messages) {
+		tellAll(messages, system.noSender());
+	}
+
+	public void tellAll(final Object[] messages, final ActorRef sender) {
+		system.tellAll(messages, this, sender);
+	}
+
 	public <R> CompletionStage<R> ask(final Object message) {
 		return system.ask(message, this);
 	}
@@ -0,0 +1,228 @@
+package com.github.sarxos.fastactor;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import it.unimi.dsi.fastutil.HashCommon;
+
+
+/**
+ * A set of {@link ActorRef} identified by their UUIDs. It is used for the children, watchers and
+ * watchees of the {@link ActorCell}, so they can be told directly when the cell terminates, with
+ * no lookup and no new {@link ActorRef} per entry. The refs are kept in the open addressing table
+ * with linear probing, which takes a reference per slot, i.e. not more than the long per slot
+ * kept by the {@link it.unimi.dsi.fastutil.longs.LongOpenHashSet}. The set is not thread-safe, it
+ * is accessed only by the {@link ActorThread} the cell is docked on.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class ActorRefSet implements Iterable<ActorRef> {
+
+	/**
+	 * The shared empty set returned until the first element is added. It must not be modified.
+	 */
+	static final ActorRefSet EMPTY = new ActorRefSet(0);
+
+	private ActorRef[] table;
+	private int size;
+
+	ActorRefSet() {
+		this(2);
+	}
+
+	private ActorRefSet(final int capacity) {
+		this.table = new ActorRef[capacity];
+	}
+
+	private static int slot(final long uuid, final int mask) {
+		return (int) HashCommon.mix(uuid) & mask;
+	}
+
+	/**
+	 * @return The number of refs in this set
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return True if there are no refs in this set
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * @param uuid the UUID of the actor
+	 * @return True if ref with a given UUID is in this set
+	 */
+	public boolean contains(final long uuid) {
+
+		if (size == 0) {
+			return false;
+		}
+
+		final var table = this.table;
+		final var mask = table.length - 1;
+
+		for (int i = slot(uuid, mask);; i = (i + 1) & mask) {
+			final var ref = table[i];
+			if (ref == null) {
+				return false;
+			}
+			if (ref.uuid == uuid) {
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * @param ref the ref to add
+	 * @return True if ref was added, false if ref with the same UUID is already there
+	 */
+	boolean add(final ActorRef ref) {
+
+		if (this == EMPTY) {
+			throw new IllegalStateException("Shared empty set cannot be modified");
+		}
+
+		if (contains(ref.uuid)) {
+			return false;
+		}
+		if ((size + 1) * 4 > table.length * 3) {
+			rehash(table.length * 2);
+		}
+
+		insert(table, ref);
+		size++;
+
+		return true;
+	}
+
+	/**
+	 * @param ref the ref to remove
+	 * @return True if ref with the same UUID was removed, false if it was not there
+	 */
+	boolean remove(final ActorRef ref) {
+		return remove(ref.uuid);
+	}
+
+	/**
+	 * @param uuid the UUID of the actor
+	 * @return True if ref with a given UUID was removed, false if it was not there
+	 */
+	boolean remove(final long uuid) {
+
+		if (size == 0) {
+			return false;
+		}
+
+		final var table = this.table;
+		final var mask = table.length - 1;
+
+		for (int i = slot(uuid, mask);; i = (i + 1) & mask) {
+			final var ref = table[i];
+			if (ref == null) {
+				return false;
+			}
+			if (ref.uuid == uuid) {
+				shift(i);
+				size--;
+				return true;
+			}
+		}
+	}
+
+	/**
+	 * Remove entry from the given slot and move the following entries of the same run back, so
+	 * the lookups do not stop at the emptied slot.
+	 *
+	 * @param removed the slot to be emptied
+	 */
+	private void shift(int removed) {
+
+		final var table = this.table;
+		final var mask = table.length - 1;
+
+		for (int i = (removed + 1) & mask;; i = (i + 1) & mask) {
+
+			final var ref = table[i];
+			if (ref == null) {
+				break;
+			}
+
+			// entry can be moved back only when its home slot is not between the emptied slot
+			// and its current position (cyclically)
+
+			final var home = slot(ref.uuid, mask);
+			if (((i - home) & mask) >= ((i - removed) & mask)) {
+				table[removed] = ref;
+				removed = i;
+			}
+		}
+
+		table[removed] = null;
+	}
+
+	private void rehash(final int capacity) {
+
+		final var rehashed = new ActorRef[capacity];
+
+		for (final ActorRef ref : table) {
+			if (ref != null) {
+				insert(rehashed, ref);
+			}
+		}
+
+		table = rehashed;
+	}
+
+	private static void insert(final ActorRef[] table, final ActorRef ref) {
+
+		final var mask = table.length - 1;
+
+		var i = slot(ref.uuid, mask);
+		while (table[i] != null) {
+			i = (i + 1) & mask;
+		}
+
+		table[i] = ref;
+	}
+
+	/**
+	 * The iterator does not support removal and must not be used when set is being modified.
+	 */
+	@Override
+	public Iterator<ActorRef> iterator() {
+		return new Iterator<>() {
+
+			final ActorRef[] table = ActorRefSet.this.table;
+			int index = advance(0);
+
+			private int advance(int i) {
+				while (i < table.length && table[i] == null) {
+					i++;
+				}
+				return i;
+			}
+
+			@Override
+			public boolean hasNext() {
+				return index < table.length;
+			}
+
+			@Override
+			public ActorRef next() {
+
+				if (index >= table.length) {
+					throw new NoSuchElementException();
+				}
+
+				final var ref = table[index];
+				index = advance(index + 1);
+
+				return ref;
+			}
+		};
+	}
+}
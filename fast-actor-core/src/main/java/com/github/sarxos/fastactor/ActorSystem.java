@@ -1,17 +1,40 @@
 package com.github.sarxos.fastactor;
 
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.CompletionStage;
+import java.util.concurrent.ThreadLocalRandom;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
+import javax.management.JMException;
+import javax.management.ObjectName;
+
 import org.jctools.maps.NonBlockingHashMapLong;
 
 import com.github.sarxos.fastactor.ActorThreadPool.ActorCellInfo;
 import com.github.sarxos.fastactor.AskRouter.Ask;
+import com.github.sarxos.fastactor.CellMigration.Control;
 import com.github.sarxos.fastactor.DeadLetters.DeadLetter;
+import com.github.sarxos.fastactor.Envelope.Batch;
+import com.github.sarxos.fastactor.Envelope.OfLong;
+import com.github.sarxos.fastactor.Envelope.Timestamped;
+import com.github.sarxos.fastactor.LatencyRecorder.Histograms;
+import com.github.sarxos.fastactor.MetricsSnapshot.ActorMetrics;
+import com.github.sarxos.fastactor.MetricsSnapshot.LatencyMetrics;
+import com.github.sarxos.fastactor.MetricsSnapshot.ThreadMetrics;
+import com.github.sarxos.fastactor.serialization.Serialization;
+import com.github.sarxos.fastactor.serialization.Serializer;
 
 
 public class ActorSystem {
@@ -24,9 +47,16 @@ public class ActorSystem {
 	public static final String DEFAULT_THREAD_POOL_NAME = "default-thread-pool";
 
 	final Map<String, ActorThreadPool> pools = new HashMap<>(1);
+	final List<Transport> transports = new ArrayList<>(1);
 	final NonBlockingHashMapLong<ActorCellInfo> cells = new NonBlockingHashMapLong<>();
 	final ActorRef zero = new ActorRef(this, new ActorCellInfo(null, null, ZERO_UUID));
 	final AtomicLong uuidGenerator = new AtomicLong(0);
+	final Serialization serialization = new Serialization();
+
+	/**
+	 * The pool of off-heap message payloads.
+	 */
+	private PayloadPool payloads = new PayloadPool();
 
 	final String name;
 
@@ -34,11 +64,56 @@ public class ActorSystem {
 	final int parallelism;
 	final Configuration configuration;
 
+	RemoteTransport remote;
+
+	/**
+	 * Are per-actor metrics collected and exposed via JMX.
+	 */
+	boolean metricsEnabled;
+
+	/**
+	 * Can cells be moved between the threads in any of the pools, with {@link CellMigration} or
+	 * because the pool is elastic.
+	 */
+	boolean cellMigration;
+
+	/**
+	 * Every how many messages one is timestamped for latency measurement, 0 means never.
+	 */
+	int latencySampleRate;
+
+	/**
+	 * Has the shutdown begun. The messages told from outside the system are rejected from now on.
+	 */
+	volatile boolean terminating;
+
+	/**
+	 * The number of messages rejected since the shutdown has begun.
+	 */
+	private final LongAdder rejected = new LongAdder();
+
 	private InternalActors internal;
+	private ObjectName mbeanName;
 
 	public ActorSystem(final String name) {
+		this(name, new Configuration());
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param configuration the {@link Configuration} with parallelism and throughput
+	 */
+	public ActorSystem(final String name, final Configuration configuration) {
+
+		if (configuration.getParallelism() < 1) {
+			throw new IllegalArgumentException("Parallelism must be positive, but is " + configuration.getParallelism());
+		}
+		if (configuration.getThroughput() < 1) {
+			throw new IllegalArgumentException("Throughput must be positive, but is " + configuration.getThroughput());
+		}
+
 		this.name = name;
-		this.configuration = new Configuration();
+		this.configuration = configuration;
 		this.parallelism = configuration.getParallelism();
 		this.throughput = configuration.getThroughput();
 	}
@@ -53,11 +128,49 @@ public class ActorSystem {
 
 		startPools();
 		createInternalActors();
+		startTransports();
+
+		if (metricsEnabled) {
+			registerMBean();
+		}
 
 		return this;
 	}
 
+	private void registerMBean() {
+		try {
+			mbeanName = new ObjectName("com.github.sarxos.fastactor:type=ActorSystem,name=" + ObjectName.quote(name));
+			ManagementFactory
+				.getPlatformMBeanServer()
+				.registerMBean(new Metrics(), mbeanName);
+		} catch (JMException e) {
+			throw new IllegalStateException("Cannot register metrics MBean of the actor system " + name, e);
+		}
+	}
+
+	private void unregisterMBean() {
+		try {
+			ManagementFactory
+				.getPlatformMBeanServer()
+				.unregisterMBean(mbeanName);
+		} catch (JMException e) {
+			// already unregistered, nothing to do
+		}
+	}
+
+	private void startTransports() {
+		for (var transport : transports) {
+			transport.start(this);
+		}
+	}
+
 	private void startPools() {
+
+		cellMigration = pools
+			.values()
+			.stream()
+			.anyMatch(pool -> pool.isCellMigrationEnabled() || pool.isElastic());
+
 		for (var pool : pools.values()) {
 			pool.start(this);
 		}
@@ -83,6 +196,213 @@ public class ActorSystem {
 		return this;
 	}
 
+	/**
+	 * Enable communication with the other {@link ActorSystem}s over the network. This must be done
+	 * before the system is started.
+	 *
+	 * @param transport the {@link RemoteTransport} to use
+	 * @return This {@link ActorSystem}
+	 */
+	public ActorSystem withRemoting(final RemoteTransport transport) {
+
+		if (transport == null) {
+			throw new IllegalArgumentException("Transport must not be null");
+		}
+		if (remote != null) {
+			throw new IllegalStateException("Remote transport already configured in this actor system");
+		}
+
+		remote = transport;
+
+		return withTransport(transport);
+	}
+
+	/**
+	 * Add {@link Transport} to exchange messages with the actors living outside of this
+	 * {@link ActorSystem}. This must be done before the system is started.
+	 *
+	 * @param transport the {@link Transport} to add
+	 * @return This {@link ActorSystem}
+	 */
+	public ActorSystem withTransport(final Transport transport) {
+
+		if (transport == null) {
+			throw new IllegalArgumentException("Transport must not be null");
+		}
+
+		transports.add(transport);
+
+		return this;
+	}
+
+	/**
+	 * Enable per-actor metrics (processed messages, inbox depth) and expose them, together with
+	 * the per-thread metrics, via JMX. This must be done before the system is started. The
+	 * per-thread metrics are always collected because they cost nothing.
+	 *
+	 * @return This {@link ActorSystem}
+	 */
+	public ActorSystem withMetrics() {
+		metricsEnabled = true;
+		return this;
+	}
+
+	/**
+	 * Enable latency measurement. One in every given number of messages (chosen randomly) is
+	 * timestamped when it's told and the time it waits in the queues, and the time it takes to
+	 * process it, is recorded in the histograms per actor class and per {@link ActorThread}. Use
+	 * 1 to measure every message. This must be done before the system is started.
+	 *
+	 * @param sampleRate measure one in this number of messages
+	 * @return This {@link ActorSystem}
+	 */
+	public ActorSystem withLatencySampling(final int sampleRate) {
+
+		if (sampleRate < 1) {
+			throw new IllegalArgumentException("Sample rate must be positive, but is " + sampleRate);
+		}
+
+		latencySampleRate = sampleRate;
+
+		return this;
+	}
+
+	/**
+	 * Track where every {@link Payload} has been acquired, so the payloads which were not
+	 * released can be found with {@link PayloadPool#checkLeaks()}. It records the stack trace
+	 * of every acquisition, so it is meant for the tests. This must be done before the system is
+	 * started.
+	 *
+	 * @return This {@link ActorSystem}
+	 */
+	public ActorSystem withPayloadLeakDetection() {
+		payloads = new PayloadPool(true);
+		return this;
+	}
+
+	/**
+	 * @return The {@link PayloadPool} to acquire the off-heap message payloads from
+	 */
+	public PayloadPool payloads() {
+		return payloads;
+	}
+
+	/**
+	 * @return The {@link MetricsSnapshot} of this system
+	 */
+	public MetricsSnapshot metrics() {
+
+		final var threads = new ArrayList<ThreadMetrics>();
+		final var actors = new ArrayList<ActorMetrics>();
+
+		for (var pool : pools.values()) {
+			for (var thread : pool.getThreads()) {
+				threads.add(thread.metrics());
+			}
+		}
+
+		if (metricsEnabled) {
+			for (var info : cells.values()) {
+
+				final var cell = info.thread.dockedCells.get(info.uuid);
+				if (cell == null) {
+					continue;
+				}
+
+				final var metrics = cell.metrics();
+				if (metrics != null) {
+					actors.add(metrics.snapshot(info.uuid));
+				}
+			}
+		}
+
+		if (latencySampleRate > 0) {
+			return new MetricsSnapshot(threads, actors, latencyByActorClass(), latencyByThread());
+		} else {
+			return new MetricsSnapshot(threads, actors, Collections.emptyMap(), Collections.emptyMap());
+		}
+	}
+
+	private Map<String, LatencyMetrics> latencyByThread() {
+
+		final var latency = new HashMap<String, LatencyMetrics>();
+
+		for (var pool : pools.values()) {
+			for (var thread : pool.getThreads()) {
+				latency.put(thread.getName(), snapshot(List.of(thread.latency.total)));
+			}
+		}
+
+		return latency;
+	}
+
+	private Map<String, LatencyMetrics> latencyByActorClass() {
+
+		final var histograms = new HashMap<String, List<Histograms>>();
+
+		for (var pool : pools.values()) {
+			for (var thread : pool.getThreads()) {
+				thread.latency.byActorClass.forEach((type, h) -> histograms
+					.computeIfAbsent(type.getName(), $ -> new ArrayList<>())
+					.add(h));
+			}
+		}
+
+		final var latency = new HashMap<String, LatencyMetrics>();
+
+		histograms.forEach((type, h) -> latency.put(type, snapshot(h)));
+
+		return latency;
+	}
+
+	private static LatencyMetrics snapshot(final List<Histograms> histograms) {
+
+		final var queueWait = new long[Histogram.LENGTH];
+		final var processing = new long[Histogram.LENGTH];
+
+		for (var h : histograms) {
+			h.queueWait.addTo(queueWait);
+			h.processing.addTo(processing);
+		}
+
+		return new LatencyMetrics(new HistogramSnapshot(queueWait), new HistogramSnapshot(processing));
+	}
+
+	/**
+	 * Register {@link Serializer} for the messages of a given class. Messages leaving this
+	 * {@link ActorSystem} (e.g. sent to the remote actors) are serialized with it.
+	 *
+	 * @param <T> the message type
+	 * @param type the message class
+	 * @param manifest the unique manifest id written instead of the class name
+	 * @param serializer the {@link Serializer}
+	 * @return This {@link ActorSystem}
+	 */
+	public <T> ActorSystem withSerializer(final Class<T> type, final int manifest, final Serializer<? super T> serializer) {
+		serialization.register(type, manifest, serializer);
+		return this;
+	}
+
+	/**
+	 * @return The {@link Serialization} registry of this system
+	 */
+	public Serialization serialization() {
+		return serialization;
+	}
+
+	/**
+	 * @return The {@link RemoteTransport} configured for this system
+	 * @throws IllegalStateException when remoting has not been enabled
+	 */
+	public RemoteTransport remote() {
+
+		if (remote == null) {
+			throw new IllegalStateException("Remoting has not been enabled in the actor system " + name);
+		}
+
+		return remote;
+	}
+
 	/**
 	 * Public actor creation facility. System consumers should use this method to spawn new actors.
 	 *
@@ -109,22 +429,62 @@ public class ActorSystem {
 			.orElse(refForDeadLetters());
 	}
 
+	/**
+	 * Similar to {@link #find(long)}, but when actor does not exist, the returned reference has no
+	 * dispatcher, so every message told to it goes to the dead letters with the original target.
+	 *
+	 * @param uuid the actor uuid
+	 * @return {@link ActorRef} of the actor with a given uuid
+	 */
+	ActorRef resolve(final long uuid) {
+
+		final var info = cells.get(uuid);
+
+		if (info == null) {
+			return new ActorRef(this, (Dispatcher) null, uuid);
+		} else {
+			return new ActorRef(this, info);
+		}
+	}
+
 	<A extends Actor> ActorRef actorOf(final Props<A> props, final ActorRef parent) {
 
+		final var cell = newCell(props, parent);
+
+		cell.setup();
+
+		return cell.self();
+	}
+
+	/**
+	 * Create and register new {@link ActorCell}, but do not set it up. The cell will not start
+	 * until it receives the {@link InternalDirectives#START}.
+	 *
+	 * @param props the actor {@link Props}
+	 * @param parent the parent {@link ActorRef}
+	 * @return New cell docked on the {@link ActorThread}
+	 */
+	<A extends Actor> ActorCell<A> newCell(final Props<A> props, final ActorRef parent) {
+
 		final var pool = getPoolFor(props).orElseThrow(poolNotFoundError(props));
-		final var info = pool.prepareCellInfo(this, props);
-		final var cell = new ActorCell<A>(this, props, info, parent);
-		final var uuid = info.uuid;
 
-		info.thread.dock(cell);
+		ActorCellInfo info;
+		ActorCell<A> cell;
+
+		// the thread of the elastic pool could start retiring in the meantime, place cell again
+
+		do {
+			info = pool.prepareCellInfo(this, props, parent);
+			cell = new ActorCell<A>(this, props, info, parent);
+		} while (!info.thread.dock(cell));
+
+		final var uuid = info.uuid;
 
 		if (cells.put(uuid, info) == null) {
-			cell.setup();
+			return cell;
 		} else {
 			throw new IllegalStateException("Cell wil ID " + uuid + " already exists in the system");
 		}
-
-		return cell.self();
 	}
 
 	void discard(final long uuid) {
@@ -160,7 +520,7 @@ public class ActorSystem {
 	 */
 	public void tell(final Object message, final ActorRef target, final ActorRef sender) {
 
-		final var envelope = new Envelope(message, target, sender);
+		final var envelope = envelope(message, target, sender);
 		final var dispatcher = target.dispatcher();
 
 		if (dispatcher == null) {
@@ -170,6 +530,95 @@ public class ActorSystem {
 		}
 	}
 
+	/**
+	 * Send and forget the long value without boxing it. The target actor receives it with
+	 * {@link Receive#matchLong(java.util.function.LongConsumer)}, or as {@link Long} when it
+	 * does not match longs.
+	 *
+	 * @param value the value
+	 * @param target the target {@link ActorRef}
+	 * @param sender the sender {@link ActorRef}
+	 */
+	public void tellLong(final long value, final ActorRef target, final ActorRef sender) {
+
+		final var envelope = new OfLong(value, target, sender);
+		final var dispatcher = target.dispatcher();
+
+		if (dispatcher == null) {
+			forwardToDeadLetters(envelope);
+		} else {
+			dispatcher.deposit(envelope);
+		}
+	}
+
+	/**
+	 * Send and forget many messages to the same target at once. The messages are deposited with a
+	 * single queue operation and delivered to the target's inbox contiguously, in the iteration
+	 * order of the collection.
+	 *
+	 * @param messages the messages
+	 * @param target the target {@link ActorRef}
+	 * @param sender the sender {@link ActorRef}
+	 */
+	public void tellAll(final Collection<?> messages, final ActorRef target, final ActorRef sender) {
+
+		final var envelopes = new Envelope[messages.size()];
+		var i = 0;
+
+		for (final Object message : messages) {
+			envelopes[i++] = envelope(message, target, sender);
+		}
+
+		depositAll(envelopes, target);
+	}
+
+	/**
+	 * Send and forget many messages to the same target at once. The messages are deposited with a
+	 * single queue operation and delivered to the target's inbox contiguously, in the array order.
+	 *
+	 * @param messages the messages
+	 * @param target the target {@link ActorRef}
+	 * @param sender the sender {@link ActorRef}
+	 */
+	public void tellAll(final Object[] messages, final ActorRef target, final ActorRef sender) {
+
+		final var envelopes = new Envelope[messages.length];
+
+		for (int i = 0; i < messages.length; i++) {
+			envelopes[i] = envelope(messages[i], target, sender);
+		}
+
+		depositAll(envelopes, target);
+	}
+
+	/**
+	 * @return New {@link MessageBatch} to send many messages to many actors at once
+	 */
+	public MessageBatch batch() {
+		return new MessageBatch(this);
+	}
+
+	void depositAll(final Envelope[] envelopes, final ActorRef target) {
+
+		final var dispatcher = target.dispatcher();
+
+		if (dispatcher == null) {
+			for (final Envelope envelope : envelopes) {
+				forwardToDeadLetters(envelope);
+			}
+		} else {
+			dispatcher.depositAll(envelopes);
+		}
+	}
+
+	Envelope envelope(final Object message, final ActorRef target, final ActorRef sender) {
+		if (latencySampleRate > 0 && ThreadLocalRandom.current().nextInt(latencySampleRate) == 0) {
+			return new Timestamped(message, target, sender, System.nanoTime());
+		} else {
+			return new Envelope(message, target, sender);
+		}
+	}
+
 	public <R> CompletionStage<R> ask(final Object message, final ActorRef target) {
 
 		final var ask = new Ask<R>(message, target);
@@ -187,22 +636,36 @@ public class ActorSystem {
 	 * @param target a new target uid
 	 */
 	void forward(final Envelope envelope, final ActorRef target) {
-		final var message = envelope.message;
+		final var message = envelope.payload();
 		final var sender = envelope.sender;
 		tell(message, target, sender);
 	}
 
 	void forwardToDeadLetters(final Envelope envelope) {
 
-		final var message = envelope.message;
+		final var message = envelope.payload();
 		final var target = envelope.target;
 		final var sender = envelope.sender;
 		final var deadLetter = new DeadLetter(message, target, sender);
 		final var deadLetters = internal.deadLetters;
 
+		recordDeadLetter(envelope);
+
+		// the payload reference goes with the dead letter and is released after it is processed
+
 		deadLetters.tell(deadLetter);
 	}
 
+	private static void recordDeadLetter(final Envelope envelope) {
+		final var event = new FlightRecorder.DeadLetter();
+		if (event.shouldCommit()) {
+			event.messageClass = envelope.messageClass();
+			event.target = String.valueOf(envelope.target);
+			event.sender = String.valueOf(envelope.sender);
+			event.commit();
+		}
+	}
+
 	public void emitEvent(final Object event) {
 		emitEvent(event, noSender());
 	}
@@ -263,12 +726,240 @@ public class ActorSystem {
 		return zero;
 	}
 
-	public void shutdown() {
+	/**
+	 * Shutdown immediately. The transports are shut down, the threads are terminated and the
+	 * messages left in their queues and the actor inboxes are discarded, without waiting for them
+	 * to be processed and without stopping the actors, so {@link Actor#postStop()} is not invoked.
+	 * Use {@link #shutdown(Duration)} to shutdown gracefully.
+	 *
+	 * @return The {@link ShutdownReport}
+	 */
+	public ShutdownReport shutdown() {
+
+		final var start = System.nanoTime();
+
+		beginShutdown();
+
+		return terminate(start, false, false);
+	}
+
+	/**
+	 * Shutdown gracefully in the following steps:
+	 * <ol>
+	 * <li>The transports are shut down and the messages told from outside the system are rejected
+	 * (asks are completed exceptionally), while actors keep talking to each other.</li>
+	 * <li>All the messages are processed, which is when every {@link ActorThread} is parked with
+	 * nothing to deliver.</li>
+	 * <li>The user actors are stopped top-down, starting from the user guardian, so every actor
+	 * receives {@link Actor#postStop()}.</li>
+	 * <li>The threads are terminated and the messages left in their queues and the actor inboxes
+	 * are discarded.</li>
+	 * </ol>
+	 * The steps two and three wait no longer than the timeout together. When the deadline passes,
+	 * the remaining steps are executed immediately and the messages not processed are counted as
+	 * discarded. Note that the thread which never parks (see
+	 * {@link ActorThreadPool#withMaxIdleLoopsCount(int)}) is never seen idle, so the step two
+	 * always waits until the deadline.
+	 *
+	 * @param timeout how long to wait for the actors to process their messages and stop
+	 * @return The {@link ShutdownReport}
+	 */
+	public ShutdownReport shutdown(final Duration timeout) {
+
+		final var start = System.nanoTime();
+		final var deadline = start + timeout.toNanos();
+
+		beginShutdown();
+
+		final var drained = awaitIdle(deadline);
+
+		tell(InternalDirectives.STOP, internal.user);
+
+		final var stopped = awaitDiscarded(internal.user, deadline);
+
+		return terminate(start, drained, stopped);
+	}
+
+	/**
+	 * Reject the messages told from outside the system from now on and shut down the transports.
+	 */
+	private void beginShutdown() {
+
+		terminating = true;
+
+		if (mbeanName != null) {
+			unregisterMBean();
+		}
+
+		for (var transport : transports) {
+			transport.shutdown();
+		}
+	}
+
+	/**
+	 * Terminate the threads and count the messages left.
+	 *
+	 * @param start the shutdown start in {@link System#nanoTime()} units
+	 * @param drained were all the messages processed
+	 * @param stopped were all the user actors stopped
+	 * @return The {@link ShutdownReport}
+	 */
+	private ShutdownReport terminate(final long start, final boolean drained, final boolean stopped) {
+
 		pools
 			.values()
 			.stream()
 			.map(ActorThreadPool::shutdown)
 			.forEach(ActorThreadPool.Shutdown::awaitTermination);
+
+		var discarded = 0L;
+		for (var pool : pools.values()) {
+			for (var thread : pool.getThreads()) {
+				discarded += thread.discarded();
+			}
+		}
+
+		return new ShutdownReport(drained, stopped, rejected.sum(), discarded, Duration.ofNanos(System.nanoTime() - start));
+	}
+
+	/**
+	 * Wait until all the threads are idle. It is not enough to see every thread idle once, since
+	 * the thread seen idle could have been woken up by the one seen later, so the threads must be
+	 * seen idle twice in a row without parking in between.
+	 *
+	 * @param deadline the deadline in {@link System#nanoTime()} units
+	 * @return True if all the threads are idle, false if deadline has passed
+	 */
+	private boolean awaitIdle(final long deadline) {
+
+		var previous = parks();
+
+		while (System.nanoTime() < deadline) {
+
+			LockSupport.parkNanos(1_000_000);
+
+			final var current = parks();
+			if (current != null && Arrays.equals(previous, current)) {
+				return true;
+			}
+
+			previous = current;
+		}
+
+		return false;
+	}
+
+	/**
+	 * @return The number of parks of every thread, or null if any of them is not idle
+	 */
+	private long[] parks() {
+
+		final var parks = new ArrayList<Long>();
+
+		for (var pool : pools.values()) {
+			for (var thread : pool.getThreads()) {
+				if (!thread.isIdle()) {
+					return null;
+				}
+				parks.add(thread.metrics().getParks());
+			}
+		}
+
+		return parks
+			.stream()
+			.mapToLong(Long::longValue)
+			.toArray();
+	}
+
+	private boolean awaitDiscarded(final ActorRef ref, final long deadline) {
+
+		while (cells.containsKey(ref.uuid)) {
+			if (System.nanoTime() >= deadline) {
+				return false;
+			}
+			LockSupport.parkNanos(1_000_000);
+		}
+
+		return true;
+	}
+
+	/**
+	 * Reject the envelope deposited from outside of the system which is shutting down. The
+	 * directives are still accepted, so the actors can be stopped.
+	 *
+	 * @param envelope the envelope
+	 * @return True if envelope has been rejected, false if it can be deposited
+	 */
+	boolean reject(final Envelope envelope) {
+
+		if (envelope instanceof Control || envelope.message instanceof Directive) {
+			return false;
+		}
+
+		if (envelope instanceof Batch) {
+			for (final Envelope e : ((Batch) envelope).envelopes) {
+				rejected(e);
+			}
+		} else {
+			rejected(envelope);
+		}
+
+		return true;
+	}
+
+	private void rejected(final Envelope envelope) {
+
+		rejected.increment();
+
+		if (envelope.message instanceof Ask) {
+			((Ask<?>) envelope.message).completion.completeExceptionally(new IllegalStateException("Actor system " + name + " is shutting down"));
+		} else {
+			final var payload = Payload.of(envelope.message);
+			if (payload != null) {
+				payload.release();
+			}
+		}
+	}
+
+	/**
+	 * The {@link ActorSystemMXBean} implementation, every attribute is read from the new
+	 * {@link MetricsSnapshot}.
+	 */
+	class Metrics implements ActorSystemMXBean {
+
+		@Override
+		public String getName() {
+			return name;
+		}
+
+		@Override
+		public int getActorsCount() {
+			return cells.size();
+		}
+
+		@Override
+		public long getProcessed() {
+			return metrics().getProcessed();
+		}
+
+		@Override
+		public double getBusyRatio() {
+			return metrics().getBusyRatio();
+		}
+
+		@Override
+		public ThreadMetrics[] getThreads() {
+			return metrics()
+				.getThreads()
+				.toArray(ThreadMetrics[]::new);
+		}
+
+		@Override
+		public ActorMetrics[] getActors() {
+			return metrics()
+				.getActors()
+				.toArray(ActorMetrics[]::new);
+		}
 	}
 
 	class InternalActors {
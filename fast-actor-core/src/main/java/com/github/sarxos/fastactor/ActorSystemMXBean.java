@@ -0,0 +1,27 @@
+package com.github.sarxos.fastactor;
+
+import com.github.sarxos.fastactor.MetricsSnapshot.ActorMetrics;
+import com.github.sarxos.fastactor.MetricsSnapshot.ThreadMetrics;
+
+
+/**
+ * JMX view of the {@link ActorSystem} metrics. Registered under the
+ * <code>com.github.sarxos.fastactor:type=ActorSystem,name=&lt;system name&gt;</code> name when
+ * metrics are enabled with {@link ActorSystem#withMetrics()}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public interface ActorSystemMXBean {
+
+	String getName();
+
+	int getActorsCount();
+
+	long getProcessed();
+
+	double getBusyRatio();
+
+	ThreadMetrics[] getThreads();
+
+	ActorMetrics[] getActors();
+}
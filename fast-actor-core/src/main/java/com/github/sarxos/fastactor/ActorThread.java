@@ -4,14 +4,26 @@ import static com.github.sarxos.fastactor.ActorCell.DeliveryStatus.ACCEPTED;
 import static com.github.sarxos.fastactor.ActorCell.ProcessingStatus.COMPLETE;
 import static com.github.sarxos.fastactor.ActorSystem.ZERO_UUID;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
 import java.time.Duration;
 import java.util.ArrayDeque;
+import java.util.ArrayList;
 import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.LockSupport;
 
 import org.jctools.maps.NonBlockingHashMapLong;
 import org.jctools.queues.MpscUnboundedArrayQueue;
 
+import com.github.sarxos.fastactor.ActorCell.ProcessingStatus;
+import com.github.sarxos.fastactor.CellMigration.Control;
+import com.github.sarxos.fastactor.Envelope.Batch;
+import com.github.sarxos.fastactor.FlightRecorder.ThreadPark;
+import com.github.sarxos.fastactor.FlightRecorder.ThreadUnpark;
+import com.github.sarxos.fastactor.MetricsSnapshot.ThreadMetrics;
+
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import it.unimi.dsi.fastutil.objects.ObjectCollection;
@@ -27,6 +39,17 @@ public class ActorThread extends Thread implements Dispatcher {
 
 	static long delay = Duration.ofMillis(100).toNanos();
 
+	private static final VarHandle EPOCH;
+	static {
+		try {
+			EPOCH = MethodHandles
+				.lookup()
+				.findVarHandle(ActorThread.class, "epoch", long.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
 	/**
 	 * Mapping between cell UID and corresponding {@link ActorCell} instance.
 	 */
@@ -73,47 +96,278 @@ public class ActorThread extends Thread implements Dispatcher {
 	 */
 	final int throughput;
 
+	/**
+	 * Latency of the sampled messages, null when sampling is disabled.
+	 */
+	final LatencyRecorder latency;
+
+	/**
+	 * The CPU this thread is bound to when it starts, or -1 when OS can run it on any CPU. Set by
+	 * the {@link ActorThreadPool} before thread is started.
+	 */
+	int cpu = -1;
+
+	/**
+	 * Completed when thread is bound to the {@link #cpu}, or exceptionally when it failed.
+	 */
+	final CompletableFuture<Void> affinity = new CompletableFuture<>();
+
+	/**
+	 * The NUMA node this thread belongs to, always 0 when pool is not NUMA-aware. Set by the
+	 * {@link ActorThreadPool} before thread is started.
+	 */
+	int node;
+
+	/**
+	 * Moves cells between the threads, null when neither migration nor elasticity is enabled in
+	 * the pool.
+	 */
+	final CellMigration migration;
+
+	/**
+	 * How many threads which are not {@link ActorThread}s are in the middle of the deposit into
+	 * this thread, null when {@link #migration} is null.
+	 */
+	final AtomicInteger externalDeposits;
+
+	/**
+	 * Is this thread being retired from the elastic pool. No cell is placed on or moved to the
+	 * retiring thread.
+	 */
+	volatile boolean retiring;
+
+	/**
+	 * Has the last cell left the retiring thread. The envelopes which are deposited into the
+	 * retired thread are rerouted to the threads their target cells have been moved to.
+	 */
+	volatile boolean retired;
+
+	/**
+	 * Should the {@link #epoch} be published, true when migration is enabled in any pool.
+	 */
+	private final boolean epochs;
+
+	/**
+	 * The number of the current loop iteration, published only when {@link #epochs} is true.
+	 */
+	private long epoch;
+
+	/**
+	 * The cell being processed, tracked only when migration is enabled.
+	 */
+	private ActorCell<? extends Actor> processing;
+
 	ActorThread(final ThreadGroup group, final ActorSystem system, final String name, final int index) {
 		super(group, name);
 		this.system = system;
 		this.index = index;
 		this.throughput = system.throughput;
+		this.latency = system.latencySampleRate > 0 ? new LatencyRecorder() : null;
+		this.epochs = system.cellMigration;
+
+		final var pool = group instanceof ActorThreadPool ? (ActorThreadPool) group : null;
+
+		this.idler = new IdleLoopCounter(pool != null ? pool.maxIdleLoopsCount() : maxIdleLoopsCount);
+
+		if (pool != null && (pool.isCellMigrationEnabled() || pool.isElastic())) {
+			this.migration = new CellMigration(this, pool.isCellMigrationEnabled());
+			this.externalDeposits = new AtomicInteger();
+		} else {
+			this.migration = null;
+			this.externalDeposits = null;
+		}
 	}
 
 	private final ArrayDeque<Envelope> queue = new ArrayDeque<Envelope>(initialQueueDepth * 2);
-	private final IdleLoopCounter idler = new IdleLoopCounter(maxIdleLoopsCount);
+	private final IdleLoopCounter idler;
+	private final Counters counters = new Counters();
+
+	/**
+	 * Threads which have to be woken up because envelopes were deposited into them from this
+	 * thread. The wake up is deferred until the cell's turn ends, so the thread sending many
+	 * messages to the other one reads its parked flag and unparks it only once.
+	 */
+	private final ArrayList<ActorThread> pendingWakeUps = new ArrayList<>(4);
 
 	@Override
 	public void run() {
 
+		if (!bindToCpu()) {
+			return;
+		}
+
+		final var counters = this.counters;
+		final var migration = this.migration;
+
 		while (!isInterrupted()) {
 
 			var busy = 0;
 
+			if (epochs) {
+				EPOCH.setRelease(this, epoch + 1);
+			}
+
+			// retired thread terminates when all the envelopes deposited into it were forwarded
+
+			if (retiring) {
+				if (migration.evacuate()) {
+					drain(externalQueue, queue);
+					drain(internalQueue, queue);
+					deliver(queue);
+					break;
+				}
+				busy++;
+			}
+
+			// cells waiting to leave this thread can be handed off when all the envelopes deposited
+			// with their old actor references are in the queues, so it must be checked before drain
+
+			final var departing = migration != null && migration.hasDepartures();
+			if (departing) {
+				migration.settle();
+			}
+
 			// move external messages to the temporary queue to avoid contention
 			// move internal messages to the temporary queue to avoid concurrent modification
 
-			busy += drain(externalQueue, queue);
-			busy += drain(internalQueue, queue);
+			final var drained = drain(externalQueue, queue) + drain(internalQueue, queue);
+
+			busy += drained;
 			busy += deliver(queue);
+
+			if (departing) {
+				migration.handOff();
+				busy++;
+			}
+
+			// envelopes deposited by directives executed on delivery
+
+			flushWakeUps();
+
 			busy += process();
 
 			if (busy == 0) {
+				counters.idleLoops++;
 				if (idler.shouldBeParked()) {
+					counters.parks++;
+					counters.publish();
 					park();
 				} else {
 					spin();
 				}
 			} else {
+				counters.busyLoops++;
+				counters.drained += drained;
+				if ((counters.busyLoops & Counters.PUBLISH_MASK) == 0) {
+					counters.publish();
+				}
 				idler.reset();
 			}
 		}
+
+		flushWakeUps();
+		counters.publish();
+	}
+
+	/**
+	 * Bind this thread to the {@link #cpu}, if any, and complete the {@link #affinity} with the
+	 * outcome.
+	 *
+	 * @return True if thread is bound or does not have to be, false if binding failed and thread
+	 *         must not run the actors
+	 */
+	private boolean bindToCpu() {
+
+		if (cpu >= 0) {
+			try {
+				CpuAffinity.pin(cpu);
+			} catch (RuntimeException | LinkageError e) {
+				affinity.completeExceptionally(e);
+				return false;
+			}
+		}
+
+		return affinity.complete(null);
+	}
+
+	/**
+	 * @return The number of the current loop iteration, updated only when migration is enabled
+	 */
+	long epoch() {
+		return (long) EPOCH.getAcquire(this);
+	}
+
+	/**
+	 * Count the cell which has been moved to the other thread.
+	 */
+	void migrated() {
+		counters.migrated++;
+	}
+
+	/**
+	 * @return True if thread is parked and there is nothing in its queues
+	 */
+	boolean isIdle() {
+		return parked && externalQueue.isEmpty() && internalQueue.isEmpty();
+	}
+
+	/**
+	 * Drop and count the envelopes left in the queues and the messages left in the inboxes of the
+	 * cells docked here, releasing the {@link Payload}s they hold. Must be invoked after the thread
+	 * has terminated.
+	 *
+	 * @return The number of messages discarded
+	 */
+	long discarded() {
+
+		drain(externalQueue, queue);
+		drain(internalQueue, queue);
+
+		var discarded = 0L;
+
+		for (final Envelope envelope : queue) {
+			envelope.discard();
+			if (envelope instanceof Batch) {
+				discarded += ((Batch) envelope).envelopes.length;
+			} else if (!(envelope instanceof Control)) {
+				discarded++;
+			}
+		}
+
+		queue.clear();
+
+		for (final ActorCell<? extends Actor> cell : dockedCells.values()) {
+			discarded += cell.discardPending();
+		}
+
+		return discarded;
+	}
+
+	/**
+	 * @return The {@link ThreadMetrics} of this thread, as published the last time
+	 */
+	ThreadMetrics metrics() {
+		return counters.snapshot(this);
+	}
+
+	/**
+	 * @return True if thread is parked
+	 */
+	boolean isParked() {
+		return parked;
 	}
 
 	private void park() {
+
+		final var event = new ThreadPark();
+
+		event.begin();
+
 		parked = true;
 		LockSupport.parkNanos(delay);
 		parked = false;
+
+		event.commit();
 	}
 
 	/**
@@ -124,6 +378,15 @@ public class ActorThread extends Thread implements Dispatcher {
 	private void wakeUp() {
 		if (parked) {
 			LockSupport.unpark(this);
+			recordUnpark();
+		}
+	}
+
+	private void recordUnpark() {
+		final var event = new ThreadUnpark();
+		if (event.shouldCommit()) {
+			event.thread = getName();
+			event.commit();
 		}
 	}
 
@@ -151,7 +414,6 @@ public class ActorThread extends Thread implements Dispatcher {
 
 	private int deliver(final Queue<Envelope> queue) {
 
-		final var thread = this;
 		var i = 0;
 
 		for (;;) {
@@ -159,22 +421,36 @@ public class ActorThread extends Thread implements Dispatcher {
 			final var envelope = queue.poll();
 			if (envelope == null) {
 				return i;
-			} else {
-				i++;
 			}
 
-			final var uuid = envelope.target.uuid();
-			if (uuid == ZERO_UUID) {
-				system.forwardToDeadLetters(envelope);
+			if (envelope instanceof Batch) {
+				for (final Envelope e : ((Batch) envelope).envelopes) {
+					deliver(e);
+					i++;
+				}
+			} else if (envelope instanceof Control) {
+				((Control) envelope).execute(migration);
+				i++;
+			} else {
+				deliver(envelope);
+				i++;
 			}
+		}
+	}
 
-			final var cell = activeCells.computeIfAbsent(uuid, thread::findCell);
+	private void deliver(final Envelope envelope) {
 
-			deliver(envelope, cell);
+		final var uuid = envelope.target.uuid();
+		if (uuid == ZERO_UUID) {
+			system.forwardToDeadLetters(envelope);
 		}
+
+		final var cell = activeCells.computeIfAbsent(uuid, this::findCell);
+
+		deliver(envelope, cell);
 	}
 
-	private int deliver(final Envelope envelope, final ActorCell<? extends Actor> target) {
+	int deliver(final Envelope envelope, final ActorCell<? extends Actor> target) {
 
 		if (target == null) {
 			return noCellFoundForTarget(envelope, target);
@@ -197,6 +473,36 @@ public class ActorThread extends Thread implements Dispatcher {
 
 	private int noCellFoundForTarget(final Envelope envelope, final ActorCell<? extends Actor> target) {
 
+		if (migration != null && (migration.hold(envelope) || forward(envelope))) {
+			return 1;
+		}
+
+		return undeliverable(envelope);
+	}
+
+	/**
+	 * Forward envelope to the thread the target cell has been moved to. The target
+	 * {@link ActorRef} was not updated when the cell was moved, so it is updated now and the
+	 * following messages told with it will go directly to the right thread.
+	 *
+	 * @param envelope the envelope with no target cell docked here
+	 * @return True if envelope was forwarded, false otherwise
+	 */
+	private boolean forward(final Envelope envelope) {
+
+		final var info = system.cells.get(envelope.target.uuid);
+		if (info == null || info.thread == this) {
+			return false;
+		}
+
+		envelope.target.heal(this, info.thread);
+		info.thread.deposit(envelope);
+
+		return true;
+	}
+
+	int undeliverable(final Envelope envelope) {
+
 		if (envelope.message instanceof Directive) {
 			((Directive) envelope.message).failed();
 		} else {
@@ -224,7 +530,9 @@ public class ActorThread extends Thread implements Dispatcher {
 				continue; // XXX this is edgy - there should not be null here, but there is
 			}
 
-			final var status = cell.process(throughput);
+			final var status = process(cell);
+
+			flushWakeUps();
 
 			if (status == COMPLETE) {
 				iterator.remove();
@@ -236,12 +544,36 @@ public class ActorThread extends Thread implements Dispatcher {
 		return i;
 	}
 
+	private ProcessingStatus process(final ActorCell<? extends Actor> cell) {
+
+		final var migration = this.migration;
+		if (migration == null) {
+			return cell.process(throughput);
+		}
+
+		processing = cell;
+
+		try {
+			return cell.process(throughput);
+		} finally {
+			processing = null;
+			migration.processed(cell);
+		}
+	}
+
 	@SuppressWarnings("rawtypes")
-	private ActorCell findCell(final long uuid) {
+	ActorCell findCell(final long uuid) {
 		return dockedCells.get(uuid);
 	}
 
-	public final void dock(final ActorCell<? extends Actor> cell) {
+	/**
+	 * Dock cell on this {@link ActorThread}.
+	 *
+	 * @param cell the {@link ActorCell} to dock
+	 * @return True if cell was docked, false if this thread is being retired and the cell has to
+	 *         be placed on the other one
+	 */
+	public final boolean dock(final ActorCell<? extends Actor> cell) {
 
 		final var uuid = cell.uuid();
 		final var overwritten = dockedCells.putIfAbsent(uuid, cell) != null;
@@ -249,6 +581,15 @@ public class ActorThread extends Thread implements Dispatcher {
 		if (overwritten) {
 			throw new IllegalStateException("Cell with ID " + uuid + " already docked on thread " + getName());
 		}
+
+		// retiring thread checks docked cells after it is marked, so one of us must see the other
+
+		if (retiring) {
+			dockedCells.remove(uuid);
+			return false;
+		}
+
+		return true;
 	}
 
 	/**
@@ -272,22 +613,173 @@ public class ActorThread extends Thread implements Dispatcher {
 	 */
 	@Override
 	public final void deposit(final Envelope envelope) {
-		if (this == currentThread()) {
-			deposit(envelope, internalQueue);
+
+		final var current = currentThread();
+
+		if (this == current) {
+			internalQueue.offer(envelope); // running, no need to wake up
+			if (migration != null) {
+				migration.sent(processing, this, envelope);
+			}
+		} else if (current instanceof ActorThread) {
+			final var sender = (ActorThread) current;
+			if (externalDeposits != null && retired) {
+				reroute(envelope);
+				return;
+			}
+			externalQueue.offer(envelope);
+			if (sender.node != node) {
+				sender.counters.crossNodeSent++;
+			}
+			if (sender.migration != null) {
+				sender.migration.sent(sender.processing, this, envelope);
+			}
+			sender.deferWakeUp(this);
+		} else if (system.terminating && system.reject(envelope)) {
+			// told from outside the system which is shutting down
+		} else if (externalDeposits != null) {
+			depositExternal(envelope);
+		} else {
+			externalQueue.offer(envelope);
+			wakeUp();
+		}
+	}
+
+	/**
+	 * Deposit envelope from the thread which is not an {@link ActorThread}. When target cell is
+	 * being moved, the source thread must know that the envelope is still being deposited, and the
+	 * envelope must not be deposited at all when target reference has been already switched.
+	 *
+	 * @param envelope the envelope with message
+	 */
+	private void depositExternal(final Envelope envelope) {
+
+		final var deposits = externalDeposits;
+
+		deposits.incrementAndGet();
+
+		final var retired = this.retired;
+		final var moved = retired || isMoved(envelope);
+		if (!moved) {
+			externalQueue.offer(envelope);
+		}
+
+		deposits.decrementAndGet();
+
+		if (retired) {
+			reroute(envelope);
+		} else if (moved) {
+			redeposit(envelope);
 		} else {
-			deposit(envelope, externalQueue);
+			wakeUp();
+		}
+	}
+
+	private boolean isMoved(final Envelope envelope) {
+
+		if (envelope instanceof Control) {
+			return false;
+		}
+
+		if (envelope instanceof Batch) {
+			for (final Envelope e : ((Batch) envelope).envelopes) {
+				if (e.target.thread != this) {
+					return true;
+				}
+			}
+			return false;
+		}
+
+		return envelope.target.thread != this;
+	}
+
+	private void redeposit(final Envelope envelope) {
+
+		if (envelope instanceof Batch) {
+			for (final Envelope e : ((Batch) envelope).envelopes) {
+				redeposit(e);
+			}
+			return;
+		}
+
+		final var dispatcher = envelope.target.dispatcher();
+		if (dispatcher == null) {
+			system.forwardToDeadLetters(envelope);
+		} else {
+			dispatcher.deposit(envelope);
+		}
+	}
+
+	/**
+	 * Reroute envelope deposited into this thread after it has been retired. All its cells have
+	 * been moved, so the envelope is forwarded to the thread its target cell is docked on now. The
+	 * control envelopes are dropped, as there is nothing left to be controlled here.
+	 *
+	 * @param envelope the envelope
+	 */
+	private void reroute(final Envelope envelope) {
+
+		if (envelope instanceof Batch) {
+			for (final Envelope e : ((Batch) envelope).envelopes) {
+				reroute(e);
+			}
+		} else if (!(envelope instanceof Control) && !forward(envelope)) {
+			undeliverable(envelope);
+		}
+	}
+
+	/**
+	 * Deposit all the envelopes with a single queue operation and at most one wake up. All the
+	 * envelopes must target cells docked on this thread.
+	 *
+	 * @param envelopes the envelopes to deposit
+	 */
+	@Override
+	public final void depositAll(final Envelope[] envelopes) {
+		if (envelopes.length == 1) {
+			deposit(envelopes[0]);
+		} else if (envelopes.length > 1) {
+			deposit(new Batch(envelopes));
 		}
 	}
 
 	/**
-	 * Deposit envelope into the specified queue.
+	 * Remember that given thread has to be woken up when the current cell's turn ends. Invoked
+	 * only by this thread, so there is no need to synchronize.
 	 *
-	 * @param envelope the envelope to deposit
-	 * @param queue the queue where it should be added
+	 * @param target the thread envelope was deposited into
 	 */
-	private void deposit(final Envelope envelope, final Queue<Envelope> queue) {
-		queue.offer(envelope);
-		wakeUp();
+	private void deferWakeUp(final ActorThread target) {
+
+		final var pending = pendingWakeUps;
+
+		for (int i = 0, n = pending.size(); i < n; i++) {
+			if (pending.get(i) == target) {
+				return;
+			}
+		}
+
+		pending.add(target);
+	}
+
+	/**
+	 * Wake up all the threads which were deposited into since the last flush, every one of them
+	 * only once.
+	 */
+	private void flushWakeUps() {
+
+		final var pending = pendingWakeUps;
+		final var n = pending.size();
+
+		if (n == 0) {
+			return;
+		}
+
+		for (int i = 0; i < n; i++) {
+			pending.get(i).wakeUp();
+		}
+
+		pending.clear();
 	}
 
 	public static void setMaxIdleLoopsCount(int maxIdleLoopsCount) {
@@ -328,6 +820,61 @@ public class ActorThread extends Thread implements Dispatcher {
 		}
 	}
 
+	/**
+	 * The run loop counters. They are plain fields written only by the owning {@link ActorThread},
+	 * so updating them costs no more than a local variable increment. The values are published to
+	 * the readers with the release store, but only when thread is about to park or every
+	 * {@value #PUBLISH_MASK} + 1 busy loops, so they may be slightly behind.
+	 */
+	private static final class Counters {
+
+		static final long PUBLISH_MASK = 1023;
+
+		private static final VarHandle PUBLISHED = MethodHandles.arrayElementVarHandle(long[].class);
+
+		private static final int BUSY_LOOPS = 0;
+		private static final int IDLE_LOOPS = 1;
+		private static final int PARKS = 2;
+		private static final int DRAINED = 3;
+		private static final int CROSS_NODE_SENT = 4;
+		private static final int MIGRATED = 5;
+
+		long busyLoops;
+		long idleLoops;
+		long parks;
+		long drained;
+		long crossNodeSent;
+		long migrated;
+
+		private final long[] published = new long[6];
+
+		void publish() {
+			PUBLISHED.setRelease(published, BUSY_LOOPS, busyLoops);
+			PUBLISHED.setRelease(published, IDLE_LOOPS, idleLoops);
+			PUBLISHED.setRelease(published, PARKS, parks);
+			PUBLISHED.setRelease(published, DRAINED, drained);
+			PUBLISHED.setRelease(published, CROSS_NODE_SENT, crossNodeSent);
+			PUBLISHED.setRelease(published, MIGRATED, migrated);
+		}
+
+		private long get(final int index) {
+			return (long) PUBLISHED.getAcquire(published, index);
+		}
+
+		ThreadMetrics snapshot(final ActorThread thread) {
+			return new ThreadMetrics(
+				thread.getName(),
+				thread.index,
+				thread.node,
+				get(BUSY_LOOPS),
+				get(IDLE_LOOPS),
+				get(PARKS),
+				get(DRAINED),
+				get(CROSS_NODE_SENT),
+				get(MIGRATED));
+		}
+	}
+
 	/**
 	 * Padded volatile boolean.
 	 */
@@ -1,80 +1,509 @@
 package com.github.sarxos.fastactor;
 
 import static com.github.sarxos.fastactor.Props.RUN_ON_ANY_THREAD;
+import static com.github.sarxos.fastactor.Props.RUN_ON_PARENT_THREAD;
 
+import java.util.Arrays;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.LockSupport;
 import java.util.function.Supplier;
 
 
 public class ActorThreadPool extends ThreadGroup {
 
+	/**
+	 * How often the governor of the elastic pool checks the load, in nanoseconds.
+	 */
+	static long period = TimeUnit.MILLISECONDS.toNanos(100);
+
+	/**
+	 * For how many checks in a row all the threads must be busy before the elastic pool grows.
+	 */
+	static int growAfter = 10;
+
+	/**
+	 * For how many checks in a row any of the threads must be idle before the elastic pool
+	 * shrinks.
+	 */
+	static int shrinkAfter = 100;
+
+	/**
+	 * The ratio of busy loops above which the thread is considered busy.
+	 */
+	private static final double BUSY = 0.75;
+
 	private final ActorThreadFactory factory;
 
+	private ActorSystem system;
 	private int parallelism;
-	private ActorThread[] threads;
+	private AtomicActorThreadsArray threads;
 	private int shift = 0;
 
+	/**
+	 * The number of threads new cells are placed on. In the elastic pool these are the threads
+	 * with indexes from 0 to size - 1, the thread with index equal to size may be retiring.
+	 */
+	private volatile int size;
+
+	/**
+	 * The CPUs the threads are bound to, or null when affinity is not configured.
+	 */
+	private int[] cpus;
+
+	/**
+	 * The NUMA topology threads are grouped by, or null when pool is not NUMA-aware.
+	 */
+	private NumaTopology topology;
+
+	/**
+	 * Threads grouped by the NUMA node, a single group when pool is not NUMA-aware.
+	 */
+	private volatile ActorThread[][] nodes;
+	private int[] nodeShifts;
+
+	/**
+	 * Are cells moved between the threads to co-locate the ones talking to each other.
+	 */
+	private boolean cellMigration;
+
+	/**
+	 * The minimum and maximum number of threads in the elastic pool, both 0 when pool is not
+	 * elastic.
+	 */
+	private int min;
+	private int max;
+
+	/**
+	 * How many idle loops the threads perform before they are parked, or -1 to use the
+	 * {@link ActorThread#setMaxIdleLoopsCount(int)} default.
+	 */
+	private int maxIdleLoopsCount = -1;
+
+	/**
+	 * Grows and shrinks the elastic pool, null when pool is not elastic.
+	 */
+	private Thread governor;
+
+	/**
+	 * Guards the cells arriving to the threads against the thread being retired.
+	 */
+	final Object lock = new Object();
+
 	public ActorThreadPool(final String name) {
 		super(name);
 		this.factory = new ActorThreadFactory(name);
 	}
 
+	/**
+	 * Bind threads of this pool to the given CPUs. The thread with index <i>i</i> is bound to
+	 * the <i>i</i>-th CPU from the list (modulo list length), so for the best isolation the list
+	 * should be as long as the pool parallelism. Supported only on Linux with JNA on the
+	 * classpath.
+	 *
+	 * @param cpuList the CPU list, e.g. <code>2-5,8</code>
+	 * @return This pool
+	 */
+	public ActorThreadPool withAffinity(final String cpuList) {
+		this.cpus = CpuAffinity.parse(cpuList);
+		return this;
+	}
+
+	/**
+	 * Make this pool NUMA-aware with the topology of this machine. See
+	 * {@link #withNumaTopology(String...)} for details.
+	 *
+	 * @return This pool
+	 */
+	public ActorThreadPool withNumaTopology() {
+		this.topology = NumaTopology.detect();
+		return this;
+	}
+
+	/**
+	 * Make this pool NUMA-aware with a given topology. The threads are grouped by node and the
+	 * actors which are not bound to any specific thread are created on the same node as the actor
+	 * creating them (which is usually their parent), so messages between them do not cross the
+	 * interconnect. The thread with affinity configured belongs to the node of its CPU. Otherwise
+	 * threads are assigned to the nodes round-robin by index, so the nodes stay balanced also when
+	 * the elastic pool grows and shrinks. This is useful to simulate multi-node topology on a
+	 * single-node machine, but note that the topology itself does not bind the threads to any CPU,
+	 * use {@link #withAffinity(String)} for that.
+	 *
+	 * @param cpuLists the CPU list of every node, the first one is node 0, e.g. <code>0-7</code>,
+	 *            <code>8-15</code>
+	 * @return This pool
+	 */
+	public ActorThreadPool withNumaTopology(final String... cpuLists) {
+		this.topology = NumaTopology.of(cpuLists);
+		return this;
+	}
+
+	/**
+	 * Move the actors which talk to each other a lot to the same thread, so their messages do not
+	 * cross the threads. The actors bound to the specific thread with
+	 * {@link Props#onThreadWithIndex(int)} are never moved. See {@link CellMigration} for details.
+	 *
+	 * @return This pool
+	 */
+	public ActorThreadPool withCellMigration() {
+		this.cellMigration = true;
+		return this;
+	}
+
+	/**
+	 * Make this pool grow and shrink with the load. The pool starts with the system parallelism
+	 * threads (but not less than min and not more than max). When all the threads are busy for
+	 * {@link #growAfter} checks in a row, a new thread is added and every other thread moves its
+	 * share of the active cells to it. When any of the threads is idle for {@link #shrinkAfter}
+	 * checks in a row, the last thread is retired. It moves all its cells to the remaining threads
+	 * (including the ones bound with {@link Props#onThreadWithIndex(int)}, since the index is
+	 * taken modulo the number of threads anyway) and terminates when the last of them has left.
+	 *
+	 * @param min the minimum number of threads
+	 * @param max the maximum number of threads
+	 * @return This pool
+	 */
+	public ActorThreadPool withElasticity(final int min, final int max) {
+
+		if (min < 1 || max < min) {
+			throw new IllegalArgumentException("Elastic pool requires 1 <= min <= max, but was min = " + min + ", max = " + max);
+		}
+
+		this.min = min;
+		this.max = max;
+
+		return this;
+	}
+
+	/**
+	 * Set how many idle loops the threads of this pool perform before they are parked, instead of
+	 * the {@link ActorThread#setMaxIdleLoopsCount(int)} default. Note that the thread which never
+	 * parks is never seen idle, so {@link ActorSystem#shutdown(java.time.Duration)} waits for it
+	 * until the timeout.
+	 *
+	 * @param maxIdleLoopsCount the number of idle loops, {@link Integer#MAX_VALUE} to never park
+	 * @return This pool
+	 */
+	public ActorThreadPool withMaxIdleLoopsCount(final int maxIdleLoopsCount) {
+
+		if (maxIdleLoopsCount < 0) {
+			throw new IllegalArgumentException("Max idle loops count must not be negative, but was " + maxIdleLoopsCount);
+		}
+
+		this.maxIdleLoopsCount = maxIdleLoopsCount;
+
+		return this;
+	}
+
+	int maxIdleLoopsCount() {
+		return maxIdleLoopsCount < 0 ? ActorThread.maxIdleLoopsCount : maxIdleLoopsCount;
+	}
+
+	boolean isCellMigrationEnabled() {
+		return cellMigration;
+	}
+
+	boolean isElastic() {
+		return max > 0;
+	}
+
 	void start(final ActorSystem system) {
 
-		this.parallelism = system.parallelism;
-		this.threads = new ActorThread[parallelism];
+		if (cpus != null && !CpuAffinity.isSupported()) {
+			throw new IllegalStateException("CPU affinity of the pool " + getName() + " is not supported on this platform");
+		}
+
+		this.system = system;
+		this.parallelism = isElastic() ? Math.max(min, Math.min(max, system.parallelism)) : system.parallelism;
+		this.threads = new AtomicActorThreadsArray(isElastic() ? max : parallelism);
 
 		// Create all threads.
 
 		for (int index = 0; index < parallelism; index++) {
-			threads[index] = newThread(system, index);
+			threads.set(index, newThread(index));
 		}
 
+		this.size = parallelism;
+
+		groupByNode();
+
 		// Start all threads.
 
 		for (int index = 0; index < parallelism; index++) {
-			threads[index].start();
+			threads.get(index).start();
+		}
+
+		// Threads bind themselves to the CPUs when started, make sure it succeeded.
+
+		for (int index = 0; index < parallelism; index++) {
+			try {
+				threads.get(index).affinity.join();
+			} catch (CompletionException e) {
+				shutdown().awaitTermination();
+				throw new IllegalStateException("Cannot start pool " + getName(), e.getCause());
+			}
+		}
+
+		if (isElastic()) {
+			governor = new Thread(this, new Governor(), getName() + "-governor@" + system.getName());
+			governor.setDaemon(true);
+			governor.start();
 		}
 	}
 
+	private int nodeOf(final ActorThread thread) {
+
+		if (topology == null) {
+			return 0;
+		}
+
+		if (thread.cpu < 0) {
+			return thread.index % topology.size();
+		}
+
+		final var node = topology.nodeOf(thread.cpu);
+		if (node < 0) {
+			throw new IllegalStateException("CPU " + thread.cpu + " of pool " + getName() + " does not belong to any node in " + topology);
+		}
+
+		return node;
+	}
+
+	private void groupByNode() {
+
+		final var count = topology == null ? 1 : topology.size();
+		final var active = Arrays.copyOf(getThreads(), size);
+		final var nodes = new ActorThread[count][];
+
+		for (int node = 0; node < count; node++) {
+			final var n = node;
+			nodes[node] = Arrays
+				.stream(active)
+				.filter(thread -> thread.node == n)
+				.toArray(ActorThread[]::new);
+		}
+
+		this.nodeShifts = new int[count];
+		this.nodes = nodes;
+	}
+
 	/**
-	 * For unit tests only!
+	 * For unit tests and metrics only!
 	 *
-	 * @return Threads allocated in this pool.
+	 * @return Threads allocated in this pool, including the one being retired
 	 */
 	ActorThread[] getThreads() {
-		return threads;
+
+		final var all = new ActorThread[threads.length()];
+
+		var n = 0;
+		for (int i = 0; i < all.length; i++) {
+			final var thread = threads.get(i);
+			if (thread != null) {
+				all[n++] = thread;
+			}
+		}
+
+		return n == all.length ? all : Arrays.copyOf(all, n);
 	}
 
-	private ActorThread newThread(final ActorSystem system, final int index) {
-		return factory.newThread(this, system, index);
+	private ActorThread newThread(final int index) {
+
+		final var thread = factory.newThread(this, system, index);
+
+		if (cpus != null) {
+			thread.cpu = cpus[index % cpus.length];
+		}
+
+		thread.node = nodeOf(thread);
+
+		return thread;
 	}
 
 	public Shutdown shutdown() {
 		return new Shutdown().execute();
 	}
 
-	public ActorCellInfo prepareCellInfo(final ActorSystem system, final Props<? extends Actor> props) {
+	public ActorCellInfo prepareCellInfo(final ActorSystem system, final Props<? extends Actor> props, final ActorRef parent) {
 
 		final var uuid = system.generateNextUuid();
-		final var index = getThreadIndex(props);
-		final var thread = threads[index];
+		final var index = getThreadIndex(props, parent);
+		final var thread = threads.get(index);
 
 		return new ActorCellInfo(this, thread, uuid);
 	}
 
-	private int getThreadIndex(final Props<? extends Actor> props) {
+	private int getThreadIndex(final Props<? extends Actor> props, final ActorRef parent) {
 
 		final var i = props.threadIndex;
-		final var p = parallelism;
+		final var p = size;
+
+		if (i == RUN_ON_PARENT_THREAD) {
+			final var dispatcher = parent.dispatcher();
+			if (dispatcher instanceof ActorThread && ((ActorThread) dispatcher).getThreadGroup() == this && ((ActorThread) dispatcher).index < p) {
+				return ((ActorThread) dispatcher).index;
+			}
+		}
 
-		if (i == RUN_ON_ANY_THREAD) {
-			return shift++ % p;
+		if (i == RUN_ON_ANY_THREAD || i == RUN_ON_PARENT_THREAD) {
+			return getNextThreadIndex(p);
 		} else {
 			return i % p;
 		}
 	}
 
+	/**
+	 * Select the next thread in the round-robin fashion. In the NUMA-aware pool the thread is
+	 * selected from the node of the actor thread creating the actor, so the creator and the
+	 * created actor (usually the parent and the child) talk to each other within the node.
+	 *
+	 * @param p the number of threads new cells are placed on
+	 * @return The index of the next thread
+	 */
+	private int getNextThreadIndex(final int p) {
+
+		final var nodes = this.nodes;
+
+		if (nodes.length > 1) {
+			final var current = Thread.currentThread();
+			if (current instanceof ActorThread && current.getThreadGroup() == this) {
+				final var node = ((ActorThread) current).node;
+				final var local = nodes[node];
+				if (local.length > 0) {
+					return local[nodeShifts[node]++ % local.length].index;
+				}
+			}
+		}
+
+		return shift++ % p;
+	}
+
+	/**
+	 * Select the thread the cell leaving the retiring thread is moved to.
+	 *
+	 * @return The next thread new cells are placed on
+	 */
+	ActorThread nextThread() {
+		return threads.get(getNextThreadIndex(size));
+	}
+
+	/**
+	 * Checks the load of the elastic pool periodically and grows or shrinks it. The thread is
+	 * busy when it has not been parked and spent most of its loops on the work since the last
+	 * check, or when it has not published any counters since then (it is stuck in the long
+	 * processing). The thread is idle when it has not done any work and is parked. The pool grows
+	 * and shrinks by one thread at a time and never while the previous thread is still retiring.
+	 */
+	private final class Governor implements Runnable {
+
+		private final long[] busyLoops = new long[threads.length()];
+		private final long[] idleLoops = new long[threads.length()];
+
+		private ActorThread retiring;
+		private int busyChecks;
+		private int idleChecks;
+
+		@Override
+		public void run() {
+			for (;;) {
+				LockSupport.parkNanos(period);
+				if (Thread.currentThread().isInterrupted()) {
+					return;
+				}
+				check();
+			}
+		}
+
+		private void check() {
+
+			if (retiring != null) {
+				if (retiring.isAlive()) {
+					return;
+				}
+				threads.set(retiring.index, null);
+				retiring = null;
+			}
+
+			final var n = size;
+
+			var allBusy = true;
+			var anyIdle = false;
+
+			for (int i = 0; i < n; i++) {
+
+				final var thread = threads.get(i);
+				final var metrics = thread.metrics();
+				final var busy = metrics.getBusyLoops() - busyLoops[i];
+				final var idle = metrics.getIdleLoops() - idleLoops[i];
+
+				busyLoops[i] = metrics.getBusyLoops();
+				idleLoops[i] = metrics.getIdleLoops();
+
+				if (busy + idle == 0) {
+					allBusy &= !thread.isParked();
+					anyIdle |= thread.isParked();
+				} else {
+					allBusy &= busy >= BUSY * (busy + idle);
+					anyIdle |= busy == 0 && thread.isParked();
+				}
+			}
+
+			busyChecks = allBusy ? busyChecks + 1 : 0;
+			idleChecks = anyIdle ? idleChecks + 1 : 0;
+
+			if (busyChecks >= growAfter && n < max) {
+				grow(n);
+			} else if (idleChecks >= shrinkAfter && n > min) {
+				shrink(n - 1);
+			}
+		}
+
+		private void grow(final int index) {
+
+			final var thread = threads.getOrCompute(index, () -> newThread(index));
+
+			thread.start();
+
+			try {
+				thread.affinity.join();
+			} catch (CompletionException e) {
+				threads.set(index, null);
+				return;
+			}
+
+			busyLoops[index] = 0;
+			idleLoops[index] = 0;
+			busyChecks = 0;
+			idleChecks = 0;
+
+			size = index + 1;
+			groupByNode();
+
+			// the new thread would get only the new cells, so the busy ones give it their share
+
+			for (int i = 0; i < index; i++) {
+				threads.get(i).deposit(new CellMigration.Rebalance(system.zero, thread, index + 1));
+			}
+		}
+
+		private void shrink(final int index) {
+
+			final var thread = threads.get(index);
+
+			busyChecks = 0;
+			idleChecks = 0;
+
+			size = index;
+			groupByNode();
+
+			thread.deposit(new CellMigration.Retirement(system.zero));
+
+			retiring = thread;
+		}
+	}
+
 	static class ActorCellInfo {
 
 		final ActorThreadPool pool;
@@ -99,6 +528,13 @@ public class ActorThreadPool extends ThreadGroup {
 			return thread.index;
 		}
 
+		/**
+		 * @return The NUMA node of the thread, always 0 if pool is not NUMA-aware
+		 */
+		public int getNode() {
+			return thread.node;
+		}
+
 		public long getUuid() {
 			return uuid;
 		}
@@ -113,6 +549,8 @@ public class ActorThreadPool extends ThreadGroup {
 				.append(thread.getName())
 				.append(", index = ")
 				.append(thread.index)
+				.append(", node = ")
+				.append(thread.node)
 				.append(", uuid = ")
 				.append(uuid)
 				.append(" ]")
@@ -124,8 +562,19 @@ public class ActorThreadPool extends ThreadGroup {
 
 		public Shutdown execute() {
 
-			for (int i = 0; i < threads.length; i++) {
-				final var t = threads[i];
+			// governor must not add the thread which would not be interrupted
+
+			if (governor != null) {
+				governor.interrupt();
+				try {
+					governor.join();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			}
+
+			for (int i = 0; i < threads.length(); i++) {
+				final var t = threads.get(i);
 				if (t != null) {
 					t.interrupt();
 				}
@@ -137,7 +586,7 @@ public class ActorThreadPool extends ThreadGroup {
 		public void awaitTermination() {
 			try {
 				do {
-					if (isAnyAlive(threads)) {
+					if (isAnyAlive(getThreads())) {
 						Thread.onSpinWait();
 						Thread.sleep(10);
 					} else {
@@ -0,0 +1,65 @@
+package com.github.sarxos.fastactor;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+
+
+/**
+ * Pool of direct {@link ByteBuffer}s of the same size. This class is not thread-safe, it should be
+ * used by a single thread only.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class BufferPool {
+
+	/**
+	 * How many free buffers to keep at most. Everything above is left for the GC.
+	 */
+	static final int MAX_FREE_BUFFERS = 64;
+
+	private final ArrayDeque<ByteBuffer> free = new ArrayDeque<>();
+	private final int size;
+
+	BufferPool(final int size) {
+		this.size = size;
+	}
+
+	/**
+	 * @return Cleared direct buffer of the pool size
+	 */
+	ByteBuffer acquire() {
+
+		final var buffer = free.poll();
+
+		if (buffer == null) {
+			return ByteBuffer.allocateDirect(size);
+		} else {
+			return buffer.clear();
+		}
+	}
+
+	/**
+	 * Acquire buffer which can hold at least given amount of bytes. Buffers bigger than the pool
+	 * size are not pooled.
+	 *
+	 * @param capacity the minimum capacity
+	 * @return Cleared direct buffer
+	 */
+	ByteBuffer acquire(final int capacity) {
+		if (capacity <= size) {
+			return acquire();
+		} else {
+			return ByteBuffer.allocateDirect(Integer.highestOneBit(capacity - 1) << 1);
+		}
+	}
+
+	void release(final ByteBuffer buffer) {
+		if (buffer.capacity() == size && free.size() < MAX_FREE_BUFFERS) {
+			free.push(buffer);
+		}
+	}
+
+	int size() {
+		return size;
+	}
+}
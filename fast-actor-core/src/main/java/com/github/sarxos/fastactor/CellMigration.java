@@ -0,0 +1,529 @@
+package com.github.sarxos.fastactor;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+
+/**
+ * Moves the {@link ActorCell}s between the {@link ActorThread}s of the same pool, so the actors
+ * which talk to each other a lot end up on the same thread and their messages go through the
+ * cheap internal queue instead of the external one. Every {@link ActorThread} of the pool with
+ * migration enabled has its own instance and it is never used by the other threads.
+ * <p>
+ * Every cell counts its sends with the majority vote over the target cells. A send to the cell on
+ * the other thread is a vote for that cell, a send to any other cell or to the cell on the same
+ * thread is a vote against. When the votes for a single peer reach the {@link #threshold}, the
+ * cell with the higher UUID moves to the thread of the other one, unless it cannot be moved, in
+ * which case the other one moves the opposite way. The cell to be moved is migrated by its owner
+ * thread in the following steps:
+ * <ol>
+ * <li>Destination thread is told to expect the cell. From now on it holds all the envelopes to the
+ * cell which arrive directly.</li>
+ * <li>The cell's {@link ActorRef} is switched to the destination thread, so the new messages are
+ * deposited there.</li>
+ * <li>Source thread keeps processing the cell until all the envelopes deposited into it with the
+ * old reference have been delivered, which is when every other thread finished its loop
+ * iteration (or is parked) and no foreign thread is in the middle of the deposit.</li>
+ * <li>The cell with its inbox is handed off to the destination thread, which docks it and
+ * delivers the held envelopes after the ones from the inbox.</li>
+ * </ol>
+ * This keeps the order of messages between every two actors. The envelopes arriving later to the
+ * source thread (told through other copies of the {@link ActorRef}) are forwarded to the
+ * destination and these copies are updated on the way.
+ * <p>
+ * The same steps are used by the elastic {@link ActorThreadPool} to give the share of the active
+ * cells to the thread which has been just added, and to move all the cells out of the thread which
+ * is being retired. No cell arrives to the retiring thread, so when the last of its cells has left
+ * it waits for one more grace period, forwards the envelopes which arrived in the meantime and
+ * terminates. The envelopes deposited later with the stale references are rerouted by the
+ * depositing thread itself.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class CellMigration {
+
+	/**
+	 * How many net sends to the same cell on the other thread make the cells co-located.
+	 */
+	static int threshold = 1024;
+
+	private final ActorThread thread;
+
+	/**
+	 * Are cells co-located by their traffic, false when only the elastic pool moves them.
+	 */
+	private final boolean colocate;
+
+	/**
+	 * The cells which are about to leave this thread, waiting for the in-flight envelopes.
+	 */
+	private final ArrayList<Departure> departures = new ArrayList<>(2);
+
+	/**
+	 * The envelopes held for the cells which are about to arrive to this thread.
+	 */
+	private final Long2ObjectMap<ArrayDeque<Envelope>> arrivals = new Long2ObjectOpenHashMap<>(2);
+
+	/**
+	 * Has the retiring thread drained its queues since it started evacuating.
+	 */
+	private boolean evacuating;
+
+	/**
+	 * The grace period after which the retired thread can terminate, null until it is retired.
+	 */
+	private Grace retirement;
+
+	CellMigration(final ActorThread thread, final boolean colocate) {
+		this.thread = thread;
+		this.colocate = colocate;
+	}
+
+	/**
+	 * The sends of a single cell, the majority vote over the target cells.
+	 */
+	static final class Traffic {
+
+		long peer;
+		ActorThread peerThread;
+		int votes;
+
+		void vote(final long uuid, final ActorThread target) {
+			if (votes == 0) {
+				peer = uuid;
+				peerThread = target;
+				votes = 1;
+			} else if (peer == uuid) {
+				peerThread = target;
+				votes++;
+			} else {
+				votes--;
+			}
+		}
+
+		void against() {
+			if (votes > 0) {
+				votes--;
+			}
+		}
+	}
+
+	/**
+	 * Count the send from the cell being processed on this thread.
+	 *
+	 * @param cell the cell being processed, or null if envelope is deposited on delivery
+	 * @param target the target thread
+	 * @param envelope the envelope deposited
+	 */
+	void sent(final ActorCell<? extends Actor> cell, final ActorThread target, final Envelope envelope) {
+
+		if (!colocate || cell == null || envelope instanceof Control) {
+			return;
+		}
+
+		var traffic = cell.traffic;
+		if (traffic == null) {
+			traffic = cell.traffic = new Traffic();
+		}
+
+		if (target == thread || target.migration == null || target.retiring || target.getThreadGroup() != thread.getThreadGroup()) {
+			traffic.against();
+		} else {
+			traffic.vote(envelope.target.uuid, target);
+		}
+	}
+
+	/**
+	 * Decide if the cell should be co-located with its peer, invoked after the cell's turn.
+	 *
+	 * @param cell the cell which has just been processed
+	 */
+	void processed(final ActorCell<? extends Actor> cell) {
+
+		final var traffic = cell.traffic;
+		if (traffic == null || traffic.votes < threshold) {
+			return;
+		}
+
+		final var peer = traffic.peer;
+		final var peerThread = traffic.peerThread;
+
+		traffic.votes = 0;
+
+		if (cell.uuid() < peer) {
+			peerThread.deposit(new Request(peer, thread, cell.self(), false));
+		} else if (!depart(cell, peerThread, false)) {
+			peerThread.deposit(new Request(peer, thread, cell.self(), true));
+		}
+	}
+
+	/**
+	 * Start moving the cell to the destination thread.
+	 *
+	 * @param cell the cell
+	 * @param destination the destination thread
+	 * @param force move also the cell which is suspended or bound to this thread
+	 * @return True if cell is leaving, false if it cannot be moved
+	 */
+	private boolean depart(final ActorCell<? extends Actor> cell, final ActorThread destination, final boolean force) {
+
+		if (!(force ? cell.isRunning() : cell.isMigratable()) || thread.findCell(cell.uuid()) != cell || isDeparting(cell)) {
+			return false;
+		}
+
+		final var self = cell.self();
+		final var system = thread.system;
+		final var pool = (ActorThreadPool) thread.getThreadGroup();
+
+		// the retiring thread must know about every cell which is about to arrive
+
+		synchronized (pool.lock) {
+
+			if (destination.retiring) {
+				return false;
+			}
+
+			destination.deposit(new Arrival(self));
+		}
+
+		self.thread = destination;
+		system.cells.put(self.uuid, new ActorThreadPool.ActorCellInfo(pool, destination, self.uuid));
+
+		departures.add(new Departure(cell, destination, new Grace()));
+
+		return true;
+	}
+
+	private boolean isDeparting(final ActorCell<? extends Actor> cell) {
+		for (int i = 0, n = departures.size(); i < n; i++) {
+			if (departures.get(i).cell == cell) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * @return True if there are cells waiting to leave this thread
+	 */
+	boolean hasDepartures() {
+		return !departures.isEmpty();
+	}
+
+	/**
+	 * Mark the departures for which all the envelopes deposited with the old {@link ActorRef} are
+	 * already in the queues of this thread. Must be invoked before the queues are drained.
+	 */
+	void settle() {
+		for (int i = 0, n = departures.size(); i < n; i++) {
+			final var departure = departures.get(i);
+			if (!departure.settled) {
+				departure.settled = departure.grace.isOver();
+			}
+		}
+	}
+
+	/**
+	 * Move the share of the cells to the thread which has been just added to the pool. The active
+	 * cells go first, since they are the ones keeping this thread busy.
+	 *
+	 * @param destination the new thread
+	 * @param size the number of threads in the pool, including the new one
+	 */
+	private void rebalance(final ActorThread destination, final int size) {
+
+		final var share = thread.dockedCells.size() / size;
+
+		var moved = 0;
+		for (final ActorCell<? extends Actor> cell : thread.activeCellsList) {
+			if (moved == share) {
+				return;
+			}
+			if (cell != null && depart(cell, destination, false)) {
+				moved++;
+			}
+		}
+		for (final ActorCell<? extends Actor> cell : thread.dockedCells.values()) {
+			if (moved == share) {
+				return;
+			}
+			if (depart(cell, destination, false)) {
+				moved++;
+			}
+		}
+	}
+
+	/**
+	 * Move the cells out of the retiring thread. Invoked by the retiring thread on every loop
+	 * iteration, before the queues are drained.
+	 *
+	 * @return True if the last envelopes can be forwarded and thread can terminate
+	 */
+	boolean evacuate() {
+
+		if (retirement != null) {
+			return retirement.isOver();
+		}
+
+		final var pool = (ActorThreadPool) thread.getThreadGroup();
+
+		for (final ActorCell<? extends Actor> cell : thread.dockedCells.values()) {
+			depart(cell, pool.nextThread(), true);
+		}
+
+		// the arrivals announced before thread started retiring are known after the next drain
+
+		if (!evacuating) {
+			evacuating = true;
+			return false;
+		}
+
+		if (thread.dockedCells.isEmpty() && departures.isEmpty() && arrivals.isEmpty()) {
+			thread.retired = true;
+			retirement = new Grace();
+		}
+
+		return false;
+	}
+
+	/**
+	 * The period after which all the envelopes deposited before it started are already in the
+	 * queues of this thread. It is over when every other thread finished the loop iteration it was
+	 * in (or is parked) and no foreign thread is in the middle of the deposit.
+	 */
+	private final class Grace {
+
+		final ActorThread[] threads;
+		final long[] epochs;
+
+		Grace() {
+
+			this.threads = thread.system.pools
+				.values()
+				.stream()
+				.flatMap(pool -> Arrays.stream(pool.getThreads()))
+				.toArray(ActorThread[]::new);
+
+			this.epochs = new long[threads.length];
+			for (int i = 0; i < threads.length; i++) {
+				epochs[i] = threads[i].epoch();
+			}
+		}
+
+		boolean isOver() {
+
+			if (thread.externalDeposits.get() > 0) {
+				return false;
+			}
+
+			for (int i = 0; i < threads.length; i++) {
+				final var other = threads[i];
+				if (other != thread && other.epoch() == epochs[i] && !other.isParked() && other.isAlive()) {
+					return false;
+				}
+			}
+
+			return true;
+		}
+	}
+
+	/**
+	 * Hand off the settled cells to their destination threads. Must be invoked after the drained
+	 * envelopes were delivered and before the cells are processed.
+	 */
+	void handOff() {
+
+		for (int i = 0; i < departures.size();) {
+
+			final var departure = departures.get(i);
+			if (!departure.settled) {
+				i++;
+				continue;
+			}
+
+			final var cell = departure.cell;
+			final var uuid = cell.uuid();
+
+			thread.remove(uuid);
+			thread.activeCells.remove(uuid);
+			departure.destination.deposit(new Handoff(cell));
+			departures.remove(i);
+
+			thread.migrated();
+		}
+	}
+
+	/**
+	 * Hold the envelope if its target cell is about to arrive to this thread.
+	 *
+	 * @param envelope the envelope with no target cell docked here
+	 * @return True if envelope was held, false otherwise
+	 */
+	boolean hold(final Envelope envelope) {
+
+		final var held = arrivals.get(envelope.target.uuid);
+		if (held == null) {
+			return false;
+		}
+
+		held.offer(envelope);
+
+		return true;
+	}
+
+	/**
+	 * The control {@link Envelope}s exchanged by the threads when the cell is moved. They are
+	 * deposited as any other envelope, so they are ordered with the messages.
+	 */
+	abstract static class Control extends Envelope {
+
+		Control(final ActorRef target) {
+			super(null, target, null);
+		}
+
+		abstract void execute(CellMigration migration);
+	}
+
+	/**
+	 * Tells the destination thread that the cell is about to arrive.
+	 */
+	static final class Arrival extends Control {
+
+		Arrival(final ActorRef target) {
+			super(target);
+		}
+
+		@Override
+		void execute(final CellMigration migration) {
+			migration.arrivals.putIfAbsent(target.uuid, new ArrayDeque<>());
+		}
+	}
+
+	/**
+	 * Moves the cell with its inbox to the destination thread.
+	 */
+	static final class Handoff extends Control {
+
+		final ActorCell<? extends Actor> cell;
+
+		Handoff(final ActorCell<? extends Actor> cell) {
+			super(cell.self());
+			this.cell = cell;
+		}
+
+		@Override
+		void execute(final CellMigration migration) {
+
+			final var thread = migration.thread;
+			final var held = migration.arrivals.remove(target.uuid);
+
+			// the cell could have been discarded before it left the source thread
+
+			if (!thread.system.cells.containsKey(target.uuid)) {
+				if (held != null) {
+					held.forEach(thread::undeliverable);
+				}
+				return;
+			}
+
+			thread.dock(cell);
+			thread.activeCells.put(target.uuid, cell);
+
+			if (held != null) {
+				held.forEach(envelope -> thread.deliver(envelope, cell));
+			}
+		}
+	}
+
+	/**
+	 * Asks the thread the cell is docked on to move it to the other thread. When the cell cannot be
+	 * moved (e.g. it is bound to the thread), the requesting cell is moved the opposite way instead.
+	 */
+	static final class Request extends Control {
+
+		final ActorThread destination;
+		final ActorRef requester;
+		final boolean fallback;
+
+		Request(final long uuid, final ActorThread destination, final ActorRef requester, final boolean fallback) {
+			super(new ActorRef(requester.system, (Dispatcher) null, uuid));
+			this.destination = destination;
+			this.requester = requester;
+			this.fallback = fallback;
+		}
+
+		@Override
+		void execute(final CellMigration migration) {
+
+			final var thread = migration.thread;
+			final var cell = thread.findCell(target.uuid);
+
+			if (cell != null && migration.depart(cell, destination, false)) {
+				return;
+			}
+			if (!fallback && cell != null) {
+				destination.deposit(new Request(requester.uuid, thread, target, true));
+			}
+		}
+	}
+
+	/**
+	 * Asks the thread to give the share of its active cells to the thread added to the pool.
+	 */
+	static final class Rebalance extends Control {
+
+		final ActorThread destination;
+		final int size;
+
+		Rebalance(final ActorRef zero, final ActorThread destination, final int size) {
+			super(zero);
+			this.destination = destination;
+			this.size = size;
+		}
+
+		@Override
+		void execute(final CellMigration migration) {
+			migration.rebalance(destination, size);
+		}
+	}
+
+	/**
+	 * Tells the thread it is being retired, so it moves all its cells out and terminates. From
+	 * now on no cell is moved to it.
+	 */
+	static final class Retirement extends Control {
+
+		Retirement(final ActorRef zero) {
+			super(zero);
+		}
+
+		@Override
+		void execute(final CellMigration migration) {
+
+			final var thread = migration.thread;
+
+			synchronized (((ActorThreadPool) thread.getThreadGroup()).lock) {
+				thread.retiring = true;
+			}
+		}
+	}
+
+	private static final class Departure {
+
+		final ActorCell<? extends Actor> cell;
+		final ActorThread destination;
+		final Grace grace;
+
+		boolean settled;
+
+		Departure(final ActorCell<? extends Actor> cell, final ActorThread destination, final Grace grace) {
+			this.cell = cell;
+			this.destination = destination;
+			this.grace = grace;
+		}
+	}
+}
@@ -0,0 +1,178 @@
+package com.github.sarxos.fastactor;
+
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.util.function.Function;
+
+
+/**
+ * Cluster sharding distributes entity actors, identified by the entity id, across many
+ * {@link ActorSystem}s (nodes) connected with the {@link RemoteTransport}. Entities are grouped in
+ * a fixed number of shards. Every node runs a shard region, which creates the entities of the
+ * shards it owns on demand, and there is a single shard coordinator deciding which region owns
+ * which shard.
+ * <p>
+ *
+ * Every region keeps the local copy of the shard to region table, so routing a message is a hash
+ * of the entity id and a single tell, either to the local entity or to the region owning its
+ * shard. Coordinator is asked only once per shard, the first time the region sees it. When a new
+ * region registers, the coordinator moves some shards from the most loaded regions to the new one
+ * and broadcasts the new owner to all the regions.
+ *
+ * <pre>
+ * final ActorRef coordinator = ClusterSharding.startCoordinator(system1);
+ * final ActorRef region1 = ClusterSharding.startRegion(system1, coordinator, 64, props, extractor);
+ *
+ * final ActorRef remoteCoordinator = system2.remote().actorFor(address1, coordinator.uuid());
+ * final ActorRef region2 = ClusterSharding.startRegion(system2, remoteCoordinator, 64, props, extractor);
+ *
+ * region2.tell(new Deposit("account-1", 100));
+ * </pre>
+ *
+ * Entities are not persistent, the entities of a shard which moves to another region are stopped
+ * and created again, with a fresh state, in the new region. The protocol messages are sent with
+ * the Java serialization, so it must not be disabled in {@link ActorSystem#serialization()}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public interface ClusterSharding {
+
+	/**
+	 * Extracts the entity id and the message to be delivered to the entity from the message sent
+	 * to the shard region.
+	 */
+	@FunctionalInterface
+	interface EntityExtractor {
+
+		/**
+		 * @param message the message sent to the shard region
+		 * @return The entity id or null when message cannot be routed to any entity
+		 */
+		String entityId(final Object message);
+
+		/**
+		 * @param message the message sent to the shard region
+		 * @return The message to be delivered to the entity (the same message by default)
+		 */
+		default Object entityMessage(final Object message) {
+			return message;
+		}
+	}
+
+	/**
+	 * Start the shard coordinator. There must be exactly one coordinator for all the regions of
+	 * the given entity type.
+	 *
+	 * @param system the {@link ActorSystem} to start coordinator in
+	 * @return The {@link ActorRef} of the coordinator
+	 */
+	static ActorRef startCoordinator(final ActorSystem system) {
+		return system.actorOf(Props.create(ShardCoordinator::new));
+	}
+
+	/**
+	 * Start the shard region. All the regions of the given entity type must be started with the
+	 * same number of shards.
+	 *
+	 * @param system the {@link ActorSystem} to start region in
+	 * @param coordinator the {@link ActorRef} of the shard coordinator (may be remote)
+	 * @param shards the number of shards
+	 * @param entityProps the function creating {@link Props} of the entity with a given id
+	 * @param extractor the {@link EntityExtractor}
+	 * @return The {@link ActorRef} of the region, all the messages to the entities should go there
+	 */
+	static ActorRef startRegion(
+		final ActorSystem system,
+		final ActorRef coordinator,
+		final int shards,
+		final Function<String, Props<?>> entityProps,
+		final EntityExtractor extractor) {
+
+		if (shards <= 0) {
+			throw new IllegalArgumentException("Number of shards must be positive, but is " + shards);
+		}
+		if (coordinator == null || entityProps == null || extractor == null) {
+			throw new IllegalArgumentException("Coordinator, entity props and extractor must not be null");
+		}
+
+		return system.actorOf(Props.create(() -> new ShardRegion(coordinator, shards, entityProps, extractor)));
+	}
+
+	/**
+	 * From region to coordinator. Register the sender as a new region. The address is the one the
+	 * other regions can reach the sender with (null if remoting is not enabled).
+	 */
+	final class Register implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final InetSocketAddress address;
+
+		Register(final InetSocketAddress address) {
+			this.address = address;
+		}
+	}
+
+	/**
+	 * From region to coordinator. Ask which region owns the given shard.
+	 */
+	final class GetShardHome implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final int shard;
+
+		GetShardHome(final int shard) {
+			this.shard = shard;
+		}
+	}
+
+	/**
+	 * From coordinator to regions. The given shard is owned by the region with a given address and
+	 * uuid.
+	 */
+	final class ShardHome implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final int shard;
+		final InetSocketAddress address;
+		final long uuid;
+
+		ShardHome(final int shard, final InetSocketAddress address, final long uuid) {
+			this.shard = shard;
+			this.address = address;
+			this.uuid = uuid;
+		}
+	}
+
+	/**
+	 * From coordinator to region. Stop all the entities of the given shard because it moves to
+	 * another region. Region confirms with {@link ShardStopped}.
+	 */
+	final class HandOff implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final int shard;
+
+		HandOff(final int shard) {
+			this.shard = shard;
+		}
+	}
+
+	/**
+	 * From region to coordinator. The entities of the given shard has been stopped and all of them
+	 * have terminated.
+	 */
+	final class ShardStopped implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final int shard;
+
+		ShardStopped(final int shard) {
+			this.shard = shard;
+		}
+	}
+}
@@ -0,0 +1,129 @@
+package com.github.sarxos.fastactor;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+import com.sun.jna.LastErrorException;
+import com.sun.jna.Library;
+import com.sun.jna.Native;
+
+
+/**
+ * Binds the {@link ActorThread} to the CPU core with the Linux <code>sched_setaffinity</code>
+ * system call, so the OS does not migrate it between the cores. The JNA library is an optional
+ * dependency and is required only when affinity is configured for any {@link ActorThreadPool}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class CpuAffinity {
+
+	/**
+	 * The number of CPUs the mask can hold, the same as <code>CPU_SETSIZE</code> in glibc.
+	 */
+	static final int CPU_SETSIZE = 1024;
+
+	private CpuAffinity() {
+		// utility class
+	}
+
+	/**
+	 * Parse CPU list in the format used by the Linux kernel and <code>taskset</code>, e.g.
+	 * <code>0-3,8,10-11</code>.
+	 *
+	 * @param cpuList the CPU list
+	 * @return The CPUs numbers in the order they were listed
+	 */
+	static int[] parse(final String cpuList) {
+
+		if (cpuList == null || cpuList.isBlank()) {
+			throw new IllegalArgumentException("CPU list must not be empty");
+		}
+
+		return Arrays
+			.stream(cpuList.split(","))
+			.map(String::trim)
+			.flatMapToInt(range -> {
+
+				final var dash = range.indexOf('-');
+				final var from = parseCpu(dash < 0 ? range : range.substring(0, dash), cpuList);
+				final var to = dash < 0 ? from : parseCpu(range.substring(dash + 1), cpuList);
+
+				if (to < from) {
+					throw new IllegalArgumentException("Invalid CPU range " + range + " in " + cpuList);
+				}
+
+				return IntStream.rangeClosed(from, to);
+			})
+			.toArray();
+	}
+
+	private static int parseCpu(final String cpu, final String cpuList) {
+
+		final int number;
+		try {
+			number = Integer.parseInt(cpu.trim());
+		} catch (NumberFormatException e) {
+			throw new IllegalArgumentException("Invalid CPU " + cpu + " in " + cpuList, e);
+		}
+
+		if (number < 0 || number >= CPU_SETSIZE) {
+			throw new IllegalArgumentException("CPU must be between 0 and " + (CPU_SETSIZE - 1) + ", but is " + number);
+		}
+
+		return number;
+	}
+
+	/**
+	 * @return True if threads can be bound to the CPUs on this platform
+	 */
+	static boolean isSupported() {
+
+		if (!System.getProperty("os.name", "").startsWith("Linux")) {
+			return false;
+		}
+
+		try {
+			Class.forName("com.sun.jna.Native", false, CpuAffinity.class.getClassLoader());
+			return true;
+		} catch (ClassNotFoundException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Bind the current thread to a given CPU.
+	 *
+	 * @param cpu the CPU number
+	 * @throws IllegalStateException when the system call failed, e.g. CPU does not exist or is not
+	 *             available for this process
+	 */
+	static void pin(final int cpu) {
+		LibC.pin(cpu);
+	}
+
+	/**
+	 * All the JNA references are kept in this class, so JNA is not loaded until affinity is used
+	 * and is not required at all otherwise.
+	 */
+	private static final class LibC {
+
+		private interface C extends Library {
+
+			C INSTANCE = Native.load("c", C.class);
+
+			int sched_setaffinity(final int pid, final int cpusetsize, final long[] mask) throws LastErrorException;
+		}
+
+		static void pin(final int cpu) {
+
+			final var mask = new long[CPU_SETSIZE / Long.SIZE];
+			mask[cpu / Long.SIZE] |= 1L << (cpu % Long.SIZE);
+
+			try {
+				C.INSTANCE.sched_setaffinity(0, mask.length * Long.BYTES, mask);
+			} catch (LastErrorException e) {
+				throw new IllegalStateException("Cannot bind thread " + Thread.currentThread().getName() + " to CPU " + cpu + ", error " + e.getErrorCode(), e);
+			}
+		}
+	}
+}
@@ -50,6 +50,11 @@ class DeadLettersActor extends Actor implements Events {
 	@Override
 	public Receive receive() {
 		return super.receive()
-			.match(DeadLetter.class, this::emitEvent);
+			.match(DeadLetter.class, this::onDeadLetter);
+	}
+
+	private void onDeadLetter(final DeadLetter letter) {
+		Payload.retain(letter);
+		emitEvent(letter);
 	}
 }
@@ -2,8 +2,6 @@ package com.github.sarxos.fastactor;
 
 import com.github.sarxos.fastactor.DeathWatch.Terminated;
 
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
-
 
 interface DeathWatch extends ActorContext {
 
@@ -80,14 +78,14 @@ interface DeathWatch extends ActorContext {
 	}
 
 	/**
-	 * @return UUIDs of the actors who are watching this one.
+	 * @return The actors who are watching this one.
 	 */
-	LongOpenHashSet watchers();
+	ActorRefSet watchers();
 
 	/**
-	 * @return UUIDs of the actors who are watched by this one.
+	 * @return The actors who are watched by this one.
 	 */
-	LongOpenHashSet watchees();
+	ActorRefSet watchees();
 
 	/**
 	 * Watch the {@link ActorCell} given by the {@link ActorRef}.
@@ -107,24 +105,20 @@ interface DeathWatch extends ActorContext {
 		return watchee;
 	}
 
-	default boolean addWatcher(final ActorRef ref) {
-		return watchers().add(ref.uuid());
-	}
+	boolean addWatcher(final ActorRef ref);
 
 	default boolean removeWatcher(final ActorRef ref) {
-		return watchers().remove(ref.uuid());
+		return watchers().remove(ref);
 	}
 
 	default boolean hasWatchers() {
 		return !watchers().isEmpty();
 	}
 
-	default boolean addWatchee(final ActorRef ref) {
-		return watchees().add(ref.uuid());
-	}
+	boolean addWatchee(final ActorRef ref);
 
 	default boolean removeWatchee(final ActorRef ref) {
-		return watchees().remove(ref.uuid());
+		return watchees().remove(ref);
 	}
 
 	default boolean hasWatchees() {
@@ -134,17 +128,9 @@ interface DeathWatch extends ActorContext {
 	default void sendTerminatedToWatchers() {
 
 		final var self = self();
-		final var system = system();
 		final var terminated = new Terminated(self);
-		final var iterator = watchers().iterator();
-
-		while (iterator.hasNext()) {
-
-			// XXX PERF rework this class to hold ActorRef instead of long uuids
-
-			final var watcherUuid = iterator.nextLong();
-			final var watcher = system.find(watcherUuid);
 
+		for (final ActorRef watcher : watchers()) {
 			watcher.tell(terminated, self);
 		}
 	}
@@ -152,12 +138,8 @@ interface DeathWatch extends ActorContext {
 	default void unwatchAllWatchees() {
 
 		final var watcher = self();
-		final var system = system();
-		final var iterator = watchees().iterator();
 
-		while (iterator.hasNext()) {
-			final var uuid = iterator.nextLong();
-			final var watchee = system.find(uuid);
+		for (final ActorRef watchee : watchees()) {
 			new UnwatchProtocol(watcher, watchee).initiate();
 		}
 	}
@@ -8,4 +8,16 @@ package com.github.sarxos.fastactor;
 public interface Dispatcher {
 
 	void deposit(final Envelope envelope);
+
+	/**
+	 * Deposit many envelopes at once, preserving their order. The default implementation deposits
+	 * them one by one.
+	 *
+	 * @param envelopes the envelopes to deposit
+	 */
+	default void depositAll(final Envelope[] envelopes) {
+		for (final Envelope envelope : envelopes) {
+			deposit(envelope);
+		}
+	}
 }
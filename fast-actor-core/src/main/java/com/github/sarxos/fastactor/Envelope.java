@@ -23,11 +23,127 @@ class Envelope {
 		this.sender = sender;
 	}
 
+	/**
+	 * @return The message as an object, boxed when it has been told as primitive
+	 */
+	Object payload() {
+		return message;
+	}
+
+	/**
+	 * @return The class of the message, the primitive one when it has been told as primitive
+	 */
+	Class<?> messageClass() {
+		return message == null ? null : message.getClass();
+	}
+
+	/**
+	 * Drop the {@link Payload} reference held by the message which will not be processed.
+	 */
+	void discard() {
+		final var payload = Payload.of(message);
+		if (payload != null) {
+			payload.tryRelease();
+		}
+	}
+
+	/**
+	 * The {@link Envelope} sampled for latency measurement. It carries the time it was created at,
+	 * so the time spent in the queues can be recorded when message is processed. Only sampled
+	 * messages pay for the timestamp.
+	 */
+	static final class Timestamped extends Envelope {
+
+		/**
+		 * The {@link System#nanoTime()} when envelope was created.
+		 */
+		final long timestamp;
+
+		Timestamped(final Object message, final ActorRef target, final ActorRef sender, final long timestamp) {
+			super(message, target, sender);
+			this.timestamp = timestamp;
+		}
+	}
+
+	/**
+	 * The {@link Envelope} carrying the long value without boxing. It is delivered to the
+	 * {@link Receive#matchLong(java.util.function.LongConsumer)} consumer as it is, and boxed only
+	 * when it has to be seen as an object, i.e. when actor does not match longs, when it goes to
+	 * the dead letters, or when it is serialized by the transport.
+	 */
+	static final class OfLong extends Envelope {
+
+		/**
+		 * Stands for the message, so the checks of the message type do not need a special case.
+		 */
+		private static final Object PRIMITIVE = new Object();
+
+		final long value;
+
+		OfLong(final long value, final ActorRef target, final ActorRef sender) {
+			super(PRIMITIVE, target, sender);
+			this.value = value;
+		}
+
+		@Override
+		Object payload() {
+			return Long.valueOf(value);
+		}
+
+		@Override
+		Class<?> messageClass() {
+			return long.class;
+		}
+	}
+
+	/**
+	 * Many envelopes deposited into the {@link ActorThread} queue with a single queue operation.
+	 * The {@link ActorThread} unpacks it and delivers all the envelopes at once, so the messages to
+	 * the same actor are contiguous in its inbox. The envelopes can have different targets, but
+	 * all of them must be docked on the same thread.
+	 */
+	static final class Batch extends Envelope {
+
+		final Envelope[] envelopes;
+
+		Batch(final Envelope[] envelopes) {
+			super(null, envelopes[0].target, null);
+			this.envelopes = envelopes;
+		}
+
+		/**
+		 * @return The class of the envelopes array, batch does not carry the message itself
+		 */
+		@Override
+		Class<?> messageClass() {
+			return Envelope[].class;
+		}
+
+		@Override
+		void discard() {
+			for (final Envelope envelope : envelopes) {
+				envelope.discard();
+			}
+		}
+
+		@Override
+		public String toString() {
+			return new StringBuilder()
+				.append(getClass().getName())
+				.append("[ envelopes = ")
+				.append(envelopes.length)
+				.append(", to = ")
+				.append(target)
+				.append("]")
+				.toString();
+		}
+	}
+
 	@Override
 	public String toString() {
 
 		final String envelopeClass = getClass().getName();
-		final String messageClass = message.getClass().getName();
+		final String messageClass = messageClass().getName();
 		final String senderRef = sender.toString();
 		final String targetRef = target.toString();
 
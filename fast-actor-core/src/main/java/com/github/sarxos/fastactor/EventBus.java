@@ -181,9 +181,12 @@ class EventBusActor extends Actor implements Base {
 		final var value = event.value;
 		final var emitter = event.emitter;
 
-		return subscriber -> system()
-			.find(subscriber)
-			.tell(value, emitter);
+		return subscriber -> {
+			Payload.retain(value);
+			system()
+				.find(subscriber)
+				.tell(value, emitter);
+		};
 	}
 
 	private LongOpenHashSet getSubscribersFor(final Class<?> type) {
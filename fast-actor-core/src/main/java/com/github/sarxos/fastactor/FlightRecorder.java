@@ -0,0 +1,128 @@
+package com.github.sarxos.fastactor;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+
+/**
+ * The JDK Flight Recorder events emitted by the {@link ActorThread} and {@link ActorCell}. When
+ * the recording is not running (or when the event is disabled in the recording settings), the
+ * event objects are never committed and JIT removes their allocation, so the overhead is near
+ * zero. Events can be enabled with the standard JFR configuration, by their names, e.g.
+ * <code>com.github.sarxos.fastactor.MessageProcessed#enabled=true</code>.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class FlightRecorder {
+
+	static final String CATEGORY = "Fast Actor";
+
+	/**
+	 * The inbox depth above which {@link MailboxHighWaterMark} event is emitted, every time the
+	 * depth reaches the next power of two.
+	 */
+	static final int MAILBOX_HIGH_WATER_MARK = 1024;
+
+	private FlightRecorder() {
+		// utility class
+	}
+
+	@Name("com.github.sarxos.fastactor.MessageProcessed")
+	@Label("Message Processed")
+	@Description("Message processed by the actor")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class MessageProcessed extends Event {
+
+		@Label("Actor Class")
+		Class<?> actorClass;
+
+		@Label("Message Class")
+		Class<?> messageClass;
+
+		@Label("Actor UUID")
+		long uuid;
+	}
+
+	@Name("com.github.sarxos.fastactor.ThreadPark")
+	@Label("Actor Thread Park")
+	@Description("Actor thread parked after too many idle loops")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class ThreadPark extends Event {
+	}
+
+	@Name("com.github.sarxos.fastactor.ThreadUnpark")
+	@Label("Actor Thread Unpark")
+	@Description("Parked actor thread woken up because new message has been deposited")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class ThreadUnpark extends Event {
+
+		@Label("Actor Thread")
+		String thread;
+	}
+
+	@Name("com.github.sarxos.fastactor.CellStarted")
+	@Label("Actor Started")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class CellStarted extends Event {
+
+		@Label("Actor Class")
+		Class<?> actorClass;
+
+		@Label("Actor UUID")
+		long uuid;
+	}
+
+	@Name("com.github.sarxos.fastactor.CellStopped")
+	@Label("Actor Stopped")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class CellStopped extends Event {
+
+		@Label("Actor Class")
+		Class<?> actorClass;
+
+		@Label("Actor UUID")
+		long uuid;
+	}
+
+	@Name("com.github.sarxos.fastactor.DeadLetter")
+	@Label("Dead Letter")
+	@Description("Message could not be delivered to its target")
+	@Category(CATEGORY)
+	static final class DeadLetter extends Event {
+
+		@Label("Message Class")
+		Class<?> messageClass;
+
+		@Label("Target")
+		String target;
+
+		@Label("Sender")
+		String sender;
+	}
+
+	@Name("com.github.sarxos.fastactor.MailboxHighWaterMark")
+	@Label("Mailbox High Water Mark")
+	@Description("Actor inbox depth reached the next power of two above the high water mark")
+	@Category(CATEGORY)
+	@StackTrace(false)
+	static final class MailboxHighWaterMark extends Event {
+
+		@Label("Actor Class")
+		Class<?> actorClass;
+
+		@Label("Actor UUID")
+		long uuid;
+
+		@Label("Inbox Depth")
+		int depth;
+	}
+}
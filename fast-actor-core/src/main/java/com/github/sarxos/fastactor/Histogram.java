@@ -0,0 +1,104 @@
+package com.github.sarxos.fastactor;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+
+/**
+ * Lock-free log-linear histogram of the nanosecond values, in the spirit of the HDR histogram.
+ * Values are grouped in buckets by the power of two and every bucket is split into
+ * {@value #SUB_BUCKETS} linear sub-buckets, so the relative error is below 100 / 32 = ~3% in the
+ * whole range of long values, with a fixed memory footprint.
+ * <p>
+ *
+ * The histogram has a single writer (the {@link ActorThread} owning it), which updates counters
+ * with plain read and release store, and many readers which take the {@link HistogramSnapshot}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class Histogram {
+
+	static final int SUB_BUCKET_BITS = 5;
+	static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+
+	/**
+	 * Values below this one are recorded exactly, one per counter.
+	 */
+	private static final int LINEAR_LIMIT = SUB_BUCKETS * 2;
+
+	static final int LENGTH = indexOf(Long.MAX_VALUE) + 1;
+
+	private final AtomicLongArray counts = new AtomicLongArray(LENGTH);
+
+	/**
+	 * Record single value. Must be invoked only by the owning thread.
+	 *
+	 * @param value the value (negative values are recorded as zero)
+	 */
+	void record(final long value) {
+		final int index = indexOf(Math.max(0, value));
+		counts.setRelease(index, counts.getPlain(index) + 1);
+	}
+
+	/**
+	 * Add counters of this histogram to the given array, the snapshot of all the histograms of the
+	 * same kind is a sum of them.
+	 *
+	 * @param target the target counters array
+	 */
+	void addTo(final long[] target) {
+		for (int i = 0; i < LENGTH; i++) {
+			target[i] += counts.getAcquire(i);
+		}
+	}
+
+	HistogramSnapshot snapshot() {
+		final var target = new long[LENGTH];
+		addTo(target);
+		return new HistogramSnapshot(target);
+	}
+
+	static int indexOf(final long value) {
+
+		if (value < LINEAR_LIMIT) {
+			return (int) value;
+		}
+
+		final int exponent = 63 - Long.numberOfLeadingZeros(value);
+		final int shift = exponent - SUB_BUCKET_BITS;
+		final int sub = (int) (value >>> shift) - SUB_BUCKETS;
+
+		return (shift + 1) * SUB_BUCKETS + sub;
+	}
+
+	/**
+	 * @param index the counter index
+	 * @return The highest value recorded in the counter with a given index
+	 */
+	static long highestValueAt(final int index) {
+
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+
+		final int shift = index / SUB_BUCKETS - 1;
+		final long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+
+		return ((sub + 1) << shift) - 1;
+	}
+
+	/**
+	 * @param index the counter index
+	 * @return The lowest value recorded in the counter with a given index
+	 */
+	static long lowestValueAt(final int index) {
+
+		if (index < LINEAR_LIMIT) {
+			return index;
+		}
+
+		final int shift = index / SUB_BUCKETS - 1;
+		final long sub = index % SUB_BUCKETS + SUB_BUCKETS;
+
+		return sub << shift;
+	}
+}
@@ -0,0 +1,118 @@
+package com.github.sarxos.fastactor;
+
+/**
+ * Immutable copy of the latency histogram counters. All values are in nanoseconds and, because
+ * they are grouped in buckets, they are precise up to ~3%.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class HistogramSnapshot {
+
+	private final long[] counts;
+	private final long count;
+
+	HistogramSnapshot(final long[] counts) {
+
+		var count = 0L;
+		for (final long c : counts) {
+			count += c;
+		}
+
+		this.counts = counts;
+		this.count = count;
+	}
+
+	/**
+	 * @return How many values were recorded
+	 */
+	public long getCount() {
+		return count;
+	}
+
+	/**
+	 * @param percentile the percentile, between 0 and 100
+	 * @return The value below or equal to which the given percent of the recorded values fall
+	 */
+	public long getValueAtPercentile(final double percentile) {
+
+		if (percentile < 0 || percentile > 100) {
+			throw new IllegalArgumentException("Percentile must be between 0 and 100, but is " + percentile);
+		}
+		if (count == 0) {
+			return 0;
+		}
+
+		final long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+
+		var seen = 0L;
+		for (int i = 0; i < counts.length; i++) {
+			if ((seen += counts[i]) >= rank) {
+				return Histogram.highestValueAt(i);
+			}
+		}
+
+		return getMax();
+	}
+
+	/**
+	 * @return The highest recorded value
+	 */
+	public long getMax() {
+		for (int i = counts.length - 1; i >= 0; i--) {
+			if (counts[i] > 0) {
+				return Histogram.highestValueAt(i);
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return The mean of the recorded values
+	 */
+	public double getMean() {
+
+		if (count == 0) {
+			return 0;
+		}
+
+		var sum = 0.0;
+		for (int i = 0; i < counts.length; i++) {
+			if (counts[i] > 0) {
+				final double middle = (Histogram.lowestValueAt(i) + Histogram.highestValueAt(i)) / 2.0;
+				sum += middle * counts[i];
+			}
+		}
+
+		return sum / count;
+	}
+
+	public long getP50() {
+		return getValueAtPercentile(50);
+	}
+
+	public long getP99() {
+		return getValueAtPercentile(99);
+	}
+
+	public long getP999() {
+		return getValueAtPercentile(99.9);
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder()
+			.append(getClass().getSimpleName())
+			.append("[ count = ")
+			.append(count)
+			.append(", p50 = ")
+			.append(getP50())
+			.append(", p99 = ")
+			.append(getP99())
+			.append(", p999 = ")
+			.append(getP999())
+			.append(", max = ")
+			.append(getMax())
+			.append(" ]")
+			.toString();
+	}
+}
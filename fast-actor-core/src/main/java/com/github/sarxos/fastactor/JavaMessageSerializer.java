@@ -0,0 +1,114 @@
+package com.github.sarxos.fastactor;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+
+
+/**
+ * The {@link MessageSerializer} using the Java built-in serialization. It works with every
+ * {@link java.io.Serializable} message, but it's slow and produces large output. Use it only as a
+ * fallback.
+ * <p>
+ * Deserialization of the untrusted input instantiates any class found on the classpath, so the
+ * input coming from the network must be checked with the {@link ObjectInputFilter} allowing only
+ * the expected classes. Without the filter given in the constructor the JVM-wide filter is used
+ * (if any).
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class JavaMessageSerializer implements MessageSerializer {
+
+	private final ObjectInputFilter filter;
+
+	public JavaMessageSerializer() {
+		this(null);
+	}
+
+	/**
+	 * @param filter the filter every deserialized class is checked with, null for JVM-wide one
+	 */
+	public JavaMessageSerializer(final ObjectInputFilter filter) {
+		this.filter = filter;
+	}
+
+	@Override
+	public void serialize(final Object message, final ByteBuffer buffer) {
+		try (final var oos = new ObjectOutputStream(new ByteBufferOutputStream(buffer))) {
+			oos.writeObject(message);
+		} catch (IOException e) {
+			throw new IllegalArgumentException("Cannot serialize " + message.getClass(), e);
+		}
+	}
+
+	@Override
+	public Object deserialize(final ByteBuffer buffer) {
+		try (final var ois = new ObjectInputStream(new ByteBufferInputStream(buffer))) {
+			if (filter != null) {
+				ois.setObjectInputFilter(filter);
+			}
+			return ois.readObject();
+		} catch (IOException | ClassNotFoundException e) {
+			throw new IllegalArgumentException("Cannot deserialize message", e);
+		}
+	}
+
+	/**
+	 * Writes directly into the {@link ByteBuffer}. Overflow is not handled here, the
+	 * {@link java.nio.BufferOverflowException} is propagated to the caller.
+	 */
+	static final class ByteBufferOutputStream extends OutputStream {
+
+		final ByteBuffer buffer;
+
+		ByteBufferOutputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public void write(final int b) {
+			buffer.put((byte) b);
+		}
+
+		@Override
+		public void write(final byte[] bytes, final int offset, final int length) {
+			buffer.put(bytes, offset, length);
+		}
+	}
+
+	static final class ByteBufferInputStream extends InputStream {
+
+		final ByteBuffer buffer;
+
+		ByteBufferInputStream(final ByteBuffer buffer) {
+			this.buffer = buffer;
+		}
+
+		@Override
+		public int read() {
+			return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+		}
+
+		@Override
+		public int read(final byte[] bytes, final int offset, final int length) {
+
+			if (!buffer.hasRemaining()) {
+				return -1;
+			}
+
+			final int n = Math.min(length, buffer.remaining());
+			buffer.get(bytes, offset, n);
+
+			return n;
+		}
+
+		@Override
+		public int available() {
+			return buffer.remaining();
+		}
+	}
+}
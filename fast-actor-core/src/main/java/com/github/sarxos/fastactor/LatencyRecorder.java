@@ -0,0 +1,46 @@
+package com.github.sarxos.fastactor;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+
+/**
+ * Records the latency of the sampled messages processed by a single {@link ActorThread}: the time
+ * message waited in the queues and the inbox, and the time it took actor to process it. Values
+ * are recorded per thread and per actor class. Only the owning thread records, so the histograms
+ * are never contended, and the snapshot for the actor class is a sum of the histograms from all
+ * the threads.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class LatencyRecorder {
+
+	final Histograms total = new Histograms();
+	final ConcurrentHashMap<Class<?>, Histograms> byActorClass = new ConcurrentHashMap<>();
+
+	/**
+	 * @param actorClass the class of the actor which processed the message
+	 * @param queueWait how long message waited before being processed
+	 * @param processing how long it took to process the message
+	 */
+	void record(final Class<?> actorClass, final long queueWait, final long processing) {
+
+		var histograms = byActorClass.get(actorClass);
+		if (histograms == null) {
+			byActorClass.put(actorClass, histograms = new Histograms());
+		}
+
+		histograms.record(queueWait, processing);
+		total.record(queueWait, processing);
+	}
+
+	static final class Histograms {
+
+		final Histogram queueWait = new Histogram();
+		final Histogram processing = new Histogram();
+
+		void record(final long queueWait, final long processing) {
+			this.queueWait.record(queueWait);
+			this.processing.record(processing);
+		}
+	}
+}
@@ -0,0 +1,238 @@
+package com.github.sarxos.fastactor;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+
+
+/**
+ * Single-producer, single-consumer ring buffer of variable length records, living in the memory
+ * mapped file, so the producer and the consumer can be in the different processes. Layout of the
+ * file:
+ *
+ * <pre>
+ * [0]   long write position (owned by producer)
+ * [128] long read position (owned by consumer)
+ * [192] int capacity
+ * [256] data (capacity bytes)
+ * </pre>
+ *
+ * Positions are ever increasing and they are published with release semantics and read with
+ * acquire semantics, so record bytes written before the position update are visible to the other
+ * side. Every record is [int length][bytes] aligned to 8 bytes. Record which does not fit at the
+ * end of the data region is preceded by the padding record (negative length) and written at the
+ * beginning of the region.
+ * <p>
+ *
+ * The producer methods must not be invoked concurrently, and so the consumer methods. Both sides
+ * however can work concurrently.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class MappedRingBuffer {
+
+	static final int WRITE_POSITION_OFFSET = 0;
+	static final int READ_POSITION_OFFSET = 128;
+	static final int CAPACITY_OFFSET = 192;
+	static final int DATA_OFFSET = 256;
+
+	private static final VarHandle POSITION = MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.nativeOrder());
+
+	enum OfferStatus {
+		WRITTEN,
+		FULL,
+		TOO_BIG,
+	}
+
+	/**
+	 * Writes the record content.
+	 */
+	@FunctionalInterface
+	interface RecordWriter<T> {
+		void write(final T value, final ByteBuffer buffer);
+	}
+
+	/**
+	 * Reads the record content. Buffer position and limit are set to the record bounds.
+	 */
+	@FunctionalInterface
+	interface RecordReader {
+		void read(final ByteBuffer buffer);
+	}
+
+	private final ByteBuffer writer;
+	private final ByteBuffer reader;
+	private final int capacity;
+	private final int mask;
+
+	private long tail;
+	private long head;
+
+	MappedRingBuffer(final Path path, final int capacity) {
+
+		if (Integer.bitCount(capacity) != 1 || capacity < 8) {
+			throw new IllegalArgumentException("Capacity must be power of two, but is " + capacity);
+		}
+
+		final var mapped = map(path, capacity);
+
+		this.capacity = capacity;
+		this.mask = capacity - 1;
+		this.writer = mapped;
+		this.reader = mapped.duplicate();
+		this.tail = (long) POSITION.getAcquire(mapped, WRITE_POSITION_OFFSET);
+		this.head = (long) POSITION.getAcquire(mapped, READ_POSITION_OFFSET);
+	}
+
+	private static MappedByteBuffer map(final Path path, final int capacity) {
+		try (final var channel = FileChannel.open(path, CREATE, READ, WRITE)) {
+			try (final var lock = channel.lock()) {
+
+				final var existing = channel.size() > 0;
+				final var mapped = channel.map(READ_WRITE, 0, DATA_OFFSET + (long) capacity);
+
+				if (!existing) {
+					mapped.putInt(CAPACITY_OFFSET, capacity);
+				} else if (mapped.getInt(CAPACITY_OFFSET) != capacity) {
+					throw new IllegalStateException("Ring buffer " + path + " has capacity " + mapped.getInt(CAPACITY_OFFSET) + " but " + capacity + " was expected");
+				}
+
+				return mapped;
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot map ring buffer " + path, e);
+		}
+	}
+
+	/**
+	 * Write single record. This is producer method.
+	 *
+	 * @param <T> the value type
+	 * @param value the value to write
+	 * @param recordWriter the {@link RecordWriter} writing the record bytes
+	 * @return The {@link OfferStatus}
+	 */
+	<T> OfferStatus offer(final T value, final RecordWriter<T> recordWriter) {
+
+		final long head = (long) POSITION.getAcquire(writer, READ_POSITION_OFFSET);
+		final int free = (int) (capacity - (tail - head));
+		final int index = (int) (tail & mask);
+		final int contiguous = capacity - index;
+
+		if (tryWrite(value, recordWriter, index, Math.min(free, contiguous))) {
+			return OfferStatus.WRITTEN;
+		}
+
+		// Record does not fit at the end of the data region. Skip the rest of the region with
+		// padding and try at the beginning.
+
+		if (contiguous < free) {
+
+			writer.putInt(DATA_OFFSET + index, -contiguous);
+			tail += contiguous;
+			POSITION.setRelease(writer, WRITE_POSITION_OFFSET, tail);
+
+			if (tryWrite(value, recordWriter, 0, free - contiguous)) {
+				return OfferStatus.WRITTEN;
+			}
+		}
+
+		// Record did not fit into the whole empty region, it will never fit
+
+		if (index == 0 && free == capacity) {
+			return OfferStatus.TOO_BIG;
+		} else {
+			return OfferStatus.FULL;
+		}
+	}
+
+	private <T> boolean tryWrite(final T value, final RecordWriter<T> recordWriter, final int index, final int available) {
+
+		if (available < 8) {
+			return false;
+		}
+
+		final int start = DATA_OFFSET + index;
+
+		writer
+			.limit(start + available)
+			.position(start + 4);
+
+		try {
+			recordWriter.write(value, writer);
+		} catch (BufferOverflowException e) {
+			return false;
+		}
+
+		final int length = writer.position() - start - 4;
+
+		writer.putInt(start, length);
+		tail += align(length + 4);
+		POSITION.setRelease(writer, WRITE_POSITION_OFFSET, tail);
+
+		return true;
+	}
+
+	/**
+	 * Read up to the given number of records. This is consumer method.
+	 *
+	 * @param recordReader the {@link RecordReader} to invoke for every record
+	 * @param max maximum number of records to read
+	 * @return The number of records read
+	 */
+	int poll(final RecordReader recordReader, final int max) {
+
+		final long tail = (long) POSITION.getAcquire(reader, WRITE_POSITION_OFFSET);
+
+		var count = 0;
+		var head = this.head;
+
+		while (head < tail && count < max) {
+
+			final int start = DATA_OFFSET + (int) (head & mask);
+			final int length = reader.getInt(start);
+
+			if (length < 0) {
+				head -= length; // padding
+				continue;
+			}
+
+			reader
+				.limit(start + 4 + length)
+				.position(start + 4);
+
+			recordReader.read(reader);
+
+			reader.limit(reader.capacity());
+			head += align(length + 4);
+			count++;
+		}
+
+		if (head != this.head) {
+			this.head = head;
+			POSITION.setRelease(reader, READ_POSITION_OFFSET, head);
+		}
+
+		return count;
+	}
+
+	int capacity() {
+		return capacity;
+	}
+
+	private static int align(final int length) {
+		return (length + 7) & ~7;
+	}
+}
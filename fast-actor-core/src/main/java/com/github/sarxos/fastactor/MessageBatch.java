@@ -0,0 +1,100 @@
+package com.github.sarxos.fastactor;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+
+/**
+ * Collects messages to many actors and sends them at once. Messages are grouped by the
+ * {@link Dispatcher} of the target, so every {@link ActorThread} receives a single batch with one
+ * queue operation and at most one wake up, no matter how many messages and actors are there. The
+ * order of messages told to the same actor is preserved. The batch is not thread-safe and can be
+ * reused after it has been sent.
+ *
+ * <pre>
+ * system.batch()
+ * 	.tell(a, ref1)
+ * 	.tell(b, ref2)
+ * 	.send();
+ * </pre>
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class MessageBatch {
+
+	private final ActorSystem system;
+	private final Map<Dispatcher, List<Envelope>> envelopes = new IdentityHashMap<>(4);
+	private final List<Envelope> undeliverable = new ArrayList<>(0);
+
+	MessageBatch(final ActorSystem system) {
+		this.system = system;
+	}
+
+	/**
+	 * Add message to the batch. Use no-sender actor-reference as the sender.
+	 *
+	 * @param message the message
+	 * @param target the target {@link ActorRef}
+	 * @return This batch
+	 */
+	public MessageBatch tell(final Object message, final ActorRef target) {
+		return tell(message, target, system.noSender());
+	}
+
+	/**
+	 * Add message to the batch.
+	 *
+	 * @param message the message
+	 * @param target the target {@link ActorRef}
+	 * @param sender the sender {@link ActorRef}
+	 * @return This batch
+	 */
+	public MessageBatch tell(final Object message, final ActorRef target, final ActorRef sender) {
+
+		final var envelope = system.envelope(message, target, sender);
+		final var dispatcher = target.dispatcher();
+
+		if (dispatcher == null) {
+			undeliverable.add(envelope);
+		} else {
+			envelopes
+				.computeIfAbsent(dispatcher, d -> new ArrayList<>())
+				.add(envelope);
+		}
+
+		return this;
+	}
+
+	/**
+	 * @return How many messages are in the batch
+	 */
+	public int size() {
+
+		var size = undeliverable.size();
+		for (final List<Envelope> list : envelopes.values()) {
+			size += list.size();
+		}
+
+		return size;
+	}
+
+	/**
+	 * Send all the messages from the batch and clear it.
+	 */
+	public void send() {
+
+		for (final Map.Entry<Dispatcher, List<Envelope>> entry : envelopes.entrySet()) {
+			entry
+				.getKey()
+				.depositAll(entry.getValue().toArray(new Envelope[0]));
+		}
+		for (final Envelope envelope : undeliverable) {
+			system.forwardToDeadLetters(envelope);
+		}
+
+		envelopes.clear();
+		undeliverable.clear();
+	}
+}
@@ -0,0 +1,38 @@
+package com.github.sarxos.fastactor;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Converts messages to bytes and back when they have to leave the JVM, e.g. when they are sent to
+ * the {@link RemoteActorRef}. Serializer writes directly into the provided {@link ByteBuffer}
+ * (which is usually direct, off-heap buffer owned by the transport) so no intermediate arrays are
+ * required.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public interface MessageSerializer {
+
+	/**
+	 * Write message into the buffer, starting at its current position. When there is not enough
+	 * room in the buffer the {@link BufferOverflowException} must be thrown. Caller will then retry
+	 * with the bigger buffer.
+	 *
+	 * @param message the message to serialize
+	 * @param buffer the target buffer
+	 * @throws BufferOverflowException when message does not fit into the buffer
+	 * @throws IllegalArgumentException when message cannot be serialized by this serializer
+	 */
+	void serialize(final Object message, final ByteBuffer buffer);
+
+	/**
+	 * Read message from the buffer. The buffer position is set to the first byte of the message and
+	 * the limit is set just after the last one.
+	 *
+	 * @param buffer the buffer to read message from
+	 * @return Deserialized message
+	 * @throws IllegalArgumentException when message cannot be deserialized by this serializer
+	 */
+	Object deserialize(final ByteBuffer buffer);
+}
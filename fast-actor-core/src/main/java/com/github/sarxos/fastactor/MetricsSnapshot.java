@@ -0,0 +1,281 @@
+package com.github.sarxos.fastactor;
+
+import java.util.List;
+import java.util.Map;
+
+import javax.management.ConstructorParameters;
+
+
+/**
+ * Point-in-time view of the {@link ActorSystem} runtime counters. The counters are published by
+ * the {@link ActorThread}s lazily, so the snapshot may be slightly behind the actual values. The
+ * per-actor metrics are available only when enabled with {@link ActorSystem#withMetrics()} and the
+ * latency histograms only when enabled with {@link ActorSystem#withLatencySampling(int)}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class MetricsSnapshot {
+
+	private final List<ThreadMetrics> threads;
+	private final List<ActorMetrics> actors;
+	private final Map<String, LatencyMetrics> latencyByActorClass;
+	private final Map<String, LatencyMetrics> latencyByThread;
+
+	MetricsSnapshot(
+		final List<ThreadMetrics> threads,
+		final List<ActorMetrics> actors,
+		final Map<String, LatencyMetrics> latencyByActorClass,
+		final Map<String, LatencyMetrics> latencyByThread) {
+
+		this.threads = threads;
+		this.actors = actors;
+		this.latencyByActorClass = latencyByActorClass;
+		this.latencyByThread = latencyByThread;
+	}
+
+	/**
+	 * @return The metrics of every {@link ActorThread} in the system
+	 */
+	public List<ThreadMetrics> getThreads() {
+		return threads;
+	}
+
+	/**
+	 * @return The metrics of every actor in the system (empty if metrics are not enabled)
+	 */
+	public List<ActorMetrics> getActors() {
+		return actors;
+	}
+
+	/**
+	 * @return The latency of the sampled messages by the actor class name (empty if sampling is
+	 *         not enabled)
+	 */
+	public Map<String, LatencyMetrics> getLatencyByActorClass() {
+		return latencyByActorClass;
+	}
+
+	/**
+	 * @return The latency of the sampled messages by the {@link ActorThread} name (empty if
+	 *         sampling is not enabled)
+	 */
+	public Map<String, LatencyMetrics> getLatencyByThread() {
+		return latencyByThread;
+	}
+
+	/**
+	 * @param actorClass the actor class
+	 * @return The latency of the sampled messages processed by actors of a given class or null if
+	 *         there is none
+	 */
+	public LatencyMetrics getLatency(final Class<? extends Actor> actorClass) {
+		return latencyByActorClass.get(actorClass.getName());
+	}
+
+	/**
+	 * @return How many messages were processed by all the actors
+	 */
+	public long getProcessed() {
+		return actors
+			.stream()
+			.mapToLong(ActorMetrics::getProcessed)
+			.sum();
+	}
+
+	/**
+	 * @return How many envelopes were deposited by the {@link ActorThread}s into the threads on the
+	 *         other NUMA nodes
+	 */
+	public long getCrossNodeSent() {
+		return threads
+			.stream()
+			.mapToLong(ThreadMetrics::getCrossNodeSent)
+			.sum();
+	}
+
+	/**
+	 * @return The ratio of busy loops to all the loops of all the {@link ActorThread}s
+	 */
+	public double getBusyRatio() {
+
+		final long busy = threads
+			.stream()
+			.mapToLong(ThreadMetrics::getBusyLoops)
+			.sum();
+		final long idle = threads
+			.stream()
+			.mapToLong(ThreadMetrics::getIdleLoops)
+			.sum();
+
+		return ratio(busy, idle);
+	}
+
+	private static double ratio(final long busy, final long idle) {
+		if (busy + idle == 0) {
+			return 0;
+		} else {
+			return (double) busy / (busy + idle);
+		}
+	}
+
+	/**
+	 * The {@link ActorThread} run loop counters.
+	 */
+	public static class ThreadMetrics {
+
+		private final String name;
+		private final int index;
+		private final int node;
+		private final long busyLoops;
+		private final long idleLoops;
+		private final long parks;
+		private final long drained;
+		private final long crossNodeSent;
+		private final long migrated;
+
+		@ConstructorParameters({ "name", "index", "node", "busyLoops", "idleLoops", "parks", "drained", "crossNodeSent", "migrated" })
+		public ThreadMetrics(final String name, final int index, final int node, final long busyLoops, final long idleLoops, final long parks, final long drained, final long crossNodeSent, final long migrated) {
+			this.name = name;
+			this.index = index;
+			this.node = node;
+			this.busyLoops = busyLoops;
+			this.idleLoops = idleLoops;
+			this.parks = parks;
+			this.drained = drained;
+			this.crossNodeSent = crossNodeSent;
+			this.migrated = migrated;
+		}
+
+		public String getName() {
+			return name;
+		}
+
+		public int getIndex() {
+			return index;
+		}
+
+		/**
+		 * @return The NUMA node of the thread, always 0 if pool is not NUMA-aware
+		 */
+		public int getNode() {
+			return node;
+		}
+
+		/**
+		 * @return How many loops did some work (drained, delivered or processed anything)
+		 */
+		public long getBusyLoops() {
+			return busyLoops;
+		}
+
+		/**
+		 * @return How many loops had nothing to do
+		 */
+		public long getIdleLoops() {
+			return idleLoops;
+		}
+
+		/**
+		 * @return How many times thread was parked after too many idle loops
+		 */
+		public long getParks() {
+			return parks;
+		}
+
+		/**
+		 * @return How many envelopes were drained from the internal and external queues
+		 */
+		public long getDrained() {
+			return drained;
+		}
+
+		/**
+		 * @return How many envelopes this thread deposited into the threads on the other NUMA
+		 *         nodes
+		 */
+		public long getCrossNodeSent() {
+			return crossNodeSent;
+		}
+
+		/**
+		 * @return How many cells were moved from this thread to the other ones
+		 */
+		public long getMigrated() {
+			return migrated;
+		}
+
+		public double getBusyRatio() {
+			return ratio(busyLoops, idleLoops);
+		}
+	}
+
+	/**
+	 * The counters of a single actor.
+	 */
+	public static class ActorMetrics {
+
+		private final long uuid;
+		private final String actorClass;
+		private final long processed;
+		private final int maxInboxDepth;
+
+		@ConstructorParameters({ "uuid", "actorClass", "processed", "maxInboxDepth" })
+		public ActorMetrics(final long uuid, final String actorClass, final long processed, final int maxInboxDepth) {
+			this.uuid = uuid;
+			this.actorClass = actorClass;
+			this.processed = processed;
+			this.maxInboxDepth = maxInboxDepth;
+		}
+
+		public long getUuid() {
+			return uuid;
+		}
+
+		public String getActorClass() {
+			return actorClass;
+		}
+
+		/**
+		 * @return How many messages and directives were processed from the inbox
+		 */
+		public long getProcessed() {
+			return processed;
+		}
+
+		/**
+		 * @return The highest inbox depth seen at the beginning of the processing burst
+		 */
+		public int getMaxInboxDepth() {
+			return maxInboxDepth;
+		}
+	}
+
+	/**
+	 * The latency histograms of the sampled messages.
+	 */
+	public static class LatencyMetrics {
+
+		private final HistogramSnapshot queueWait;
+		private final HistogramSnapshot processing;
+
+		public LatencyMetrics(final HistogramSnapshot queueWait, final HistogramSnapshot processing) {
+			this.queueWait = queueWait;
+			this.processing = processing;
+		}
+
+		/**
+		 * @return How long messages waited in the queues and the inbox, from the tell until actor
+		 *         started processing
+		 */
+		public HistogramSnapshot getQueueWait() {
+			return queueWait;
+		}
+
+		/**
+		 * @return How long it took actor to process the messages
+		 */
+		public HistogramSnapshot getProcessing() {
+			return processing;
+		}
+	}
+}
@@ -0,0 +1,155 @@
+package com.github.sarxos.fastactor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+
+/**
+ * The NUMA nodes and the CPUs which belong to them. It can be read from the Linux
+ * <code>sysfs</code> or defined explicitly, which is also a way to simulate multi-node topology
+ * on a single-node machine.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class NumaTopology {
+
+	private static final Path NODES = Paths.get("/sys/devices/system/node");
+	private static final Pattern NODE = Pattern.compile("node(\\d+)");
+
+	/**
+	 * The CPUs of every node, indexed by node.
+	 */
+	private final int[][] nodes;
+
+	private NumaTopology(final int[][] nodes) {
+		this.nodes = nodes;
+	}
+
+	/**
+	 * Create topology from the CPU lists of the nodes, the first list is node 0, the second is node
+	 * 1, and so on.
+	 *
+	 * @param cpuLists the CPU lists, e.g. <code>0-7</code>, <code>8-15</code>
+	 * @return New topology
+	 */
+	static NumaTopology of(final String... cpuLists) {
+
+		if (cpuLists == null || cpuLists.length == 0) {
+			throw new IllegalArgumentException("At least one NUMA node is required");
+		}
+
+		final var nodes = new int[cpuLists.length][];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = CpuAffinity.parse(cpuLists[i]);
+		}
+
+		final var cpus = Arrays
+			.stream(nodes)
+			.flatMapToInt(Arrays::stream)
+			.toArray();
+
+		if (Arrays.stream(cpus).distinct().count() != cpus.length) {
+			throw new IllegalArgumentException("CPU can belong to one NUMA node only, but was " + Arrays.toString(cpuLists));
+		}
+
+		return new NumaTopology(nodes);
+	}
+
+	/**
+	 * Read topology of this machine. When it is not available (not Linux or kernel without NUMA
+	 * support) all the available CPUs are assumed to belong to a single node.
+	 *
+	 * @return The topology of this machine
+	 */
+	static NumaTopology detect() {
+		return detect(NODES);
+	}
+
+	/**
+	 * Read topology from a given <code>sysfs</code> nodes directory. The memory-only nodes have
+	 * no CPUs, so they are skipped.
+	 *
+	 * @param root the directory with <code>nodeN</code> subdirectories
+	 * @return The topology read
+	 */
+	static NumaTopology detect(final Path root) {
+
+		final var cpuLists = new ArrayList<String>();
+
+		if (Files.isDirectory(root)) {
+			try (Stream<Path> paths = Files.list(root)) {
+
+				final List<Path> nodes = paths
+					.filter(path -> NODE.matcher(path.getFileName().toString()).matches())
+					.sorted((a, b) -> Integer.compare(nodeNumber(a), nodeNumber(b)))
+					.collect(Collectors.toList());
+
+				for (final Path node : nodes) {
+					final var cpuList = Files.readString(node.resolve("cpulist")).trim();
+					if (!cpuList.isEmpty()) {
+						cpuLists.add(cpuList);
+					}
+				}
+
+			} catch (IOException e) {
+				throw new IllegalStateException("Cannot read NUMA topology from " + root, e);
+			}
+		}
+
+		if (cpuLists.isEmpty()) {
+			return of("0-" + (Runtime.getRuntime().availableProcessors() - 1));
+		}
+
+		return of(cpuLists.toArray(String[]::new));
+	}
+
+	private static int nodeNumber(final Path path) {
+		return Integer.parseInt(path.getFileName().toString().substring(4));
+	}
+
+	/**
+	 * @return The number of nodes
+	 */
+	int size() {
+		return nodes.length;
+	}
+
+	/**
+	 * @param node the node
+	 * @return The CPUs of a given node
+	 */
+	int[] cpus(final int node) {
+		return nodes[node].clone();
+	}
+
+	/**
+	 * @param cpu the CPU
+	 * @return The node given CPU belongs to, or -1 if it does not belong to any of them
+	 */
+	int nodeOf(final int cpu) {
+		for (int node = 0; node < nodes.length; node++) {
+			for (final int c : nodes[node]) {
+				if (c == cpu) {
+					return node;
+				}
+			}
+		}
+		return -1;
+	}
+
+	@Override
+	public String toString() {
+		return Arrays
+			.stream(nodes)
+			.map(Arrays::toString)
+			.collect(Collectors.joining(", ", "NumaTopology[ ", " ]"));
+	}
+}
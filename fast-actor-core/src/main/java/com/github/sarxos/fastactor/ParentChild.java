@@ -2,26 +2,48 @@ package com.github.sarxos.fastactor;
 
 import static com.github.sarxos.fastactor.ActorSystem.ZERO_UUID;
 
-import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
-
 
 public interface ParentChild extends ActorContext {
 
-	LongOpenHashSet children();
+	/**
+	 * @return The children of this actor (do not modify, use {@link #addChild(ActorRef)} and
+	 *         {@link #removeChild(ActorRef)} instead)
+	 */
+	ActorRefSet children();
 
 	@Override
 	default <P extends Actor> ActorRef actorOf(final Props<P> props) {
-		final ActorRef child = system().actorOf(props, self());
-		addChild(child);
-		return child;
-	}
 
-	default boolean addChild(final ActorRef child) {
-		return children().add(child.uuid());
+		final var system = system();
+		final var self = self();
+
+		// Parent creating child from within its own thread can update the children set right
+		// away, so the parent-child protocol round trip is not needed and child can be started
+		// immediately. Otherwise the child must ask parent to be added.
+
+		if (self.dispatcher() == Thread.currentThread()) {
+
+			final var child = system.newCell(props, self).self();
+
+			addChild(child);
+			child.tell(InternalDirectives.START, child);
+
+			return child;
+
+		} else {
+
+			final var child = system.actorOf(props, self);
+
+			addChild(child);
+
+			return child;
+		}
 	}
 
+	boolean addChild(final ActorRef child);
+
 	default boolean removeChild(final ActorRef child) {
-		return children().remove(child.uuid());
+		return children().remove(child);
 	}
 
 	/**
@@ -59,8 +81,12 @@ class ParentChildProtocol implements Protocol {
 
 		@Override
 		public void execute(final ActorCell<?> cell) {
-			cell.addChild(child);
-			child.tell(new AddChildConfirmation(), parent);
+			if (cell.isDead()) {
+				failed(); // stopping parent has already told its children to stop
+			} else {
+				cell.addChild(child);
+				child.tell(new AddChildConfirmation(), parent);
+			}
 		}
 
 		@Override
@@ -0,0 +1,194 @@
+package com.github.sarxos.fastactor;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+
+import com.github.sarxos.fastactor.DeadLetters.DeadLetter;
+import com.github.sarxos.fastactor.EventBus.Event;
+import com.github.sarxos.fastactor.message.Unhandled;
+
+
+/**
+ * The reference-counted direct {@link ByteBuffer} from the {@link PayloadPool}, to be told as a
+ * message when the binary data is large and should not go through the heap. The payload is
+ * acquired with one reference, and the reference is transferred to the actor it is told to. The
+ * {@link ActorCell} releases it after the actor has processed it, so the actor which wants to
+ * keep it, or to tell it further, must {@link #retain()} it first and {@link #release()} it when
+ * done. The buffer goes back to the pool when the last reference is released, and it must not
+ * be touched after that.
+ *
+ * <pre>
+ * final Payload payload = system.payloads().acquire(1 &lt;&lt; 16);
+ * payload.buffer().put(bytes);
+ * actor.tell(payload);
+ * </pre>
+ *
+ * Only the payload told directly is released by the cell. The payload carried in the field of
+ * the other message is released by the actor which receives it. The exceptions are the
+ * {@link DeadLetter}, {@link Unhandled} and the event bus wrappers, which hold the reference of
+ * the payload they wrap. It is retained for every subscriber they are passed to, and released by
+ * the cell after each one has processed it, so the payload which reached no actor can still be
+ * read by the subscribers.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class Payload {
+
+	private static final VarHandle REFERENCES;
+
+	static {
+		try {
+			REFERENCES = MethodHandles
+				.lookup()
+				.findVarHandle(Payload.class, "references", int.class);
+		} catch (ReflectiveOperationException e) {
+			throw new ExceptionInInitializerError(e);
+		}
+	}
+
+	private final PayloadPool pool;
+	private final ByteBuffer buffer;
+
+	/**
+	 * Where the payload was acquired, null when the leak detection is disabled.
+	 */
+	final Throwable acquisition;
+
+	private volatile int references = 1;
+
+	Payload(final PayloadPool pool, final ByteBuffer buffer, final Throwable acquisition) {
+		this.pool = pool;
+		this.buffer = buffer;
+		this.acquisition = acquisition;
+	}
+
+	/**
+	 * @return The direct buffer with the limit set to the capacity it has been acquired with
+	 * @throws IllegalStateException when payload has already been released
+	 */
+	public ByteBuffer buffer() {
+		checkNotReleased((int) REFERENCES.getVolatile(this));
+		return buffer;
+	}
+
+	/**
+	 * Add the reference, so the payload survives the release done by the cell after it has been
+	 * processed.
+	 *
+	 * @return This {@link Payload}
+	 * @throws IllegalStateException when payload has already been released
+	 */
+	public Payload retain() {
+
+		int references;
+		do {
+			checkNotReleased(references = (int) REFERENCES.getVolatile(this));
+		} while (!REFERENCES.compareAndSet(this, references, references + 1));
+
+		return this;
+	}
+
+	/**
+	 * Remove the reference. The buffer goes back to the pool when the last one is removed.
+	 *
+	 * @return True if this was the last reference, false otherwise
+	 * @throws IllegalStateException when payload has already been released
+	 */
+	public boolean release() {
+
+		int references;
+		do {
+			checkNotReleased(references = (int) REFERENCES.getVolatile(this));
+		} while (!REFERENCES.compareAndSet(this, references, references - 1));
+
+		if (references == 1) {
+			pool.recycle(this, buffer);
+			return true;
+		}
+
+		return false;
+	}
+
+	/**
+	 * Remove the reference if payload has not been released yet. Unlike {@link #release()} it
+	 * does not throw when the last reference is already gone, so the owner can drop its reference
+	 * even when the other one may have released the payload by mistake.
+	 *
+	 * @return True if the reference has been removed, false if payload was already released
+	 */
+	public boolean tryRelease() {
+
+		int references;
+		do {
+			if ((references = (int) REFERENCES.getVolatile(this)) == 0) {
+				return false;
+			}
+		} while (!REFERENCES.compareAndSet(this, references, references - 1));
+
+		if (references == 1) {
+			pool.recycle(this, buffer);
+		}
+
+		return true;
+	}
+
+	/**
+	 * @return The number of references, 0 when payload has been released
+	 */
+	public int references() {
+		return (int) REFERENCES.getVolatile(this);
+	}
+
+	/**
+	 * @param message the message told to the actor
+	 * @return The {@link Payload} told directly or wrapped in the {@link DeadLetter},
+	 *         {@link Unhandled} or {@link Event} holding its reference, null if there is none
+	 */
+	static Payload of(Object message) {
+		for (;;) {
+			if (message instanceof Payload) {
+				return (Payload) message;
+			} else if (message instanceof DeadLetter) {
+				message = ((DeadLetter) message).getMessage();
+			} else if (message instanceof Unhandled) {
+				message = ((Unhandled) message).getMessage();
+			} else if (message instanceof Event) {
+				message = ((Event) message).value;
+			} else {
+				return null;
+			}
+		}
+	}
+
+	/**
+	 * Add the reference for the next actor the message is passed to.
+	 *
+	 * @param message the message which may hold the {@link Payload} reference
+	 * @see #of(Object)
+	 */
+	static void retain(final Object message) {
+		final var payload = of(message);
+		if (payload != null) {
+			payload.retain();
+		}
+	}
+
+	private static void checkNotReleased(final int references) {
+		if (references == 0) {
+			throw new IllegalStateException("Payload has already been released");
+		}
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder()
+			.append(getClass().getName())
+			.append("[ capacity = ")
+			.append(buffer.capacity())
+			.append(", references = ")
+			.append(references())
+			.append(" ]")
+			.toString();
+	}
+}
@@ -0,0 +1,209 @@
+package com.github.sarxos.fastactor;
+
+import java.nio.ByteBuffer;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+
+/**
+ * Thread-safe pool of direct {@link ByteBuffer}s handed out as {@link Payload}s. Buffers are
+ * kept in the power-of-two size classes from {@link #MIN_CAPACITY} to {@link #MAX_CAPACITY}, and
+ * the payload gets the buffer of the smallest class it fits in. Bigger payloads are allocated
+ * directly and left for the GC when released.
+ * <p>
+ * With the leak detection enabled the pool remembers where every payload not released yet has
+ * been acquired, so the test can check that all of them were released with
+ * {@link #checkLeaks()}. This records the stack trace of every acquisition, so it is meant for
+ * the tests only.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class PayloadPool {
+
+	/**
+	 * The capacity of the smallest size class.
+	 */
+	public static final int MIN_CAPACITY = 1 << 10;
+
+	/**
+	 * The capacity of the biggest size class. Bigger buffers are not pooled.
+	 */
+	public static final int MAX_CAPACITY = 1 << 20;
+
+	/**
+	 * How many free buffers to keep at most in every size class. Everything above is left for
+	 * the GC.
+	 */
+	static final int MAX_FREE_BUFFERS = 64;
+
+	private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(MIN_CAPACITY);
+	private static final int CLASSES = Integer.numberOfTrailingZeros(MAX_CAPACITY) - MIN_SHIFT + 1;
+
+	private final ConcurrentLinkedQueue<ByteBuffer>[] free;
+	private final AtomicInteger[] sizes;
+	private final LongAdder outstanding = new LongAdder();
+
+	/**
+	 * The payloads not released yet, null when the leak detection is disabled.
+	 */
+	private final Set<Payload> acquired;
+
+	public PayloadPool() {
+		this(false);
+	}
+
+	/**
+	 * @param leakDetection should acquisition of every payload be tracked
+	 */
+	@SuppressWarnings("unchecked")
+	public PayloadPool(final boolean leakDetection) {
+
+		free = new ConcurrentLinkedQueue[CLASSES];
+		sizes = new AtomicInteger[CLASSES];
+
+		for (int i = 0; i < CLASSES; i++) {
+			free[i] = new ConcurrentLinkedQueue<>();
+			sizes[i] = new AtomicInteger();
+		}
+
+		acquired = leakDetection ? ConcurrentHashMap.newKeySet() : null;
+	}
+
+	/**
+	 * @param capacity the number of bytes payload must hold
+	 * @return New {@link Payload} with one reference, its buffer is cleared and limited to a
+	 *         given capacity
+	 */
+	public Payload acquire(final int capacity) {
+
+		if (capacity < 0) {
+			throw new IllegalArgumentException("Capacity must not be negative, but is " + capacity);
+		}
+
+		final var buffer = buffer(capacity);
+		final var acquisition = acquired == null ? null : new Throwable("Payload acquired here");
+		final var payload = new Payload(this, buffer, acquisition);
+
+		if (acquired != null) {
+			acquired.add(payload);
+		}
+
+		outstanding.increment();
+
+		return payload;
+	}
+
+	private ByteBuffer buffer(final int capacity) {
+
+		if (capacity > MAX_CAPACITY) {
+			return ByteBuffer.allocateDirect(capacity);
+		}
+
+		final int index = classOf(capacity);
+		final var buffer = free[index].poll();
+
+		if (buffer == null) {
+			return ByteBuffer
+				.allocateDirect(MIN_CAPACITY << index)
+				.limit(capacity);
+		} else {
+			sizes[index].decrementAndGet();
+			return buffer
+				.clear()
+				.limit(capacity);
+		}
+	}
+
+	/**
+	 * @param capacity the capacity
+	 * @return The index of the smallest size class a given capacity fits in
+	 */
+	static int classOf(final int capacity) {
+		if (capacity <= MIN_CAPACITY) {
+			return 0;
+		} else {
+			return Integer.SIZE - Integer.numberOfLeadingZeros(capacity - 1) - MIN_SHIFT;
+		}
+	}
+
+	/**
+	 * Called by the {@link Payload} when its last reference is released.
+	 *
+	 * @param payload the released payload
+	 * @param buffer the buffer of the released payload
+	 */
+	void recycle(final Payload payload, final ByteBuffer buffer) {
+
+		outstanding.decrement();
+
+		if (acquired != null) {
+			acquired.remove(payload);
+		}
+
+		final int capacity = buffer.capacity();
+		if (capacity > MAX_CAPACITY) {
+			return;
+		}
+
+		final int index = classOf(capacity);
+		if (sizes[index].incrementAndGet() <= MAX_FREE_BUFFERS) {
+			free[index].offer(buffer);
+		} else {
+			sizes[index].decrementAndGet();
+		}
+	}
+
+	/**
+	 * @return The number of payloads acquired and not released yet
+	 */
+	public long outstanding() {
+		return outstanding.sum();
+	}
+
+	/**
+	 * @return The number of free buffers kept in the pool
+	 */
+	public int pooled() {
+
+		var pooled = 0;
+		for (final AtomicInteger size : sizes) {
+			pooled += size.get();
+		}
+
+		return pooled;
+	}
+
+	/**
+	 * @return Is acquisition of every payload tracked
+	 */
+	public boolean isLeakDetection() {
+		return acquired != null;
+	}
+
+	/**
+	 * Check that all the payloads acquired from this pool were released.
+	 *
+	 * @throws IllegalStateException when some payloads were not released, with the stack traces
+	 *             of their acquisitions suppressed when the leak detection is enabled
+	 */
+	public void checkLeaks() {
+
+		final long leaks = outstanding();
+		if (leaks == 0) {
+			return;
+		}
+
+		final var exception = new IllegalStateException(leaks + " payloads have not been released");
+
+		if (acquired != null) {
+			for (final Payload payload : acquired) {
+				exception.addSuppressed(payload.acquisition);
+			}
+		}
+
+		throw exception;
+	}
+}
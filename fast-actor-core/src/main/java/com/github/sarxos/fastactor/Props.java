@@ -16,6 +16,12 @@ public class Props<A extends Actor> {
 
 	public static final int RUN_ON_ANY_THREAD = -1;
 
+	/**
+	 * Run on the same {@link ActorThread} as the parent, when the parent lives in the same thread
+	 * pool, or on any thread otherwise.
+	 */
+	public static final int RUN_ON_PARENT_THREAD = -2;
+
 	final ActorCreator<A> actorCreator;
 	final String threadPool;
 	final int threadIndex;
@@ -38,6 +44,17 @@ public class Props<A extends Actor> {
 		return new Props<A>(actorCreator, threadPool, threadIndex);
 	}
 
+	/**
+	 * Co-locate actor with its parent. Messages between them never cross the thread boundary,
+	 * which is the cheapest option for short-lived children, e.g. actor per request, but the
+	 * parent and all such children share the same thread.
+	 *
+	 * @return New {@link Props} with the thread index set to {@link #RUN_ON_PARENT_THREAD}
+	 */
+	public Props<A> onParentThread() {
+		return new Props<A>(actorCreator, threadPool, RUN_ON_PARENT_THREAD);
+	}
+
 	public A newActor() {
 		return actorCreator.create();
 	}
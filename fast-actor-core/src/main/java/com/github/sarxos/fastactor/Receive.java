@@ -5,6 +5,7 @@ import java.util.Arrays;
 import java.util.Comparator;
 import java.util.List;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
 
 
 @SuppressWarnings({ "rawtypes", "unchecked" })
@@ -14,6 +15,8 @@ public class Receive {
 
 	final List<Matcher> consumers = new ArrayList<>();
 
+	LongConsumer longs;
+
 	/**
 	 * Consume message by a given {@link Consumer} when message type matches the prtovide type.
 	 *
@@ -38,6 +41,19 @@ public class Receive {
 		return match(Object.class, consumer);
 	}
 
+	/**
+	 * Consume long values by a given {@link LongConsumer}. The values told with
+	 * {@link ActorRef#tellLong(long)} are passed as they are, without boxing, and the {@link Long}
+	 * messages told as objects are unboxed.
+	 *
+	 * @param consumer the {@link LongConsumer} to invoke
+	 * @return This {@link Receive}
+	 */
+	public Receive matchLong(final LongConsumer consumer) {
+		longs = consumer;
+		return match(Long.class, consumer::accept);
+	}
+
 	/**
 	 * @return {@link Consumer} to receive message in {@link Actor}
 	 */
@@ -46,10 +62,10 @@ public class Receive {
 		final int size = consumers.size();
 
 		if (size == 1) { // most common case, let's put it first
-			return new ConsumerForOne(consumers.get(0), unhandled);
+			return new ConsumerForOne(consumers.get(0), unhandled, longs);
 		}
 		if (size >= 2) { // less common case
-			return new ConsumerForMany(sorted(), unhandled);
+			return new ConsumerForMany(sorted(), unhandled, longs);
 		}
 
 		return unhandled;
@@ -89,13 +105,35 @@ public class Receive {
 		}
 	}
 
-	static abstract class ConsumerFor implements Consumer {
+	/**
+	 * The behaviour which can receive long value without boxing.
+	 */
+	interface LongReceiver {
+		void acceptLong(long value);
+	}
+
+	static abstract class ConsumerFor implements Consumer, LongReceiver {
+
+		final LongConsumer longs;
+
+		ConsumerFor(final LongConsumer longs) {
+			this.longs = longs;
+		}
 
 		@Override
 		public void accept(final Object message) {
 			findConsumerFor(message).accept(message);
 		}
 
+		@Override
+		public void acceptLong(final long value) {
+			if (longs == null) {
+				accept(Long.valueOf(value));
+			} else {
+				longs.accept(value);
+			}
+		}
+
 		abstract Consumer<Object> findConsumerFor(final Object message);
 
 	}
@@ -105,7 +143,8 @@ public class Receive {
 		final Matcher matcher;
 		final Consumer<Object> unhandled;
 
-		ConsumerForOne(final Matcher matcher, final Consumer<Object> unhandled) {
+		ConsumerForOne(final Matcher matcher, final Consumer<Object> unhandled, final LongConsumer longs) {
+			super(longs);
 			this.matcher = matcher;
 			this.unhandled = unhandled;
 		}
@@ -125,7 +164,8 @@ public class Receive {
 		final Matcher[] candidates;
 		final Consumer<Object> unhandled;
 
-		ConsumerForMany(final Matcher[] candidates, final Consumer<Object> unhandled) {
+		ConsumerForMany(final Matcher[] candidates, final Consumer<Object> unhandled, final LongConsumer longs) {
+			super(longs);
 			this.candidates = candidates;
 			this.unhandled = unhandled;
 		}
@@ -0,0 +1,64 @@
+package com.github.sarxos.fastactor;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+
+
+/**
+ * The {@link ActorRef} pointing to the actor living in the other {@link ActorSystem}, possibly in
+ * the different JVM or on the different host. Messages told to this reference are handed to the
+ * {@link RemoteTransport} which serializes and sends them over the network.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class RemoteActorRef extends ActorRef {
+
+	/**
+	 * The address the remote {@link ActorSystem} transport is listening on.
+	 */
+	final InetSocketAddress address;
+
+	RemoteActorRef(final ActorSystem system, final Dispatcher dispatcher, final InetSocketAddress address, final long uuid) {
+		super(system, dispatcher, uuid);
+		this.address = address;
+	}
+
+	/**
+	 * @return The address of the remote {@link ActorSystem}
+	 */
+	public InetSocketAddress address() {
+		return address;
+	}
+
+	@Override
+	public String toString() {
+		return "fa://" + address.getHostString() + ":" + address.getPort() + "/" + uuid();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + address.hashCode();
+		result = prime * result + Long.hashCode(uuid());
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+
+		final var ref = (RemoteActorRef) obj;
+
+		return uuid() == ref.uuid() && Objects.equals(address, ref.address);
+	}
+}
@@ -0,0 +1,846 @@
+package com.github.sarxos.fastactor;
+
+import static com.github.sarxos.fastactor.ActorSystem.ZERO_UUID;
+import static java.nio.channels.SelectionKey.OP_ACCEPT;
+import static java.nio.channels.SelectionKey.OP_CONNECT;
+import static java.nio.channels.SelectionKey.OP_READ;
+import static java.lang.System.Logger.Level.WARNING;
+import static java.nio.channels.SelectionKey.OP_WRITE;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.jctools.queues.MpscUnboundedArrayQueue;
+
+
+/**
+ * Non-blocking TCP transport used to exchange messages between {@link ActorSystem}s living in
+ * different JVMs (or on different hosts). All the network I/O is done by a single thread which
+ * runs the selector loop.
+ * <p>
+ *
+ * Connections are unidirectional. The system which sends messages opens the connection to the
+ * receiving system and uses it for writing only, and the replies go through the connection opened
+ * in the opposite direction. The first frame on every connection is a hello frame carrying the
+ * address the sending system listens on, so the receiver is able to create {@link RemoteActorRef}s
+ * for the senders.
+ * <p>
+ *
+ * Every frame is prefixed with its length:
+ *
+ * <pre>
+ * hello:   [int length][byte 1][short host length][host][int port]
+ * message: [int length][byte 2][long target uuid][sender][message bytes]
+ * sender:  [byte 0] | [byte 1][long uuid] | [byte 2][short host length][host][int port][long uuid]
+ * </pre>
+ *
+ * The connection which breaks the protocol (sends the frame of unknown type, the malformed
+ * frame, or the message before the hello) is closed. The message which cannot be deserialized is
+ * dropped, but the connection is kept, because the frame boundaries are still known.
+ * <p>
+ *
+ * Messages deposited by the actors are queued per target system and written in batches, i.e. all
+ * messages queued at the time when the I/O thread wakes up are coalesced into the pooled direct
+ * buffer and written with a single system call. Frames are decoded in place from the read buffer,
+ * without copying them to the heap.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class RemoteTransport implements Transport {
+
+	/**
+	 * Size of the pooled direct buffers used for reading and writing.
+	 */
+	static final int BUFFER_SIZE = 64 * 1024;
+
+	/**
+	 * The default maximum size of the incoming frame, without its length prefix.
+	 */
+	public static final int DEFAULT_MAX_FRAME_SIZE = 16 * 1024 * 1024;
+
+	/**
+	 * The default maximum number of systems the connections are created to because of the sender
+	 * addresses received from the peers.
+	 */
+	public static final int DEFAULT_MAX_REMOTE_SENDER_SYSTEMS = 1024;
+
+	/**
+	 * How long I/O thread should wait in select when there is nothing to do (in millis).
+	 */
+	static final long SELECT_TIMEOUT = 100;
+
+	static final byte FRAME_HELLO = 1;
+	static final byte FRAME_MESSAGE = 2;
+
+	static final byte NO_SENDER = 0;
+	static final byte PEER_SENDER = 1;
+	static final byte REMOTE_SENDER = 2;
+
+	/**
+	 * The maximum length of the host name in the address received from the peer.
+	 */
+	static final int MAX_HOST_LENGTH = 255;
+
+	private static final System.Logger LOG = System.getLogger(RemoteTransport.class.getName());
+
+	private final Map<InetSocketAddress, Outbound> outbounds = new ConcurrentHashMap<>();
+	private final MpscUnboundedArrayQueue<Outbound> ready = new MpscUnboundedArrayQueue<>(32);
+	private final BufferPool buffers = new BufferPool(BUFFER_SIZE);
+	private final InetSocketAddress bindAddress;
+
+	private MessageSerializer serializer;
+	private int maxFrameSize = DEFAULT_MAX_FRAME_SIZE;
+	private int maxRemoteSenderSystems = DEFAULT_MAX_REMOTE_SENDER_SYSTEMS;
+	private ActorSystem system;
+	private Selector selector;
+	private ServerSocketChannel server;
+	private InetSocketAddress address;
+	private Thread thread;
+	private volatile boolean running;
+
+	/**
+	 * The number of systems learned from the sender addresses received from the peers, accessed
+	 * only by the I/O thread.
+	 */
+	private int remoteSenderSystems;
+
+	/**
+	 * @param bindAddress the address to listen on, use port 0 to pick any free one
+	 */
+	public RemoteTransport(final InetSocketAddress bindAddress) {
+		this.bindAddress = bindAddress;
+	}
+
+	/**
+	 * Use the given {@link MessageSerializer} to convert messages to bytes and back. Both sides of
+	 * the connection have to use compatible serializers. When not set, the
+	 * {@link ActorSystem#serialization()} is used.
+	 *
+	 * @param serializer the {@link MessageSerializer} to be used
+	 * @return This transport
+	 */
+	public RemoteTransport withSerializer(final MessageSerializer serializer) {
+
+		if (serializer == null) {
+			throw new IllegalArgumentException("Serializer must not be null");
+		}
+
+		this.serializer = serializer;
+
+		return this;
+	}
+
+	/**
+	 * Limit the size of the incoming frames. The connection which announces the bigger frame is
+	 * closed, so the peer is not able to make this system allocate the buffer of any size.
+	 *
+	 * @param maxFrameSize the maximum frame size in bytes, without the length prefix
+	 * @return This transport
+	 */
+	public RemoteTransport withMaxFrameSize(final int maxFrameSize) {
+
+		if (maxFrameSize < 1) {
+			throw new IllegalArgumentException("Max frame size must be positive, but is " + maxFrameSize);
+		}
+
+		this.maxFrameSize = maxFrameSize;
+
+		return this;
+	}
+
+	/**
+	 * Limit the number of systems the connections are created to because of the sender addresses
+	 * received from the peers, so the peer is not able to make this system keep the connection
+	 * state for any number of addresses. The messages from the senders in the systems above the
+	 * limit are delivered without the sender.
+	 *
+	 * @param maxRemoteSenderSystems the maximum number of systems
+	 * @return This transport
+	 */
+	public RemoteTransport withMaxRemoteSenderSystems(final int maxRemoteSenderSystems) {
+
+		if (maxRemoteSenderSystems < 0) {
+			throw new IllegalArgumentException("Max remote sender systems must not be negative, but is " + maxRemoteSenderSystems);
+		}
+
+		this.maxRemoteSenderSystems = maxRemoteSenderSystems;
+
+		return this;
+	}
+
+	@Override
+	public void start(final ActorSystem system) {
+
+		this.system = system;
+
+		if (serializer == null) {
+			serializer = system.serialization();
+		}
+
+		try {
+			selector = Selector.open();
+			server = ServerSocketChannel.open();
+			server.configureBlocking(false);
+			server.bind(bindAddress);
+			server.register(selector, OP_ACCEPT);
+		} catch (IOException e) {
+			throw new UncheckedIOException("Cannot bind remote transport to " + bindAddress, e);
+		}
+
+		address = resolveBoundAddress();
+		running = true;
+
+		thread = new Thread(this::loop, "remote-io@" + system.getName());
+		thread.setDaemon(false);
+		thread.start();
+	}
+
+	private InetSocketAddress resolveBoundAddress() {
+		final var bound = (InetSocketAddress) server.socket().getLocalSocketAddress();
+		return new InetSocketAddress(bound.getAddress(), bound.getPort());
+	}
+
+	/**
+	 * @return The address this transport is listening on
+	 */
+	public InetSocketAddress address() {
+		return address;
+	}
+
+	/**
+	 * Get the {@link ActorRef} for the actor with a given uuid living in the {@link ActorSystem}
+	 * which transport listens on a given address. No network communication is done here, the
+	 * connection is established lazily when first message is sent.
+	 *
+	 * @param address the address of the remote system
+	 * @param uuid the actor uuid in the remote system
+	 * @return The {@link ActorRef} of the remote actor
+	 */
+	public ActorRef actorFor(final InetSocketAddress address, final long uuid) {
+
+		if (address.equals(this.address)) {
+			return system.find(uuid);
+		}
+
+		final var outbound = outbounds.computeIfAbsent(address, Outbound::new);
+
+		return new RemoteActorRef(system, outbound, address, uuid);
+	}
+
+	@Override
+	public void shutdown() {
+
+		running = false;
+		selector.wakeup();
+
+		try {
+			thread.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private void loop() {
+		try {
+			while (running) {
+				selector.select(SELECT_TIMEOUT);
+				processSelectedKeys();
+				flushReady();
+			}
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		} finally {
+			closeAll();
+		}
+	}
+
+	private void processSelectedKeys() {
+
+		final var iterator = selector
+			.selectedKeys()
+			.iterator();
+
+		while (iterator.hasNext()) {
+
+			final var key = iterator.next();
+			iterator.remove();
+
+			if (!key.isValid()) {
+				continue;
+			}
+
+			final var attachment = key.attachment();
+
+			try {
+				if (key.isAcceptable()) {
+					accept();
+				} else if (key.isReadable()) {
+					read((Inbound) attachment);
+				} else if (key.isConnectable()) {
+					connected((Outbound) attachment);
+				} else if (key.isWritable()) {
+					key.interestOps(0);
+					flush((Outbound) attachment);
+				}
+			} catch (ProtocolException e) {
+
+				LOG.log(WARNING, "Closing connection from " + remoteAddress(key) + ", " + e.getMessage(), e.getCause());
+
+				close(key);
+
+			} catch (IOException | RuntimeException e) {
+
+				// only this connection is broken, the other ones and the I/O thread must survive
+
+				if (attachment instanceof Outbound) {
+					disconnect((Outbound) attachment);
+				} else {
+					close(key);
+				}
+			}
+		}
+	}
+
+	private void flushReady() {
+
+		Outbound outbound;
+
+		while ((outbound = ready.poll()) != null) {
+			try {
+				flush(outbound);
+			} catch (IOException | RuntimeException e) {
+				disconnect(outbound);
+			}
+		}
+	}
+
+	private void accept() throws IOException {
+
+		final var channel = server.accept();
+		if (channel == null) {
+			return;
+		}
+
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+		channel.register(selector, OP_READ, new Inbound(channel, buffers.acquire()));
+	}
+
+	// ----------------------------------------------------------------------------------------
+	// outbound side
+
+	private void connect(final Outbound outbound) throws IOException {
+
+		final var channel = SocketChannel.open();
+		channel.configureBlocking(false);
+		channel.setOption(StandardSocketOptions.TCP_NODELAY, true);
+
+		outbound.channel = channel;
+		outbound.key = channel.register(selector, OP_CONNECT, outbound);
+
+		if (channel.connect(outbound.address)) {
+			connected(outbound);
+		}
+	}
+
+	private void connected(final Outbound outbound) throws IOException {
+
+		if (!outbound.channel.finishConnect()) {
+			return;
+		}
+
+		final var buffer = buffers.acquire();
+
+		writeHello(buffer);
+		buffer.flip();
+
+		outbound.key.interestOps(0);
+		outbound.connected = true;
+		outbound.pending = buffer;
+		outbound.schedule();
+	}
+
+	private void flush(final Outbound outbound) throws IOException {
+
+		// reset the flag before draining so the deposits done in the meantime will schedule this
+		// outbound again and no message is left in the queue unnoticed
+
+		outbound.scheduled.set(false);
+
+		if (outbound.channel == null) {
+			connect(outbound);
+			return;
+		}
+		if (!outbound.connected) {
+			return; // wait for connection to complete
+		}
+		if (outbound.pending != null && !writePending(outbound)) {
+			return; // socket buffer is full, wait for OP_WRITE
+		}
+
+		while (!outbound.queue.isEmpty()) {
+
+			outbound.pending = encode(outbound, buffers.acquire());
+			outbound.pending.flip();
+
+			if (!writePending(outbound)) {
+				return;
+			}
+		}
+	}
+
+	/**
+	 * Write pending buffer into the channel.
+	 *
+	 * @return True if all bytes have been written, false otherwise
+	 */
+	private boolean writePending(final Outbound outbound) throws IOException {
+
+		final var buffer = outbound.pending;
+
+		outbound.channel.write(buffer);
+
+		if (buffer.hasRemaining()) {
+			outbound.key.interestOps(OP_WRITE);
+			return false;
+		}
+
+		outbound.pending = null;
+		buffers.release(buffer);
+
+		return true;
+	}
+
+	/**
+	 * Coalesce as many queued messages as possible into the buffer.
+	 *
+	 * @return The buffer with encoded messages (can be different than the one provided in the
+	 *         argument when single message was too big to fit)
+	 */
+	private ByteBuffer encode(final Outbound outbound, ByteBuffer buffer) {
+
+		final var queue = outbound.queue;
+
+		Envelope envelope;
+
+		while ((envelope = queue.peek()) != null) {
+
+			final int start = buffer.position();
+
+			try {
+				writeMessage(envelope, buffer);
+			} catch (BufferOverflowException e) {
+				buffer.position(start);
+				if (start > 0) {
+					return buffer; // buffer full, send what we have and continue later
+				} else {
+					buffer = grow(buffer);
+					continue;
+				}
+			} catch (RuntimeException e) {
+				buffer.position(start);
+				queue.poll();
+				system.forwardToDeadLetters(envelope);
+				continue;
+			}
+
+			queue.poll();
+		}
+
+		return buffer;
+	}
+
+	private ByteBuffer grow(final ByteBuffer buffer) {
+		buffers.release(buffer);
+		return buffers.acquire(buffer.capacity() * 2);
+	}
+
+	private void writeHello(final ByteBuffer buffer) {
+
+		final int start = buffer.position();
+
+		buffer.putInt(0);
+		buffer.put(FRAME_HELLO);
+
+		writeAddress(address, buffer);
+
+		buffer.putInt(start, buffer.position() - start - 4);
+	}
+
+	private void writeMessage(final Envelope envelope, final ByteBuffer buffer) {
+
+		final int start = buffer.position();
+
+		buffer.putInt(0);
+		buffer.put(FRAME_MESSAGE);
+		buffer.putLong(envelope.target.uuid());
+
+		writeSender(envelope.sender, buffer);
+
+		serializer.serialize(envelope.payload(), buffer);
+
+		buffer.putInt(start, buffer.position() - start - 4);
+	}
+
+	private void writeSender(final ActorRef sender, final ByteBuffer buffer) {
+		if (sender == null || sender.uuid() == ZERO_UUID) {
+			buffer.put(NO_SENDER);
+		} else if (sender instanceof RemoteActorRef) {
+			buffer.put(REMOTE_SENDER);
+			writeAddress(((RemoteActorRef) sender).address, buffer);
+			buffer.putLong(sender.uuid());
+		} else {
+			buffer.put(PEER_SENDER);
+			buffer.putLong(sender.uuid());
+		}
+	}
+
+	static void writeAddress(final InetSocketAddress address, final ByteBuffer buffer) {
+
+		final var host = address
+			.getHostString()
+			.getBytes(UTF_8);
+
+		buffer.putShort((short) host.length);
+		buffer.put(host);
+		buffer.putInt(address.getPort());
+	}
+
+	private void disconnect(final Outbound outbound) {
+
+		close(outbound.key);
+
+		if (outbound.pending != null) {
+			buffers.release(outbound.pending);
+		}
+
+		outbound.channel = null;
+		outbound.key = null;
+		outbound.pending = null;
+		outbound.connected = false;
+
+		// Messages which has not been sent yet are lost. Next deposit will reconnect.
+
+		Envelope envelope;
+		while ((envelope = outbound.queue.poll()) != null) {
+			system.forwardToDeadLetters(envelope);
+		}
+	}
+
+	// ----------------------------------------------------------------------------------------
+	// inbound side
+
+	private void read(final Inbound inbound) throws IOException {
+
+		if (inbound.channel.read(inbound.buffer) < 0) {
+			throw new IOException("Connection closed by peer");
+		}
+
+		final var buffer = inbound.buffer.flip();
+
+		while (buffer.remaining() >= 4) {
+
+			final int position = buffer.position();
+			final int length = buffer.getInt(position);
+
+			if (length < 1 || length > maxFrameSize) {
+				throw new ProtocolException("invalid frame length " + length);
+			}
+
+			if (buffer.remaining() - 4 < length) {
+				if (length + 4 > buffer.capacity()) {
+					inbound.buffer = enlarge(buffer, length + 4);
+					return;
+				}
+				break;
+			}
+
+			// decode the frame in place by narrowing the buffer to the frame bytes
+
+			final int limit = buffer.limit();
+			final int end = position + 4 + length;
+
+			buffer
+				.limit(end)
+				.position(position + 4);
+
+			decode(inbound, buffer);
+
+			buffer
+				.limit(limit)
+				.position(end);
+		}
+
+		// the buffer enlarged for the big frame is not kept when that frame has been decoded
+
+		if (buffer.capacity() > buffers.size() && buffer.remaining() <= buffers.size()) {
+			inbound.buffer = shrink(buffer);
+		} else {
+			buffer.compact();
+		}
+	}
+
+	private ByteBuffer shrink(final ByteBuffer buffer) {
+
+		final var shrunk = buffers.acquire();
+
+		shrunk.put(buffer);
+
+		return shrunk;
+	}
+
+	private ByteBuffer enlarge(final ByteBuffer buffer, final int capacity) {
+
+		final var enlarged = buffers.acquire(capacity);
+
+		enlarged.put(buffer);
+		buffers.release(buffer);
+
+		return enlarged;
+	}
+
+	private void decode(final Inbound inbound, final ByteBuffer frame) throws ProtocolException {
+
+		final byte type = frame.get();
+
+		switch (type) {
+			case FRAME_HELLO:
+				decodeHello(inbound, frame);
+				break;
+			case FRAME_MESSAGE:
+				decodeMessage(inbound, frame);
+				break;
+			default:
+				throw new ProtocolException("unknown frame type " + type);
+		}
+	}
+
+	private void decodeHello(final Inbound inbound, final ByteBuffer frame) throws ProtocolException {
+		try {
+			inbound.peer = readPeerAddress(frame);
+		} catch (BufferUnderflowException e) {
+			throw new ProtocolException("malformed hello frame", e);
+		}
+	}
+
+	private void decodeMessage(final Inbound inbound, final ByteBuffer frame) throws ProtocolException {
+
+		if (inbound.peer == null) {
+			throw new ProtocolException("message received before hello");
+		}
+
+		final long uuid;
+		final ActorRef sender;
+
+		try {
+			uuid = frame.getLong();
+			sender = readSender(inbound, frame);
+		} catch (BufferUnderflowException e) {
+			throw new ProtocolException("malformed message frame", e);
+		}
+
+		final Object message;
+
+		try {
+			message = serializer.deserialize(frame);
+		} catch (RuntimeException e) {
+			LOG.log(WARNING, "Dropping message to " + uuid + " from " + inbound.peer + " which cannot be deserialized", e);
+			return;
+		}
+
+		system.tell(message, system.resolve(uuid), sender);
+	}
+
+	private ActorRef readSender(final Inbound inbound, final ByteBuffer frame) throws ProtocolException {
+
+		final byte type = frame.get();
+
+		switch (type) {
+			case NO_SENDER:
+				return system.noSender();
+			case PEER_SENDER:
+				return actorFor(inbound.peer, frame.getLong());
+			case REMOTE_SENDER:
+				return remoteSender(readPeerAddress(frame), frame.getLong());
+			default:
+				throw new ProtocolException("unknown sender type " + type);
+		}
+	}
+
+	/**
+	 * The sender living in the third system. The connection to its system is created only when it
+	 * is already known or the limit of the systems learned from the peers is not reached yet.
+	 */
+	private ActorRef remoteSender(final InetSocketAddress address, final long uuid) {
+
+		final boolean known = address.equals(this.address) || outbounds.containsKey(address);
+
+		if (!known) {
+			if (remoteSenderSystems >= maxRemoteSenderSystems) {
+				LOG.log(WARNING, "Too many remote sender systems, the sender from " + address + " is dropped");
+				return system.noSender();
+			}
+			remoteSenderSystems++;
+		}
+
+		return actorFor(address, uuid);
+	}
+
+	/**
+	 * Read the address received from the peer and check if it is the valid one.
+	 */
+	private static InetSocketAddress readPeerAddress(final ByteBuffer frame) throws ProtocolException {
+
+		final int length = frame.getShort();
+
+		if (length < 1 || length > MAX_HOST_LENGTH) {
+			throw new ProtocolException("invalid host length " + length);
+		}
+
+		final var host = new byte[length];
+		frame.get(host);
+
+		final int port = frame.getInt();
+
+		if (port < 1 || port > 0xFFFF) {
+			throw new ProtocolException("invalid port " + port);
+		}
+
+		final var address = new InetSocketAddress(new String(host, UTF_8), port);
+
+		if (address.isUnresolved()) {
+			throw new ProtocolException("unresolved address " + address);
+		}
+
+		return address;
+	}
+
+	static InetSocketAddress readAddress(final ByteBuffer buffer) {
+
+		final var host = new byte[buffer.getShort()];
+		buffer.get(host);
+
+		return new InetSocketAddress(new String(host, UTF_8), buffer.getInt());
+	}
+
+	private static Object remoteAddress(final SelectionKey key) {
+		return ((SocketChannel) key.channel())
+			.socket()
+			.getRemoteSocketAddress();
+	}
+
+	private void close(final SelectionKey key) {
+
+		if (key == null) {
+			return;
+		}
+
+		key.cancel();
+
+		try {
+			key
+				.channel()
+				.close();
+		} catch (IOException e) {
+			// ignore, we are closing anyway
+		}
+	}
+
+	private void closeAll() {
+		for (final var key : selector.keys()) {
+			close(key);
+		}
+		try {
+			selector.close();
+		} catch (IOException e) {
+			// ignore, we are closing anyway
+		}
+	}
+
+	/**
+	 * The outgoing connection to the remote {@link ActorSystem}. This is the {@link Dispatcher} of
+	 * every {@link RemoteActorRef} pointing to the given address.
+	 */
+	final class Outbound implements Dispatcher {
+
+		final MpscUnboundedArrayQueue<Envelope> queue = new MpscUnboundedArrayQueue<>(64);
+		final AtomicBoolean scheduled = new AtomicBoolean(false);
+		final InetSocketAddress address;
+
+		// the fields below are accessed only by the I/O thread
+
+		SocketChannel channel;
+		SelectionKey key;
+		ByteBuffer pending;
+		boolean connected;
+
+		Outbound(final InetSocketAddress address) {
+			this.address = address;
+		}
+
+		@Override
+		public void deposit(final Envelope envelope) {
+			queue.offer(envelope);
+			schedule();
+		}
+
+		/**
+		 * Put this outbound on the ready list and wake up the I/O thread, but only once per the
+		 * loop iteration.
+		 */
+		void schedule() {
+			if (!scheduled.get() && scheduled.compareAndSet(false, true)) {
+				ready.offer(this);
+				selector.wakeup();
+			}
+		}
+	}
+
+	/**
+	 * Thrown when the peer breaks the protocol. The connection is closed then.
+	 */
+	static final class ProtocolException extends IOException {
+
+		private static final long serialVersionUID = 1L;
+
+		ProtocolException(final String message) {
+			super(message);
+		}
+
+		ProtocolException(final String message, final Throwable cause) {
+			super(message, cause);
+		}
+	}
+
+	/**
+	 * The incoming connection from the remote {@link ActorSystem}.
+	 */
+	static final class Inbound {
+
+		final SocketChannel channel;
+		ByteBuffer buffer;
+
+		/**
+		 * The address remote system listens on (received in the hello frame).
+		 */
+		InetSocketAddress peer;
+
+		Inbound(final SocketChannel channel, final ByteBuffer buffer) {
+			this.channel = channel;
+			this.buffer = buffer;
+		}
+	}
+}
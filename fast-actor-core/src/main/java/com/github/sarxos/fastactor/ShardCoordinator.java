@@ -0,0 +1,170 @@
+package com.github.sarxos.fastactor;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.github.sarxos.fastactor.ClusterSharding.GetShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.HandOff;
+import com.github.sarxos.fastactor.ClusterSharding.Register;
+import com.github.sarxos.fastactor.ClusterSharding.ShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.ShardStopped;
+import com.github.sarxos.fastactor.dsl.Base;
+
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.ints.IntOpenHashSet;
+
+
+/**
+ * The shard coordinator. Allocates shards to the regions and moves shards to the new regions when
+ * they join.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+class ShardCoordinator extends Actor implements Base {
+
+	private final List<Region> regions = new ArrayList<>();
+	private final Int2ObjectOpenHashMap<Region> owners = new Int2ObjectOpenHashMap<>();
+
+	/**
+	 * Shards being handed off, by the region they move to.
+	 */
+	private final Int2ObjectOpenHashMap<Region> rebalancing = new Int2ObjectOpenHashMap<>();
+
+	@Override
+	public Receive receive() {
+		return super.receive()
+			.match(Register.class, this::onRegister)
+			.match(GetShardHome.class, this::onGetShardHome)
+			.match(ShardStopped.class, this::onShardStopped);
+	}
+
+	private void onRegister(final Register register) {
+
+		// the region registers again after it has been restarted, it still owns its shards
+
+		for (final Region region : regions) {
+			if (region.ref.equals(sender())) {
+				return;
+			}
+		}
+
+		final var region = new Region(sender(), register.address);
+
+		regions.add(region);
+
+		rebalance(region);
+	}
+
+	private void onGetShardHome(final GetShardHome get) {
+
+		final int shard = get.shard;
+
+		// when shard is being moved, every region gets its new home when hand-off completes
+
+		if (rebalancing.containsKey(shard)) {
+			return;
+		}
+
+		var owner = owners.get(shard);
+		if (owner == null) {
+			if (regions.isEmpty()) {
+				return;
+			}
+			allocate(shard, owner = leastLoaded());
+		}
+
+		sender().tell(owner.home(shard), self());
+	}
+
+	private void onShardStopped(final ShardStopped stopped) {
+
+		final int shard = stopped.shard;
+		final var region = rebalancing.remove(shard);
+
+		if (region == null) {
+			return;
+		}
+
+		allocate(shard, region);
+
+		final var home = region.home(shard);
+
+		for (final Region r : regions) {
+			r.ref.tell(home, self());
+		}
+	}
+
+	private void allocate(final int shard, final Region region) {
+		owners.put(shard, region);
+		region.shards.add(shard);
+	}
+
+	/**
+	 * Move shards from the most loaded regions to the new one, until the new region has its fair
+	 * share of the allocated shards.
+	 */
+	private void rebalance(final Region region) {
+
+		final int allocated = owners.size() + rebalancing.size();
+		final int target = allocated / regions.size();
+
+		for (int incoming = 0; incoming < target; incoming++) {
+
+			final var donor = mostLoaded();
+			if (donor == region || donor.shards.size() <= target) {
+				return;
+			}
+
+			final int shard = donor.shards.iterator().nextInt();
+
+			donor.shards.remove(shard);
+			owners.remove(shard);
+			rebalancing.put(shard, region);
+
+			donor.ref.tell(new HandOff(shard), self());
+		}
+	}
+
+	private Region leastLoaded() {
+
+		var least = regions.get(0);
+
+		for (final Region region : regions) {
+			if (region.shards.size() < least.shards.size()) {
+				least = region;
+			}
+		}
+
+		return least;
+	}
+
+	private Region mostLoaded() {
+
+		var most = regions.get(0);
+
+		for (final Region region : regions) {
+			if (region.shards.size() > most.shards.size()) {
+				most = region;
+			}
+		}
+
+		return most;
+	}
+
+	private static final class Region {
+
+		final ActorRef ref;
+		final InetSocketAddress address;
+		final IntOpenHashSet shards = new IntOpenHashSet();
+
+		Region(final ActorRef ref, final InetSocketAddress address) {
+			this.ref = ref;
+			this.address = address;
+		}
+
+		ShardHome home(final int shard) {
+			return new ShardHome(shard, address, ref.uuid());
+		}
+	}
+}
@@ -0,0 +1,226 @@
+package com.github.sarxos.fastactor;
+
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+import com.github.sarxos.fastactor.ClusterSharding.EntityExtractor;
+import com.github.sarxos.fastactor.ClusterSharding.GetShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.HandOff;
+import com.github.sarxos.fastactor.ClusterSharding.Register;
+import com.github.sarxos.fastactor.ClusterSharding.ShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.ShardStopped;
+import com.github.sarxos.fastactor.DeathWatch.Terminated;
+import com.github.sarxos.fastactor.dsl.Base;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+
+/**
+ * The shard region. Routes messages to the entities, either to the local ones (which are its
+ * children) or to the region owning the shard of the entity.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+class ShardRegion extends Actor implements Base {
+
+	private final ActorRef coordinator;
+	private final int shards;
+	private final Function<String, Props<?>> entityProps;
+	private final EntityExtractor extractor;
+
+	/**
+	 * The local copy of the shard to region table, null means the owner is not yet known.
+	 */
+	private final ActorRef[] homes;
+
+	/**
+	 * The local entities, by shard and entity id.
+	 */
+	private final Map<String, ActorRef>[] entities;
+
+	/**
+	 * The entities of the shards being handed off, by shard and entity id. The coordinator is told
+	 * that the shard has stopped when the last of them has terminated.
+	 */
+	private final Map<String, ActorRef>[] stopping;
+
+	/**
+	 * The ids of the local entities, by entity uuid. The entities are watched, so the terminated
+	 * one can be found and removed, and created again by the next message.
+	 */
+	private final Long2ObjectOpenHashMap<String> entityIds = new Long2ObjectOpenHashMap<>();
+
+	/**
+	 * Messages waiting for the coordinator to tell the owner of their shard.
+	 */
+	private final List<Envelope>[] buffers;
+
+	private ActorRef self;
+	private InetSocketAddress address;
+
+	@SuppressWarnings("unchecked")
+	ShardRegion(final ActorRef coordinator, final int shards, final Function<String, Props<?>> entityProps, final EntityExtractor extractor) {
+		this.coordinator = coordinator;
+		this.shards = shards;
+		this.entityProps = entityProps;
+		this.extractor = extractor;
+		this.homes = new ActorRef[shards];
+		this.entities = new Map[shards];
+		this.stopping = new Map[shards];
+		this.buffers = new List[shards];
+	}
+
+	@Override
+	public void preStart() {
+
+		final var remote = system().remote;
+
+		self = self();
+		address = remote == null ? null : remote.address();
+
+		coordinator.tell(new Register(address), self);
+	}
+
+	@Override
+	public Receive receive() {
+		return super.receive()
+			.match(ShardHome.class, this::onShardHome)
+			.match(HandOff.class, this::onHandOff)
+			.match(Terminated.class, this::onTerminated)
+			.matchAny(message -> route(message, sender()));
+	}
+
+	int shardOf(final String entityId) {
+		return Math.floorMod(entityId.hashCode(), shards);
+	}
+
+	private void route(final Object message, final ActorRef sender) {
+
+		final var entityId = extractor.entityId(message);
+
+		if (entityId == null) {
+			system().forwardToDeadLetters(new Envelope(message, self, sender));
+			return;
+		}
+
+		final int shard = shardOf(entityId);
+		final var home = homes[shard];
+
+		if (home == self) {
+			deliver(shard, entityId, message, sender);
+		} else if (home != null) {
+			home.tell(message, sender);
+		} else {
+			buffer(shard, message, sender);
+		}
+	}
+
+	private void deliver(final int shard, final String entityId, final Object message, final ActorRef sender) {
+
+		var shardEntities = entities[shard];
+		if (shardEntities == null) {
+			shardEntities = entities[shard] = new HashMap<>();
+		}
+
+		var entity = shardEntities.get(entityId);
+		if (entity == null) {
+			shardEntities.put(entityId, entity = context().actorOf(entityProps.apply(entityId)));
+			entityIds.put(entity.uuid(), entityId);
+			context().watch(entity);
+		}
+
+		entity.tell(extractor.entityMessage(message), sender);
+	}
+
+	private void buffer(final int shard, final Object message, final ActorRef sender) {
+
+		var buffer = buffers[shard];
+
+		// ask coordinator only once, the following messages just wait for the answer
+
+		if (buffer == null) {
+			buffer = buffers[shard] = new ArrayList<>(1);
+			coordinator.tell(new GetShardHome(shard), self);
+		}
+
+		buffer.add(new Envelope(message, self, sender));
+	}
+
+	private void onShardHome(final ShardHome home) {
+
+		final int shard = home.shard;
+		final var buffer = buffers[shard];
+
+		homes[shard] = regionOf(home);
+		buffers[shard] = null;
+
+		if (buffer != null) {
+			for (final Envelope envelope : buffer) {
+				route(envelope.message, envelope.sender);
+			}
+		}
+	}
+
+	private ActorRef regionOf(final ShardHome home) {
+		if (home.uuid == self.uuid() && (home.address == null || home.address.equals(address))) {
+			return self;
+		} else if (home.address == null) {
+			return system().find(home.uuid); // remoting is not enabled, so it's the local region
+		} else {
+			return system().remote().actorFor(home.address, home.uuid);
+		}
+	}
+
+	private void onHandOff(final HandOff handOff) {
+
+		final int shard = handOff.shard;
+		final var shardEntities = entities[shard];
+
+		// messages coming from now on will wait for the new owner
+
+		homes[shard] = null;
+		entities[shard] = null;
+
+		if (shardEntities == null || shardEntities.isEmpty()) {
+			coordinator.tell(new ShardStopped(shard), self);
+			return;
+		}
+
+		// the new owner must not create the entities until the old ones are gone, so the shard is
+		// stopped when all of them have terminated
+
+		stopping[shard] = shardEntities;
+
+		shardEntities
+			.values()
+			.forEach(system()::stop);
+	}
+
+	private void onTerminated(final Terminated terminated) {
+
+		final var entity = terminated.ref();
+		final var entityId = entityIds.remove(entity.uuid());
+
+		if (entityId == null) {
+			return;
+		}
+
+		final int shard = shardOf(entityId);
+		final var shardEntities = entities[shard];
+
+		if (shardEntities != null) {
+			shardEntities.remove(entityId, entity);
+		}
+
+		final var stoppingEntities = stopping[shard];
+
+		if (stoppingEntities != null && stoppingEntities.remove(entityId, entity) && stoppingEntities.isEmpty()) {
+			stopping[shard] = null;
+			coordinator.tell(new ShardStopped(shard), self);
+		}
+	}
+}
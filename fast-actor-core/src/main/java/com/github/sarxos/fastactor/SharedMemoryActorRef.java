@@ -0,0 +1,56 @@
+package com.github.sarxos.fastactor;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+
+/**
+ * The {@link ActorRef} pointing to the actor living in the other {@link ActorSystem} on the same
+ * host, connected with this one by the {@link SharedMemoryTransport}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class SharedMemoryActorRef extends ActorRef {
+
+	/**
+	 * The file of the ring buffer the messages to the target actor are written to.
+	 */
+	final Path channel;
+
+	SharedMemoryActorRef(final ActorSystem system, final Dispatcher dispatcher, final Path channel, final long uuid) {
+		super(system, dispatcher, uuid);
+		this.channel = channel;
+	}
+
+	@Override
+	public String toString() {
+		return "fa+shm://" + channel + "/" + uuid();
+	}
+
+	@Override
+	public int hashCode() {
+		final int prime = 31;
+		int result = 1;
+		result = prime * result + channel.hashCode();
+		result = prime * result + Long.hashCode(uuid());
+		return result;
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+
+		if (this == obj) {
+			return true;
+		}
+		if (obj == null) {
+			return false;
+		}
+		if (getClass() != obj.getClass()) {
+			return false;
+		}
+
+		final var ref = (SharedMemoryActorRef) obj;
+
+		return uuid() == ref.uuid() && Objects.equals(channel, ref.channel);
+	}
+}
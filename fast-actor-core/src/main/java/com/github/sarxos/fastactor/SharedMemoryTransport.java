@@ -0,0 +1,382 @@
+package com.github.sarxos.fastactor;
+
+import static com.github.sarxos.fastactor.ActorSystem.ZERO_UUID;
+import static java.lang.System.Logger.Level.WARNING;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.LockSupport;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.jctools.queues.MpscArrayQueue;
+
+import com.github.sarxos.fastactor.MappedRingBuffer.OfferStatus;
+
+
+/**
+ * Transport connecting two {@link ActorSystem}s running on the same host (usually in different
+ * processes) with a pair of memory mapped ring buffers, one per direction. There is no system call
+ * and no copy on the way, the sending actor thread serializes the envelope directly into the mapped
+ * region and the reader thread on the other side decodes it in place.
+ * <p>
+ *
+ * Every side writes to its outbox file and reads from its inbox file, so the other side must be
+ * configured with the same files, but swapped:
+ *
+ * <pre>
+ * system1.withTransport(new SharedMemoryTransport(a2b, b2a));
+ * system2.withTransport(new SharedMemoryTransport(b2a, a2b));
+ * </pre>
+ *
+ * The ring buffer has a single producer per direction. Actor threads of this system writing into
+ * the outbox are serialized with a lock, so they are seen as a single producer by the other
+ * process. Actor thread never waits for the other process. When the outbox is full, or the lock is
+ * taken, the envelope is put into the backlog of up to {@link #BACKLOG} envelopes and written by
+ * the writer thread as soon as the reader on the other side makes room for it. The following
+ * envelopes go to the backlog too until it is empty, so the order is preserved. Messages which
+ * could not be written, or did not fit into the backlog, are forwarded to the dead letters.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class SharedMemoryTransport implements Transport {
+
+	/**
+	 * Default capacity of the ring buffer (per direction).
+	 */
+	public static final int DEFAULT_CAPACITY = 1 << 20;
+
+	/**
+	 * How many envelopes can wait for the free space in the outbox.
+	 */
+	static final int BACKLOG = 64 * 1024;
+
+	/**
+	 * How many records reader processes before it publishes the read position.
+	 */
+	static final int READ_BATCH = 256;
+
+	static final int IDLE_SPINS = 10_000;
+	static final int IDLE_YIELDS = 100;
+	static final long IDLE_PARK = Duration.ofMillis(1).toNanos();
+
+	static final byte NO_SENDER = 0;
+	static final byte PEER_SENDER = 1;
+	static final byte REMOTE_SENDER = 2;
+
+	private static final System.Logger LOG = System.getLogger(SharedMemoryTransport.class.getName());
+
+	private final Path outboxPath;
+	private final Path inboxPath;
+	private final int capacity;
+
+	private MessageSerializer serializer;
+	private ActorSystem system;
+	private MappedRingBuffer outbox;
+	private MappedRingBuffer inbox;
+	private Outbox dispatcher;
+	private Thread reader;
+	private Thread writer;
+	private volatile boolean running;
+
+	/**
+	 * @param outbox the file to write messages into
+	 * @param inbox the file to read messages from
+	 */
+	public SharedMemoryTransport(final Path outbox, final Path inbox) {
+		this(outbox, inbox, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * @param outbox the file to write messages into
+	 * @param inbox the file to read messages from
+	 * @param capacity the capacity of the ring buffer in bytes (must be power of two)
+	 */
+	public SharedMemoryTransport(final Path outbox, final Path inbox, final int capacity) {
+		this.outboxPath = outbox;
+		this.inboxPath = inbox;
+		this.capacity = capacity;
+	}
+
+	/**
+	 * Use the given {@link MessageSerializer}. When not set, the
+	 * {@link ActorSystem#serialization()} is used.
+	 *
+	 * @param serializer the {@link MessageSerializer}
+	 * @return This transport
+	 */
+	public SharedMemoryTransport withSerializer(final MessageSerializer serializer) {
+
+		if (serializer == null) {
+			throw new IllegalArgumentException("Serializer must not be null");
+		}
+
+		this.serializer = serializer;
+
+		return this;
+	}
+
+	@Override
+	public void start(final ActorSystem system) {
+
+		this.system = system;
+
+		if (serializer == null) {
+			serializer = system.serialization();
+		}
+
+		outbox = new MappedRingBuffer(outboxPath, capacity);
+		inbox = new MappedRingBuffer(inboxPath, capacity);
+		dispatcher = new Outbox();
+		running = true;
+
+		reader = new Thread(this::read, "shm-reader@" + system.getName());
+		reader.setDaemon(false);
+		reader.start();
+
+		writer = new Thread(dispatcher::write, "shm-writer@" + system.getName());
+		writer.setDaemon(false);
+		writer.start();
+	}
+
+	@Override
+	public void shutdown() {
+
+		if (reader == null) {
+			return;
+		}
+
+		running = false;
+
+		LockSupport.unpark(reader);
+		LockSupport.unpark(writer);
+
+		try {
+			reader.join();
+			writer.join();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Get the {@link ActorRef} of the actor with a given uuid living in the {@link ActorSystem} on
+	 * the other side of this transport.
+	 *
+	 * @param uuid the actor uuid in the other system
+	 * @return The {@link ActorRef}
+	 */
+	public ActorRef actorFor(final long uuid) {
+		return new SharedMemoryActorRef(system, dispatcher, outboxPath, uuid);
+	}
+
+	// ----------------------------------------------------------------------------------------
+	// writer side
+
+	/**
+	 * The {@link Dispatcher} of every {@link SharedMemoryActorRef} created by this transport.
+	 */
+	final class Outbox implements Dispatcher {
+
+		/**
+		 * Held by whoever writes into the outbox, so there is a single producer.
+		 */
+		private final ReentrantLock lock = new ReentrantLock();
+
+		/**
+		 * The envelopes waiting for the free space in the outbox. Only the writer thread removes
+		 * them, and it does it after they are written, so backlog is not empty until then.
+		 */
+		private final MpscArrayQueue<Envelope> backlog = new MpscArrayQueue<>(BACKLOG);
+
+		@Override
+		public void deposit(final Envelope envelope) {
+
+			// write directly when nothing waits in the backlog, it must be checked again with the
+			// lock held, because writer could have taken the lock between the checks
+
+			if (backlog.isEmpty() && lock.tryLock()) {
+				try {
+					if (backlog.isEmpty() && offer(envelope) != OfferStatus.FULL) {
+						return;
+					}
+				} finally {
+					lock.unlock();
+				}
+			}
+
+			if (backlog.offer(envelope)) {
+				LockSupport.unpark(writer);
+			} else {
+				system.forwardToDeadLetters(envelope);
+			}
+		}
+
+		/**
+		 * @param envelope the envelope to write
+		 * @return The status, the envelope was forwarded to the dead letters unless it is
+		 *         {@link OfferStatus#WRITTEN} or {@link OfferStatus#FULL}
+		 */
+		private OfferStatus offer(final Envelope envelope) {
+
+			OfferStatus status;
+			try {
+				status = outbox.offer(envelope, SharedMemoryTransport.this::writeEnvelope);
+			} catch (RuntimeException e) {
+				status = OfferStatus.TOO_BIG; // cannot serialize
+			}
+
+			if (status != OfferStatus.WRITTEN && status != OfferStatus.FULL) {
+				system.forwardToDeadLetters(envelope);
+			}
+
+			return status;
+		}
+
+		/**
+		 * The loop of the writer thread. It waits for the envelopes in the backlog and for the
+		 * free space in the outbox, which is what the actor threads must not do.
+		 */
+		void write() {
+
+			var idle = 0;
+
+			while (running) {
+				if (drain()) {
+					idle = 0;
+				} else if (backlog.isEmpty()) {
+					LockSupport.parkNanos(IDLE_PARK);
+				} else {
+					idle(idle++); // outbox is full, wait for the reader on the other side
+				}
+			}
+
+			Envelope envelope;
+			while ((envelope = backlog.poll()) != null) {
+				system.forwardToDeadLetters(envelope);
+			}
+		}
+
+		/**
+		 * @return True if any envelope has been removed from the backlog, false otherwise
+		 */
+		private boolean drain() {
+
+			var drained = false;
+
+			lock.lock();
+			try {
+
+				Envelope envelope;
+				while ((envelope = backlog.peek()) != null && offer(envelope) != OfferStatus.FULL) {
+					backlog.poll();
+					drained = true;
+				}
+
+			} finally {
+				lock.unlock();
+			}
+
+			return drained;
+		}
+	}
+
+	private void writeEnvelope(final Envelope envelope, final ByteBuffer buffer) {
+
+		final var sender = envelope.sender;
+
+		buffer.putLong(envelope.target.uuid());
+
+		if (sender == null || sender.uuid() == ZERO_UUID || sender instanceof SharedMemoryActorRef) {
+
+			// shared memory reference cannot point anywhere else than to the system on the other
+			// side, so there is no way to reply to it from there
+
+			buffer.put(NO_SENDER);
+
+		} else if (sender instanceof RemoteActorRef) {
+			buffer.put(REMOTE_SENDER);
+			RemoteTransport.writeAddress(((RemoteActorRef) sender).address, buffer);
+			buffer.putLong(sender.uuid());
+		} else {
+			buffer.put(PEER_SENDER);
+			buffer.putLong(sender.uuid());
+		}
+
+		serializer.serialize(envelope.payload(), buffer);
+	}
+
+	// ----------------------------------------------------------------------------------------
+	// reader side
+
+	private void read() {
+
+		var idle = 0;
+
+		while (running) {
+			if (inbox.poll(this::readEnvelope, READ_BATCH) > 0) {
+				idle = 0;
+			} else {
+				idle(idle++);
+			}
+		}
+	}
+
+	/**
+	 * Spin first to get the lowest latency, then yield and finally park when there is nothing to
+	 * read for a longer time.
+	 */
+	private static void idle(final int idle) {
+		if (idle < IDLE_SPINS) {
+			Thread.onSpinWait();
+		} else if (idle < IDLE_SPINS + IDLE_YIELDS) {
+			Thread.yield();
+		} else {
+			LockSupport.parkNanos(IDLE_PARK);
+		}
+	}
+
+	private void readEnvelope(final ByteBuffer buffer) {
+
+		final long uuid;
+		final ActorRef sender;
+		final Object message;
+
+		// the record bounds are known, so the bad one is skipped and the reader thread goes on
+
+		try {
+			uuid = buffer.getLong();
+			sender = readSender(buffer);
+			message = serializer.deserialize(buffer);
+		} catch (RuntimeException e) {
+			LOG.log(WARNING, "Skipping malformed record read from " + inboxPath, e);
+			return;
+		}
+
+		system.tell(message, system.resolve(uuid), sender);
+	}
+
+	private ActorRef readSender(final ByteBuffer buffer) {
+		switch (buffer.get()) {
+			case PEER_SENDER:
+				return actorFor(buffer.getLong());
+			case REMOTE_SENDER:
+				return remoteSender(buffer);
+			default:
+				return system.noSender();
+		}
+	}
+
+	private ActorRef remoteSender(final ByteBuffer buffer) {
+
+		final var address = RemoteTransport.readAddress(buffer);
+		final var uuid = buffer.getLong();
+		final var remote = system.remote;
+
+		if (remote == null) {
+			return system.noSender(); // remoting not enabled here, there is no way to reply
+		} else {
+			return remote.actorFor(address, uuid);
+		}
+	}
+}
@@ -0,0 +1,83 @@
+package com.github.sarxos.fastactor;
+
+import java.time.Duration;
+
+
+/**
+ * What happened during the {@link ActorSystem#shutdown(Duration)}. The messages are lost only
+ * when the system did not drain or did not stop before the deadline, or when they were told from
+ * outside the system after the shutdown has begun. The immediate {@link ActorSystem#shutdown()}
+ * neither drains nor stops the actors.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class ShutdownReport {
+
+	private final boolean drained;
+	private final boolean stopped;
+	private final long rejected;
+	private final long discarded;
+	private final Duration duration;
+
+	ShutdownReport(final boolean drained, final boolean stopped, final long rejected, final long discarded, final Duration duration) {
+		this.drained = drained;
+		this.stopped = stopped;
+		this.rejected = rejected;
+		this.discarded = discarded;
+		this.duration = duration;
+	}
+
+	/**
+	 * @return True if all the messages were processed before the deadline
+	 */
+	public boolean isDrained() {
+		return drained;
+	}
+
+	/**
+	 * @return True if all the user actors were stopped before the deadline
+	 */
+	public boolean isStopped() {
+		return stopped;
+	}
+
+	/**
+	 * @return The number of messages told from outside the system after the shutdown has begun
+	 */
+	public long getRejected() {
+		return rejected;
+	}
+
+	/**
+	 * @return The number of messages which were still waiting in the queues and inboxes when the
+	 *         threads were terminated
+	 */
+	public long getDiscarded() {
+		return discarded;
+	}
+
+	/**
+	 * @return How long the shutdown took
+	 */
+	public Duration getDuration() {
+		return duration;
+	}
+
+	@Override
+	public String toString() {
+		return new StringBuilder()
+			.append(getClass().getName())
+			.append("[ drained = ")
+			.append(drained)
+			.append(", stopped = ")
+			.append(stopped)
+			.append(", rejected = ")
+			.append(rejected)
+			.append(", discarded = ")
+			.append(discarded)
+			.append(", duration = ")
+			.append(duration)
+			.append(" ]")
+			.toString();
+	}
+}
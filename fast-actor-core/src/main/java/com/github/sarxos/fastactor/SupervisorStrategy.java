@@ -0,0 +1,144 @@
+package com.github.sarxos.fastactor;
+
+import java.time.Duration;
+import java.util.function.Function;
+
+
+/**
+ * This class represents immutable strategy used by the parent {@link Actor} to decide what should
+ * happen with a child {@link Actor} which failed, i.e. the one which has thrown an exception while
+ * processing the message. The failed child is suspended (it does not process messages, but its
+ * inbox is kept intact) until the parent makes its {@link Decision}.
+ * <p>
+ *
+ * Restarts can be rate-limited. When the child fails more than the configured number of times
+ * within the time window, it is stopped instead of being restarted again.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class SupervisorStrategy {
+
+	/**
+	 * What to do with the failed child.
+	 */
+	public enum Decision {
+
+		/**
+		 * Drop the message which caused the failure and continue with the next one, keeping the
+		 * current {@link Actor} instance and its state.
+		 */
+		RESUME,
+
+		/**
+		 * Create new {@link Actor} instance from the {@link Props} and continue with the next
+		 * message. Messages waiting in the inbox are not lost.
+		 */
+		RESTART,
+
+		/**
+		 * Stop the child.
+		 */
+		STOP,
+
+		/**
+		 * Fail the parent with the same cause and let the grandparent decide.
+		 */
+		ESCALATE,
+	}
+
+	public static final int UNLIMITED_RESTARTS = -1;
+
+	/**
+	 * Restart on any {@link Exception} (up to 10 times a minute), escalate on errors.
+	 */
+	public static final SupervisorStrategy DEFAULT = SupervisorStrategy
+		.create(cause -> cause instanceof Exception ? Decision.RESTART : Decision.ESCALATE)
+		.withMaxRestarts(10, Duration.ofMinutes(1));
+
+	/**
+	 * Stop on any failure.
+	 */
+	public static final SupervisorStrategy STOPPING = SupervisorStrategy.create(cause -> Decision.STOP);
+
+	final Function<Throwable, Decision> decider;
+	final int maxRestarts;
+	final long window;
+
+	private SupervisorStrategy(final Function<Throwable, Decision> decider, final int maxRestarts, final long window) {
+		this.decider = decider;
+		this.maxRestarts = maxRestarts;
+		this.window = window;
+	}
+
+	/**
+	 * @param decider the function deciding what to do with the child which failed with a given
+	 *            cause
+	 * @return New {@link SupervisorStrategy} with unlimited restarts
+	 */
+	public static SupervisorStrategy create(final Function<Throwable, Decision> decider) {
+
+		if (decider == null) {
+			throw new IllegalArgumentException("Decider must not be null");
+		}
+
+		return new SupervisorStrategy(decider, UNLIMITED_RESTARTS, 0);
+	}
+
+	/**
+	 * @param maxRestarts how many times child can be restarted within the time window
+	 * @param within the time window
+	 * @return New {@link SupervisorStrategy} with rate-limited restarts
+	 */
+	public SupervisorStrategy withMaxRestarts(final int maxRestarts, final Duration within) {
+
+		if (maxRestarts < 0 && maxRestarts != UNLIMITED_RESTARTS) {
+			throw new IllegalArgumentException("Max restarts must not be negative");
+		}
+
+		return new SupervisorStrategy(decider, maxRestarts, within.toNanos());
+	}
+
+	/**
+	 * Decide what to do with the failed child. This is invoked by the parent thread.
+	 *
+	 * @param cause the failure cause
+	 * @param restarts the {@link RestartStatistics} of the failed child
+	 * @return The {@link Decision}
+	 */
+	Decision decide(final Throwable cause, final RestartStatistics restarts) {
+
+		final var decision = decider.apply(cause);
+
+		if (decision == Decision.RESTART && !restarts.requestRestartPermission(maxRestarts, window)) {
+			return Decision.STOP;
+		} else {
+			return decision;
+		}
+	}
+
+	/**
+	 * The restarts counter of a single child. It's created by the child on its first failure, but
+	 * then it's only read and modified by the parent.
+	 */
+	static final class RestartStatistics {
+
+		private int restarts;
+		private long windowStart;
+
+		boolean requestRestartPermission(final int maxRestarts, final long window) {
+
+			if (maxRestarts == UNLIMITED_RESTARTS) {
+				return true;
+			}
+
+			final long now = System.nanoTime();
+
+			if (restarts == 0 || now - windowStart > window) {
+				windowStart = now;
+				restarts = 0;
+			}
+
+			return ++restarts <= maxRestarts;
+		}
+	}
+}
@@ -0,0 +1,23 @@
+package com.github.sarxos.fastactor;
+
+/**
+ * The way to exchange messages with the actors living outside of this {@link ActorSystem}.
+ * Transports are started together with the {@link ActorSystem} (after the internal actors are
+ * created) and they are shut down before the thread pools.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public interface Transport {
+
+	/**
+	 * Invoked by the {@link ActorSystem} when it starts. Do not call it directly.
+	 *
+	 * @param system the {@link ActorSystem} this transport belongs to
+	 */
+	void start(final ActorSystem system);
+
+	/**
+	 * Invoked by the {@link ActorSystem} when it is shut down. Do not call it directly.
+	 */
+	void shutdown();
+}
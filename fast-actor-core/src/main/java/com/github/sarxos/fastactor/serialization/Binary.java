@@ -0,0 +1,181 @@
+package com.github.sarxos.fastactor.serialization;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Compact binary encoding primitives used by the built-in serializers. Integers are written as
+ * zig-zag variable length numbers (small values take one byte), strings are written as modified
+ * UTF-8 (like in {@link java.io.DataOutput#writeUTF(String)}) directly into the buffer, without the
+ * intermediate byte array.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class Binary {
+
+	private Binary() {
+		// utility class
+	}
+
+	/**
+	 * Write unsigned variable length int (7 bits per byte).
+	 */
+	public static void putVarInt(final ByteBuffer buffer, int value) {
+		while ((value & ~0x7F) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	public static int getVarInt(final ByteBuffer buffer) {
+
+		int value = 0;
+
+		for (int shift = 0; shift < 32; shift += 7) {
+			final byte b = buffer.get();
+			value |= (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException("Malformed variable length int");
+	}
+
+	/**
+	 * Write unsigned variable length long (7 bits per byte).
+	 */
+	public static void putVarLong(final ByteBuffer buffer, long value) {
+		while ((value & ~0x7FL) != 0) {
+			buffer.put((byte) ((value & 0x7F) | 0x80));
+			value >>>= 7;
+		}
+		buffer.put((byte) value);
+	}
+
+	public static long getVarLong(final ByteBuffer buffer) {
+
+		long value = 0;
+
+		for (int shift = 0; shift < 64; shift += 7) {
+			final byte b = buffer.get();
+			value |= (long) (b & 0x7F) << shift;
+			if (b >= 0) {
+				return value;
+			}
+		}
+
+		throw new IllegalArgumentException("Malformed variable length long");
+	}
+
+	/**
+	 * Read the number of elements which follow in the buffer. Every element takes at least one
+	 * byte, so the bigger length is malformed, and the array of that length is not allocated.
+	 *
+	 * @param buffer the buffer
+	 * @return The number of elements
+	 * @throws IllegalArgumentException when length is negative or exceeds the remaining bytes
+	 */
+	public static int getLength(final ByteBuffer buffer) {
+
+		final int length = getVarInt(buffer);
+
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid length " + length + ", only " + buffer.remaining() + " bytes remaining");
+		}
+
+		return length;
+	}
+
+	/**
+	 * Write signed int using zig-zag encoding so small negative numbers are small too.
+	 */
+	public static void putInt(final ByteBuffer buffer, final int value) {
+		putVarInt(buffer, (value << 1) ^ (value >> 31));
+	}
+
+	public static int getInt(final ByteBuffer buffer) {
+		final int value = getVarInt(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Write signed long using zig-zag encoding so small negative numbers are small too.
+	 */
+	public static void putLong(final ByteBuffer buffer, final long value) {
+		putVarLong(buffer, (value << 1) ^ (value >> 63));
+	}
+
+	public static long getLong(final ByteBuffer buffer) {
+		final long value = getVarLong(buffer);
+		return (value >>> 1) ^ -(value & 1);
+	}
+
+	/**
+	 * Write string as the number of chars followed by the modified UTF-8 bytes.
+	 */
+	public static void putString(final ByteBuffer buffer, final String value) {
+
+		final int length = value.length();
+
+		putVarInt(buffer, length);
+
+		if (buffer.remaining() < length) {
+			throw new BufferOverflowException();
+		}
+
+		for (int i = 0; i < length; i++) {
+
+			final char c = value.charAt(i);
+
+			if (c < 0x80) {
+				buffer.put((byte) c);
+			} else if (c < 0x800) {
+				buffer.put((byte) (0xC0 | (c >> 6)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			} else {
+
+				// Surrogates are encoded one by one (3 bytes each) so the char count is preserved
+				// and decoding is a simple reverse of this loop.
+
+				buffer.put((byte) (0xE0 | (c >> 12)));
+				buffer.put((byte) (0x80 | ((c >> 6) & 0x3F)));
+				buffer.put((byte) (0x80 | (c & 0x3F)));
+			}
+		}
+	}
+
+	public static String getString(final ByteBuffer buffer) {
+
+		final int length = getLength(buffer);
+		final char[] chars = new char[length];
+
+		for (int i = 0; i < length; i++) {
+
+			final int b = buffer.get() & 0xFF;
+
+			if (b < 0x80) {
+				chars[i] = (char) b;
+			} else if (b < 0xE0) {
+				chars[i] = (char) (((b & 0x1F) << 6) | (buffer.get() & 0x3F));
+			} else {
+				chars[i] = (char) (((b & 0x0F) << 12) | ((buffer.get() & 0x3F) << 6) | (buffer.get() & 0x3F));
+			}
+		}
+
+		return new String(chars);
+	}
+
+	public static void putBytes(final ByteBuffer buffer, final byte[] value) {
+		putVarInt(buffer, value.length);
+		buffer.put(value);
+	}
+
+	public static byte[] getBytes(final ByteBuffer buffer) {
+		final byte[] value = new byte[getLength(buffer)];
+		buffer.get(value);
+		return value;
+	}
+}
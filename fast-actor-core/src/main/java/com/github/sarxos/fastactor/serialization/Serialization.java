@@ -0,0 +1,278 @@
+package com.github.sarxos.fastactor.serialization;
+
+import java.io.ObjectInputFilter;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+
+import com.github.sarxos.fastactor.JavaMessageSerializer;
+import com.github.sarxos.fastactor.MessageSerializer;
+
+
+/**
+ * Registry of the {@link Serializer}s, one per message class. Every serialized message is prefixed
+ * with the variable length manifest id of its serializer (usually one or two bytes), instead of the
+ * class name. Both sides of the communication must register the same serializers with the same
+ * manifest ids.
+ * <p>
+ *
+ * Manifest ids below {@value #FIRST_USER_MANIFEST} are reserved for the built-in serializers. The
+ * id {@value #JAVA_MANIFEST} is used for messages without registered serializer, which are written
+ * with the Java serialization (unless this fallback is disabled). Only the classes on the allow
+ * list are read back with the Java serialization, since the input comes from the network, see
+ * {@link #withJavaAllowed(String...)}.
+ * <p>
+ *
+ * Registration is thread-safe, but it's meant to be done at startup. Lookups are lock-free.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public class Serialization implements MessageSerializer {
+
+	public static final int JAVA_MANIFEST = 0;
+	public static final int FIRST_USER_MANIFEST = 32;
+	public static final int MAX_MANIFEST = 0xFFFF;
+
+	/**
+	 * The classes always allowed to be read with the Java serialization, i.e. the messages of the
+	 * cluster sharding protocol and the addresses they carry.
+	 */
+	static final String BUILT_IN_JAVA_ALLOW_LIST = String.join(";",
+		"com.github.sarxos.fastactor.ClusterSharding$*",
+		"java.net.SocketAddress",
+		"java.net.InetSocketAddress",
+		"java.net.InetAddress",
+		"java.net.Inet4Address",
+		"java.net.Inet6Address");
+
+	private String javaAllowList = BUILT_IN_JAVA_ALLOW_LIST;
+	private volatile JavaMessageSerializer java = java(javaAllowList);
+
+	private volatile IdentityHashMap<Class<?>, Registration> byClass = new IdentityHashMap<>();
+	private volatile Registration[] byManifest = new Registration[FIRST_USER_MANIFEST];
+	private volatile boolean javaFallback = true;
+
+	public Serialization() {
+		register0(Integer.class, 1, Serializers.INTEGER);
+		register0(Long.class, 2, Serializers.LONG);
+		register0(Short.class, 3, Serializers.SHORT);
+		register0(Byte.class, 4, Serializers.BYTE);
+		register0(Boolean.class, 5, Serializers.BOOLEAN);
+		register0(Character.class, 6, Serializers.CHARACTER);
+		register0(Float.class, 7, Serializers.FLOAT);
+		register0(Double.class, 8, Serializers.DOUBLE);
+		register0(String.class, 9, Serializers.STRING);
+		register0(byte[].class, 10, Serializers.BYTES);
+		register0(long[].class, 11, Serializers.LONGS);
+	}
+
+	/**
+	 * Register {@link Serializer} for a given message class.
+	 *
+	 * @param <T> the message type
+	 * @param type the message class (subclasses are not matched)
+	 * @param manifest the manifest id, between {@value #FIRST_USER_MANIFEST} and
+	 *            {@value #MAX_MANIFEST}
+	 * @param serializer the {@link Serializer}
+	 * @return This {@link Serialization}
+	 */
+	public <T> Serialization register(final Class<T> type, final int manifest, final Serializer<? super T> serializer) {
+
+		if (manifest < FIRST_USER_MANIFEST || manifest > MAX_MANIFEST) {
+			throw new IllegalArgumentException("Manifest must be between " + FIRST_USER_MANIFEST + " and " + MAX_MANIFEST);
+		}
+
+		register0(type, manifest, serializer);
+
+		return this;
+	}
+
+	/**
+	 * Register the {@link ValueSerializer} for a given record-like value class.
+	 *
+	 * @param <T> the message type
+	 * @param type the value class
+	 * @param manifest the manifest id
+	 * @return This {@link Serialization}
+	 */
+	public <T> Serialization registerValue(final Class<T> type, final int manifest) {
+		return register(type, manifest, new ValueSerializer<>(type, this));
+	}
+
+	private synchronized void register0(final Class<?> type, final int manifest, final Serializer<?> serializer) {
+
+		if (type == null || serializer == null) {
+			throw new IllegalArgumentException("Type and serializer must not be null");
+		}
+		if (byClass.containsKey(type)) {
+			throw new IllegalArgumentException("Serializer for " + type + " is already registered");
+		}
+		if (manifest < byManifest.length && byManifest[manifest] != null) {
+			throw new IllegalArgumentException("Manifest " + manifest + " is already used by " + byManifest[manifest].type);
+		}
+
+		final var registration = new Registration(type, manifest, serializer);
+
+		// copy on write, so the readers never see the structure being modified
+
+		final var classes = new IdentityHashMap<>(byClass);
+		classes.put(type, registration);
+
+		final var manifests = Arrays.copyOf(byManifest, Math.max(byManifest.length, manifest + 1));
+		manifests[manifest] = registration;
+
+		byManifest = manifests;
+		byClass = classes;
+	}
+
+	/**
+	 * Enable or disable Java serialization for the messages without registered serializer. When
+	 * disabled, such messages are rejected with {@link IllegalArgumentException}.
+	 *
+	 * @param enabled true to enable, false to disable
+	 * @return This {@link Serialization}
+	 */
+	public Serialization withJavaFallback(final boolean enabled) {
+		this.javaFallback = enabled;
+		return this;
+	}
+
+	/**
+	 * Allow the classes matching given patterns to be read with the Java serialization. Every
+	 * class in the serialized object graph must be allowed, not only the message class, and all
+	 * the other ones are rejected. The patterns have the {@link ObjectInputFilter} syntax, i.e.
+	 * the class name, <code>package.*</code> for all the classes in the package,
+	 * <code>package.**</code> for the subpackages as well, or <code>prefix*</code>.
+	 *
+	 * @param patterns the class name patterns
+	 * @return This {@link Serialization}
+	 */
+	public synchronized Serialization withJavaAllowed(final String... patterns) {
+
+		for (final String pattern : patterns) {
+			if (pattern == null || pattern.isBlank() || pattern.startsWith("!") || pattern.contains(";") || pattern.contains("=")) {
+				throw new IllegalArgumentException("Invalid class name pattern " + pattern);
+			}
+		}
+
+		javaAllowList = javaAllowList + ";" + String.join(";", patterns);
+		java = java(javaAllowList);
+
+		return this;
+	}
+
+	/**
+	 * @param allowList the allowed class name patterns separated with semicolons
+	 * @return The {@link JavaMessageSerializer} rejecting all the classes not on the list
+	 */
+	private static JavaMessageSerializer java(final String allowList) {
+		return new JavaMessageSerializer(ObjectInputFilter.Config.createFilter(allowList + ";!*"));
+	}
+
+	/**
+	 * @param type the message class
+	 * @return The manifest id for a given class or -1 when no serializer is registered
+	 */
+	public int manifestOf(final Class<?> type) {
+
+		final var registration = byClass.get(type);
+
+		if (registration == null) {
+			return -1;
+		} else {
+			return registration.manifest;
+		}
+	}
+
+	@Override
+	public void serialize(final Object message, final ByteBuffer buffer) {
+
+		final var registration = byClass.get(message.getClass());
+
+		if (registration != null) {
+			Binary.putVarInt(buffer, registration.manifest);
+			registration.write(message, buffer);
+		} else if (javaFallback) {
+			Binary.putVarInt(buffer, JAVA_MANIFEST);
+			serializeJava(message, buffer);
+		} else {
+			throw new IllegalArgumentException("No serializer registered for " + message.getClass());
+		}
+	}
+
+	/**
+	 * Java serialization output is prefixed with its length because object stream may read ahead
+	 * and consume bytes of the data which follows it.
+	 */
+	private void serializeJava(final Object message, final ByteBuffer buffer) {
+
+		final int start = buffer.position();
+
+		buffer.putInt(0);
+		java.serialize(message, buffer);
+		buffer.putInt(start, buffer.position() - start - 4);
+	}
+
+	@Override
+	public Object deserialize(final ByteBuffer buffer) {
+
+		final int manifest = Binary.getVarInt(buffer);
+
+		if (manifest == JAVA_MANIFEST) {
+			return deserializeJava(buffer);
+		}
+
+		final var manifests = byManifest;
+		final var registration = manifest < manifests.length ? manifests[manifest] : null;
+
+		if (registration == null) {
+			throw new IllegalArgumentException("No serializer registered for manifest " + manifest);
+		}
+
+		return registration.serializer.read(buffer);
+	}
+
+	private Object deserializeJava(final ByteBuffer buffer) {
+
+		if (!javaFallback) {
+			throw new IllegalArgumentException("Java serialization is disabled");
+		}
+
+		final int length = buffer.getInt();
+
+		if (length < 0 || length > buffer.remaining()) {
+			throw new IllegalArgumentException("Invalid length " + length + " of Java serialized message");
+		}
+
+		final int limit = buffer.limit();
+		final int end = buffer.position() + length;
+
+		buffer.limit(end);
+
+		try {
+			return java.deserialize(buffer);
+		} finally {
+			buffer
+				.limit(limit)
+				.position(end);
+		}
+	}
+
+	private static final class Registration {
+
+		final Class<?> type;
+		final int manifest;
+		final Serializer<Object> serializer;
+
+		@SuppressWarnings("unchecked")
+		Registration(final Class<?> type, final int manifest, final Serializer<?> serializer) {
+			this.type = type;
+			this.manifest = manifest;
+			this.serializer = (Serializer<Object>) serializer;
+		}
+
+		void write(final Object message, final ByteBuffer buffer) {
+			serializer.write(message, buffer);
+		}
+	}
+}
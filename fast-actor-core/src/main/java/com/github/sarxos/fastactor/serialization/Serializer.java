@@ -0,0 +1,33 @@
+package com.github.sarxos.fastactor.serialization;
+
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+
+
+/**
+ * Serializer of the single message type. Serializers are registered in the {@link Serialization}
+ * together with the numeric manifest id, which is written into the output instead of the class
+ * name.
+ *
+ * @author Bartosz Firyn (sarxos)
+ * @param <T> the type of serialized values
+ */
+public interface Serializer<T> {
+
+	/**
+	 * Write value into the buffer at its current position.
+	 *
+	 * @param value the value to write, never null
+	 * @param buffer the target buffer (usually direct one)
+	 * @throws BufferOverflowException when there is not enough room in the buffer
+	 */
+	void write(final T value, final ByteBuffer buffer);
+
+	/**
+	 * Read value from the buffer at its current position.
+	 *
+	 * @param buffer the source buffer
+	 * @return The value
+	 */
+	T read(final ByteBuffer buffer);
+}
@@ -0,0 +1,166 @@
+package com.github.sarxos.fastactor.serialization;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * Built-in compact binary {@link Serializer}s for the most common message types.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class Serializers {
+
+	private Serializers() {
+		// utility class
+	}
+
+	public static final Serializer<Integer> INTEGER = new Serializer<>() {
+
+		@Override
+		public void write(final Integer value, final ByteBuffer buffer) {
+			Binary.putInt(buffer, value.intValue());
+		}
+
+		@Override
+		public Integer read(final ByteBuffer buffer) {
+			return Integer.valueOf(Binary.getInt(buffer));
+		}
+	};
+
+	public static final Serializer<Long> LONG = new Serializer<>() {
+
+		@Override
+		public void write(final Long value, final ByteBuffer buffer) {
+			Binary.putLong(buffer, value.longValue());
+		}
+
+		@Override
+		public Long read(final ByteBuffer buffer) {
+			return Long.valueOf(Binary.getLong(buffer));
+		}
+	};
+
+	public static final Serializer<Short> SHORT = new Serializer<>() {
+
+		@Override
+		public void write(final Short value, final ByteBuffer buffer) {
+			buffer.putShort(value.shortValue());
+		}
+
+		@Override
+		public Short read(final ByteBuffer buffer) {
+			return Short.valueOf(buffer.getShort());
+		}
+	};
+
+	public static final Serializer<Byte> BYTE = new Serializer<>() {
+
+		@Override
+		public void write(final Byte value, final ByteBuffer buffer) {
+			buffer.put(value.byteValue());
+		}
+
+		@Override
+		public Byte read(final ByteBuffer buffer) {
+			return Byte.valueOf(buffer.get());
+		}
+	};
+
+	public static final Serializer<Boolean> BOOLEAN = new Serializer<>() {
+
+		@Override
+		public void write(final Boolean value, final ByteBuffer buffer) {
+			buffer.put(value.booleanValue() ? (byte) 1 : (byte) 0);
+		}
+
+		@Override
+		public Boolean read(final ByteBuffer buffer) {
+			return Boolean.valueOf(buffer.get() != 0);
+		}
+	};
+
+	public static final Serializer<Character> CHARACTER = new Serializer<>() {
+
+		@Override
+		public void write(final Character value, final ByteBuffer buffer) {
+			buffer.putChar(value.charValue());
+		}
+
+		@Override
+		public Character read(final ByteBuffer buffer) {
+			return Character.valueOf(buffer.getChar());
+		}
+	};
+
+	public static final Serializer<Float> FLOAT = new Serializer<>() {
+
+		@Override
+		public void write(final Float value, final ByteBuffer buffer) {
+			buffer.putFloat(value.floatValue());
+		}
+
+		@Override
+		public Float read(final ByteBuffer buffer) {
+			return Float.valueOf(buffer.getFloat());
+		}
+	};
+
+	public static final Serializer<Double> DOUBLE = new Serializer<>() {
+
+		@Override
+		public void write(final Double value, final ByteBuffer buffer) {
+			buffer.putDouble(value.doubleValue());
+		}
+
+		@Override
+		public Double read(final ByteBuffer buffer) {
+			return Double.valueOf(buffer.getDouble());
+		}
+	};
+
+	public static final Serializer<String> STRING = new Serializer<>() {
+
+		@Override
+		public void write(final String value, final ByteBuffer buffer) {
+			Binary.putString(buffer, value);
+		}
+
+		@Override
+		public String read(final ByteBuffer buffer) {
+			return Binary.getString(buffer);
+		}
+	};
+
+	public static final Serializer<byte[]> BYTES = new Serializer<>() {
+
+		@Override
+		public void write(final byte[] value, final ByteBuffer buffer) {
+			Binary.putBytes(buffer, value);
+		}
+
+		@Override
+		public byte[] read(final ByteBuffer buffer) {
+			return Binary.getBytes(buffer);
+		}
+	};
+
+	public static final Serializer<long[]> LONGS = new Serializer<>() {
+
+		@Override
+		public void write(final long[] value, final ByteBuffer buffer) {
+			Binary.putVarInt(buffer, value.length);
+			for (final long v : value) {
+				Binary.putLong(buffer, v);
+			}
+		}
+
+		@Override
+		public long[] read(final ByteBuffer buffer) {
+			final long[] value = new long[Binary.getLength(buffer)];
+			for (int i = 0; i < value.length; i++) {
+				value[i] = Binary.getLong(buffer);
+			}
+			return value;
+		}
+	};
+}
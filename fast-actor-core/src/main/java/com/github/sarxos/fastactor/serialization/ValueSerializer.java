@@ -0,0 +1,254 @@
+package com.github.sarxos.fastactor.serialization;
+
+import static java.util.Arrays.stream;
+import static java.util.Comparator.comparing;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Modifier;
+import java.nio.ByteBuffer;
+
+
+/**
+ * The {@link Serializer} of the immutable value classes (the record-like classes). The value class
+ * must declare a constructor which parameters match its instance fields, like the canonical
+ * constructor of the record. The parameters are matched with the fields by name, if the class was
+ * compiled with the parameter names, otherwise by type, so then every field must have a distinct
+ * type. The fields are written in the order of names, or in the order of components, if the value
+ * class is a record. Primitive fields are written in the compact binary form, all the other fields
+ * are written with the {@link Serialization} the serializer was created with, so they have to be
+ * registered there too.
+ *
+ * @author Bartosz Firyn (sarxos)
+ * @param <T> the type of the value class
+ */
+public class ValueSerializer<T> implements Serializer<T> {
+
+	private static final byte NULL = 0;
+	private static final byte NOT_NULL = 1;
+
+	private final Serialization serialization;
+	private final Field[] fields;
+	private final Constructor<T> constructor;
+	private final int[] parameters;
+
+	public ValueSerializer(final Class<T> type, final Serialization serialization) {
+		this.serialization = serialization;
+		this.fields = valueFields(type);
+		this.constructor = canonicalConstructor(type, fields);
+		this.parameters = parameters(constructor, fields);
+	}
+
+	/**
+	 * The order of {@link Class#getDeclaredFields()} is not specified, so the fields are written in
+	 * the order of the record components, for the records, or in the order of names, for all the
+	 * other classes. This way the order is the same on every JVM.
+	 */
+	private static Field[] valueFields(final Class<?> type) {
+
+		final var components = recordComponents(type);
+		final var fields = components != null
+			? stream(components).map(name -> declaredField(type, name)).toArray(Field[]::new)
+			: stream(type.getDeclaredFields())
+				.filter(f -> !f.isSynthetic())
+				.filter(f -> !Modifier.isStatic(f.getModifiers()))
+				.filter(f -> !Modifier.isTransient(f.getModifiers()))
+				.sorted(comparing(Field::getName))
+				.toArray(Field[]::new);
+
+		for (final Field field : fields) {
+			field.setAccessible(true);
+		}
+
+		return fields;
+	}
+
+	/**
+	 * The records are not available in Java 11, so they are discovered reflectively.
+	 *
+	 * @return The names of the record components, or null if the type is not a record
+	 */
+	private static String[] recordComponents(final Class<?> type) {
+
+		final Object[] components;
+		try {
+			components = (Object[]) Class.class
+				.getMethod("getRecordComponents")
+				.invoke(type);
+		} catch (NoSuchMethodException e) {
+			return null;
+		} catch (IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+
+		if (components == null) {
+			return null;
+		}
+
+		final var names = new String[components.length];
+
+		try {
+			for (int i = 0; i < components.length; i++) {
+				names[i] = (String) components[i].getClass()
+					.getMethod("getName")
+					.invoke(components[i]);
+			}
+		} catch (NoSuchMethodException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalStateException(e);
+		}
+
+		return names;
+	}
+
+	private static Field declaredField(final Class<?> type, final String name) {
+		try {
+			return type.getDeclaredField(name);
+		} catch (NoSuchFieldException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> Constructor<T> canonicalConstructor(final Class<T> type, final Field[] fields) {
+
+		final var constructor = stream(type.getDeclaredConstructors())
+			.filter(c -> parameters(c, fields) != null)
+			.findFirst()
+			.orElseThrow(() -> new IllegalArgumentException("Value class " + type + " must declare constructor "
+				+ "with parameters matching its fields, named as the fields or of the distinct types"));
+
+		constructor.setAccessible(true);
+
+		return (Constructor<T>) constructor;
+	}
+
+	/**
+	 * Match the constructor parameters with the fields. The parameters are matched by name when the
+	 * class was compiled with the parameter names (always true for the records), or by type when
+	 * every field has a distinct type.
+	 *
+	 * @return The index of constructor parameter for every field, or null if they do not match
+	 */
+	private static int[] parameters(final Constructor<?> constructor, final Field[] fields) {
+
+		final var parameters = constructor.getParameters();
+		if (parameters.length != fields.length) {
+			return null;
+		}
+
+		final var indexes = new int[fields.length];
+
+		for (int i = 0; i < fields.length; i++) {
+
+			indexes[i] = -1;
+
+			for (int j = 0; j < parameters.length; j++) {
+
+				final var parameter = parameters[j];
+				if (parameter.getType() != fields[i].getType()) {
+					continue;
+				}
+				if (parameter.isNamePresent() && !parameter.getName().equals(fields[i].getName())) {
+					continue;
+				}
+				if (indexes[i] != -1) {
+					return null; // ambiguous, more parameters of the same type
+				}
+
+				indexes[i] = j;
+			}
+
+			if (indexes[i] == -1) {
+				return null;
+			}
+		}
+
+		return indexes;
+	}
+
+	@Override
+	public void write(final T value, final ByteBuffer buffer) {
+		try {
+			for (final Field field : fields) {
+				writeField(field, value, buffer);
+			}
+		} catch (IllegalAccessException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void writeField(final Field field, final Object value, final ByteBuffer buffer) throws IllegalAccessException {
+
+		final var type = field.getType();
+
+		if (type == int.class) {
+			Binary.putInt(buffer, field.getInt(value));
+		} else if (type == long.class) {
+			Binary.putLong(buffer, field.getLong(value));
+		} else if (type == double.class) {
+			buffer.putDouble(field.getDouble(value));
+		} else if (type == boolean.class) {
+			buffer.put(field.getBoolean(value) ? NOT_NULL : NULL);
+		} else if (type == float.class) {
+			buffer.putFloat(field.getFloat(value));
+		} else if (type == short.class) {
+			buffer.putShort(field.getShort(value));
+		} else if (type == byte.class) {
+			buffer.put(field.getByte(value));
+		} else if (type == char.class) {
+			buffer.putChar(field.getChar(value));
+		} else {
+			writeObject(field.get(value), buffer);
+		}
+	}
+
+	private void writeObject(final Object value, final ByteBuffer buffer) {
+		if (value == null) {
+			buffer.put(NULL);
+		} else {
+			buffer.put(NOT_NULL);
+			serialization.serialize(value, buffer);
+		}
+	}
+
+	@Override
+	public T read(final ByteBuffer buffer) {
+
+		final var args = new Object[fields.length];
+
+		for (int i = 0; i < fields.length; i++) {
+			args[parameters[i]] = readField(fields[i].getType(), buffer);
+		}
+
+		try {
+			return constructor.newInstance(args);
+		} catch (InstantiationException | IllegalAccessException | InvocationTargetException e) {
+			throw new IllegalArgumentException("Cannot create instance of " + constructor.getDeclaringClass(), e);
+		}
+	}
+
+	private Object readField(final Class<?> type, final ByteBuffer buffer) {
+		if (type == int.class) {
+			return Integer.valueOf(Binary.getInt(buffer));
+		} else if (type == long.class) {
+			return Long.valueOf(Binary.getLong(buffer));
+		} else if (type == double.class) {
+			return Double.valueOf(buffer.getDouble());
+		} else if (type == boolean.class) {
+			return Boolean.valueOf(buffer.get() != NULL);
+		} else if (type == float.class) {
+			return Float.valueOf(buffer.getFloat());
+		} else if (type == short.class) {
+			return Short.valueOf(buffer.getShort());
+		} else if (type == byte.class) {
+			return Byte.valueOf(buffer.get());
+		} else if (type == char.class) {
+			return Character.valueOf(buffer.getChar());
+		} else if (buffer.get() == NULL) {
+			return null;
+		} else {
+			return serialization.deserialize(buffer);
+		}
+	}
+}
@@ -0,0 +1,245 @@
+package com.github.sarxos.fastactor.stream;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorCell;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.Directive;
+
+
+/**
+ * A {@link Flow.Publisher} backed by the producer {@link Actor}. Every subscriber gets its own
+ * {@link Downstream}. The demand signalled by the subscriber with {@link Flow.Subscription#request}
+ * is told to the producer as the {@link Demand} message and the producer pushes not more elements
+ * than requested to the {@link Downstream}, so nothing is buffered on the way. All the signals
+ * to the subscriber are sent from the producer actor, so they are serialized.
+ *
+ * <pre>
+ * class Producer extends Actor {
+ * 	public Receive receive() {
+ * 		return super.receive()
+ * 			.match(Demand.class, d -&gt; {
+ * 				while (d.downstream().requested() &gt; 0 &amp;&amp; hasMore()) {
+ * 					d.downstream().push(next());
+ * 				}
+ * 			});
+ * 	}
+ * }
+ * </pre>
+ *
+ * @author Bartosz Firyn (sarxos)
+ * @param <T> the element type
+ */
+public class ActorPublisher<T> implements Flow.Publisher<T> {
+
+	private final ActorRef producer;
+
+	public ActorPublisher(final ActorRef producer) {
+		this.producer = Objects.requireNonNull(producer, "Producer must not be null");
+	}
+
+	@Override
+	public void subscribe(final Flow.Subscriber<? super T> subscriber) {
+
+		Objects.requireNonNull(subscriber, "Subscriber must not be null");
+
+		final var downstream = new Downstream<T>(producer, subscriber);
+
+		subscriber.onSubscribe(downstream);
+	}
+
+	/**
+	 * Told to the producer when subscriber has requested more elements.
+	 */
+	public static final class Demand {
+
+		private final Downstream<?> downstream;
+		private final long n;
+
+		Demand(final Downstream<?> downstream, final long n) {
+			this.downstream = downstream;
+			this.n = n;
+		}
+
+		/**
+		 * @param <T> the element type
+		 * @return The {@link Downstream} which demands the elements
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> Downstream<T> downstream() {
+			return (Downstream<T>) downstream;
+		}
+
+		/**
+		 * @return How many elements have been requested by this demand
+		 */
+		public long n() {
+			return n;
+		}
+	}
+
+	/**
+	 * Told to the producer when subscriber has cancelled the subscription.
+	 */
+	public static final class Cancel {
+
+		private final Downstream<?> downstream;
+
+		Cancel(final Downstream<?> downstream) {
+			this.downstream = downstream;
+		}
+
+		/**
+		 * @param <T> the element type
+		 * @return The {@link Downstream} which has been cancelled
+		 */
+		@SuppressWarnings("unchecked")
+		public <T> Downstream<T> downstream() {
+			return (Downstream<T>) downstream;
+		}
+	}
+
+	/**
+	 * The subscription of a single subscriber as seen by the producer {@link Actor}. The demand is
+	 * added by the subscriber from any thread and taken by {@link #push(Object)} from the producer
+	 * thread, and all the other methods must be invoked by the producer only.
+	 *
+	 * @param <T> the element type
+	 */
+	public static final class Downstream<T> implements Flow.Subscription {
+
+		private final ActorRef producer;
+		private final Flow.Subscriber<? super T> subscriber;
+		private final AtomicLong requested = new AtomicLong();
+
+		private volatile boolean cancelled;
+		private boolean terminated;
+
+		Downstream(final ActorRef producer, final Flow.Subscriber<? super T> subscriber) {
+			this.producer = producer;
+			this.subscriber = subscriber;
+		}
+
+		@Override
+		public void request(final long n) {
+
+			if (cancelled) {
+				return;
+			}
+
+			if (n <= 0) {
+				cancelled = true;
+				producer.tell(new Violation(this, n));
+				return;
+			}
+
+			requested.getAndAccumulate(n, (current, added) -> {
+				final var sum = current + added;
+				return sum < 0 ? Long.MAX_VALUE : sum; // unbounded when overflows
+			});
+
+			producer.tell(new Demand(this, n));
+		}
+
+		@Override
+		public void cancel() {
+			if (!cancelled) {
+				cancelled = true;
+				producer.tell(new Cancel(this));
+			}
+		}
+
+		/**
+		 * @return How many elements can be pushed now
+		 */
+		public long requested() {
+			return isActive() ? requested.get() : 0;
+		}
+
+		/**
+		 * @return True if elements can still be pushed, false if subscriber has cancelled or this
+		 *         downstream has been completed
+		 */
+		public boolean isActive() {
+			return !cancelled && !terminated;
+		}
+
+		/**
+		 * Push element to the subscriber.
+		 *
+		 * @param element the element
+		 * @return True if element has been pushed, false if there is no demand or the downstream
+		 *         is not active anymore
+		 */
+		public boolean push(final T element) {
+
+			Objects.requireNonNull(element, "Element must not be null");
+
+			if (!isActive() || requested.get() == 0) {
+				return false;
+			}
+
+			requested.decrementAndGet();
+			subscriber.onNext(element);
+
+			return true;
+		}
+
+		/**
+		 * Tell subscriber there will be no more elements.
+		 */
+		public void complete() {
+			if (isActive()) {
+				terminated = true;
+				subscriber.onComplete();
+			}
+		}
+
+		/**
+		 * Tell subscriber the producer has failed.
+		 *
+		 * @param cause the failure cause
+		 */
+		public void error(final Throwable cause) {
+			if (isActive()) {
+				terminated = true;
+				subscriber.onError(cause);
+			}
+		}
+
+		void violated(final long n) {
+			if (!terminated) {
+				terminated = true;
+				subscriber.onError(new IllegalArgumentException("Subscriber must request positive number of elements, but requested " + n));
+			}
+		}
+	}
+
+	/**
+	 * Signals the error to the subscriber which requested non-positive number of elements. It is
+	 * executed on the producer thread, so the error is serialized with the elements.
+	 */
+	private static final class Violation implements Directive {
+
+		private final Downstream<?> downstream;
+		private final long n;
+
+		Violation(final Downstream<?> downstream, final long n) {
+			this.downstream = downstream;
+			this.n = n;
+		}
+
+		@Override
+		public void execute(final ActorCell<? extends Actor> cell) {
+			downstream.violated(n);
+		}
+
+		@Override
+		public ExecutionMode mode() {
+			return ExecutionMode.RUN_IN_ORDER;
+		}
+	}
+}
@@ -0,0 +1,147 @@
+package com.github.sarxos.fastactor.stream;
+
+import java.util.Objects;
+import java.util.concurrent.Flow;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorCell;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.Directive;
+
+
+/**
+ * A {@link Flow.Subscriber} which tells the elements to the consumer {@link Actor}. It requests
+ * the batch of elements when subscribed and then requests half of the batch again every time
+ * the consumer has processed half of the batch, so there are never more than batch elements
+ * waiting in the consumer inbox. The processing is detected with the directive told after the
+ * elements, which runs in order with the messages, so the consumer does not have to acknowledge
+ * anything. When stream terminates, the consumer receives {@link Completed} or {@link Failed}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ * @param <T> the element type
+ */
+public class ActorSubscriber<T> implements Flow.Subscriber<T> {
+
+	/**
+	 * The default number of elements requested at once.
+	 */
+	public static final int DEFAULT_BATCH = 64;
+
+	private final ActorRef consumer;
+	private final int batch;
+	private final int half;
+
+	private Flow.Subscription subscription;
+	private int told;
+
+	public ActorSubscriber(final ActorRef consumer) {
+		this(consumer, DEFAULT_BATCH);
+	}
+
+	public ActorSubscriber(final ActorRef consumer, final int batch) {
+
+		if (batch < 1) {
+			throw new IllegalArgumentException("Batch must be positive, but is " + batch);
+		}
+
+		this.consumer = Objects.requireNonNull(consumer, "Consumer must not be null");
+		this.batch = batch;
+		this.half = Math.max(1, batch / 2);
+	}
+
+	@Override
+	public void onSubscribe(final Flow.Subscription subscription) {
+
+		Objects.requireNonNull(subscription, "Subscription must not be null");
+
+		if (this.subscription != null) {
+			subscription.cancel(); // subscriber can be subscribed only once
+			return;
+		}
+
+		this.subscription = subscription;
+
+		subscription.request(batch);
+	}
+
+	@Override
+	public void onNext(final T element) {
+
+		consumer.tell(Objects.requireNonNull(element, "Element must not be null"));
+
+		if (++told == half) {
+			told = 0;
+			consumer.tell(new Processed(subscription, half));
+		}
+	}
+
+	@Override
+	public void onError(final Throwable cause) {
+		consumer.tell(new Failed(Objects.requireNonNull(cause, "Cause must not be null")));
+	}
+
+	@Override
+	public void onComplete() {
+		consumer.tell(Completed.INSTANCE);
+	}
+
+	/**
+	 * Told to the consumer when stream has been completed.
+	 */
+	public static final class Completed {
+
+		static final Completed INSTANCE = new Completed();
+
+		private Completed() {
+		}
+	}
+
+	/**
+	 * Told to the consumer when stream has failed.
+	 */
+	public static final class Failed {
+
+		private final Throwable cause;
+
+		Failed(final Throwable cause) {
+			this.cause = cause;
+		}
+
+		/**
+		 * @return The failure cause
+		 */
+		public Throwable cause() {
+			return cause;
+		}
+	}
+
+	/**
+	 * Run by the consumer after it has processed the elements told before, so they can be
+	 * requested again. When consumer does not exist anymore, the subscription is cancelled.
+	 */
+	private static final class Processed implements Directive {
+
+		private final Flow.Subscription subscription;
+		private final int n;
+
+		Processed(final Flow.Subscription subscription, final int n) {
+			this.subscription = subscription;
+			this.n = n;
+		}
+
+		@Override
+		public void execute(final ActorCell<? extends Actor> cell) {
+			subscription.request(n);
+		}
+
+		@Override
+		public void failed() {
+			subscription.cancel();
+		}
+
+		@Override
+		public ExecutionMode mode() {
+			return ExecutionMode.RUN_IN_ORDER;
+		}
+	}
+}
@@ -0,0 +1,265 @@
+package com.github.sarxos.fastactor.stream;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+
+
+/**
+ * A typed description of the linear stream processing. The stages between the asynchronous
+ * boundaries are fused into the single actor, so element goes through them with plain method
+ * calls, without the envelope and the mailbox hop per stage. Only the {@link #async()} boundary
+ * creates a new actor, and the elements cross it in batches, with one message per batch. The
+ * pipeline is immutable and can be run many times, every {@link #run(ActorSystem)} creates new
+ * actors.
+ *
+ * <pre>
+ * final ActorRef input = Pipeline
+ * 	.of(String.class)
+ * 	.map(Parser::parse)
+ * 	.filter(Trade::isValid)
+ * 	.async()
+ * 	.map(Enricher::enrich)
+ * 	.to(aggregator)
+ * 	.run(system);
+ *
+ * input.tell("...");
+ * </pre>
+ *
+ * @author Bartosz Firyn (sarxos)
+ * @param <I> the type of elements told to the pipeline
+ * @param <O> the type of elements emitted by the last stage
+ */
+public final class Pipeline<I, O> {
+
+	/**
+	 * The default number of elements sent at once over the asynchronous boundary.
+	 */
+	public static final int DEFAULT_BATCH = 64;
+
+	/**
+	 * The fused stages of the pipeline, one list per actor.
+	 */
+	private final List<List<Stage>> segments;
+
+	/**
+	 * The batch sizes of the boundaries, one less than the segments.
+	 */
+	private final List<Integer> batches;
+
+	/**
+	 * The actor the elements are told to after the last stage, or null.
+	 */
+	private final ActorRef sink;
+
+	/**
+	 * Has the pipeline been ended, so no more stages can be added.
+	 */
+	private final boolean closed;
+
+	private Pipeline(final List<List<Stage>> segments, final List<Integer> batches, final ActorRef sink, final boolean closed) {
+		this.segments = segments;
+		this.batches = batches;
+		this.sink = sink;
+		this.closed = closed;
+	}
+
+	/**
+	 * @param <I> the type of elements told to the pipeline
+	 * @param type the type of elements told to the pipeline
+	 * @return New empty pipeline
+	 */
+	public static <I> Pipeline<I, I> of(final Class<I> type) {
+		return new Pipeline<>(List.of(List.of()), List.of(), null, false);
+	}
+
+	/**
+	 * @param <R> the type of the mapped elements
+	 * @param mapper the mapping function
+	 * @return New pipeline which maps every element with a given function
+	 */
+	public <R> Pipeline<I, R> map(final Function<? super O, ? extends R> mapper) {
+		Objects.requireNonNull(mapper, "Mapper must not be null");
+		return fuse(next -> element -> next.push(mapper.apply(cast(element))));
+	}
+
+	/**
+	 * @param predicate the predicate
+	 * @return New pipeline which passes only the elements matching a given predicate
+	 */
+	public Pipeline<I, O> filter(final Predicate<? super O> predicate) {
+		Objects.requireNonNull(predicate, "Predicate must not be null");
+		return fuse(next -> element -> {
+			if (predicate.test(cast(element))) {
+				next.push(element);
+			}
+		});
+	}
+
+	/**
+	 * @param <R> the type of the mapped elements
+	 * @param mapper the mapping function
+	 * @return New pipeline which maps every element to many and passes them one by one
+	 */
+	public <R> Pipeline<I, R> mapConcat(final Function<? super O, ? extends Iterable<? extends R>> mapper) {
+		Objects.requireNonNull(mapper, "Mapper must not be null");
+		return fuse(next -> element -> {
+			for (final R mapped : mapper.apply(cast(element))) {
+				next.push(mapped);
+			}
+		});
+	}
+
+	/**
+	 * @param action the action
+	 * @return New pipeline which invokes a given action for every element and passes it further
+	 */
+	public Pipeline<I, O> peek(final Consumer<? super O> action) {
+		Objects.requireNonNull(action, "Action must not be null");
+		return fuse(next -> element -> {
+			action.accept(cast(element));
+			next.push(element);
+		});
+	}
+
+	/**
+	 * Add asynchronous boundary with the default batch size.
+	 *
+	 * @return New pipeline whose next stages are run by the other actor
+	 */
+	public Pipeline<I, O> async() {
+		return async(DEFAULT_BATCH);
+	}
+
+	/**
+	 * Add asynchronous boundary. The stages after it are run by the other actor, possibly on the
+	 * other thread. The elements are collected and sent when batch is full or when the actor
+	 * before the boundary has processed all the messages it had at the time the first element
+	 * of the batch was collected, so they are not delayed when the traffic is low.
+	 *
+	 * @param batch up to how many elements are sent at once
+	 * @return New pipeline whose next stages are run by the other actor
+	 */
+	public Pipeline<I, O> async(final int batch) {
+
+		if (batch < 1) {
+			throw new IllegalArgumentException("Batch must be positive, but is " + batch);
+		}
+
+		checkOpen();
+
+		final var segments = new ArrayList<>(this.segments);
+		final var batches = new ArrayList<>(this.batches);
+
+		segments.add(List.of());
+		batches.add(batch);
+
+		return new Pipeline<>(Collections.unmodifiableList(segments), Collections.unmodifiableList(batches), null, false);
+	}
+
+	/**
+	 * Tell the elements from the last stage to the actor. They are told in batches of the last
+	 * boundary size (or the default one) with a single queue operation per batch.
+	 *
+	 * @param sink the actor to tell the elements to
+	 * @return New pipeline which ends with a given actor
+	 */
+	public Pipeline<I, Void> to(final ActorRef sink) {
+
+		Objects.requireNonNull(sink, "Sink must not be null");
+
+		checkOpen();
+
+		return new Pipeline<>(segments, batches, sink, true);
+	}
+
+	/**
+	 * @param action the action
+	 * @return New pipeline which ends with the action invoked for every element
+	 */
+	public Pipeline<I, Void> forEach(final Consumer<? super O> action) {
+
+		Objects.requireNonNull(action, "Action must not be null");
+
+		final Pipeline<I, Void> pipeline = fuse(next -> element -> action.accept(cast(element)));
+
+		return new Pipeline<>(pipeline.segments, batches, null, true);
+	}
+
+	/**
+	 * Create the actors running this pipeline. When pipeline has not been ended with
+	 * {@link #to(ActorRef)} or {@link #forEach(Consumer)}, the elements leaving the last stage
+	 * are dropped.
+	 *
+	 * @param system the {@link ActorSystem} to create actors in
+	 * @return The {@link ActorRef} to tell the elements of type I to
+	 */
+	public ActorRef run(final ActorSystem system) {
+
+		var next = sink;
+		var batch = batches.isEmpty() ? DEFAULT_BATCH : batches.get(batches.size() - 1);
+		var stage = false;
+
+		for (int i = segments.size() - 1; i >= 0; i--) {
+
+			final var stages = segments.get(i);
+			final var target = next;
+			final var size = batch;
+			final var boundary = stage;
+
+			next = system.actorOf(Props.create(() -> new PipelineStage(stages, target, boundary, size)));
+			batch = i > 0 ? batches.get(i - 1) : 0;
+			stage = true;
+		}
+
+		return next;
+	}
+
+	private <R> Pipeline<I, R> fuse(final Stage stage) {
+
+		checkOpen();
+
+		final var segments = new ArrayList<>(this.segments);
+		final var last = new ArrayList<>(segments.remove(segments.size() - 1));
+
+		last.add(stage);
+		segments.add(Collections.unmodifiableList(last));
+
+		return new Pipeline<>(Collections.unmodifiableList(segments), batches, null, false);
+	}
+
+	private void checkOpen() {
+		if (closed) {
+			throw new IllegalStateException("Pipeline has already been ended");
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T> T cast(final Object element) {
+		return (T) element;
+	}
+
+	/**
+	 * Receives element from the previous stage.
+	 */
+	@FunctionalInterface
+	interface Sink {
+		void push(Object element);
+	}
+
+	/**
+	 * A stage fused with the next one by the plain method call.
+	 */
+	@FunctionalInterface
+	interface Stage {
+		Sink fuse(Sink next);
+	}
+}
@@ -0,0 +1,187 @@
+package com.github.sarxos.fastactor.stream;
+
+import java.util.Arrays;
+import java.util.List;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.Payload;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.stream.Pipeline.Sink;
+import com.github.sarxos.fastactor.stream.Pipeline.Stage;
+
+
+/**
+ * The actor running the fused stages of the {@link Pipeline} between the asynchronous boundaries.
+ * The elements leaving the last stage are collected and sent to the next actor in batches. The
+ * batch is sent when it is full, or when this actor processes the flush message it has told to
+ * itself when the first element of the batch was collected, i.e. after all the messages which
+ * were already waiting in the inbox.
+ * <p>
+ * The {@link Payload} received is released after it has been pushed through the stages, so it
+ * is retained when it is collected. The payload created by the stage already holds the reference
+ * and it is handed over to the next actor as it is.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+class PipelineStage extends Actor {
+
+	/**
+	 * Many elements sent over the asynchronous boundary with a single message.
+	 */
+	static final class Elements {
+
+		final Object[] elements;
+
+		Elements(final Object[] elements) {
+			this.elements = elements;
+		}
+	}
+
+	/**
+	 * Told to itself to send the batch which is not full yet.
+	 */
+	static final class Flush {
+		static final Flush INSTANCE = new Flush();
+	}
+
+	private final List<Stage> stages;
+	private final ActorRef next;
+	private final boolean boundary;
+	private final int batch;
+
+	private Object[] buffer;
+	private int size;
+	private boolean flushing; // is the flush message on the way
+	private Object incoming; // the element received, released when it has been pushed
+
+	/**
+	 * @param stages the fused stages
+	 * @param next the next pipeline stage or the sink, null when elements are dropped
+	 * @param boundary is the next actor the pipeline stage
+	 * @param batch up to how many elements are sent at once
+	 */
+	PipelineStage(final List<Stage> stages, final ActorRef next, final boolean boundary, final int batch) {
+		this.stages = stages;
+		this.next = next;
+		this.boundary = boundary;
+		this.batch = batch;
+	}
+
+	@Override
+	public Receive receive() {
+
+		final var head = fuse();
+
+		return super.receive()
+			.match(Elements.class, e -> pushAll(head, e.elements))
+			.match(Flush.class, f -> {
+				flushing = false;
+				flush();
+			})
+			.matchAny(element -> push(head, element));
+	}
+
+	private void push(final Sink head, final Object element) {
+
+		incoming = element;
+
+		try {
+			head.push(element);
+		} finally {
+			incoming = null;
+		}
+	}
+
+	/**
+	 * Push the elements which came in a batch. The batch is not released by the cell, so the
+	 * payloads are released here, including the ones not pushed yet when a stage has thrown.
+	 *
+	 * @param head the first stage
+	 * @param elements the elements
+	 */
+	private void pushAll(final Sink head, final Object[] elements) {
+
+		var index = 0;
+
+		try {
+			while (index < elements.length) {
+				final var element = elements[index++];
+				try {
+					push(head, element);
+				} finally {
+					release(element);
+				}
+			}
+		} finally {
+			while (index < elements.length) {
+				release(elements[index++]);
+			}
+		}
+	}
+
+	private static void release(final Object element) {
+		if (element instanceof Payload) {
+			((Payload) element).tryRelease();
+		}
+	}
+
+	/**
+	 * @return The first stage calling the following ones directly
+	 */
+	private Sink fuse() {
+
+		Sink sink = next == null ? element -> {} : this::collect;
+
+		for (int i = stages.size() - 1; i >= 0; i--) {
+			sink = stages.get(i).fuse(sink);
+		}
+
+		return sink;
+	}
+
+	private void collect(final Object element) {
+
+		if (buffer == null) {
+			buffer = new Object[batch];
+		}
+
+		if (element == incoming && element instanceof Payload) {
+			((Payload) element).retain(); // the one received is released after it is pushed
+		}
+
+		buffer[size++] = element;
+
+		if (size == batch) {
+			flush();
+		} else if (!flushing) {
+			flushing = true;
+			context().self().tell(Flush.INSTANCE, context().self());
+		}
+	}
+
+	private void flush() {
+
+		if (size == 0) {
+			return;
+		}
+
+		final Object[] elements;
+
+		if (size == buffer.length) {
+			elements = buffer; // full batch is handed over as it is
+			buffer = null;
+		} else {
+			elements = Arrays.copyOf(buffer, size);
+			Arrays.fill(buffer, 0, size, null);
+		}
+
+		size = 0;
+
+		if (boundary) {
+			next.tell(new Elements(elements), context().self());
+		} else {
+			next.tellAll(elements, context().self());
+		}
+	}
+}
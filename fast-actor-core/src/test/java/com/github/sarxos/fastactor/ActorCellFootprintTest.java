@@ -0,0 +1,129 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.BiFunction;
+
+import org.junit.jupiter.api.Test;
+import org.openjdk.jol.info.GraphLayout;
+
+import com.github.sarxos.fastactor.DeathWatch.WatchAck;
+
+
+public class ActorCellFootprintTest {
+
+	private static final int ACTORS_COUNT = 10_000;
+
+	static class IdleActor extends Actor {
+
+		final CountDownLatch ready;
+
+		IdleActor(final CountDownLatch ready, final ActorRef observer) {
+			this.ready = ready;
+		}
+
+		@Override
+		public void preStart() {
+			ready.countDown();
+		}
+	}
+
+	/**
+	 * Allocates the state idle actor does not need, i.e. the inbox, the stack of behaviours and
+	 * the watched actors.
+	 */
+	static class BusyActor extends Actor {
+
+		final CountDownLatch ready;
+		final ActorRef observer;
+
+		BusyActor(final CountDownLatch ready, final ActorRef observer) {
+			this.ready = ready;
+			this.observer = observer;
+		}
+
+		@Override
+		public void preStart() {
+			context().watch(observer);
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(WatchAck.class, ack -> {
+					context().become(m -> ready.countDown());
+					context().self().tell("hello");
+				});
+		}
+	}
+
+	static class Observer extends Actor {
+	}
+
+	@Test
+	public void test_idleActorFootprint() throws Exception {
+
+		final var idle = footprint("footprint-idle", IdleActor::new);
+		final var busy = footprint("footprint-busy", BusyActor::new);
+
+		System.out.printf("Idle actor takes %d bytes, busy one takes %d bytes%n", idle, busy);
+
+		assertTrue(idle < busy, "Idle actor takes " + idle + " bytes, busy one takes " + busy + " bytes");
+	}
+
+	/**
+	 * Measure how much the actor system grows per actor, i.e. the cell with everything it has
+	 * allocated, its actor and the entries of the system and thread maps. The graph of the system
+	 * is measured before and after the actors are created, when all the threads are idle, so the
+	 * measured state does not change.
+	 *
+	 * @param name the actor system name
+	 * @param creator creates the actor from the latch to count down and the actor to watch
+	 * @return The number of bytes per actor
+	 */
+	private static long footprint(final String name, final BiFunction<CountDownLatch, ActorRef, Actor> creator) throws Exception {
+
+		final var system = ActorSystem.create(name);
+
+		try {
+
+			final var observer = system.actorOf(Props.create(Observer::new));
+
+			awaitIdle(system);
+
+			final var baseline = GraphLayout
+				.parseInstance(system)
+				.totalSize();
+
+			final var ready = new CountDownLatch(ACTORS_COUNT);
+			final var props = Props.create(() -> creator.apply(ready, observer));
+
+			for (int i = 0; i < ACTORS_COUNT; i++) {
+				system.actorOf(props);
+			}
+
+			assertTrue(ready.await(10, SECONDS), "Not all actors are ready");
+
+			awaitIdle(system);
+
+			final var total = GraphLayout
+				.parseInstance(system)
+				.totalSize();
+
+			return (total - baseline) / ACTORS_COUNT;
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	private static void awaitIdle(final ActorSystem system) {
+		await().until(() -> Arrays
+			.stream(system.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads())
+			.allMatch(ActorThread::isIdle));
+	}
+}
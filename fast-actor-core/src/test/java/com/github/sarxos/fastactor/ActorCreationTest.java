@@ -0,0 +1,156 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class ActorCreationTest {
+
+	static final int CHILDREN = 10;
+
+	private static boolean await(final CountDownLatch latch) {
+		try {
+			return latch.await(5, SECONDS);
+		} catch (InterruptedException e) {
+			return false;
+		}
+	}
+
+	static class Child extends Actor {
+
+		final CountDownLatch started;
+		final CountDownLatch stopped;
+		final Set<Thread> threads;
+
+		Child(final CountDownLatch started, final CountDownLatch stopped, final Set<Thread> threads) {
+			this.started = started;
+			this.stopped = stopped;
+			this.threads = threads;
+		}
+
+		@Override
+		public void preStart() {
+			threads.add(Thread.currentThread());
+			started.countDown();
+		}
+
+		@Override
+		public void postStop() {
+			stopped.countDown();
+		}
+	}
+
+	@Test
+	public void test_childStartsWithoutParentRoundTrip() throws Exception {
+
+		final var system = TestSystems.create("creation-round-trip", 2);
+		final var started = new CountDownLatch(1);
+		final var result = new CompletableFuture<Boolean>();
+
+		class Parent extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.matchAny(m -> {
+
+						context().actorOf(Props
+							.create(() -> new Child(started, new CountDownLatch(1), ConcurrentHashMap.newKeySet()))
+							.onThreadWithIndex(1));
+
+						// parent is busy until child is started, so child must not depend on any
+						// message being processed by the parent
+
+						result.complete(await(started));
+					});
+			}
+		}
+
+		try {
+
+			final var parent = system.actorOf(Props
+				.create(Parent::new)
+				.onThreadWithIndex(0));
+
+			parent.tell("spawn");
+
+			assertTrue(result.get(10, SECONDS));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_childrenOnParentThread() throws Exception {
+
+		final var system = TestSystems.create("creation-co-located", 4);
+		final var started = new CountDownLatch(CHILDREN);
+		final var stopped = new CountDownLatch(CHILDREN);
+		final var threads = ConcurrentHashMap.<Thread> newKeySet();
+		final var parentThread = new CompletableFuture<Thread>();
+
+		class Parent extends Actor {
+
+			@Override
+			public void preStart() {
+
+				parentThread.complete(Thread.currentThread());
+
+				for (int i = 0; i < CHILDREN; i++) {
+					context().actorOf(Props
+						.create(() -> new Child(started, stopped, threads))
+						.onParentThread());
+				}
+			}
+		}
+
+		try {
+
+			final var parent = system.actorOf(Props.create(Parent::new));
+
+			assertTrue(started.await(5, SECONDS));
+			assertEquals(Set.of(parentThread.get()), threads);
+
+			// children were added synchronously, so they are stopped together with the parent
+
+			system.stop(parent);
+
+			assertTrue(stopped.await(5, SECONDS));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_onParentThreadFromOutside() throws Exception {
+
+		final var system = TestSystems.create("creation-outside", 2);
+		final var started = new CountDownLatch(1);
+		final var threads = ConcurrentHashMap.<Thread> newKeySet();
+
+		try {
+
+			system.actorOf(Props
+				.create(() -> new Child(started, new CountDownLatch(1), threads))
+				.onParentThread());
+
+			assertTrue(started.await(5, SECONDS));
+			assertEquals(1, threads.size());
+
+		} finally {
+			system.shutdown();
+		}
+	}
+}
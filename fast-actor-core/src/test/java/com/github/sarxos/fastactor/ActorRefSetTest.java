@@ -0,0 +1,98 @@
+package com.github.sarxos.fastactor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+
+public class ActorRefSetTest {
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = ActorSystem.create("ref-set");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	private ActorRef ref(final long uuid) {
+		return new ActorRef(system, (Dispatcher) null, uuid);
+	}
+
+	@Test
+	public void test_addContainsRemove() {
+
+		final var set = new ActorRefSet();
+		final var ref = ref(7);
+
+		assertTrue(set.isEmpty());
+		assertTrue(set.add(ref));
+		assertFalse(set.add(ref(7)));
+		assertTrue(set.contains(7));
+		assertFalse(set.contains(8));
+		assertEquals(1, set.size());
+
+		// the ref kept in the set is the one which was added first
+
+		assertSame(ref, set.iterator().next());
+
+		assertFalse(set.remove(ref(8)));
+		assertTrue(set.remove(ref(7)));
+		assertFalse(set.contains(7));
+		assertTrue(set.isEmpty());
+	}
+
+	@Test
+	public void test_sameAsHashSet() {
+
+		final var random = new Random(42);
+		final var set = new ActorRefSet();
+		final Set<Long> expected = new HashSet<>();
+
+		for (int i = 0; i < 100_000; i++) {
+
+			final long uuid = random.nextInt(1_000);
+
+			if (random.nextBoolean()) {
+				assertEquals(expected.add(uuid), set.add(ref(uuid)));
+			} else {
+				assertEquals(expected.remove(uuid), set.remove(uuid));
+			}
+		}
+
+		assertEquals(expected.size(), set.size());
+
+		for (long uuid = 0; uuid < 1_000; uuid++) {
+			assertEquals(expected.contains(uuid), set.contains(uuid));
+		}
+
+		final Set<Long> iterated = new HashSet<>();
+		for (final ActorRef ref : set) {
+			assertTrue(iterated.add(ref.uuid()));
+		}
+
+		assertEquals(expected, iterated);
+	}
+
+	@Test
+	public void test_emptyNotModified() {
+
+		assertFalse(ActorRefSet.EMPTY.remove(1));
+		assertFalse(ActorRefSet.EMPTY.iterator().hasNext());
+		assertThrows(IllegalStateException.class, () -> ActorRefSet.EMPTY.add(ref(1)));
+	}
+}
@@ -0,0 +1,236 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.dsl.Base;
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class CellMigrationTest {
+
+	static final int COUNT = 20_000;
+
+	int threshold;
+
+	@BeforeEach
+	public void setup() {
+		threshold = CellMigration.threshold;
+		CellMigration.threshold = 64;
+	}
+
+	@AfterEach
+	public void teardown() {
+		CellMigration.threshold = threshold;
+	}
+
+	private static long migrated(final ActorSystem system) {
+		return system
+			.metrics()
+			.getThreads()
+			.stream()
+			.mapToLong(t -> t.getMigrated())
+			.sum();
+	}
+
+	static class Stage extends Actor {
+
+		final ActorRef next;
+
+		Stage(final ActorRef next) {
+			this.next = next;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(next::tell);
+		}
+	}
+
+	static class Sink extends Actor {
+
+		final CountDownLatch latch;
+		final AtomicInteger disorders;
+		int last = -1;
+
+		Sink(final CountDownLatch latch, final AtomicInteger disorders) {
+			this.latch = latch;
+			this.disorders = disorders;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> {
+					if (i != last + 1) {
+						disorders.incrementAndGet();
+					}
+					last = i;
+					latch.countDown();
+				});
+		}
+	}
+
+	@Test
+	public void test_pipelineColocated() throws Exception {
+
+		final var system = TestSystems.createWithPool("migration-pipeline", 3, ActorThreadPool::withCellMigration);
+		final var latch = new CountDownLatch(COUNT * 2);
+		final var disorders = new AtomicInteger();
+
+		try {
+
+			final var sink = system.actorOf(Props.create(() -> new Sink(latch, disorders)));
+			final var second = system.actorOf(Props.create(() -> new Stage(sink)));
+			final var first = system.actorOf(Props.create(() -> new Stage(second)));
+
+			// round-robin placement puts every stage on the different thread
+
+			assertNotEquals(sink.dispatcher(), second.dispatcher());
+			assertNotEquals(second.dispatcher(), first.dispatcher());
+
+			for (int i = 0; i < COUNT; i++) {
+				first.tell(i);
+			}
+
+			await()
+				.atMost(Duration.ofSeconds(10))
+				.until(() -> first.dispatcher() == sink.dispatcher() && second.dispatcher() == sink.dispatcher());
+			await()
+				.atMost(Duration.ofSeconds(5))
+				.until(() -> migrated(system) >= 2);
+
+			// pipeline keeps the order after it has been moved
+
+			for (int i = COUNT; i < COUNT * 2; i++) {
+				first.tell(i);
+			}
+
+			assertTrue(latch.await(10, SECONDS));
+			assertEquals(0, disorders.get(), "Messages delivered out of order");
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	static class Pinger extends Actor implements Base {
+
+		final CountDownLatch latch;
+		int remaining = COUNT;
+
+		Pinger(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(ActorRef.class, ponger -> ponger.tell("ping", self()))
+				.match(String.class, m -> {
+					if (--remaining == 0) {
+						latch.countDown();
+					} else {
+						sender().tell("ping", self());
+					}
+				});
+		}
+	}
+
+	static class Ponger extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(String.class, m -> reply("pong"));
+		}
+	}
+
+	@Test
+	public void test_requestReplyColocated() throws Exception {
+
+		final var system = TestSystems.createWithPool("migration-request-reply", 3, ActorThreadPool::withCellMigration);
+		final var latch = new CountDownLatch(1);
+
+		try {
+
+			final var ponger = system.actorOf(Props.create(Ponger::new));
+			final var pinger = system.actorOf(Props.create(() -> new Pinger(latch)));
+
+			assertNotEquals(ponger.dispatcher(), pinger.dispatcher());
+
+			pinger.tell(ponger);
+
+			assertTrue(latch.await(10, SECONDS));
+			assertEquals(ponger.dispatcher(), pinger.dispatcher());
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_boundCellsNotMoved() throws Exception {
+
+		final var system = TestSystems.createWithPool("migration-bound", 3, ActorThreadPool::withCellMigration);
+		final var latch = new CountDownLatch(1);
+
+		try {
+
+			final var ponger = system.actorOf(Props
+				.create(Ponger::new)
+				.onThreadWithIndex(0));
+			final var pinger = system.actorOf(Props
+				.create(() -> new Pinger(latch))
+				.onThreadWithIndex(1));
+
+			pinger.tell(ponger);
+
+			assertTrue(latch.await(10, SECONDS));
+			assertEquals(0, ((ActorThread) ponger.dispatcher()).index);
+			assertEquals(1, ((ActorThread) pinger.dispatcher()).index);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_boundCellPullsPeer() throws Exception {
+
+		final var system = TestSystems.createWithPool("migration-bound-peer", 3, ActorThreadPool::withCellMigration);
+		final var latch = new CountDownLatch(1);
+
+		try {
+
+			// pinger has higher UUID and should move, but it is bound, so ponger moves instead
+
+			final var ponger = system.actorOf(Props.create(Ponger::new));
+			final var index = (((ActorThread) ponger.dispatcher()).index + 1) % 3;
+			final var pinger = system.actorOf(Props
+				.create(() -> new Pinger(latch))
+				.onThreadWithIndex(index));
+
+			pinger.tell(ponger);
+
+			assertTrue(latch.await(10, SECONDS));
+			assertEquals(index, ((ActorThread) pinger.dispatcher()).index);
+			assertEquals(pinger.dispatcher(), ponger.dispatcher());
+
+		} finally {
+			system.shutdown();
+		}
+	}
+}
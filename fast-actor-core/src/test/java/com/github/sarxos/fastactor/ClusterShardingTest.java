@@ -0,0 +1,335 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.ClusterSharding.EntityExtractor;
+import com.github.sarxos.fastactor.ClusterSharding.GetShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.HandOff;
+import com.github.sarxos.fastactor.ClusterSharding.ShardHome;
+import com.github.sarxos.fastactor.ClusterSharding.ShardStopped;
+import com.github.sarxos.fastactor.dsl.Base;
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class ClusterShardingTest {
+
+	private static final int SHARDS = 8;
+
+	private static final EntityExtractor EXTRACTOR = message -> {
+		if (message instanceof Increment) {
+			return ((Increment) message).entityId;
+		} else {
+			return null;
+		}
+	};
+
+	private final List<ActorSystem> systems = new ArrayList<>();
+
+	private ActorRef coordinator;
+
+	@BeforeEach
+	public void setup() {
+		coordinator = ClusterSharding.startCoordinator(node("node1"));
+	}
+
+	@AfterEach
+	public void teardown() {
+		systems.forEach(ActorSystem::shutdown);
+	}
+
+	private ActorSystem node(final String name) {
+
+		final var system = new ActorSystem(name)
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME))
+			.withRemoting(new RemoteTransport(new InetSocketAddress("127.0.0.1", 0)))
+			.start();
+
+		system
+			.serialization()
+			.withJavaAllowed(Increment.class.getName());
+
+		systems.add(system);
+
+		return system;
+	}
+
+	private ActorRef region(final ActorSystem system) {
+
+		final var node1 = systems.get(0);
+		final var coordinatorRef = system == node1
+			? coordinator
+			: system.remote().actorFor(node1.remote().address(), coordinator.uuid());
+
+		return ClusterSharding.startRegion(system, coordinatorRef, SHARDS, id -> Props.create(CounterEntity::new), EXTRACTOR);
+	}
+
+	static class Increment implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final String entityId;
+
+		Increment(final String entityId) {
+			this.entityId = entityId;
+		}
+	}
+
+	/**
+	 * Replies with the node name and the number of increments received so far.
+	 */
+	static class CounterEntity extends Actor implements Base {
+
+		private int count;
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Increment.class, i -> reply(system().getName() + ":" + ++count));
+		}
+	}
+
+	private static String increment(final ActorRef region, final String entityId) throws Exception {
+		return region
+			.<String> ask(new Increment(entityId))
+			.toCompletableFuture()
+			.get(5, SECONDS);
+	}
+
+	@Test
+	public void test_sameEntityFromEveryRegion() throws Exception {
+
+		final var region1 = region(systems.get(0));
+		final var region2 = region(node("node2"));
+		final var nodes = new HashSet<String>();
+
+		for (int i = 0; i < 20; i++) {
+
+			final var id = "entity-" + i;
+			final var first = increment(region1, id).split(":");
+			final var second = increment(region2, id).split(":");
+
+			assertEquals("1", first[1]);
+			assertEquals("2", second[1]);
+			assertEquals(first[0], second[0]);
+
+			nodes.add(first[0]);
+		}
+
+		// shards are allocated to the least loaded region, so both nodes host some entities
+
+		assertEquals(2, nodes.size());
+	}
+
+	@Test
+	public void test_rebalanceWhenNodeJoins() throws Exception {
+
+		final var region1 = region(systems.get(0));
+		final var region2 = region(node("node2"));
+
+		for (int i = 0; i < SHARDS * 4; i++) {
+			increment(region1, "entity-" + i);
+		}
+
+		final var region3 = region(node("node3"));
+		final var deadline = System.nanoTime() + SECONDS.toNanos(10);
+		final var nodes = new HashSet<String>();
+
+		while (!nodes.contains("node3") && System.nanoTime() < deadline) {
+			for (int i = 0; i < SHARDS * 4; i++) {
+				nodes.add(increment(i % 2 == 0 ? region2 : region3, "entity-" + i).split(":")[0]);
+			}
+		}
+
+		assertTrue(nodes.contains("node3"), "No shard moved to the new node, got " + nodes);
+	}
+
+	/**
+	 * Replies with the uuid of the region hosting it.
+	 */
+	static class LocatedEntity extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Increment.class, i -> reply(context().parent().uuid()));
+		}
+	}
+
+	@Test
+	public void test_rebalanceBetweenRegionsInOneSystem() throws Exception {
+
+		final var system = ActorSystem.create("local-sharding");
+
+		systems.add(system);
+
+		final var local = ClusterSharding.startCoordinator(system);
+		final var region1 = ClusterSharding.startRegion(system, local, SHARDS, id -> Props.create(LocatedEntity::new), EXTRACTOR);
+
+		for (int i = 0; i < SHARDS * 4; i++) {
+			locate(region1, "entity-" + i);
+		}
+
+		// no remoting here, so the regions must resolve each other locally after the hand-off
+
+		final var region2 = ClusterSharding.startRegion(system, local, SHARDS, id -> Props.create(LocatedEntity::new), EXTRACTOR);
+		final var deadline = System.nanoTime() + SECONDS.toNanos(10);
+		final var hosts = new HashSet<Long>();
+
+		while (!hosts.contains(region2.uuid()) && System.nanoTime() < deadline) {
+			for (int i = 0; i < SHARDS * 4; i++) {
+				hosts.add(locate(region1, "entity-" + i));
+			}
+		}
+
+		assertEquals(Set.of(region1.uuid(), region2.uuid()), hosts);
+	}
+
+	/**
+	 * Replies with the number of increments received so far and stops.
+	 */
+	static class OneShotEntity extends Actor implements Base {
+
+		private int count;
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Increment.class, i -> {
+					reply(++count);
+					context().stop();
+				});
+		}
+	}
+
+	@Test
+	public void test_stoppedEntityCreatedAgain() throws Exception {
+
+		final var system = ActorSystem.create("entity-restart");
+
+		systems.add(system);
+
+		final var local = ClusterSharding.startCoordinator(system);
+		final var region = ClusterSharding.startRegion(system, local, SHARDS, id -> Props.create(OneShotEntity::new), EXTRACTOR);
+
+		assertEquals(1, (int) count(region, "entity", 5000));
+
+		// the message which comes before region learns that entity has stopped goes to the dead
+		// letters, the next one creates entity again
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> count(region, "entity", 100) != null);
+	}
+
+	private static Integer count(final ActorRef region, final String entityId, final long timeout) throws Exception {
+		try {
+			return region
+				.<Integer> ask(new Increment(entityId))
+				.toCompletableFuture()
+				.get(timeout, MILLISECONDS);
+		} catch (TimeoutException e) {
+			return null;
+		}
+	}
+
+	/**
+	 * Takes a while to stop.
+	 */
+	static class SlowStoppingEntity extends Actor implements Base {
+
+		private final AtomicBoolean stopped;
+
+		SlowStoppingEntity(final AtomicBoolean stopped) {
+			this.stopped = stopped;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Increment.class, i -> reply(true));
+		}
+
+		@Override
+		public void postStop() {
+			LockSupport.parkNanos(MILLISECONDS.toNanos(100));
+			stopped.set(true);
+		}
+	}
+
+	/**
+	 * Makes the asking region the home of every shard, and checks if the entity has stopped when
+	 * the region confirms the hand-off.
+	 */
+	static class CheckingCoordinator extends Actor implements Base {
+
+		private final AtomicBoolean stopped;
+		private final CompletableFuture<Boolean> confirmed;
+
+		CheckingCoordinator(final AtomicBoolean stopped, final CompletableFuture<Boolean> confirmed) {
+			this.stopped = stopped;
+			this.confirmed = confirmed;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(GetShardHome.class, get -> reply(new ShardHome(get.shard, null, sender().uuid())))
+				.match(ShardStopped.class, s -> confirmed.complete(stopped.get()));
+		}
+	}
+
+	@Test
+	public void test_handOffConfirmedAfterEntitiesTerminated() throws Exception {
+
+		final var system = TestSystems.create("hand-off", 2);
+
+		systems.add(system);
+
+		final var stopped = new AtomicBoolean();
+		final var confirmed = new CompletableFuture<Boolean>();
+
+		// the entity is stopped on the other thread than coordinator is running on
+
+		final var coordinator = system.actorOf(Props
+			.create(() -> new CheckingCoordinator(stopped, confirmed))
+			.onThreadWithIndex(0));
+		final var region = ClusterSharding.startRegion(system, coordinator, SHARDS, id -> Props
+			.create(() -> new SlowStoppingEntity(stopped))
+			.onThreadWithIndex(1), EXTRACTOR);
+
+		region
+			.ask(new Increment("entity"))
+			.toCompletableFuture()
+			.get(5, SECONDS);
+
+		region.tell(new HandOff(Math.floorMod("entity".hashCode(), SHARDS)), coordinator);
+
+		assertTrue(confirmed.get(5, SECONDS), "Hand-off confirmed before entity has terminated");
+	}
+
+	private static Long locate(final ActorRef region, final String entityId) throws Exception {
+		return region
+			.<Long> ask(new Increment(entityId))
+			.toCompletableFuture()
+			.get(5, SECONDS);
+	}
+}
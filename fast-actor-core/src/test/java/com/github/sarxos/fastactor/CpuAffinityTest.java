@@ -0,0 +1,94 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.ActorSystem.Configuration;
+
+
+public class CpuAffinityTest {
+
+	@Test
+	public void test_parse() {
+		assertArrayEquals(new int[] { 3 }, CpuAffinity.parse("3"));
+		assertArrayEquals(new int[] { 0, 1, 2, 3 }, CpuAffinity.parse("0-3"));
+		assertArrayEquals(new int[] { 0, 1, 8, 10, 11 }, CpuAffinity.parse("0-1, 8,10-11"));
+		assertArrayEquals(new int[] { 5, 2 }, CpuAffinity.parse("5,2"));
+	}
+
+	@Test
+	public void test_parseInvalid() {
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse(null));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse(" "));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse("a"));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse("3-1"));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse("0,,1"));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse("-1"));
+		assertThrows(IllegalArgumentException.class, () -> CpuAffinity.parse("1024"));
+	}
+
+	@Test
+	public void test_threadBoundToCpu() throws Exception {
+
+		assumeTrue(CpuAffinity.isSupported());
+
+		final var system = new ActorSystem("cpu-affinity", new Configuration())
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME).withAffinity("0"))
+			.start();
+
+		final var allowed = new CompletableFuture<String>();
+
+		class CpuReader extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.matchAny(m -> allowed.complete(cpusAllowedList()));
+			}
+		}
+
+		try {
+			system
+				.actorOf(Props.create(CpuReader::new))
+				.tell("read");
+			assertEquals("0", allowed.get(5, SECONDS));
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_startFailsWhenCpuNotAvailable() {
+
+		assumeTrue(CpuAffinity.isSupported());
+
+		final var system = new ActorSystem("cpu-affinity-invalid", new Configuration())
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME).withAffinity("1023"));
+
+		assertThrows(IllegalStateException.class, system::start);
+	}
+
+	private static String cpusAllowedList() {
+		try {
+			return Files
+				.readAllLines(Paths.get("/proc/thread-self/status"))
+				.stream()
+				.filter(line -> line.startsWith("Cpus_allowed_list:"))
+				.map(line -> line.substring(line.indexOf(':') + 1).trim())
+				.findFirst()
+				.orElse(null);
+		} catch (IOException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+}
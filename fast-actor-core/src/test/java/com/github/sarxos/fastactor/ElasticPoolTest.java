@@ -0,0 +1,170 @@
+package com.github.sarxos.fastactor;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.ActorSystem.Configuration;
+
+
+public class ElasticPoolTest {
+
+	static final int WORKERS = 12;
+	static final int MESSAGES = 50;
+
+	long period;
+	int growAfter;
+	int shrinkAfter;
+
+	@BeforeEach
+	public void setup() {
+		period = ActorThreadPool.period;
+		growAfter = ActorThreadPool.growAfter;
+		shrinkAfter = ActorThreadPool.shrinkAfter;
+		ActorThreadPool.period = TimeUnit.MILLISECONDS.toNanos(10);
+		ActorThreadPool.growAfter = 10;
+		ActorThreadPool.shrinkAfter = Integer.MAX_VALUE;
+	}
+
+	@AfterEach
+	public void teardown() {
+		ActorThreadPool.period = period;
+		ActorThreadPool.growAfter = growAfter;
+		ActorThreadPool.shrinkAfter = shrinkAfter;
+	}
+
+	static class Worker extends Actor {
+
+		final AtomicInteger delivered;
+		final AtomicInteger disorders;
+		int last = -1;
+
+		Worker(final AtomicInteger delivered, final AtomicInteger disorders) {
+			this.delivered = delivered;
+			this.disorders = disorders;
+		}
+
+		static void busy(final long nanos) {
+			final var end = System.nanoTime() + nanos;
+			while (System.nanoTime() < end) {
+				Thread.onSpinWait();
+			}
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> {
+					if (i != last + 1) {
+						disorders.incrementAndGet();
+					}
+					last = i;
+					if (i < MESSAGES) {
+						busy(TimeUnit.MILLISECONDS.toNanos(1));
+					}
+					delivered.incrementAndGet();
+				});
+		}
+	}
+
+	@Test
+	public void test_growAndShrink() throws Exception {
+
+		final var configuration = new Configuration();
+		configuration.setParallelism(1);
+
+		final var pool = new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME).withElasticity(1, 3);
+		final var system = new ActorSystem("elastic", configuration)
+			.withPool(pool)
+			.start();
+
+		final var delivered = new AtomicInteger();
+		final var disorders = new AtomicInteger();
+
+		try {
+
+			final List<ActorRef> workers = new ArrayList<>();
+			for (int i = 0; i < WORKERS; i++) {
+				workers.add(system.actorOf(Props.create(() -> new Worker(delivered, disorders))));
+			}
+
+			for (int i = 0; i < MESSAGES; i++) {
+				for (final ActorRef worker : workers) {
+					worker.tell(i);
+				}
+			}
+
+			// all the work lands on a single thread, so the pool grows and takes over some cells
+
+			final var thread = pool.getThreads()[0];
+
+			await()
+				.atMost(Duration.ofSeconds(5))
+				.until(() -> pool.getThreads().length > 1);
+
+			// the first thread gives its share of the cells to the new one when pool is growing
+
+			await()
+				.atMost(Duration.ofSeconds(10))
+				.until(() -> thread.metrics().getMigrated() > 0);
+
+			// pool shrinks when idle, while the messages keep coming to every worker (rarely enough
+			// to leave the threads idle for a few checks in a row)
+
+			ActorThreadPool.shrinkAfter = 3;
+
+			final var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+
+			var sent = WORKERS * MESSAGES;
+			for (int i = MESSAGES; pool.getThreads().length > 1; i++) {
+				assertTrue(System.nanoTime() < deadline, "Pool has not shrunk");
+				for (final ActorRef worker : workers) {
+					worker.tell(i);
+				}
+				sent += WORKERS;
+				Thread.sleep(50);
+			}
+
+			final var total = sent;
+
+			await()
+				.atMost(Duration.ofSeconds(10))
+				.until(() -> delivered.get() == total);
+
+			assertTrue(total > WORKERS * MESSAGES);
+			assertEquals(0, disorders.get(), "Messages delivered out of order");
+
+			// the cells from the retired threads are docked on the remaining one
+
+			assertEquals(1, pool.getThreads().length);
+			assertEquals(thread, pool.getThreads()[0]);
+
+			for (final ActorRef worker : workers) {
+				assertEquals(thread, worker.dispatcher());
+			}
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_invalidElasticity() {
+
+		final var pool = new ActorThreadPool("elastic-invalid");
+
+		assertThrows(IllegalArgumentException.class, () -> pool.withElasticity(0, 1));
+		assertThrows(IllegalArgumentException.class, () -> pool.withElasticity(2, 1));
+	}
+}
@@ -0,0 +1,225 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+
+public class FlightRecorderTest {
+
+	static class GatedActor extends Actor {
+
+		final CountDownLatch entered;
+		final CountDownLatch gate;
+		final CountDownLatch latch;
+
+		GatedActor(final CountDownLatch entered, final CountDownLatch gate, final CountDownLatch latch) {
+			this.entered = entered;
+			this.gate = gate;
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					entered.countDown();
+					while (gate.getCount() > 0) {
+						Thread.onSpinWait();
+					}
+					latch.countDown();
+				});
+		}
+	}
+
+	private static List<RecordedEvent> events(final List<RecordedEvent> events, final String name) {
+		return events
+			.stream()
+			.filter(e -> e.getEventType().getName().equals("com.github.sarxos.fastactor." + name))
+			.collect(Collectors.toList());
+	}
+
+	private static boolean isGated(final RecordedEvent event) {
+		return isOf(event, GatedActor.class);
+	}
+
+	private static boolean isOf(final RecordedEvent event, final Class<? extends Actor> type) {
+		final var actorClass = event.getClass("actorClass");
+		return actorClass != null && actorClass.getName().equals(type.getName());
+	}
+
+	@Test
+	public void test_events() throws Exception {
+
+		final var system = ActorSystem.create("flight-recorder");
+
+		final var file = Files.createTempFile("fast-actor", ".jfr");
+		final var count = FlightRecorder.MAILBOX_HIGH_WATER_MARK * 3 / 2;
+		final var entered = new CountDownLatch(1);
+		final var gate = new CountDownLatch(1);
+		final var latch = new CountDownLatch(count);
+
+		try (final var recording = new Recording()) {
+
+			recording.enable(FlightRecorder.MessageProcessed.class);
+			recording.enable(FlightRecorder.CellStarted.class);
+			recording.enable(FlightRecorder.CellStopped.class);
+			recording.enable(FlightRecorder.DeadLetter.class);
+			recording.enable(FlightRecorder.MailboxHighWaterMark.class);
+			recording.start();
+
+			final var ref = system.actorOf(Props.create(() -> new GatedActor(entered, gate, latch)));
+
+			// first message blocks the actor thread, so all the others are delivered to the inbox
+			// at once, when thread is released
+
+			ref.tell(0);
+
+			assertTrue(entered.await(5, SECONDS));
+
+			for (int i = 1; i < count; i++) {
+				ref.tell(i);
+			}
+
+			gate.countDown();
+
+			assertTrue(latch.await(5, SECONDS));
+
+			system.stop(ref);
+
+			await().until(() -> system.find(ref.uuid()) == system.refForDeadLetters());
+
+			// actor is gone, so the message is forwarded to dead letters synchronously
+
+			system.resolve(ref.uuid()).tell("too late");
+
+			recording.stop();
+			recording.dump(file);
+
+		} finally {
+			system.shutdown();
+		}
+
+		try {
+
+			final var events = RecordingFile.readAllEvents(file);
+			final var processed = events(events, "MessageProcessed");
+			final var started = events(events, "CellStarted");
+			final var stopped = events(events, "CellStopped");
+			final var highWaterMarks = events(events, "MailboxHighWaterMark");
+			final var deadLetters = events(events, "DeadLetter");
+
+			assertEquals(count, processed
+				.stream()
+				.filter(FlightRecorderTest::isGated)
+				.count());
+			assertEquals(Integer.class.getName(), processed
+				.stream()
+				.filter(FlightRecorderTest::isGated)
+				.findFirst()
+				.get()
+				.getClass("messageClass")
+				.getName());
+
+			assertEquals(1, started.stream().filter(FlightRecorderTest::isGated).count());
+			assertEquals(1, stopped.stream().filter(FlightRecorderTest::isGated).count());
+
+			assertEquals(1, highWaterMarks.size());
+			assertEquals(FlightRecorder.MAILBOX_HIGH_WATER_MARK, highWaterMarks.get(0).getInt("depth"));
+
+			assertTrue(deadLetters
+				.stream()
+				.anyMatch(e -> e.getClass("messageClass").getName().equals(String.class.getName())));
+
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	static class StoppingActor extends Actor {
+
+		@Override
+		public void preStart() {
+			context().stop();
+		}
+	}
+
+	@Test
+	public void test_stoppedInPreStart() throws Exception {
+
+		final var system = ActorSystem.create("flight-recorder");
+		final var file = Files.createTempFile("fast-actor", ".jfr");
+
+		try (final var recording = new Recording()) {
+
+			recording.enable(FlightRecorder.CellStarted.class);
+			recording.enable(FlightRecorder.CellStopped.class);
+			recording.start();
+
+			final var stopping = system.actorOf(Props.create(StoppingActor::new));
+
+			await().until(() -> system.find(stopping.uuid()) == system.refForDeadLetters());
+
+			// the actor thread survived, so the next actor is started and processes messages
+
+			final var entered = new CountDownLatch(1);
+			final var gate = new CountDownLatch(0);
+			final var latch = new CountDownLatch(1);
+
+			system
+				.actorOf(Props.create(() -> new GatedActor(entered, gate, latch)))
+				.tell(0);
+
+			assertTrue(latch.await(5, SECONDS));
+
+			recording.stop();
+			recording.dump(file);
+
+		} finally {
+			system.shutdown();
+		}
+
+		try {
+
+			final var events = RecordingFile.readAllEvents(file);
+			final var started = events(events, "CellStarted");
+			final var stopped = events(events, "CellStopped");
+
+			// actor stopped in preStart has never been started, but it was stopped
+
+			assertEquals(0, started.stream().filter(e -> isOf(e, StoppingActor.class)).count());
+			assertEquals(1, stopped.stream().filter(e -> isOf(e, StoppingActor.class)).count());
+			assertEquals(1, started.stream().filter(FlightRecorderTest::isGated).count());
+
+		} finally {
+			Files.deleteIfExists(file);
+		}
+	}
+
+	@Test
+	public void test_eventsDisabled() {
+
+		// no recording is running, so the event fields are never evaluated
+
+		final var event = new FlightRecorder.MessageProcessed();
+
+		event.begin();
+		event.end();
+
+		assertFalse(event.isEnabled());
+		assertFalse(event.shouldCommit());
+	}
+}
@@ -0,0 +1,215 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.dsl.Base;
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class GracefulShutdownTest {
+
+	static final int COUNT = 200;
+
+	static class Slow extends Actor {
+
+		final AtomicInteger processed;
+		final List<String> stopped;
+		final String name;
+
+		Slow(final AtomicInteger processed, final List<String> stopped, final String name) {
+			this.processed = processed;
+			this.stopped = stopped;
+			this.name = name;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> {
+					final var end = System.nanoTime() + TimeUnit.MICROSECONDS.toNanos(100);
+					while (System.nanoTime() < end) {
+						Thread.onSpinWait();
+					}
+					processed.incrementAndGet();
+				});
+		}
+
+		@Override
+		public void postStop() {
+			stopped.add(name);
+		}
+	}
+
+	@Test
+	public void test_messagesDrainedBeforeStop() {
+
+		final var system = TestSystems.create("shutdown-drain", 2);
+		final var processed = new AtomicInteger();
+		final var stopped = new CopyOnWriteArrayList<String>();
+		final var actor = system.actorOf(Props.create(() -> new Slow(processed, stopped, "slow")));
+
+		for (int i = 0; i < COUNT; i++) {
+			actor.tell(i);
+		}
+
+		final var report = system.shutdown(Duration.ofSeconds(10));
+
+		assertTrue(report.isDrained());
+		assertTrue(report.isStopped());
+		assertEquals(0, report.getRejected());
+		assertEquals(0, report.getDiscarded());
+		assertEquals(COUNT, processed.get());
+		assertEquals(List.of("slow"), stopped);
+	}
+
+	static class Parent extends Actor {
+
+		final List<String> stopped;
+
+		Parent(final List<String> stopped) {
+			this.stopped = stopped;
+		}
+
+		@Override
+		public void preStart() {
+			for (int i = 0; i < 3; i++) {
+				context().actorOf(Props.create(() -> new Slow(new AtomicInteger(), stopped, "child")));
+			}
+		}
+
+		@Override
+		public void postStop() {
+			stopped.add("parent");
+		}
+	}
+
+	@Test
+	public void test_hierarchyStoppedTopDown() throws Exception {
+
+		final var system = TestSystems.create("shutdown-hierarchy", 2);
+		final var stopped = new CopyOnWriteArrayList<String>();
+		final var parent = system.actorOf(Props.create(() -> new Parent(stopped)));
+
+		assertTrue(parent.uuid() > 0);
+
+		final var report = system.shutdown(Duration.ofSeconds(10));
+
+		assertTrue(report.isStopped());
+		assertEquals(List.of("parent", "child", "child", "child"), stopped);
+	}
+
+	static class Blocked extends Actor implements Base {
+
+		final CountDownLatch entered;
+		final CountDownLatch release;
+
+		Blocked(final CountDownLatch entered, final CountDownLatch release) {
+			this.entered = entered;
+			this.release = release;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(String.class, m -> {
+					entered.countDown();
+					while (release.getCount() > 0) {
+						Thread.onSpinWait();
+					}
+				})
+				.match(Integer.class, i -> reply(i));
+		}
+	}
+
+	@Test
+	public void test_externalTellsRejected() throws Exception {
+
+		final var system = TestSystems.create("shutdown-reject", 2);
+		final var entered = new CountDownLatch(1);
+		final var release = new CountDownLatch(1);
+		final var actor = system.actorOf(Props.create(() -> new Blocked(entered, release)));
+
+		actor.tell("block");
+
+		assertTrue(entered.await(5, SECONDS));
+
+		// system cannot drain while the actor is blocked
+
+		final var report = CompletableFuture.supplyAsync(() -> system.shutdown(Duration.ofSeconds(10)));
+
+		while (!system.terminating) {
+			Thread.onSpinWait();
+		}
+
+		actor.tell(1);
+
+		final var ask = system.ask(2, actor).toCompletableFuture();
+		final var e = assertThrows(ExecutionException.class, () -> ask.get(5, SECONDS));
+
+		assertTrue(e.getCause() instanceof IllegalStateException);
+
+		release.countDown();
+
+		assertEquals(2, report.get(10, SECONDS).getRejected());
+		assertTrue(report.get().isDrained());
+	}
+
+	static class Looping extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> self().tell(m));
+		}
+	}
+
+	@Test
+	public void test_deadlineNotDrained() {
+
+		final var system = TestSystems.create("shutdown-deadline", 2);
+		final var actor = system.actorOf(Props.create(Looping::new));
+
+		actor.tell("loop");
+
+		final var report = system.shutdown(Duration.ofMillis(200));
+
+		assertFalse(report.isDrained());
+		assertTrue(report.getDuration().compareTo(Duration.ofSeconds(5)) < 0);
+	}
+
+	@Test
+	public void test_immediateShutdown() {
+
+		final var system = TestSystems.create("shutdown-immediate", 2);
+		final var stopped = new CopyOnWriteArrayList<String>();
+		final var slow = system.actorOf(Props.create(() -> new Slow(new AtomicInteger(), stopped, "slow")));
+		final var looping = system.actorOf(Props.create(Looping::new));
+
+		looping.tell("loop");
+
+		// nothing is waited for, neither the busy threads nor the actors to stop
+
+		final var report = system.shutdown();
+
+		assertFalse(report.isDrained());
+		assertFalse(report.isStopped());
+		assertTrue(report.getDuration().compareTo(Duration.ofSeconds(5)) < 0);
+		assertTrue(stopped.isEmpty());
+		assertTrue(slow.uuid() > 0);
+	}
+}
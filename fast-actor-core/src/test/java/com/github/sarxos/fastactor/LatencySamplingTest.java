@@ -0,0 +1,162 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class LatencySamplingTest {
+
+	static class SlowActor extends Actor {
+
+		final CountDownLatch latch;
+
+		SlowActor(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+					latch.countDown();
+				});
+		}
+	}
+
+	static class FastActor extends Actor {
+
+		final CountDownLatch latch;
+
+		FastActor(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> latch.countDown());
+		}
+	}
+
+	@Test
+	public void test_histogramPrecision() {
+
+		for (long value = 1; value > 0 && value < Long.MAX_VALUE / 3; value = value * 3 + 1) {
+
+			final int index = Histogram.indexOf(value);
+			final long lowest = Histogram.lowestValueAt(index);
+			final long highest = Histogram.highestValueAt(index);
+
+			assertTrue(lowest <= value && value <= highest, value + " not in [" + lowest + ", " + highest + "]");
+			assertTrue(highest - lowest <= value / Histogram.SUB_BUCKETS, "Too wide bucket for " + value);
+		}
+
+		assertEquals(Histogram.LENGTH - 1, Histogram.indexOf(Long.MAX_VALUE));
+	}
+
+	@Test
+	public void test_percentiles() {
+
+		final var histogram = new Histogram();
+
+		for (int i = 1; i <= 1000; i++) {
+			histogram.record(i * 1000L);
+		}
+
+		final var snapshot = histogram.snapshot();
+
+		assertEquals(1000, snapshot.getCount());
+		assertEquals(500_000, snapshot.getP50(), 500_000 * 0.04);
+		assertEquals(990_000, snapshot.getP99(), 990_000 * 0.04);
+		assertEquals(1_000_000, snapshot.getMax(), 1_000_000 * 0.04);
+		assertEquals(500_500, snapshot.getMean(), 500_500 * 0.04);
+	}
+
+	@Test
+	public void test_queueWaitAndProcessing() throws Exception {
+
+		final var system = TestSystems.create("latency-all", s -> s.withLatencySampling(1));
+		final var count = 50;
+		final var latch = new CountDownLatch(count);
+		final var slow = system.actorOf(Props.create(() -> new SlowActor(latch)));
+
+		try {
+
+			for (int i = 0; i < count; i++) {
+				slow.tell(i);
+			}
+
+			assertTrue(latch.await(5, SECONDS));
+
+			// latency is recorded after the message is processed
+
+			await().until(() -> system
+				.metrics()
+				.getLatency(SlowActor.class)
+				.getProcessing()
+				.getCount() == count);
+
+			final var snapshot = system.metrics();
+			final var latency = snapshot.getLatency(SlowActor.class);
+			final var thread = snapshot
+				.getLatencyByThread()
+				.values()
+				.stream()
+				.mapToLong(l -> l.getProcessing().getCount())
+				.sum();
+
+			assertEquals(count, latency.getProcessing().getCount());
+			assertTrue(latency.getProcessing().getP50() >= MILLISECONDS.toNanos(1));
+
+			// messages were told at once, so the last one waits for all the others
+
+			assertTrue(latency.getQueueWait().getMax() >= MILLISECONDS.toNanos(count / 2));
+			assertTrue(thread >= count);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_sampling() throws Exception {
+
+		final var system = TestSystems.create("latency-sampled", s -> s.withLatencySampling(10));
+		final var count = 100_000;
+		final var latch = new CountDownLatch(count);
+		final var fast = system.actorOf(Props.create(() -> new FastActor(latch)));
+
+		try {
+
+			for (int i = 0; i < count; i++) {
+				fast.tell(i);
+			}
+
+			assertTrue(latch.await(5, SECONDS));
+
+			final var snapshot = system.metrics();
+			final var sampled = snapshot
+				.getLatency(FastActor.class)
+				.getProcessing()
+				.getCount();
+
+			assertTrue(sampled > count / 20 && sampled < count / 5, "Sampled " + sampled);
+			assertNull(snapshot.getLatency(SlowActor.class));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+}
@@ -0,0 +1,109 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.CountDownLatch;
+
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class MetricsTest {
+
+	private static final int COUNT = 10_000;
+
+	static class CountingActor extends Actor {
+
+		final CountDownLatch latch;
+
+		CountingActor(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> latch.countDown());
+		}
+	}
+
+	@Test
+	public void test_snapshot() throws Exception {
+
+		final var system = TestSystems.create("metrics-snapshot", ActorSystem::withMetrics);
+		final var latch = new CountDownLatch(COUNT);
+		final var ref = system.actorOf(Props.create(() -> new CountingActor(latch)));
+
+		try {
+
+			for (int i = 0; i < COUNT; i++) {
+				ref.tell(i);
+			}
+
+			assertTrue(latch.await(5, SECONDS));
+
+			// threads publish counters lazily, at the latest when they park
+
+			await().until(() -> system
+				.metrics()
+				.getThreads()
+				.stream()
+				.mapToLong(t -> t.getDrained())
+				.sum() >= COUNT);
+
+			final var snapshot = system.metrics();
+			final var actor = snapshot
+				.getActors()
+				.stream()
+				.filter(a -> a.getUuid() == ref.uuid())
+				.findFirst()
+				.orElseThrow();
+
+			assertEquals(CountingActor.class.getName(), actor.getActorClass());
+			assertTrue(actor.getProcessed() >= COUNT, "Processed " + actor.getProcessed());
+			assertTrue(actor.getMaxInboxDepth() >= 1);
+			assertTrue(snapshot.getProcessed() >= COUNT);
+
+			for (var thread : snapshot.getThreads()) {
+				assertTrue(thread.getBusyRatio() >= 0 && thread.getBusyRatio() <= 1);
+			}
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_jmx() throws Exception {
+
+		final var server = ManagementFactory.getPlatformMBeanServer();
+		final var name = new ObjectName("com.github.sarxos.fastactor:type=ActorSystem,name=" + ObjectName.quote("metrics-jmx"));
+		final var system = TestSystems.create("metrics-jmx", ActorSystem::withMetrics);
+
+		try {
+
+			assertTrue(server.isRegistered(name));
+			assertEquals("metrics-jmx", server.getAttribute(name, "Name"));
+			assertTrue((Integer) server.getAttribute(name, "ActorsCount") > 0);
+
+			final var threads = (CompositeData[]) server.getAttribute(name, "Threads");
+
+			assertEquals(system.parallelism, threads.length);
+			assertTrue(threads[0].containsKey("busyLoops"));
+
+		} finally {
+			system.shutdown();
+		}
+
+		assertFalse(server.isRegistered(name));
+	}
+}
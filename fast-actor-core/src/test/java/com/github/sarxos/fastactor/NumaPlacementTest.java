@@ -0,0 +1,289 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.function.UnaryOperator;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class NumaPlacementTest {
+
+	static final int CHILDREN = 10;
+
+	/**
+	 * Simulates two nodes with two threads each.
+	 */
+	static final UnaryOperator<ActorThreadPool> TWO_NODES = pool -> pool.withNumaTopology("0-1", "2-3");
+
+	private static int node(final ActorRef ref) {
+		return ((ActorThread) ref.dispatcher()).node;
+	}
+
+	static class Child extends Actor {
+
+		final CountDownLatch latch;
+
+		Child(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> latch.countDown());
+		}
+	}
+
+	static class Parent extends Actor {
+
+		final CountDownLatch latch;
+		final CompletableFuture<List<ActorRef>> children;
+
+		Parent(final CountDownLatch latch, final CompletableFuture<List<ActorRef>> children) {
+			this.latch = latch;
+			this.children = children;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+
+					final var refs = new ArrayList<ActorRef>();
+					for (int i = 0; i < CHILDREN; i++) {
+						refs.add(context().actorOf(Props.create(() -> new Child(latch))));
+					}
+					for (final ActorRef ref : refs) {
+						ref.tell(m);
+					}
+
+					children.complete(refs);
+				});
+		}
+	}
+
+	@Test
+	public void test_topology() {
+
+		final var topology = NumaTopology.of("0-1", "2-3");
+
+		assertEquals(2, topology.size());
+		assertEquals(0, topology.nodeOf(1));
+		assertEquals(1, topology.nodeOf(2));
+		assertEquals(-1, topology.nodeOf(4));
+
+		assertThrows(IllegalArgumentException.class, () -> NumaTopology.of());
+		assertThrows(IllegalArgumentException.class, () -> NumaTopology.of("0-2", "2-3"));
+
+		final var detected = NumaTopology.detect();
+
+		assertTrue(detected.size() >= 1);
+		assertTrue(detected.nodeOf(0) >= 0);
+	}
+
+	@Test
+	public void test_memoryOnlyNodeSkipped() throws Exception {
+
+		final var root = Files.createTempDirectory("numa");
+
+		try {
+
+			// node1 has memory but no CPUs, as e.g. the CXL or HBM memory nodes
+
+			for (final var entry : Map.of("node0", "0-1\n", "node1", "\n", "node2", "2-3\n").entrySet()) {
+				final var node = Files.createDirectory(root.resolve(entry.getKey()));
+				Files.writeString(node.resolve("cpulist"), entry.getValue());
+			}
+
+			final var topology = NumaTopology.detect(root);
+
+			assertEquals(2, topology.size());
+			assertEquals(0, topology.nodeOf(1));
+			assertEquals(1, topology.nodeOf(2));
+
+		} finally {
+			try (Stream<Path> paths = Files.walk(root)) {
+				paths
+					.sorted(Comparator.reverseOrder())
+					.map(Path::toFile)
+					.forEach(File::delete);
+			}
+		}
+	}
+
+	@Test
+	public void test_threadsGroupedByNode() {
+
+		final var system = TestSystems.createWithPool("numa-groups", 4, TWO_NODES);
+
+		try {
+
+			final var threads = system.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads();
+
+			assertEquals(0, threads[0].node);
+			assertEquals(1, threads[1].node);
+			assertEquals(0, threads[2].node);
+			assertEquals(1, threads[3].node);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_threadsOfElasticPoolGroupedByNode() {
+
+		// elastic pool starts with 2 of up to 4 threads, and these must not end up on one node
+
+		final var system = TestSystems.createWithPool("numa-elastic", 2, pool -> TWO_NODES
+			.apply(pool)
+			.withElasticity(1, 4));
+
+		try {
+
+			final var threads = system.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads();
+
+			assertEquals(2, threads.length);
+			assertEquals(0, threads[0].node);
+			assertEquals(1, threads[1].node);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_childrenCreatedOnParentNode() throws Exception {
+
+		final var system = TestSystems.createWithPool("numa-children", 4, TWO_NODES);
+
+		try {
+
+			for (int index = 0; index < 4; index++) {
+
+				final var latch = new CountDownLatch(CHILDREN);
+				final var children = new CompletableFuture<List<ActorRef>>();
+				final var parent = system.actorOf(Props
+					.create(() -> new Parent(latch, children))
+					.onThreadWithIndex(index));
+
+				parent.tell("ping");
+
+				final var threads = new HashSet<ActorThread>();
+				for (final ActorRef child : children.get(5, SECONDS)) {
+					assertEquals(node(parent), node(child));
+					threads.add((ActorThread) child.dispatcher());
+				}
+
+				// children are still spread over all the threads of the node
+
+				assertEquals(2, threads.size());
+				assertTrue(latch.await(5, SECONDS));
+			}
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_crossNodeSentCounted() throws Exception {
+
+		final var system = TestSystems.createWithPool("numa-cross-node", 4, TWO_NODES);
+		final var latch = new CountDownLatch(CHILDREN * 2);
+
+		try {
+
+			final var threads = system.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads();
+			final var target = system.actorOf(Props
+				.create(() -> new Child(latch))
+				.onThreadWithIndex(3));
+
+			class Sender extends Actor {
+
+				final CountDownLatch sent;
+
+				Sender(final CountDownLatch sent) {
+					this.sent = sent;
+				}
+
+				@Override
+				public Receive receive() {
+					return super.receive()
+						.match(CountDownLatch.class, CountDownLatch::countDown)
+						.matchAny(m -> {
+							for (int i = 0; i < CHILDREN; i++) {
+								target.tell(i);
+							}
+							sent.countDown();
+						});
+				}
+			}
+
+			final var localSent = new CountDownLatch(1);
+			final var local = system.actorOf(Props
+				.create(() -> new Sender(localSent))
+				.onThreadWithIndex(1));
+			final var remoteSent = new CountDownLatch(1);
+			final var remote = system.actorOf(Props
+				.create(() -> new Sender(remoteSent))
+				.onThreadWithIndex(0));
+
+			// actors talk across the nodes when started, count only what is sent here
+
+			final var started = new CountDownLatch(2);
+
+			local.tell(started);
+			remote.tell(started);
+
+			assertTrue(started.await(5, SECONDS));
+			await().until(() -> threads[0].isParked() && threads[1].isParked());
+
+			final var before = system.metrics().getThreads();
+
+			local.tell("go");
+
+			// thread publishes its counters right before it parks
+
+			assertTrue(localSent.await(5, SECONDS));
+			await().until(threads[1]::isParked);
+
+			assertEquals(before.get(1).getCrossNodeSent(), system.metrics().getThreads().get(1).getCrossNodeSent());
+
+			remote.tell("go");
+
+			assertTrue(latch.await(5, SECONDS));
+
+			assertTrue(remoteSent.await(5, SECONDS));
+			await().until(threads[0]::isParked);
+
+			final var after = system.metrics();
+			final var metrics = after.getThreads().get(0);
+
+			assertEquals(0, metrics.getNode());
+			assertEquals(CHILDREN, metrics.getCrossNodeSent() - before.get(0).getCrossNodeSent());
+			assertTrue(after.getCrossNodeSent() >= CHILDREN);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+}
@@ -0,0 +1,318 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.DeadLetters.DeadLetter;
+import com.github.sarxos.fastactor.EventBus.SubscribeAck;
+import com.github.sarxos.fastactor.dsl.Events;
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class PayloadTest {
+
+	static final int COUNT = 1000;
+	static final int CAPACITY = 64 * 1024;
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = TestSystems.create("payload", ActorSystem::withPayloadLeakDetection);
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	static class Reading extends Actor {
+
+		final CountDownLatch latch;
+		long sum;
+
+		Reading(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Payload.class, p -> {
+					sum += p.buffer().getLong(0);
+					latch.countDown();
+				});
+		}
+	}
+
+	@Test
+	public void test_releasedAfterProcessing() throws Exception {
+
+		final var pool = system.payloads();
+		final var latch = new CountDownLatch(COUNT);
+		final var ref = system.actorOf(Props.create(() -> new Reading(latch)));
+
+		for (int i = 0; i < COUNT; i++) {
+			final var payload = pool.acquire(CAPACITY);
+			payload.buffer().putLong(0, i);
+			ref.tell(payload);
+		}
+
+		assertTrue(latch.await(5, SECONDS));
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		pool.checkLeaks();
+
+		// the buffers went back to the pool
+
+		assertTrue(pool.pooled() > 0);
+	}
+
+	static class Retaining extends Actor {
+
+		Payload retained;
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Payload.class, p -> retained = p.retain())
+				.match(CompletableFuture.class, this::reply);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void reply(final CompletableFuture<?> future) {
+			((CompletableFuture<Payload>) future).complete(retained);
+		}
+	}
+
+	@Test
+	public void test_retainedByActor() throws Exception {
+
+		final var pool = system.payloads();
+		final var payload = pool.acquire(CAPACITY);
+		final var ref = system.actorOf(Props.create(Retaining::new));
+		final var retained = new CompletableFuture<Payload>();
+
+		ref.tell(payload);
+		ref.tell(retained);
+
+		// processed, but not released because actor keeps the reference
+
+		assertSame(payload, retained.get(5, SECONDS));
+		assertEquals(1, payload.references());
+		assertEquals(1, pool.outstanding());
+		assertThrows(IllegalStateException.class, pool::checkLeaks);
+
+		assertTrue(payload.release());
+		assertEquals(0, pool.outstanding());
+		assertThrows(IllegalStateException.class, payload::buffer);
+		assertThrows(IllegalStateException.class, payload::retain);
+		assertThrows(IllegalStateException.class, payload::release);
+	}
+
+	@Test
+	public void test_tryRelease() {
+
+		final var pool = new PayloadPool();
+		final var payload = pool.acquire(1).retain();
+
+		assertTrue(payload.tryRelease());
+		assertEquals(1, pool.outstanding());
+		assertTrue(payload.tryRelease());
+		assertEquals(0, pool.outstanding());
+
+		// already released, so nothing happens
+
+		assertFalse(payload.tryRelease());
+		assertEquals(0, payload.references());
+		assertEquals(0, pool.outstanding());
+	}
+
+	static class DeadLettersReading extends Actor implements Events {
+
+		final CountDownLatch subscribed;
+		final CompletableFuture<Long> read;
+
+		DeadLettersReading(final CountDownLatch subscribed, final CompletableFuture<Long> read) {
+			this.subscribed = subscribed;
+			this.read = read;
+		}
+
+		@Override
+		public void preStart() {
+			subscribeEvent(DeadLetter.class);
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(SubscribeAck.class, ack -> subscribed.countDown())
+				.match(DeadLetter.class, letter -> read.complete(((Payload) letter.getMessage()).buffer().getLong(0)));
+		}
+	}
+
+	@Test
+	public void test_releasedInDeadLetters() throws Exception {
+
+		final var pool = system.payloads();
+		final var payload = pool.acquire(CAPACITY);
+		final var subscribed = new CountDownLatch(1);
+		final var read = new CompletableFuture<Long>();
+
+		system.actorOf(Props.create(() -> new DeadLettersReading(subscribed, read)));
+
+		assertTrue(subscribed.await(5, SECONDS));
+
+		payload.buffer().putLong(0, 42);
+
+		system
+			.resolve(Long.MAX_VALUE)
+			.tell(payload);
+
+		// subscriber reads the payload before it is released
+
+		assertEquals(42L, (long) read.get(5, SECONDS));
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		assertEquals(0, payload.references());
+		pool.checkLeaks();
+	}
+
+	static class StoppingOnPayload extends Actor {
+
+		final CountDownLatch proceed;
+
+		StoppingOnPayload(final CountDownLatch proceed) {
+			this.proceed = proceed;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Payload.class, p -> {
+					try {
+						proceed.await();
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+					context().stop();
+				});
+		}
+	}
+
+	@Test
+	public void test_releasedInInboxOfStoppedActor() throws Exception {
+
+		final var pool = system.payloads();
+		final var proceed = new CountDownLatch(1);
+		final var ref = system.actorOf(Props.create(() -> new StoppingOnPayload(proceed)));
+
+		for (int i = 0; i < COUNT; i++) {
+			ref.tell(pool.acquire(CAPACITY));
+		}
+
+		// the first payload blocks the actor, so the rest waits in its inbox when it stops
+
+		proceed.countDown();
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		pool.checkLeaks();
+	}
+
+	@Test
+	public void test_releasedInDiscardedBatch() {
+
+		final var pool = system.payloads();
+		final var target = system.resolve(Long.MAX_VALUE);
+		final var first = pool.acquire(CAPACITY);
+		final var second = pool.acquire(CAPACITY);
+		final var batch = new Envelope.Batch(new Envelope[] {
+			new Envelope(first, target, null),
+			new Envelope("text", target, null),
+			new Envelope(second, target, null),
+		});
+
+		batch.discard();
+
+		assertEquals(0, first.references());
+		assertEquals(0, second.references());
+		assertEquals(0, pool.outstanding());
+	}
+
+	@Test
+	public void test_leakDetection() {
+
+		final var pool = new PayloadPool(true);
+		final var released = pool.acquire(1);
+		final var leaked = pool.acquire(1);
+
+		released.release();
+
+		final var exception = assertThrows(IllegalStateException.class, pool::checkLeaks);
+
+		assertEquals(1, exception.getSuppressed().length);
+		assertSame(leaked.acquisition, exception.getSuppressed()[0]);
+
+		leaked.release();
+		pool.checkLeaks();
+	}
+
+	@Test
+	public void test_sizeClasses() {
+
+		assertEquals(0, PayloadPool.classOf(0));
+		assertEquals(0, PayloadPool.classOf(PayloadPool.MIN_CAPACITY));
+		assertEquals(1, PayloadPool.classOf(PayloadPool.MIN_CAPACITY + 1));
+		assertEquals(10, PayloadPool.classOf(PayloadPool.MAX_CAPACITY));
+
+		final var pool = new PayloadPool();
+		final var payload = pool.acquire(3000);
+
+		assertEquals(3000, payload.buffer().limit());
+		assertEquals(4096, payload.buffer().capacity());
+		assertTrue(payload.buffer().isDirect());
+
+		final var buffer = payload.buffer();
+
+		payload.release();
+
+		// the same buffer is reused by the next payload of the same size class
+
+		final var reused = pool.acquire(4000);
+
+		assertSame(buffer, reused.buffer());
+		assertEquals(4000, reused.buffer().limit());
+		assertEquals(0, reused.buffer().position());
+
+		// buffers bigger than the biggest size class are not pooled
+
+		pool
+			.acquire(PayloadPool.MAX_CAPACITY + 1)
+			.release();
+
+		assertEquals(0, pool.pooled());
+		assertFalse(pool.isLeakDetection());
+		assertThrows(IllegalArgumentException.class, () -> pool.acquire(-1));
+	}
+}
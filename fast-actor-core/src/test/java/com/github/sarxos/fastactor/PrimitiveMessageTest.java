@@ -0,0 +1,154 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.DeadLetters.DeadLetter;
+import com.github.sarxos.fastactor.EventBus.SubscribeAck;
+import com.github.sarxos.fastactor.dsl.Events;
+
+
+public class PrimitiveMessageTest {
+
+	static final int COUNT = 10_000;
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = ActorSystem.create("primitive");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	static class Summing extends Actor {
+
+		final CountDownLatch latch;
+		final List<Object> objects;
+		long sum;
+
+		Summing(final CountDownLatch latch, final List<Object> objects) {
+			this.latch = latch;
+			this.objects = objects;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchLong(value -> {
+					sum += value;
+					latch.countDown();
+				})
+				.match(CompletableFuture.class, this::reply)
+				.matchAny(objects::add);
+		}
+
+		@SuppressWarnings("unchecked")
+		private void reply(final CompletableFuture<?> future) {
+			((CompletableFuture<Long>) future).complete(sum);
+		}
+	}
+
+	@Test
+	public void test_tellLong() throws Exception {
+
+		final var latch = new CountDownLatch(COUNT + 1);
+		final var objects = new CopyOnWriteArrayList<>();
+		final var ref = system.actorOf(Props.create(() -> new Summing(latch, objects)));
+
+		for (int i = 0; i < COUNT; i++) {
+			ref.tellLong(i);
+		}
+
+		// boxed long told as object is matched as well
+
+		ref.tell(Long.valueOf(COUNT));
+
+		assertTrue(latch.await(5, SECONDS));
+
+		final var sum = new CompletableFuture<Long>();
+
+		ref.tell(sum);
+
+		assertEquals(Long.valueOf((long) COUNT * (COUNT + 1) / 2), sum.get(5, SECONDS));
+		assertTrue(objects.isEmpty(), "Long values must not fall to other matchers");
+	}
+
+	static class Boxing extends Actor {
+
+		final CompletableFuture<Object> received;
+
+		Boxing(final CompletableFuture<Object> received) {
+			this.received = received;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Number.class, received::complete);
+		}
+	}
+
+	@Test
+	public void test_tellLongToActorNotMatchingLongs() throws Exception {
+
+		final var received = new CompletableFuture<Object>();
+		final var ref = system.actorOf(Props.create(() -> new Boxing(received)));
+
+		ref.tellLong(7);
+
+		assertEquals(7L, received.get(5, SECONDS));
+	}
+
+	@Test
+	public void test_tellLongToNonExistingActor() throws Exception {
+
+		final var letter = new CompletableFuture<DeadLetter>();
+
+		class DeadLettersListener extends Actor implements Events {
+
+			final CountDownLatch subscribed;
+
+			DeadLettersListener(final CountDownLatch subscribed) {
+				this.subscribed = subscribed;
+			}
+
+			@Override
+			public void preStart() {
+				subscribeEvent(DeadLetter.class);
+			}
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(SubscribeAck.class, ack -> subscribed.countDown())
+					.match(DeadLetter.class, letter::complete);
+			}
+		}
+
+		final var subscribed = new CountDownLatch(1);
+
+		system.actorOf(Props.create(() -> new DeadLettersListener(subscribed)));
+
+		assertTrue(subscribed.await(5, SECONDS));
+
+		system
+			.resolve(Long.MAX_VALUE)
+			.tellLong(42);
+
+		assertEquals(42L, letter.get(5, SECONDS).getMessage());
+	}
+}
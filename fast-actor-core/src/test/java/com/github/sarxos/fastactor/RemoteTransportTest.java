@@ -0,0 +1,380 @@
+package com.github.sarxos.fastactor;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.net.InetSocketAddress;
+import java.net.Socket;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+public class RemoteTransportTest {
+
+	private ActorSystem system1;
+	private ActorSystem system2;
+
+	@BeforeEach
+	public void setup() {
+		system1 = remoteSystem("remote1");
+		system2 = remoteSystem("remote2");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system1.shutdown();
+		system2.shutdown();
+	}
+
+	private static ActorSystem remoteSystem(final String name) {
+		return new ActorSystem(name)
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME))
+			.withRemoting(new RemoteTransport(new InetSocketAddress("127.0.0.1", 0)))
+			.start();
+	}
+
+	static class EchoActor extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(this::reply);
+		}
+	}
+
+	@Test
+	public void test_tellAndReply() throws Exception {
+
+		final var replied = new CompletableFuture<Object>();
+		final var senders = new CompletableFuture<ActorRef>();
+
+		class RequesterActor extends Actor implements Base {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(ActorRef.class, ref -> tell("hello", ref))
+					.match(String.class, s -> {
+						senders.complete(sender());
+						replied.complete(s);
+					});
+			}
+		}
+
+		final var echo = system2.actorOf(Props.create(EchoActor::new));
+		final var remoteEcho = system1
+			.remote()
+			.actorFor(system2.remote().address(), echo.uuid());
+		final var requester = system1.actorOf(Props.create(RequesterActor::new));
+
+		requester.tell(remoteEcho);
+
+		assertEquals("hello", replied.get(5, SECONDS));
+		assertEquals(remoteEcho, senders.get(5, SECONDS));
+	}
+
+	@Test
+	public void test_ask() throws Exception {
+
+		final var echo = system2.actorOf(Props.create(EchoActor::new));
+		final var remoteEcho = system1
+			.remote()
+			.actorFor(system2.remote().address(), echo.uuid());
+
+		final Object reply = remoteEcho
+			.ask(Integer.valueOf(42))
+			.toCompletableFuture()
+			.get(5, SECONDS);
+
+		assertEquals(Integer.valueOf(42), reply);
+	}
+
+	@Test
+	public void test_orderAndCoalescing() throws Exception {
+
+		final int count = 50_000;
+		final var latch = new CountDownLatch(1);
+		final List<Integer> received = new ArrayList<>(count);
+
+		class CollectorActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(Integer.class, i -> {
+						received.add(i);
+						if (received.size() == count) {
+							latch.countDown();
+						}
+					});
+			}
+		}
+
+		final var collector = system2.actorOf(Props.create(CollectorActor::new));
+		final var remoteCollector = system1
+			.remote()
+			.actorFor(system2.remote().address(), collector.uuid());
+
+		for (int i = 0; i < count; i++) {
+			remoteCollector.tell(Integer.valueOf(i));
+		}
+
+		assertTrue(latch.await(10, SECONDS));
+
+		for (int i = 0; i < count; i++) {
+			assertEquals(i, received.get(i).intValue());
+		}
+	}
+
+	@Test
+	public void test_largeMessage() throws Exception {
+
+		final var received = new CompletableFuture<byte[]>();
+
+		class BytesActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(byte[].class, received::complete);
+			}
+		}
+
+		final var bytes = new byte[RemoteTransport.BUFFER_SIZE * 3];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) i;
+		}
+
+		final var actor = system2.actorOf(Props.create(BytesActor::new));
+		final var remote = system1
+			.remote()
+			.actorFor(system2.remote().address(), actor.uuid());
+
+		remote.tell(bytes);
+
+		final var result = received.get(5, SECONDS);
+
+		assertEquals(bytes.length, result.length);
+		assertEquals(bytes[bytes.length - 1], result[result.length - 1]);
+	}
+
+	@Test
+	public void test_malformedFrames() throws Exception {
+
+		final var echo = system2.actorOf(Props.create(EchoActor::new));
+		final var remoteEcho = system1
+			.remote()
+			.actorFor(system2.remote().address(), echo.uuid());
+
+		// negative length, huge length, and garbage instead of the target and the sender
+
+		final var frames = new ByteBuffer[] {
+			ByteBuffer.allocate(12).putInt(-8).putLong(0).flip(),
+			ByteBuffer.allocate(4).putInt(Integer.MAX_VALUE).flip(),
+			ByteBuffer.allocate(8).putInt(4).put(RemoteTransport.FRAME_MESSAGE).put(new byte[3]).flip(),
+		};
+
+		for (final ByteBuffer frame : frames) {
+			try (final var channel = SocketChannel.open(system2.remote().address())) {
+				channel.write(frame);
+			}
+		}
+
+		// the I/O thread survived and serves the other connections
+
+		final Object reply = remoteEcho
+			.ask("still alive")
+			.toCompletableFuture()
+			.get(5, SECONDS);
+
+		assertEquals("still alive", reply);
+	}
+
+	private static ByteBuffer hello(final String host, final int port) {
+
+		final var bytes = host.getBytes(UTF_8);
+		final var frame = ByteBuffer.allocate(4 + 1 + 2 + bytes.length + 4);
+
+		return frame
+			.putInt(frame.capacity() - 4)
+			.put(RemoteTransport.FRAME_HELLO)
+			.putShort((short) bytes.length)
+			.put(bytes)
+			.putInt(port)
+			.flip();
+	}
+
+	private static ByteBuffer message(final long uuid, final byte[] body) {
+
+		final var frame = ByteBuffer.allocate(4 + 1 + 8 + 1 + body.length);
+
+		return frame
+			.putInt(frame.capacity() - 4)
+			.put(RemoteTransport.FRAME_MESSAGE)
+			.putLong(uuid)
+			.put(RemoteTransport.NO_SENDER)
+			.put(body)
+			.flip();
+	}
+
+	private static boolean closedAfter(final InetSocketAddress address, final ByteBuffer... frames) throws Exception {
+		try (final var socket = new Socket(address.getAddress(), address.getPort())) {
+
+			socket.setSoTimeout(5000);
+
+			for (final ByteBuffer frame : frames) {
+				socket
+					.getOutputStream()
+					.write(frame.array(), 0, frame.limit());
+			}
+
+			return socket
+				.getInputStream()
+				.read() == -1;
+		}
+	}
+
+	@Test
+	public void test_protocolViolationsCloseConnection() throws Exception {
+
+		final var address = system2.remote().address();
+		final var host = address.getHostString();
+
+		assertTrue(closedAfter(address, hello(host, 1234), ByteBuffer.allocate(5).putInt(1).put((byte) 9).flip()), "Unknown frame type");
+		assertTrue(closedAfter(address, message(1, new byte[0])), "Message before hello");
+		assertTrue(closedAfter(address, hello("", 1234)), "Empty host");
+		assertTrue(closedAfter(address, hello(host, 0)), "Invalid port");
+		assertTrue(closedAfter(address, hello(host, 1234), message(1, new byte[0]).put(13, (byte) 7)), "Unknown sender type");
+	}
+
+	@Test
+	public void test_undeserializableMessageDropped() throws Exception {
+
+		final var received = new CompletableFuture<Object>();
+
+		class ReceivingActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.matchAny(received::complete);
+			}
+		}
+
+		final var actor = system2.actorOf(Props.create(ReceivingActor::new));
+		final var address = system2.remote().address();
+		final var body = ByteBuffer.allocate(1024);
+
+		system2
+			.serialization()
+			.serialize("valid", body);
+
+		try (final var socket = new Socket(address.getAddress(), address.getPort())) {
+
+			final var frames = new ByteBuffer[] {
+				hello(address.getHostString(), 1234),
+				message(actor.uuid(), new byte[] { -1, -1, -1 }),
+				message(actor.uuid(), Arrays.copyOf(body.array(), body.position())),
+			};
+
+			for (final ByteBuffer frame : frames) {
+				socket
+					.getOutputStream()
+					.write(frame.array(), 0, frame.limit());
+			}
+
+			// the frame boundaries are intact, so the connection is kept
+
+			assertEquals("valid", received.get(5, SECONDS));
+		}
+	}
+
+	@Test
+	public void test_remoteSenderSystemsLimited() throws Exception {
+
+		final var system = new ActorSystem("remote-limited")
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME))
+			.withRemoting(new RemoteTransport(new InetSocketAddress("127.0.0.1", 0)).withMaxRemoteSenderSystems(1))
+			.start();
+
+		final var senders = new LinkedBlockingQueue<ActorRef>();
+
+		class SenderActor extends Actor implements Base {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.matchAny(m -> senders.add(sender()));
+			}
+		}
+
+		try (final var socket = new Socket(system.remote().address().getAddress(), system.remote().address().getPort())) {
+
+			final var actor = system.actorOf(Props.create(SenderActor::new));
+			final var body = ByteBuffer.allocate(1024);
+
+			system
+				.serialization()
+				.serialize("message", body);
+
+			socket
+				.getOutputStream()
+				.write(hello("127.0.0.1", 1234).array());
+
+			// every sender lives in the different system, only the first one is known
+
+			for (int port = 2001; port <= 2003; port++) {
+
+				final var host = "127.0.0.1".getBytes(UTF_8);
+				final var frame = ByteBuffer.allocate(4 + 1 + 8 + 1 + 2 + host.length + 4 + 8 + body.position());
+
+				frame
+					.putInt(frame.capacity() - 4)
+					.put(RemoteTransport.FRAME_MESSAGE)
+					.putLong(actor.uuid())
+					.put(RemoteTransport.REMOTE_SENDER)
+					.putShort((short) host.length)
+					.put(host)
+					.putInt(port)
+					.putLong(42)
+					.put(body.array(), 0, body.position());
+
+				socket
+					.getOutputStream()
+					.write(frame.array());
+			}
+
+			assertEquals(2001, ((RemoteActorRef) senders.poll(5, SECONDS)).address.getPort());
+			assertEquals(system.noSender(), senders.poll(5, SECONDS));
+			assertEquals(system.noSender(), senders.poll(5, SECONDS));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_invalidMaxRemoteSenderSystems() {
+		assertThrows(IllegalArgumentException.class, () -> new RemoteTransport(new InetSocketAddress(0)).withMaxRemoteSenderSystems(-1));
+	}
+
+	@Test
+	public void test_invalidMaxFrameSize() {
+		assertThrows(IllegalArgumentException.class, () -> new RemoteTransport(new InetSocketAddress(0)).withMaxFrameSize(0));
+	}
+}
@@ -0,0 +1,238 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+public class SharedMemoryTransportTest {
+
+	/**
+	 * Small capacity so the ring wraps around and fills up in the tests.
+	 */
+	private static final int CAPACITY = 64 * 1024;
+
+	private Path directory;
+	private SharedMemoryTransport transport1;
+	private SharedMemoryTransport transport2;
+	private ActorSystem system1;
+	private ActorSystem system2;
+
+	@BeforeEach
+	public void setup() throws Exception {
+
+		directory = Files.createTempDirectory("fast-actor-shm");
+
+		final var a2b = directory.resolve("a2b");
+		final var b2a = directory.resolve("b2a");
+
+		transport1 = new SharedMemoryTransport(a2b, b2a, CAPACITY);
+		transport2 = new SharedMemoryTransport(b2a, a2b, CAPACITY);
+		system1 = shmSystem("shm1", transport1);
+		system2 = shmSystem("shm2", transport2);
+	}
+
+	@AfterEach
+	public void teardown() throws Exception {
+		system1.shutdown();
+		system2.shutdown();
+		Files.deleteIfExists(directory.resolve("a2b"));
+		Files.deleteIfExists(directory.resolve("b2a"));
+		Files.deleteIfExists(directory);
+	}
+
+	private static ActorSystem shmSystem(final String name, final SharedMemoryTransport transport) {
+		return new ActorSystem(name)
+			.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME))
+			.withTransport(transport)
+			.start();
+	}
+
+	static class EchoActor extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(this::reply);
+		}
+	}
+
+	@Test
+	public void test_tellAndReply() throws Exception {
+
+		final var replied = new CompletableFuture<Object>();
+
+		class RequesterActor extends Actor implements Base {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(ActorRef.class, ref -> tell("hello", ref))
+					.match(String.class, replied::complete);
+			}
+		}
+
+		final var echo = system2.actorOf(Props.create(EchoActor::new));
+		final var shmEcho = transport1.actorFor(echo.uuid());
+		final var requester = system1.actorOf(Props.create(RequesterActor::new));
+
+		requester.tell(shmEcho);
+
+		assertEquals("hello", replied.get(5, SECONDS));
+	}
+
+	@Test
+	public void test_ask() throws Exception {
+
+		final var echo = system2.actorOf(Props.create(EchoActor::new));
+		final var shmEcho = transport1.actorFor(echo.uuid());
+
+		final Object reply = shmEcho
+			.ask(Long.valueOf(42))
+			.toCompletableFuture()
+			.get(5, SECONDS);
+
+		assertEquals(Long.valueOf(42), reply);
+	}
+
+	@Test
+	public void test_orderWrapAndBackpressure() throws Exception {
+
+		final int count = 100_000;
+		final var latch = new CountDownLatch(1);
+		final List<String> received = new ArrayList<>(count);
+
+		class CollectorActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(String.class, s -> {
+						received.add(s);
+						if (received.size() == count) {
+							latch.countDown();
+						}
+					});
+			}
+		}
+
+		final var collector = system2.actorOf(Props.create(CollectorActor::new));
+		final var shmCollector = transport1.actorFor(collector.uuid());
+
+		for (int i = 0; i < count; i++) {
+			shmCollector.tell("message-" + i);
+		}
+
+		assertTrue(latch.await(10, SECONDS));
+
+		for (int i = 0; i < count; i++) {
+			assertEquals("message-" + i, received.get(i));
+		}
+	}
+
+	@Test
+	public void test_malformedRecordSkipped() throws Exception {
+
+		final var outbox = directory.resolve("e2f");
+		final var inbox = directory.resolve("f2e");
+		final var transport = new SharedMemoryTransport(outbox, inbox, CAPACITY);
+		final var system = shmSystem("shm4", transport);
+		final var peer = new MappedRingBuffer(inbox, CAPACITY);
+		final var received = new CompletableFuture<Object>();
+
+		class ReceivingActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.matchAny(received::complete);
+			}
+		}
+
+		try {
+
+			final var actor = system.actorOf(Props.create(ReceivingActor::new));
+
+			// truncated target, unknown sender address, and finally the valid record
+
+			peer.offer(new byte[3], (bytes, buffer) -> buffer.put(bytes));
+			peer.offer(actor.uuid(), (uuid, buffer) -> buffer
+				.putLong(uuid)
+				.put(SharedMemoryTransport.REMOTE_SENDER)
+				.putShort((short) 1)
+				.put((byte) 'x')
+				.putInt(-1));
+			peer.offer(actor.uuid(), (uuid, buffer) -> {
+				buffer
+					.putLong(uuid)
+					.put(SharedMemoryTransport.NO_SENDER);
+				system
+					.serialization()
+					.serialize("valid", buffer);
+			});
+
+			assertEquals("valid", received.get(5, SECONDS));
+
+		} finally {
+			system.shutdown();
+			Files.deleteIfExists(outbox);
+			Files.deleteIfExists(inbox);
+		}
+	}
+
+	@Test
+	public void test_fullOutboxDoesNotBlockActor() throws Exception {
+
+		final var outbox = directory.resolve("c2d");
+		final var inbox = directory.resolve("d2c");
+		final var transport = new SharedMemoryTransport(outbox, inbox, CAPACITY);
+		final var system = shmSystem("shm3", transport);
+
+		// nobody reads on the other side, so the outbox fills up after the first few messages
+
+		final var peer = transport.actorFor(1);
+		final var sent = new CompletableFuture<Long>();
+
+		class FloodActor extends Actor {
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(Integer.class, n -> {
+						final var start = System.nanoTime();
+						for (int i = 0; i < n; i++) {
+							peer.tell("message-" + i);
+						}
+						sent.complete(System.nanoTime() - start);
+					});
+			}
+		}
+
+		try {
+
+			system
+				.actorOf(Props.create(FloodActor::new))
+				.tell(CAPACITY / 8);
+
+			assertTrue(sent.get(5, SECONDS) < SECONDS.toNanos(1), "Actor was blocked by the full outbox");
+
+		} finally {
+			system.shutdown();
+			Files.deleteIfExists(outbox);
+			Files.deleteIfExists(inbox);
+		}
+	}
+}
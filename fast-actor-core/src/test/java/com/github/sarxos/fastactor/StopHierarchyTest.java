@@ -0,0 +1,162 @@
+package com.github.sarxos.fastactor;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class StopHierarchyTest {
+
+	static final int DEPTH = 3;
+	static final int WIDTH = 10;
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = TestSystems.create("stop-hierarchy", 3);
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	static class Node extends Actor {
+
+		final int level;
+		final AtomicInteger started;
+		final AtomicInteger stopped;
+
+		Node(final int level, final AtomicInteger started, final AtomicInteger stopped) {
+			this.level = level;
+			this.started = started;
+			this.stopped = stopped;
+		}
+
+		@Override
+		public void preStart() {
+			started.incrementAndGet();
+			if (level < DEPTH) {
+				for (int i = 0; i < WIDTH; i++) {
+					context().actorOf(Props.create(() -> new Node(level + 1, started, stopped)));
+				}
+			}
+		}
+
+		@Override
+		public void postStop() {
+			stopped.incrementAndGet();
+		}
+	}
+
+	@Test
+	public void test_treeStoppedAndDiscarded() {
+
+		final var started = new AtomicInteger();
+		final var stopped = new AtomicInteger();
+		final var nodes = 1 + WIDTH + WIDTH * WIDTH + WIDTH * WIDTH * WIDTH;
+		final var root = system.actorOf(Props.create(() -> new Node(0, started, stopped)));
+
+		await()
+			.atMost(Duration.ofSeconds(10))
+			.until(() -> started.get() == nodes);
+
+		final var cells = system.cells.size();
+
+		system.stop(root);
+
+		// no helper actors are created to stop the tree
+
+		await()
+			.atMost(Duration.ofSeconds(10))
+			.until(() -> {
+				assertTrue(system.cells.size() <= cells);
+				return !system.cells.containsKey(root.uuid());
+			});
+
+		assertEquals(nodes, stopped.get());
+		assertEquals(cells - nodes, system.cells.size());
+	}
+
+	static class Child extends Actor {
+	}
+
+	static class Parent extends Actor {
+
+		ActorRef child;
+
+		@Override
+		public void preStart() {
+			child = context().actorOf(Props.create(Child::new));
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(String.class, m -> context().system().stop(child));
+		}
+	}
+
+	@Test
+	public void test_stoppedChildRemovedFromParent() {
+
+		final var parent = system.actorOf(Props.create(Parent::new));
+
+		await()
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> cell(parent).hasChildren());
+
+		parent.tell("stop child");
+
+		await()
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> !cell(parent).hasChildren());
+
+		// parent without children is discarded right away
+
+		system.stop(parent);
+
+		await()
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> !system.cells.containsKey(parent.uuid()));
+	}
+
+	@Test
+	public void test_stoppedBeforeStarted() {
+
+		final var created = new AtomicInteger();
+		final var parent = system.actorOf(Props.create(Child::new));
+		final var child = system
+			.newCell(Props.create(() -> {
+				created.incrementAndGet();
+				return new Child();
+			}), parent)
+			.self();
+
+		// stop comes before the start directive, so no actor code is run
+
+		system.stop(child);
+
+		await()
+			.atMost(Duration.ofSeconds(5))
+			.until(() -> !system.cells.containsKey(child.uuid()));
+
+		child.tell(InternalDirectives.START, child);
+
+		assertEquals(0, created.get());
+	}
+
+	private ActorCell<?> cell(final ActorRef ref) {
+		return ((ActorThread) ref.dispatcher()).dockedCells.get(ref.uuid());
+	}
+}
@@ -0,0 +1,250 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.DeathWatch.Terminated;
+import com.github.sarxos.fastactor.SupervisorStrategy.Decision;
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+public class SupervisionTest {
+
+	private ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = ActorSystem.create("supervision");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	/**
+	 * Counts messages, fails on "boom" and replies with the number of messages and incarnations
+	 * on "count".
+	 */
+	static class FragileActor extends Actor implements Base {
+
+		final AtomicInteger incarnations;
+		final AtomicInteger restarts;
+
+		int count;
+
+		FragileActor(final AtomicInteger incarnations, final AtomicInteger restarts) {
+			this.incarnations = incarnations;
+			this.restarts = restarts;
+			this.incarnations.incrementAndGet();
+		}
+
+		@Override
+		public void postRestart(final Throwable cause) {
+			restarts.incrementAndGet();
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(String.class, this::onString);
+		}
+
+		private void onString(final String s) {
+			switch (s) {
+				case "boom":
+					throw new IllegalStateException("boom");
+				case "count":
+					reply(count + "/" + incarnations.get());
+					break;
+				default:
+					count++;
+			}
+		}
+	}
+
+	/**
+	 * Creates fragile child with a given strategy and forwards everything to it. Completes the
+	 * future when child terminates.
+	 */
+	static class SupervisorActor extends Actor implements Base {
+
+		final SupervisorStrategy strategy;
+		final Props<FragileActor> childProps;
+		final CompletableFuture<ActorRef> terminated;
+
+		ActorRef child;
+
+		SupervisorActor(final SupervisorStrategy strategy, final Props<FragileActor> childProps, final CompletableFuture<ActorRef> terminated) {
+			this.strategy = strategy;
+			this.childProps = childProps;
+			this.terminated = terminated;
+		}
+
+		@Override
+		public void preStart() {
+			child = context().actorOf(childProps);
+			context().watch(child);
+		}
+
+		@Override
+		public SupervisorStrategy supervisorStrategy() {
+			return strategy;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Terminated.class, t -> terminated.complete(t.ref()))
+				.match(String.class, s -> forward(s, child));
+		}
+	}
+
+	private ActorRef supervisor(final SupervisorStrategy strategy, final AtomicInteger incarnations, final AtomicInteger restarts, final CompletableFuture<ActorRef> terminated) {
+		final var childProps = Props.create(() -> new FragileActor(incarnations, restarts));
+		return system.actorOf(Props.create(() -> new SupervisorActor(strategy, childProps, terminated)));
+	}
+
+	private static String ask(final ActorRef ref, final String message) throws Exception {
+		return ref
+			.<String> ask(message)
+			.toCompletableFuture()
+			.get(5, SECONDS);
+	}
+
+	@Test
+	public void test_restartKeepsInbox() throws Exception {
+
+		final var incarnations = new AtomicInteger();
+		final var restarts = new AtomicInteger();
+		final var strategy = SupervisorStrategy.create(cause -> Decision.RESTART);
+		final var parent = supervisor(strategy, incarnations, restarts, new CompletableFuture<>());
+
+		parent.tell("a");
+		parent.tell("b");
+		parent.tell("boom");
+		parent.tell("c");
+		parent.tell("d");
+
+		// state is lost with the failed instance, but messages after failure are processed
+
+		assertEquals("2/2", ask(parent, "count"));
+		assertEquals(1, restarts.get());
+	}
+
+	@Test
+	public void test_resumeKeepsState() throws Exception {
+
+		final var incarnations = new AtomicInteger();
+		final var restarts = new AtomicInteger();
+		final var strategy = SupervisorStrategy.create(cause -> Decision.RESUME);
+		final var parent = supervisor(strategy, incarnations, restarts, new CompletableFuture<>());
+
+		parent.tell("a");
+		parent.tell("boom");
+		parent.tell("b");
+
+		assertEquals("2/1", ask(parent, "count"));
+		assertEquals(0, restarts.get());
+	}
+
+	@Test
+	public void test_stop() throws Exception {
+
+		final var terminated = new CompletableFuture<ActorRef>();
+		final var parent = supervisor(SupervisorStrategy.STOPPING, new AtomicInteger(), new AtomicInteger(), terminated);
+
+		parent.tell("boom");
+
+		terminated.get(5, SECONDS);
+	}
+
+	@Test
+	public void test_restartsRateLimit() throws Exception {
+
+		final var incarnations = new AtomicInteger();
+		final var terminated = new CompletableFuture<ActorRef>();
+		final var strategy = SupervisorStrategy
+			.create(cause -> Decision.RESTART)
+			.withMaxRestarts(2, Duration.ofMinutes(1));
+		final var parent = supervisor(strategy, incarnations, new AtomicInteger(), terminated);
+
+		parent.tell("boom");
+		parent.tell("boom");
+		parent.tell("boom");
+
+		terminated.get(5, SECONDS);
+
+		assertEquals(3, incarnations.get());
+	}
+
+	@Test
+	public void test_escalate() throws Exception {
+
+		final var parentIncarnations = new AtomicInteger();
+
+		class EscalatingActor extends Actor implements Base {
+
+			ActorRef child;
+
+			EscalatingActor() {
+				parentIncarnations.incrementAndGet();
+			}
+
+			@Override
+			public void preStart() {
+				child = context().actorOf(Props.create(() -> new FragileActor(new AtomicInteger(), new AtomicInteger())));
+			}
+
+			@Override
+			public SupervisorStrategy supervisorStrategy() {
+				return SupervisorStrategy.create(cause -> Decision.ESCALATE);
+			}
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(String.class, s -> forward(s, child));
+			}
+		}
+
+		final var parent = system.actorOf(Props.create(EscalatingActor::new));
+
+		parent.tell("boom");
+
+		// user guardian restarts the parent with default strategy, which creates a new child
+
+		await().until(() -> parentIncarnations.get() == 2);
+
+		assertEquals("0/1", ask(parent, "count"));
+		assertEquals(2, parentIncarnations.get());
+	}
+
+	@Test
+	public void test_threadSurvivesFailure() throws Exception {
+
+		// both actors are docked on the same thread, the failing one must not kill it
+
+		final var props = Props
+			.create(() -> new FragileActor(new AtomicInteger(), new AtomicInteger()))
+			.onThreadWithIndex(0);
+		final var fragile = system.actorOf(props);
+		final var neighbour = system.actorOf(props);
+
+		for (int i = 0; i < 100; i++) {
+			fragile.tell("boom");
+			neighbour.tell("x");
+		}
+
+		assertEquals("100/1", ask(neighbour, "count"));
+	}
+}
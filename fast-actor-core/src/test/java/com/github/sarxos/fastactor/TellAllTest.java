@@ -0,0 +1,236 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.DeadLetters.DeadLetter;
+import com.github.sarxos.fastactor.EventBus.SubscribeAck;
+import com.github.sarxos.fastactor.dsl.Events;
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class TellAllTest {
+
+	static final int COUNT = 500;
+
+	static class CollectingActor extends Actor {
+
+		final List<Object> received = new ArrayList<>();
+		final CountDownLatch latch;
+		final CountDownLatch gate;
+
+		CollectingActor(final CountDownLatch latch, final CountDownLatch gate) {
+			this.latch = latch;
+			this.gate = gate;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(CountDownLatch.class, this::block)
+				.matchAny(m -> {
+					received.add(m);
+					latch.countDown();
+				});
+		}
+
+		private void block(final CountDownLatch entered) {
+			entered.countDown();
+			while (gate.getCount() > 0) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Test
+	public void test_tellAllPreservesOrder() throws Exception {
+
+		final var system = TestSystems.create("tell-all-order", 1);
+		final var latch = new CountDownLatch(COUNT * 2);
+		final var actor = new CollectingActor[1];
+		final var ref = system.actorOf(Props.create(() -> actor[0] = new CollectingActor(latch, new CountDownLatch(0))));
+
+		try {
+
+			final var first = IntStream
+				.range(0, COUNT)
+				.boxed()
+				.collect(Collectors.toList());
+			final var second = IntStream
+				.range(COUNT, COUNT * 2)
+				.boxed()
+				.toArray();
+
+			ref.tellAll(first);
+			ref.tellAll(second);
+
+			assertTrue(latch.await(5, SECONDS));
+
+			final var expected = IntStream
+				.range(0, COUNT * 2)
+				.boxed()
+				.collect(Collectors.toList());
+
+			assertEquals(expected, actor[0].received);
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_tellAllIsSingleQueueOperation() throws Exception {
+
+		final var system = TestSystems.create("tell-all-single", 1);
+		final var latch = new CountDownLatch(COUNT);
+		final var gate = new CountDownLatch(1);
+		final var entered = new CountDownLatch(1);
+		final var ref = system.actorOf(Props.create(() -> new CollectingActor(latch, gate)));
+
+		try {
+
+			// block the actor thread, so deposited messages stay in the external queue
+
+			ref.tell(entered);
+
+			assertTrue(entered.await(5, SECONDS));
+
+			ref.tellAll(IntStream
+				.range(0, COUNT)
+				.boxed()
+				.toArray());
+
+			final var thread = (ActorThread) ref.dispatcher();
+
+			assertEquals(1, thread.externalQueue.size());
+
+			gate.countDown();
+
+			assertTrue(latch.await(5, SECONDS));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_batchToManyActors() throws Exception {
+
+		final var system = TestSystems.create("tell-all-batch", 2);
+		final var actors = 4;
+		final var latch = new CountDownLatch(actors * COUNT);
+		final var collectors = new CollectingActor[actors];
+		final var refs = new ActorRef[actors];
+
+		for (int i = 0; i < actors; i++) {
+			final var index = i;
+			refs[i] = system.actorOf(Props.create(() -> collectors[index] = new CollectingActor(latch, new CountDownLatch(0))));
+		}
+
+		try {
+
+			final var batch = system.batch();
+
+			for (int i = 0; i < COUNT; i++) {
+				for (final ActorRef ref : refs) {
+					batch.tell(i, ref);
+				}
+			}
+
+			assertEquals(actors * COUNT, batch.size());
+
+			batch.send();
+
+			assertEquals(0, batch.size());
+			assertTrue(latch.await(5, SECONDS));
+
+			final var expected = IntStream
+				.range(0, COUNT)
+				.boxed()
+				.collect(Collectors.toList());
+
+			for (final CollectingActor collector : collectors) {
+				assertEquals(expected, collector.received);
+			}
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_tellAllToNonExistingActor() throws Exception {
+
+		final var system = TestSystems.create("tell-all-dead", 1);
+		final var latch = new CountDownLatch(3);
+
+		class DeadLettersListener extends Actor implements Events {
+
+			final CountDownLatch subscribed;
+
+			DeadLettersListener(final CountDownLatch subscribed) {
+				this.subscribed = subscribed;
+			}
+
+			@Override
+			public void preStart() {
+				subscribeEvent(DeadLetter.class);
+			}
+
+			@Override
+			public Receive receive() {
+				return super.receive()
+					.match(SubscribeAck.class, ack -> subscribed.countDown())
+					.match(DeadLetter.class, letter -> latch.countDown());
+			}
+		}
+
+		try {
+
+			final var subscribed = new CountDownLatch(1);
+
+			system.actorOf(Props.create(() -> new DeadLettersListener(subscribed)));
+
+			assertTrue(subscribed.await(5, SECONDS));
+
+			system
+				.resolve(Long.MAX_VALUE)
+				.tellAll(new Object[] { 1, 2, 3 });
+
+			assertTrue(latch.await(5, SECONDS));
+
+		} finally {
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_batchToString() {
+
+		final var system = TestSystems.create("tell-all-batch", 1);
+
+		try {
+
+			final var target = system.refForDeadLetters();
+			final var batch = new Envelope.Batch(new Envelope[] {
+				new Envelope(1, target, null),
+				new Envelope(2, target, null)
+			});
+
+			assertEquals(Envelope[].class, batch.messageClass());
+			assertEquals(Envelope.Batch.class.getName() + "[ envelopes = 2, to = " + target + "]", batch.toString());
+
+		} finally {
+			system.shutdown();
+		}
+	}
+}
@@ -0,0 +1,139 @@
+package com.github.sarxos.fastactor;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.util.TestSystems;
+
+
+public class WakeUpCoalescingTest {
+
+	static final int COUNT = 100;
+
+	static class Target extends Actor {
+
+		final AtomicInteger processed;
+		final CountDownLatch latch;
+
+		Target(final AtomicInteger processed, final CountDownLatch latch) {
+			this.processed = processed;
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					processed.incrementAndGet();
+					latch.countDown();
+				});
+		}
+	}
+
+	@Test
+	public void test_wakeUpDeferredUntilTurnEnds() throws Exception {
+
+		final var system = TestSystems.create("wake-up-coalescing", 2);
+
+		// park long enough for the target thread not to wake up by itself during the test
+
+		final var delay = ActorThread.delay;
+		ActorThread.delay = SECONDS.toNanos(30);
+
+		final var processed = new AtomicInteger();
+		final var latch = new CountDownLatch(COUNT);
+		final var observed = new CompletableFuture<Integer>();
+
+		try {
+
+			final var target = system.actorOf(Props
+				.create(() -> new Target(processed, latch))
+				.onThreadWithIndex(1));
+			final var targetThread = (ActorThread) target.dispatcher();
+
+			class Source extends Actor {
+
+				@Override
+				public Receive receive() {
+					return super.receive()
+						.matchAny(m -> {
+
+							for (int i = 0; i < COUNT; i++) {
+								target.tell(i);
+							}
+
+							// target is not woken up until this turn ends
+
+							LockSupport.parkNanos(MILLISECONDS.toNanos(50));
+							observed.complete(processed.get());
+						});
+				}
+			}
+
+			final var source = system.actorOf(Props
+				.create(Source::new)
+				.onThreadWithIndex(0));
+
+			await()
+				.atMost(Duration.ofSeconds(5))
+				.until(targetThread::isParked);
+
+			source.tell("go");
+
+			assertEquals(0, observed.get(5, SECONDS).intValue());
+			assertTrue(latch.await(5, SECONDS));
+			assertEquals(COUNT, processed.get());
+
+		} finally {
+			ActorThread.delay = delay;
+			system.shutdown();
+		}
+	}
+
+	@Test
+	public void test_maxIdleLoopsCountOfPool() {
+
+		final var defaults = ActorThread.maxIdleLoopsCount;
+		final var spinning = TestSystems.createWithPool("wake-up-spinning", 1, pool -> pool.withMaxIdleLoopsCount(Integer.MAX_VALUE));
+		final var parking = TestSystems.createWithPool("wake-up-parking", 1, pool -> pool.withMaxIdleLoopsCount(0));
+
+		try {
+
+			final var spinningThread = spinning.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads()[0];
+			final var parkingThread = parking.pools.get(ActorSystem.DEFAULT_THREAD_POOL_NAME).getThreads()[0];
+
+			await()
+				.atMost(Duration.ofSeconds(5))
+				.until(parkingThread::isParked);
+
+			final var deadline = System.nanoTime() + MILLISECONDS.toNanos(200);
+			while (System.nanoTime() < deadline) {
+				assertFalse(spinningThread.isParked());
+				LockSupport.parkNanos(MILLISECONDS.toNanos(1));
+			}
+
+			// the other pools are not affected
+
+			assertEquals(defaults, ActorThread.maxIdleLoopsCount);
+
+		} finally {
+			spinning.shutdown(Duration.ZERO);
+			parking.shutdown();
+		}
+
+		assertThrows(IllegalArgumentException.class, () -> new ActorThreadPool("invalid").withMaxIdleLoopsCount(-1));
+	}
+}
@@ -0,0 +1,255 @@
+package com.github.sarxos.fastactor.serialization;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.Serializable;
+import java.nio.BufferOverflowException;
+import java.nio.ByteBuffer;
+import java.util.Objects;
+
+import org.junit.jupiter.api.Test;
+
+
+public class SerializationTest {
+
+	static final class Trade {
+
+		final long id;
+		final String symbol;
+		final double price;
+		final int quantity;
+		final boolean buy;
+		final Object note;
+
+		Trade(final long id, final String symbol, final double price, final int quantity, final boolean buy, final Object note) {
+			this.id = id;
+			this.symbol = symbol;
+			this.price = price;
+			this.quantity = quantity;
+			this.buy = buy;
+			this.note = note;
+		}
+
+		@Override
+		public boolean equals(final Object obj) {
+
+			if (!(obj instanceof Trade)) {
+				return false;
+			}
+
+			final var t = (Trade) obj;
+
+			return id == t.id
+				&& price == t.price
+				&& quantity == t.quantity
+				&& buy == t.buy
+				&& Objects.equals(symbol, t.symbol)
+				&& Objects.equals(note, t.note);
+		}
+
+		@Override
+		public int hashCode() {
+			return Long.hashCode(id);
+		}
+	}
+
+	static final class JavaMessage implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final String text;
+
+		JavaMessage(final String text) {
+			this.text = text;
+		}
+	}
+
+	/**
+	 * The fields are declared in other order than the constructor parameters and their names.
+	 */
+	static final class Order {
+
+		final long zone;
+		final String market;
+		final int amount;
+
+		Order(final int amount, final long zone, final String market) {
+			this.zone = zone;
+			this.market = market;
+			this.amount = amount;
+		}
+	}
+
+	static final class NoConstructor {
+
+		final int a;
+
+		NoConstructor() {
+			this.a = 1;
+		}
+	}
+
+	private static Object roundtrip(final Serialization serialization, final Object message) {
+
+		final var buffer = ByteBuffer.allocateDirect(1024);
+
+		serialization.serialize(message, buffer);
+		buffer.flip();
+
+		final var result = serialization.deserialize(buffer);
+
+		assertEquals(0, buffer.remaining());
+
+		return result;
+	}
+
+	@Test
+	public void test_builtIns() {
+
+		final var s = new Serialization();
+
+		assertEquals(Integer.valueOf(-7), roundtrip(s, Integer.valueOf(-7)));
+		assertEquals(Integer.valueOf(Integer.MIN_VALUE), roundtrip(s, Integer.valueOf(Integer.MIN_VALUE)));
+		assertEquals(Long.valueOf(Long.MAX_VALUE), roundtrip(s, Long.valueOf(Long.MAX_VALUE)));
+		assertEquals(Long.valueOf(-1), roundtrip(s, Long.valueOf(-1)));
+		assertEquals(Short.valueOf((short) 3), roundtrip(s, Short.valueOf((short) 3)));
+		assertEquals(Byte.valueOf((byte) 3), roundtrip(s, Byte.valueOf((byte) 3)));
+		assertEquals(Boolean.TRUE, roundtrip(s, Boolean.TRUE));
+		assertEquals(Character.valueOf('x'), roundtrip(s, Character.valueOf('x')));
+		assertEquals(Float.valueOf(1.5f), roundtrip(s, Float.valueOf(1.5f)));
+		assertEquals(Double.valueOf(2.5), roundtrip(s, Double.valueOf(2.5)));
+		assertEquals("ascii", roundtrip(s, "ascii"));
+		assertEquals("za\u017c\u00f3\u0142\u0107 \ud83d\ude00 \u20ac", roundtrip(s, "za\u017c\u00f3\u0142\u0107 \ud83d\ude00 \u20ac"));
+		assertArrayEquals(new byte[] { 1, 2, 3 }, (byte[]) roundtrip(s, new byte[] { 1, 2, 3 }));
+		assertArrayEquals(new long[] { 1, -2, 3 }, (long[]) roundtrip(s, new long[] { 1, -2, 3 }));
+	}
+
+	@Test
+	public void test_compactness() {
+
+		final var s = new Serialization();
+		final var buffer = ByteBuffer.allocate(16);
+
+		s.serialize(Integer.valueOf(5), buffer);
+
+		assertEquals(2, buffer.position()); // manifest + value
+	}
+
+	@Test
+	public void test_valueClassFieldsWrittenInOrderOfNames() {
+
+		final var s = new Serialization().registerValue(Order.class, 100);
+		final var buffer = ByteBuffer.allocate(1024);
+
+		s.serialize(new Order(7, 9L, "XYZ"), buffer);
+		buffer.flip();
+
+		assertEquals(100, Binary.getVarInt(buffer));
+		assertEquals(7, Binary.getInt(buffer));
+
+		final var order = (Order) roundtrip(s, new Order(7, 9L, "XYZ"));
+
+		assertEquals(7, order.amount);
+		assertEquals(9L, order.zone);
+		assertEquals("XYZ", order.market);
+	}
+
+	@Test
+	public void test_valueClass() {
+
+		final var s = new Serialization().registerValue(Trade.class, 100);
+		final var trade = new Trade(1, "ABC", 10.5, 100, true, null);
+		final var nested = new Trade(2, "XYZ", 11.5, 200, false, trade);
+
+		assertEquals(trade, roundtrip(s, trade));
+		assertEquals(nested, roundtrip(s, nested));
+	}
+
+	@Test
+	public void test_javaFallback() {
+
+		final var s = new Serialization().withJavaAllowed(JavaMessage.class.getName());
+		final var result = (JavaMessage) roundtrip(s, new JavaMessage("abc"));
+
+		assertEquals("abc", result.text);
+	}
+
+	@Test
+	public void test_javaClassNotAllowed() {
+
+		final var s = new Serialization();
+		final var buffer = ByteBuffer.allocate(1024);
+
+		// written, but the reader does not instantiate the class which is not on the allow list
+
+		s.serialize(new JavaMessage("abc"), buffer);
+		buffer.flip();
+
+		assertThrows(IllegalArgumentException.class, () -> s.deserialize(buffer));
+		assertThrows(IllegalArgumentException.class, () -> s.withJavaAllowed("!*"));
+		assertThrows(IllegalArgumentException.class, () -> s.withJavaAllowed("a.B;c.*"));
+	}
+
+	@Test
+	public void test_malformedLength() {
+
+		final var s = new Serialization();
+		final var buffer = ByteBuffer.allocate(16);
+
+		// string claiming to have more chars than there are bytes left
+
+		Binary.putVarInt(buffer, 9);
+		Binary.putVarInt(buffer, Integer.MAX_VALUE);
+		buffer.put((byte) 'a');
+		buffer.flip();
+
+		assertThrows(IllegalArgumentException.class, () -> s.deserialize(buffer));
+	}
+
+	@Test
+	public void test_javaFallbackDisabled() {
+
+		final var s = new Serialization().withJavaFallback(false);
+
+		assertThrows(IllegalArgumentException.class, () -> s.serialize(new JavaMessage("abc"), ByteBuffer.allocate(1024)));
+	}
+
+	@Test
+	public void test_unknownManifest() {
+
+		final var writer = new Serialization().registerValue(Trade.class, 100);
+		final var reader = new Serialization();
+		final var buffer = ByteBuffer.allocate(1024);
+
+		writer.serialize(new Trade(1, "ABC", 10.5, 100, true, null), buffer);
+		buffer.flip();
+
+		assertThrows(IllegalArgumentException.class, () -> reader.deserialize(buffer));
+	}
+
+	@Test
+	public void test_overflow() {
+
+		final var s = new Serialization();
+
+		assertThrows(BufferOverflowException.class, () -> s.serialize("too long to fit", ByteBuffer.allocate(4)));
+	}
+
+	@Test
+	public void test_registrationValidation() {
+
+		final var s = new Serialization().registerValue(Trade.class, 100);
+
+		assertThrows(IllegalArgumentException.class, () -> s.registerValue(Trade.class, 101));
+		assertThrows(IllegalArgumentException.class, () -> s.registerValue(JavaMessage.class, 100));
+		assertThrows(IllegalArgumentException.class, () -> s.registerValue(JavaMessage.class, 1));
+		assertThrows(IllegalArgumentException.class, () -> s.registerValue(NoConstructor.class, 102));
+
+		assertEquals(100, s.manifestOf(Trade.class));
+		assertEquals(-1, s.manifestOf(JavaMessage.class));
+		assertTrue(s.manifestOf(String.class) < Serialization.FIRST_USER_MANIFEST);
+	}
+}
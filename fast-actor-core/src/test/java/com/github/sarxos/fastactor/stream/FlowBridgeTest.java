@@ -0,0 +1,246 @@
+package com.github.sarxos.fastactor.stream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.stream.ActorPublisher.Cancel;
+import com.github.sarxos.fastactor.stream.ActorPublisher.Demand;
+import com.github.sarxos.fastactor.stream.ActorSubscriber.Completed;
+
+
+public class FlowBridgeTest {
+
+	static final int COUNT = 10_000;
+	static final int BATCH = 16;
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = ActorSystem.create("flow-bridge");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	static class Producer extends Actor {
+
+		final AtomicInteger pushed;
+		final CompletableFuture<Boolean> cancelled;
+		int next;
+
+		Producer(final AtomicInteger pushed, final CompletableFuture<Boolean> cancelled) {
+			this.pushed = pushed;
+			this.cancelled = cancelled;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Demand.class, d -> {
+					final ActorPublisher.Downstream<Integer> downstream = d.downstream();
+					while (downstream.requested() > 0 && next < COUNT) {
+						pushed.incrementAndGet();
+						downstream.push(next++);
+					}
+					if (next == COUNT) {
+						downstream.complete();
+					}
+				})
+				.match(Cancel.class, c -> cancelled.complete(true));
+		}
+	}
+
+	static class Consumer extends Actor {
+
+		final AtomicInteger pushed;
+		final AtomicInteger lag;
+		final CountDownLatch completed;
+		int processed;
+
+		Consumer(final AtomicInteger pushed, final AtomicInteger lag, final CountDownLatch completed) {
+			this.pushed = pushed;
+			this.lag = lag;
+			this.completed = completed;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> {
+					if (i != processed++) {
+						lag.set(Integer.MAX_VALUE); // out of order
+					}
+					lag.accumulateAndGet(pushed.get() - processed, Math::max);
+				})
+				.match(Completed.class, c -> {
+					if (processed == COUNT) {
+						completed.countDown();
+					}
+				});
+		}
+	}
+
+	@Test
+	public void test_actorToActorBackpressure() throws Exception {
+
+		final var pushed = new AtomicInteger();
+		final var lag = new AtomicInteger();
+		final var completed = new CountDownLatch(1);
+		final var producer = system.actorOf(Props.create(() -> new Producer(pushed, new CompletableFuture<>())));
+		final var consumer = system.actorOf(Props.create(() -> new Consumer(pushed, lag, completed)));
+
+		new ActorPublisher<Integer>(producer).subscribe(new ActorSubscriber<>(consumer, BATCH));
+
+		assertTrue(completed.await(10, SECONDS));
+
+		// producer has never pushed more than consumer has requested
+
+		assertTrue(lag.get() <= BATCH, "Lag " + lag.get() + " exceeds batch " + BATCH);
+	}
+
+	@Test
+	public void test_submissionPublisherToActor() throws Exception {
+
+		final var pushed = new AtomicInteger();
+		final var lag = new AtomicInteger();
+		final var completed = new CountDownLatch(1);
+		final var consumer = system.actorOf(Props.create(() -> new Consumer(pushed, lag, completed)));
+
+		try (final var publisher = new SubmissionPublisher<Integer>()) {
+
+			publisher.subscribe(new ActorSubscriber<>(consumer, BATCH));
+
+			for (int i = 0; i < COUNT; i++) {
+				pushed.incrementAndGet();
+				publisher.submit(i);
+			}
+		}
+
+		assertTrue(completed.await(10, SECONDS));
+	}
+
+	/**
+	 * Subscriber requesting one element at a time.
+	 */
+	static class OneByOne implements Flow.Subscriber<Integer> {
+
+		final List<Object> signals = new CopyOnWriteArrayList<>();
+		final CountDownLatch terminated = new CountDownLatch(1);
+		final long request;
+		Flow.Subscription subscription;
+
+		OneByOne(final long request) {
+			this.request = request;
+		}
+
+		@Override
+		public void onSubscribe(final Flow.Subscription subscription) {
+			this.subscription = subscription;
+			subscription.request(request);
+		}
+
+		@Override
+		public void onNext(final Integer item) {
+			signals.add(item);
+			subscription.request(request);
+		}
+
+		@Override
+		public void onError(final Throwable throwable) {
+			signals.add(throwable);
+			terminated.countDown();
+		}
+
+		@Override
+		public void onComplete() {
+			signals.add("complete");
+			terminated.countDown();
+		}
+	}
+
+	@Test
+	public void test_actorToSubscriber() throws Exception {
+
+		final var pushed = new AtomicInteger();
+		final var producer = system.actorOf(Props.create(() -> new Producer(pushed, new CompletableFuture<>())));
+		final var subscriber = new OneByOne(1);
+
+		new ActorPublisher<Integer>(producer).subscribe(subscriber);
+
+		assertTrue(subscriber.terminated.await(10, SECONDS));
+		assertEquals(COUNT + 1, subscriber.signals.size());
+		assertEquals(COUNT - 1, subscriber.signals.get(COUNT - 1));
+		assertEquals("complete", subscriber.signals.get(COUNT));
+	}
+
+	@Test
+	public void test_invalidRequest() throws Exception {
+
+		final var producer = system.actorOf(Props.create(() -> new Producer(new AtomicInteger(), new CompletableFuture<>())));
+		final var subscriber = new OneByOne(0);
+
+		new ActorPublisher<Integer>(producer).subscribe(subscriber);
+
+		assertTrue(subscriber.terminated.await(10, SECONDS));
+		assertEquals(1, subscriber.signals.size());
+		assertTrue(subscriber.signals.get(0) instanceof IllegalArgumentException);
+	}
+
+	@Test
+	public void test_cancel() throws Exception {
+
+		final var cancelled = new CompletableFuture<Boolean>();
+		final var producer = system.actorOf(Props.create(() -> new Producer(new AtomicInteger(), cancelled)));
+
+		new ActorPublisher<Integer>(producer).subscribe(new Flow.Subscriber<Integer>() {
+
+			@Override
+			public void onSubscribe(final Flow.Subscription subscription) {
+				subscription.cancel();
+			}
+
+			@Override
+			public void onNext(final Integer item) {
+			}
+
+			@Override
+			public void onError(final Throwable throwable) {
+			}
+
+			@Override
+			public void onComplete() {
+			}
+		});
+
+		assertTrue(cancelled.get(10, SECONDS));
+	}
+
+	@Test
+	public void test_invalidBatch() {
+
+		final var consumer = system.actorOf(Props.create(() -> new Consumer(new AtomicInteger(), new AtomicInteger(), new CountDownLatch(1))));
+
+		assertThrows(IllegalArgumentException.class, () -> new ActorSubscriber<>(consumer, 0));
+	}
+}
@@ -0,0 +1,269 @@
+package com.github.sarxos.fastactor.stream;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Payload;
+import com.github.sarxos.fastactor.PayloadPool;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+public class PipelineTest {
+
+	static final int COUNT = 10_000;
+
+	ActorSystem system;
+
+	@BeforeEach
+	public void setup() {
+		system = ActorSystem.create("pipeline");
+	}
+
+	@AfterEach
+	public void teardown() {
+		system.shutdown();
+	}
+
+	@Test
+	public void test_fusedIntoSingleActor() throws Exception {
+
+		final var result = new CopyOnWriteArrayList<Integer>();
+		final var latch = new CountDownLatch(3);
+		final var threads = new CopyOnWriteArrayList<Thread>();
+
+		final var input = Pipeline
+			.of(String.class)
+			.peek(s -> threads.add(Thread.currentThread()))
+			.map(Integer::parseInt)
+			.filter(i -> i % 2 == 0)
+			.mapConcat(i -> List.of(i, i * 10))
+			.peek(i -> threads.add(Thread.currentThread()))
+			.forEach(i -> {
+				result.add(i);
+				latch.countDown();
+			})
+			.run(system);
+
+		input.tell("1");
+		input.tell("2");
+		input.tell("4");
+
+		assertTrue(latch.await(5, SECONDS));
+		assertEquals(List.of(2, 20, 4), result.subList(0, 3));
+
+		// all the stages were run by the same actor
+
+		assertEquals(1, threads.stream().distinct().count());
+	}
+
+	static class Sink extends Actor {
+
+		final CountDownLatch latch;
+		final AtomicInteger disorders;
+		int last = -1;
+
+		Sink(final CountDownLatch latch, final AtomicInteger disorders) {
+			this.latch = latch;
+			this.disorders = disorders;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> {
+					if (i != last + 1) {
+						disorders.incrementAndGet();
+					}
+					last = i;
+					latch.countDown();
+				});
+		}
+	}
+
+	@Test
+	public void test_asyncBoundariesKeepOrder() throws Exception {
+
+		final var latch = new CountDownLatch(COUNT);
+		final var disorders = new AtomicInteger();
+		final var sink = system.actorOf(Props.create(() -> new Sink(latch, disorders)));
+
+		final var input = Pipeline
+			.of(Integer.class)
+			.map(i -> i + 1)
+			.async(16)
+			.map(i -> i - 1)
+			.async()
+			.filter(i -> i >= 0)
+			.to(sink)
+			.run(system);
+
+		for (int i = 0; i < COUNT; i++) {
+			input.tell(i);
+		}
+
+		assertTrue(latch.await(10, SECONDS));
+		assertEquals(0, disorders.get(), "Elements delivered out of order");
+	}
+
+	@Test
+	public void test_singleElementFlushed() throws Exception {
+
+		final var latch = new CountDownLatch(1);
+		final var sink = system.actorOf(Props.create(() -> new Sink(latch, new AtomicInteger())));
+
+		final var input = Pipeline
+			.of(Integer.class)
+			.async(1000)
+			.to(sink)
+			.run(system);
+
+		// batch is not full, but it is sent when there are no more messages to process
+
+		input.tell(0);
+
+		assertTrue(latch.await(5, SECONDS));
+	}
+
+	@Test
+	public void test_payloadsReleased() throws Exception {
+
+		final var pool = new PayloadPool(true);
+		final var latch = new CountDownLatch(COUNT / 2);
+
+		final var input = Pipeline
+			.of(Payload.class)
+			.filter(p -> p.buffer().getInt(0) % 2 == 0)
+			.async(16)
+			.forEach(p -> latch.countDown())
+			.run(system);
+
+		for (int i = 0; i < COUNT; i++) {
+			final var payload = pool.acquire(Integer.BYTES);
+			payload.buffer().putInt(0, i);
+			input.tell(payload);
+		}
+
+		assertTrue(latch.await(10, SECONDS));
+
+		// the dropped ones and the ones which crossed the boundary were all released
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		pool.checkLeaks();
+	}
+
+	static class Releasing extends Actor {
+
+		final CountDownLatch latch;
+
+		Releasing(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Payload.class, p -> latch.countDown());
+		}
+	}
+
+	@Test
+	public void test_createdPayloadsReleased() throws Exception {
+
+		final var pool = new PayloadPool(true);
+		final var latch = new CountDownLatch(COUNT);
+		final var sink = system.actorOf(Props.create(() -> new Releasing(latch)));
+
+		// the payloads created by the stage are handed over to the sink which releases them
+
+		final var input = Pipeline
+			.of(Integer.class)
+			.map(i -> pool.acquire(Integer.BYTES))
+			.to(sink)
+			.run(system);
+
+		for (int i = 0; i < COUNT; i++) {
+			input.tell(i);
+		}
+
+		assertTrue(latch.await(10, SECONDS));
+
+		await()
+			.atMost(5, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		pool.checkLeaks();
+	}
+
+	@Test
+	public void test_payloadsReleasedWhenStageThrows() throws Exception {
+
+		final var pool = new PayloadPool(true);
+		final var latch = new CountDownLatch(COUNT - 1);
+		final var gate = new CountDownLatch(1);
+
+		final var input = Pipeline
+			.of(Payload.class)
+			.peek(p -> {
+				try {
+					gate.await();
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+			})
+			.async(COUNT)
+			.peek(p -> {
+				if (p.buffer().getInt(0) == 0) {
+					throw new IllegalStateException("First one is broken");
+				}
+			})
+			.forEach(p -> latch.countDown())
+			.run(system);
+
+		for (int i = 0; i < COUNT; i++) {
+			final var payload = pool.acquire(Integer.BYTES);
+			payload.buffer().putInt(0, i);
+			input.tell(payload);
+		}
+
+		// all the payloads are already in the inbox when gate is opened, so they cross the
+		// boundary in one batch, and the stage throws on the first one
+
+		gate.countDown();
+
+		await()
+			.atMost(10, SECONDS)
+			.until(() -> pool.outstanding() == 0);
+
+		pool.checkLeaks();
+	}
+
+	@Test
+	public void test_invalidPipeline() {
+
+		final var closed = Pipeline
+			.of(Integer.class)
+			.forEach(i -> {});
+
+		assertThrows(IllegalStateException.class, () -> closed.map(i -> i));
+		assertThrows(IllegalStateException.class, () -> closed.async());
+		assertThrows(IllegalArgumentException.class, () -> Pipeline.of(Integer.class).async(0));
+	}
+}
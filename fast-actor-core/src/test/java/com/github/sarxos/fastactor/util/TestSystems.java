@@ -0,0 +1,63 @@
+package com.github.sarxos.fastactor.util;
+
+import java.util.function.UnaryOperator;
+
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.ActorSystem.Configuration;
+import com.github.sarxos.fastactor.ActorThreadPool;
+
+
+/**
+ * Creates the started {@link ActorSystem}s for the tests which need more than
+ * {@link ActorSystem#create(String)} gives, i.e. the fixed number of threads, the features enabled
+ * before the system is started or the default pool configured.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+public final class TestSystems {
+
+	private TestSystems() {
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param parallelism the number of threads in the default pool
+	 * @return New started {@link ActorSystem}
+	 */
+	public static ActorSystem create(final String name, final int parallelism) {
+		return start(new ActorSystem(name, configuration(parallelism)), UnaryOperator.identity());
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param setup what to enable in the system before it is started
+	 * @return New started {@link ActorSystem}
+	 */
+	public static ActorSystem create(final String name, final UnaryOperator<ActorSystem> setup) {
+		return start(setup.apply(new ActorSystem(name)), UnaryOperator.identity());
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param parallelism the number of threads in the default pool
+	 * @param pool how to configure the default pool
+	 * @return New started {@link ActorSystem}
+	 */
+	public static ActorSystem createWithPool(final String name, final int parallelism, final UnaryOperator<ActorThreadPool> pool) {
+		return start(new ActorSystem(name, configuration(parallelism)), pool);
+	}
+
+	private static Configuration configuration(final int parallelism) {
+
+		final var configuration = new Configuration();
+		configuration.setParallelism(parallelism);
+
+		return configuration;
+	}
+
+	private static ActorSystem start(final ActorSystem system, final UnaryOperator<ActorThreadPool> pool) {
+		return system
+			.withPool(pool.apply(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME)))
+			.start();
+	}
+}
@@ -0,0 +1,107 @@
+package com.github.sarxos.fastactor.benchmark;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.ActorThreadPool;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.runner.BenchmarkRunner;
+
+
+/**
+ * Throughput of the tell with latency sampling disabled (0), enabled for every message (1) and
+ * for one in a hundred messages (100). The overhead of sampling should be within a few percent.
+ */
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+public class LatencySamplingBenchmark {
+
+	public static void main(String[] args) throws RunnerException {
+		BenchmarkRunner.run(LatencySamplingBenchmark.class);
+	}
+
+	static final int MESSAGES_COUNT = 10_000;
+	static final Integer TEST_MESSAGE = Integer.valueOf(1);
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "0", "1", "100" })
+		int sampleRate;
+
+		ActorSystem system;
+		ActorRef ref;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			system = new ActorSystem("perf-latency-sampling")
+				.withPool(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME));
+
+			if (sampleRate > 0) {
+				system.withLatencySampling(sampleRate);
+			}
+
+			system.start();
+
+			ref = system.actorOf(Props.create(() -> new CountingActor(this)));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(MESSAGES_COUNT);
+		}
+	}
+
+	static class CountingActor extends Actor {
+
+		final Context context;
+
+		CountingActor(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> context.latch.countDown());
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES_COUNT)
+	public void tell(final Context context) throws InterruptedException {
+
+		final var ref = context.ref;
+
+		for (int i = 0; i < MESSAGES_COUNT; i++) {
+			ref.tell(TEST_MESSAGE);
+		}
+
+		context.latch.await();
+	}
+}
@@ -0,0 +1,121 @@
+package com.github.sarxos.fastactor.benchmark;
+
+import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.RunnerException;
+
+import com.github.sarxos.fastactor.JavaMessageSerializer;
+import com.github.sarxos.fastactor.MessageSerializer;
+import com.github.sarxos.fastactor.runner.BenchmarkRunner;
+import com.github.sarxos.fastactor.serialization.Serialization;
+
+
+/**
+ * Compare the compact binary {@link Serialization} with the Java serialization for the typical
+ * messages. Every invocation serializes message into the direct buffer and reads it back.
+ */
+@Fork(1)
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class SerializationBenchmark {
+
+	public static void main(String[] args) throws RunnerException {
+		BenchmarkRunner.run(SerializationBenchmark.class);
+	}
+
+	static final int TRADE_MANIFEST = 100;
+
+	public static final class Trade implements Serializable {
+
+		private static final long serialVersionUID = 1L;
+
+		final long id;
+		final String symbol;
+		final double price;
+		final int quantity;
+
+		public Trade(final long id, final String symbol, final double price, final int quantity) {
+			this.id = id;
+			this.symbol = symbol;
+			this.price = price;
+			this.quantity = quantity;
+		}
+	}
+
+	@Param({ "integer", "string", "trade" })
+	public String message;
+
+	@Param({ "binary", "java" })
+	public String serializer;
+
+	Object value;
+	MessageSerializer codec;
+	ByteBuffer buffer;
+
+	@Setup(Level.Trial)
+	public void setup() {
+
+		buffer = ByteBuffer.allocateDirect(64 * 1024);
+
+		switch (serializer) {
+			case "binary":
+				codec = new Serialization().registerValue(Trade.class, TRADE_MANIFEST);
+				break;
+			case "java":
+				codec = new JavaMessageSerializer();
+				break;
+			default:
+				throw new IllegalArgumentException(serializer);
+		}
+
+		switch (message) {
+			case "integer":
+				value = Integer.valueOf(123456);
+				break;
+			case "string":
+				value = "The quick brown fox jumps over the lazy dog";
+				break;
+			case "trade":
+				value = new Trade(1234567L, "ACME", 101.25, 500);
+				break;
+			default:
+				throw new IllegalArgumentException(message);
+		}
+	}
+
+	@Benchmark
+	public Object roundtrip() {
+
+		buffer.clear();
+		codec.serialize(value, buffer);
+		buffer.flip();
+
+		return codec.deserialize(buffer);
+	}
+
+	@Benchmark
+	public int serialize() {
+
+		buffer.clear();
+		codec.serialize(value, buffer);
+
+		return buffer.position();
+	}
+}
@@ -0,0 +1,106 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+/**
+ * The ask pattern, measured as the latency distribution of the single ask awaited by the caller,
+ * and as the throughput of the {@value #WINDOW} asks in flight.
+ */
+@Fork(1)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class AskBenchmark {
+
+	static final int WINDOW = 1000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		ActorRef echo;
+
+		@SuppressWarnings("unchecked")
+		final CompletableFuture<Object>[] futures = new CompletableFuture[WINDOW];
+
+		@Setup(Level.Trial)
+		public void setup() {
+			system = Suite.system("perf-ask", parallelism, throughput);
+			echo = system.actorOf(Props.create(Echo::new));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+	}
+
+	static class Echo extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(this::reply);
+		}
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.SampleTime)
+	@OutputTimeUnit(TimeUnit.MICROSECONDS)
+	public Object latency(final Context context) throws InterruptedException, ExecutionException {
+		return context.echo
+			.ask(Suite.MESSAGE)
+			.toCompletableFuture()
+			.get();
+	}
+
+	@Benchmark
+	@BenchmarkMode(Mode.Throughput)
+	@OutputTimeUnit(TimeUnit.SECONDS)
+	@OperationsPerInvocation(WINDOW)
+	public void throughput(final Context context) {
+
+		final var echo = context.echo;
+		final var futures = context.futures;
+
+		for (int i = 0; i < WINDOW; i++) {
+			futures[i] = echo
+				.ask(Suite.MESSAGE)
+				.toCompletableFuture();
+		}
+
+		CompletableFuture
+			.allOf(futures)
+			.join();
+	}
+}
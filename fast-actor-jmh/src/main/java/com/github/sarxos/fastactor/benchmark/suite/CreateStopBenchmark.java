@@ -0,0 +1,105 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+/**
+ * Full actor lifecycle: actor is created, receives single message and stops itself. Score is the
+ * number of actors which went through the whole lifecycle per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class CreateStopBenchmark {
+
+	static final int BATCH = 1000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			system = Suite.system("perf-create-stop", parallelism, throughput);
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(BATCH);
+		}
+	}
+
+	static class Ephemeral extends Actor implements Base {
+
+		final CountDownLatch latch;
+
+		Ephemeral(final CountDownLatch latch) {
+			this.latch = latch;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> stop());
+		}
+
+		@Override
+		public void postStop() {
+			latch.countDown();
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH)
+	public void createAndStop(final Context context) throws InterruptedException {
+
+		final var system = context.system;
+		final var latch = context.latch;
+		final var props = Props.create(() -> new Ephemeral(latch));
+
+		for (int i = 0; i < BATCH; i++) {
+			system
+				.actorOf(props)
+				.tell(Suite.MESSAGE);
+		}
+
+		latch.await();
+	}
+}
@@ -0,0 +1,126 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.EventBus.SubscribeAck;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.dsl.Events;
+
+
+/**
+ * Events published to the event bus and delivered to all the subscribers. Score is the number of
+ * deliveries (events times subscribers) per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class EventBusPublishBenchmark {
+
+	static final int SUBSCRIBERS = 16;
+	static final int EVENTS = 1000;
+	static final BenchmarkEvent EVENT = new BenchmarkEvent();
+
+	static final class BenchmarkEvent {
+	}
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() throws InterruptedException {
+
+			final var subscribed = new CountDownLatch(SUBSCRIBERS);
+
+			system = Suite.system("perf-event-bus", parallelism, throughput);
+
+			for (int i = 0; i < SUBSCRIBERS; i++) {
+				system.actorOf(Props.create(() -> new Subscriber(this, subscribed)));
+			}
+
+			subscribed.await();
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(SUBSCRIBERS);
+		}
+	}
+
+	static class Subscriber extends Actor implements Events {
+
+		final Context context;
+		final CountDownLatch subscribed;
+		long received;
+
+		Subscriber(final Context context, final CountDownLatch subscribed) {
+			this.context = context;
+			this.subscribed = subscribed;
+		}
+
+		@Override
+		public void preStart() {
+			subscribeEvent(BenchmarkEvent.class);
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(SubscribeAck.class, ack -> subscribed.countDown())
+				.match(BenchmarkEvent.class, this::onEvent);
+		}
+
+		private void onEvent(final BenchmarkEvent event) {
+			if (++received % EVENTS == 0) {
+				context.latch.countDown();
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(EVENTS * SUBSCRIBERS)
+	public void publish(final Context context) throws InterruptedException {
+
+		final var system = context.system;
+
+		for (int i = 0; i < EVENTS; i++) {
+			system.emitEvent(EVENT);
+		}
+
+		context.latch.await();
+	}
+}
@@ -0,0 +1,124 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+/**
+ * Messages are scattered to many workers, every worker replies to the single collector. Score is
+ * the number of round trips (scatter and gather) per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class FanOutFanInBenchmark {
+
+	static final int WORKERS = 64;
+	static final int BATCH = 100;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		ActorRef collector;
+		ActorRef[] workers;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			system = Suite.system("perf-fan-out-fan-in", parallelism, throughput);
+			collector = system.actorOf(Props.create(() -> new Collector(this)));
+			workers = new ActorRef[WORKERS];
+
+			for (int i = 0; i < WORKERS; i++) {
+				workers[i] = system.actorOf(Props.create(Worker::new));
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(1);
+		}
+	}
+
+	static class Worker extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(this::reply);
+		}
+	}
+
+	static class Collector extends Actor {
+
+		final Context context;
+		long received;
+
+		Collector(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					if (++received % (WORKERS * BATCH) == 0) {
+						context.latch.countDown();
+					}
+				});
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(WORKERS * BATCH)
+	public void scatterGather(final Context context) throws InterruptedException {
+
+		final var workers = context.workers;
+		final var collector = context.collector;
+
+		for (int i = 0; i < BATCH; i++) {
+			for (final ActorRef worker : workers) {
+				worker.tell(Suite.MESSAGE, collector);
+			}
+		}
+
+		context.latch.await();
+	}
+}
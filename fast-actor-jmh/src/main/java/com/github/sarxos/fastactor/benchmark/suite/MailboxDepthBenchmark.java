@@ -0,0 +1,126 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Single actor with a deep inbox. The actor is blocked by the gate message, so all the messages
+ * told afterwards pile up in the queues and are delivered to the inbox at once when the gate is
+ * opened. Score is the time needed to drain the inbox of a given depth.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class MailboxDepthBenchmark {
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		@Param({ "1000", "100000" })
+		int depth;
+
+		ActorSystem system;
+		ActorRef ref;
+		Gate gate;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			system = Suite.system("perf-mailbox-depth", parallelism, throughput);
+			ref = system.actorOf(Props.create(() -> new Sink(this)));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() throws InterruptedException {
+
+			gate = new Gate();
+			latch = new CountDownLatch(1);
+
+			ref.tell(gate);
+			gate.entered.await();
+
+			for (int i = 0; i < depth; i++) {
+				ref.tell(Suite.MESSAGE);
+			}
+		}
+	}
+
+	static final class Gate {
+
+		final CountDownLatch entered = new CountDownLatch(1);
+
+		volatile boolean open;
+	}
+
+	static class Sink extends Actor {
+
+		final Context context;
+		long received;
+
+		Sink(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Gate.class, this::onGate)
+				.matchAny(m -> {
+					if (++received % context.depth == 0) {
+						context.latch.countDown();
+					}
+				});
+		}
+
+		private void onGate(final Gate gate) {
+
+			// block the actor thread, so nothing is delivered to the inbox until gate is opened
+
+			gate.entered.countDown();
+
+			while (!gate.open) {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	@Benchmark
+	public void drain(final Context context) throws InterruptedException {
+		context.gate.open = true;
+		context.latch.await();
+	}
+}
@@ -0,0 +1,128 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Payload;
+import com.github.sarxos.fastactor.PayloadPool;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Large binary messages filled by the sender and read by the actor, allocated as heap arrays
+ * and acquired from the {@link PayloadPool}. Run with <code>-prof gc</code> to compare the
+ * allocation rate. Score is the number of messages processed per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class PayloadBenchmark {
+
+	static final int MESSAGES = 1_000;
+	static final int SIZE = 64 * 1024;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		PayloadPool pool;
+		ActorRef reader;
+		CountDownLatch latch;
+		long received;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			system = Suite.system("perf-payload", parallelism, throughput);
+			pool = system.payloads();
+			reader = system.actorOf(Props.create(() -> new Reader(this)));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(1);
+			received = 0;
+		}
+	}
+
+	static class Reader extends Actor {
+
+		final Context context;
+		long sum;
+
+		Reader(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(byte[].class, bytes -> read(bytes[SIZE - 1]))
+				.match(Payload.class, payload -> read(payload.buffer().get(SIZE - 1)));
+		}
+
+		private void read(final byte value) {
+			sum += value;
+			if (++context.received == MESSAGES) {
+				context.latch.countDown();
+			}
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void heap(final Context context) throws InterruptedException {
+
+		for (int i = 0; i < MESSAGES; i++) {
+			final var bytes = new byte[SIZE];
+			bytes[SIZE - 1] = (byte) i;
+			context.reader.tell(bytes);
+		}
+
+		context.latch.await();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void pooled(final Context context) throws InterruptedException {
+
+		for (int i = 0; i < MESSAGES; i++) {
+			final var payload = context.pool.acquire(SIZE);
+			payload.buffer().put(SIZE - 1, (byte) i);
+			context.reader.tell(payload);
+		}
+
+		context.latch.await();
+	}
+}
@@ -0,0 +1,142 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.ActorThreadPool;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Independent pipelines of stages placed round-robin, with and without cell migration. Every
+ * stage passes the message to the next one and the last one counts them. Score is the number of
+ * messages which went through the whole pipeline per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class PipelineBenchmark {
+
+	static final int PIPELINES = 4;
+	static final int STAGES = 4;
+	static final int MESSAGES = 10_000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		@Param({ "false", "true" })
+		boolean migration;
+
+		ActorSystem system;
+		ActorRef[] heads;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			final var pool = new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME);
+			if (migration) {
+				pool.withCellMigration();
+			}
+
+			system = Suite.system("perf-pipeline", parallelism, throughput, pool);
+			heads = new ActorRef[PIPELINES];
+
+			for (int i = 0; i < PIPELINES; i++) {
+				var next = system.actorOf(Props.create(() -> new Sink(this)));
+				for (int j = 1; j < STAGES; j++) {
+					final var target = next;
+					next = system.actorOf(Props.create(() -> new Stage(target)));
+				}
+				heads[i] = next;
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(PIPELINES);
+		}
+	}
+
+	static class Stage extends Actor {
+
+		final ActorRef next;
+
+		Stage(final ActorRef next) {
+			this.next = next;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(next::tell);
+		}
+	}
+
+	static class Sink extends Actor {
+
+		final Context context;
+		long received;
+
+		Sink(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					if (++received % MESSAGES == 0) {
+						context.latch.countDown();
+					}
+				});
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(PIPELINES * MESSAGES)
+	public void pipeline(final Context context) throws InterruptedException {
+
+		final var heads = context.heads;
+
+		for (int i = 0; i < MESSAGES; i++) {
+			for (final ActorRef head : heads) {
+				head.tell(Suite.MESSAGE);
+			}
+		}
+
+		context.latch.await();
+	}
+}
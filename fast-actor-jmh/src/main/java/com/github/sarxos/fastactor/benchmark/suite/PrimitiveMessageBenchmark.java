@@ -0,0 +1,117 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * The long values, outside of the {@link Long} cache, told to the summing actor as boxed objects
+ * and with {@link ActorRef#tellLong(long)}. Run with <code>-prof gc</code> to compare the
+ * allocation rate. Score is the number of values summed per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class PrimitiveMessageBenchmark {
+
+	static final int MESSAGES = 10_000;
+	static final long OFFSET = 1_000_000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		ActorRef summing;
+		CountDownLatch latch;
+		long received;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			system = Suite.system("perf-primitive-message", parallelism, throughput);
+			summing = system.actorOf(Props.create(() -> new Summing(this)));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(1);
+			received = 0;
+		}
+	}
+
+	static class Summing extends Actor {
+
+		final Context context;
+		long sum;
+
+		Summing(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchLong(value -> {
+					sum += value;
+					if (++context.received == MESSAGES) {
+						context.latch.countDown();
+					}
+				});
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void boxed(final Context context) throws InterruptedException {
+
+		for (int i = 0; i < MESSAGES; i++) {
+			context.summing.tell(Long.valueOf(OFFSET + i));
+		}
+
+		context.latch.await();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void primitive(final Context context) throws InterruptedException {
+
+		for (int i = 0; i < MESSAGES; i++) {
+			context.summing.tellLong(OFFSET + i);
+		}
+
+		context.latch.await();
+	}
+}
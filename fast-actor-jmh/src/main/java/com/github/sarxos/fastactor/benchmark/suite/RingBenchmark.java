@@ -0,0 +1,138 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Ring of 10k actors, every actor passes the token to the next one. Many tokens are travelling
+ * around the ring at the same time, so all the threads in the pool are busy. Score is the number
+ * of hops per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class RingBenchmark {
+
+	static final int ACTORS = 10_000;
+	static final int TOKENS = 100;
+	static final int HOPS = 1000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		ActorRef[] ring;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			system = Suite.system("perf-ring", parallelism, throughput);
+			ring = new ActorRef[ACTORS];
+
+			for (int i = 0; i < ACTORS; i++) {
+				final var index = i;
+				ring[i] = system.actorOf(Props.create(() -> new RingActor(this, index)));
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(TOKENS);
+		}
+	}
+
+	/**
+	 * Token is owned by a single actor at a time, so it can be safely mutated.
+	 */
+	static final class Token {
+
+		int hops;
+
+		Token(final int hops) {
+			this.hops = hops;
+		}
+	}
+
+	static class RingActor extends Actor {
+
+		final Context context;
+		final int index;
+
+		ActorRef next;
+
+		RingActor(final Context context, final int index) {
+			this.context = context;
+			this.index = index;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Token.class, this::onToken);
+		}
+
+		private void onToken(final Token token) {
+			if (--token.hops == 0) {
+				context.latch.countDown();
+			} else {
+				next().tell(token);
+			}
+		}
+
+		private ActorRef next() {
+			if (next == null) {
+				next = context.ring[(index + 1) % ACTORS];
+			}
+			return next;
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(TOKENS * HOPS)
+	public void hops(final Context context) throws InterruptedException {
+
+		final var ring = context.ring;
+
+		for (int i = 0; i < TOKENS; i++) {
+			ring[i * (ACTORS / TOKENS)].tell(new Token(HOPS));
+		}
+
+		context.latch.await();
+	}
+}
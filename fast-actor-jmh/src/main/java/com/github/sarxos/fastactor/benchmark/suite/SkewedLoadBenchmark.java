@@ -0,0 +1,137 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Messages are told to many actors, but not evenly. The target index is <code>u^skew</code>
+ * scaled to the number of actors, where <code>u</code> is uniform in [0, 1), so skew 1 is the
+ * uniform load and with skew 4 the first 1% of actors receive ~30% of all the messages. Score is
+ * the number of messages processed per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class SkewedLoadBenchmark {
+
+	static final int ACTORS = 1024;
+	static final int MESSAGES = 100_000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		@Param({ "1", "4" })
+		double skew;
+
+		ActorSystem system;
+		ActorRef[] targets;
+		CountDownLatch latch;
+		int loaded;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			// targets are drawn upfront with a fixed seed, so every trial sends the same sequence
+
+			final var random = new Random(42);
+			final var expected = new int[ACTORS];
+			final var indexes = new int[MESSAGES];
+
+			for (int i = 0; i < MESSAGES; i++) {
+				expected[indexes[i] = (int) (ACTORS * Math.pow(random.nextDouble(), skew))]++;
+			}
+
+			system = Suite.system("perf-skewed-load", parallelism, throughput);
+
+			final var actors = new ActorRef[ACTORS];
+
+			for (int i = 0; i < ACTORS; i++) {
+				if (expected[i] > 0) {
+					final var count = expected[i];
+					actors[i] = system.actorOf(Props.create(() -> new Counter(this, count)));
+					loaded++;
+				}
+			}
+
+			targets = new ActorRef[MESSAGES];
+
+			for (int i = 0; i < MESSAGES; i++) {
+				targets[i] = actors[indexes[i]];
+			}
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(loaded);
+		}
+	}
+
+	static class Counter extends Actor {
+
+		final Context context;
+		final int expected;
+		long received;
+
+		Counter(final Context context, final int expected) {
+			this.context = context;
+			this.expected = expected;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					if (++received % expected == 0) {
+						context.latch.countDown();
+					}
+				});
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void tell(final Context context) throws InterruptedException {
+
+		for (final ActorRef target : context.targets) {
+			target.tell(Suite.MESSAGE);
+		}
+
+		context.latch.await();
+	}
+}
@@ -0,0 +1,165 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.stream.Pipeline;
+
+
+/**
+ * The same four-stage pipeline built as a chain of actors, as a pipeline fused into one actor,
+ * and as a pipeline with the asynchronous boundary in the middle. Score is the number of
+ * messages which went through the whole pipeline per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class StreamFusionBenchmark {
+
+	static final int STAGES = 4;
+	static final int MESSAGES = 10_000;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		ActorSystem system;
+		ActorRef actors;
+		ActorRef fused;
+		ActorRef async;
+		CountDownLatch latch;
+		long received;
+
+		@Setup(Level.Trial)
+		public void setup() {
+
+			system = Suite.system("perf-stream-fusion", parallelism, throughput);
+
+			var next = system.actorOf(Props.create(() -> new Sink(this)));
+			for (int j = 0; j < STAGES; j++) {
+				final var target = next;
+				next = system.actorOf(Props.create(() -> new Stage(target)));
+			}
+
+			actors = next;
+			fused = Pipeline
+				.of(Integer.class)
+				.map(i -> i + 1)
+				.map(i -> i - 1)
+				.map(i -> i + 1)
+				.map(i -> i - 1)
+				.forEach(this::count)
+				.run(system);
+			async = Pipeline
+				.of(Integer.class)
+				.map(i -> i + 1)
+				.map(i -> i - 1)
+				.async()
+				.map(i -> i + 1)
+				.map(i -> i - 1)
+				.forEach(this::count)
+				.run(system);
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(1);
+			received = 0;
+		}
+
+		void count(final Object message) {
+			if (++received == MESSAGES) {
+				latch.countDown();
+			}
+		}
+	}
+
+	static class Stage extends Actor {
+
+		final ActorRef next;
+
+		Stage(final ActorRef next) {
+			this.next = next;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Integer.class, i -> next.tell(i + 1));
+		}
+	}
+
+	static class Sink extends Actor {
+
+		final Context context;
+
+		Sink(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(context::count);
+		}
+	}
+
+	private static void run(final Context context, final ActorRef input) throws InterruptedException {
+
+		for (int i = 0; i < MESSAGES; i++) {
+			input.tell(Suite.MESSAGE);
+		}
+
+		context.latch.await();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void actors(final Context context) throws InterruptedException {
+		run(context, context.actors);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void fused(final Context context) throws InterruptedException {
+		run(context, context.fused);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(MESSAGES)
+	public void async(final Context context) throws InterruptedException {
+		run(context, context.async);
+	}
+}
@@ -0,0 +1,53 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.ActorSystem.Configuration;
+import com.github.sarxos.fastactor.ActorThreadPool;
+
+
+/**
+ * Common setup of the regression suite benchmarks. Every benchmark in this package has the
+ * <code>parallelism</code> and <code>throughput</code> parameters, so the results are comparable
+ * between the scenarios, and is run with {@link com.github.sarxos.fastactor.runner.SuiteRunner}.
+ *
+ * @author Bartosz Firyn (sarxos)
+ */
+final class Suite {
+
+	/**
+	 * The message used when payload does not matter.
+	 */
+	static final Integer MESSAGE = Integer.valueOf(1);
+
+	private Suite() {
+		// utility class
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param parallelism how many threads in the pool
+	 * @param throughput how many messages actor processes before thread switches to next one
+	 * @return Started {@link ActorSystem}
+	 */
+	static ActorSystem system(final String name, final int parallelism, final int throughput) {
+		return system(name, parallelism, throughput, new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME));
+	}
+
+	/**
+	 * @param name the actor system name
+	 * @param parallelism how many threads in the pool
+	 * @param throughput how many messages actor processes before thread switches to next one
+	 * @param pool the default pool
+	 * @return Started {@link ActorSystem}
+	 */
+	static ActorSystem system(final String name, final int parallelism, final int throughput, final ActorThreadPool pool) {
+
+		final var configuration = new Configuration();
+		configuration.setParallelism(parallelism);
+		configuration.setThroughput(throughput);
+
+		return new ActorSystem(name, configuration)
+			.withPool(pool)
+			.start();
+	}
+}
@@ -0,0 +1,125 @@
+package com.github.sarxos.fastactor.benchmark.suite;
+
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+
+
+/**
+ * Ingestion of the messages arriving in batches, told one by one and with a single
+ * {@link ActorRef#tellAll(Object[])}. Score is the number of messages processed per second.
+ */
+@Fork(1)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 1, timeUnit = TimeUnit.SECONDS)
+@Measurement(iterations = 5, time = 1, timeUnit = TimeUnit.SECONDS)
+public class TellAllBenchmark {
+
+	static final int BATCH = 500;
+	static final int BATCHES = 100;
+
+	@State(Scope.Thread)
+	public static class Context {
+
+		@Param({ "1", "4" })
+		int parallelism;
+
+		@Param({ "1", "100" })
+		int throughput;
+
+		final Object[] batch = new Object[BATCH];
+
+		ActorSystem system;
+		ActorRef ref;
+		CountDownLatch latch;
+
+		@Setup(Level.Trial)
+		public void setup() {
+			Arrays.fill(batch, Suite.MESSAGE);
+			system = Suite.system("perf-tell-all", parallelism, throughput);
+			ref = system.actorOf(Props.create(() -> new Sink(this)));
+		}
+
+		@TearDown(Level.Trial)
+		public void teardown() {
+			system.shutdown();
+		}
+
+		@Setup(Level.Invocation)
+		public void setupInvocation() {
+			latch = new CountDownLatch(1);
+		}
+	}
+
+	static class Sink extends Actor {
+
+		final Context context;
+		long received;
+
+		Sink(final Context context) {
+			this.context = context;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(m -> {
+					if (++received % (BATCH * BATCHES) == 0) {
+						context.latch.countDown();
+					}
+				});
+		}
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH * BATCHES)
+	public void tell(final Context context) throws InterruptedException {
+
+		final var ref = context.ref;
+		final var batch = context.batch;
+
+		for (int i = 0; i < BATCHES; i++) {
+			for (final Object message : batch) {
+				ref.tell(message);
+			}
+		}
+
+		context.latch.await();
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(BATCH * BATCHES)
+	public void tellAll(final Context context) throws InterruptedException {
+
+		final var ref = context.ref;
+		final var batch = context.batch;
+
+		for (int i = 0; i < BATCHES; i++) {
+			ref.tellAll(batch);
+		}
+
+		context.latch.await();
+	}
+}
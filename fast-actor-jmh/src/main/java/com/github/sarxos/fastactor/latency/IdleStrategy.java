@@ -0,0 +1,44 @@
+package com.github.sarxos.fastactor.latency;
+
+import com.github.sarxos.fastactor.ActorThread;
+import com.github.sarxos.fastactor.ActorThreadPool;
+
+
+/**
+ * What {@link ActorThread} does when it has nothing to do. The thread always spins for the given
+ * number of idle loops and then parks until the next message is deposited.
+ */
+public enum IdleStrategy {
+
+	/**
+	 * Park after the first idle loop.
+	 */
+	PARK(1),
+
+	/**
+	 * Spin a few loops and then park (the default).
+	 */
+	BACKOFF(8),
+
+	/**
+	 * Never park, burn the CPU core but react immediately.
+	 */
+	SPIN(Integer.MAX_VALUE);
+
+	private final int maxIdleLoopsCount;
+
+	private IdleStrategy(final int maxIdleLoopsCount) {
+		this.maxIdleLoopsCount = maxIdleLoopsCount;
+	}
+
+	/**
+	 * Apply this strategy to the threads of a given pool. The pool has to be configured before the
+	 * actor system is started.
+	 *
+	 * @param pool the pool to configure
+	 * @return The pool
+	 */
+	ActorThreadPool apply(final ActorThreadPool pool) {
+		return pool.withMaxIdleLoopsCount(maxIdleLoopsCount);
+	}
+}
@@ -0,0 +1,278 @@
+package com.github.sarxos.fastactor.latency;
+
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+
+import com.github.sarxos.fastactor.Actor;
+import com.github.sarxos.fastactor.ActorRef;
+import com.github.sarxos.fastactor.ActorSystem;
+import com.github.sarxos.fastactor.ActorSystem.Configuration;
+import com.github.sarxos.fastactor.ActorThreadPool;
+import com.github.sarxos.fastactor.Props;
+import com.github.sarxos.fastactor.Receive;
+import com.github.sarxos.fastactor.dsl.Base;
+
+
+/**
+ * Load generator which sends requests into the {@link ActorSystem} at a fixed rate and records
+ * response time of every single request. Unlike the JMH benchmarks, which measure how fast the
+ * next request can be sent after the previous one completed, the generator does not wait for the
+ * responses, and the response time is measured from the moment request should have been sent
+ * according to the schedule. This way stalls of the system under test are not hidden by the
+ * generator being stalled too (so called coordinated omission).
+ * <p>
+ *
+ * Every combination of scenario, idle strategy and pool size is run in a fresh actor system. The
+ * results are printed and written in JSON to <code>results/latency.json</code>. The run can be
+ * configured with the system properties:
+ *
+ * <ul>
+ * <li><code>rate</code> - requests per second (default 20000),</li>
+ * <li><code>duration</code> - measurement time in seconds (default 10),</li>
+ * <li><code>warmup</code> - warmup time in seconds (default 3),</li>
+ * <li><code>pools</code> - comma separated pool sizes (default 1,4),</li>
+ * <li><code>idle</code> - comma separated {@link IdleStrategy} names (default all),</li>
+ * <li><code>scenarios</code> - comma separated {@link Scenario} names (default all).</li>
+ * </ul>
+ */
+public final class LatencyHarness {
+
+	/**
+	 * The generator parks when the next request is further away than this, and spins otherwise.
+	 */
+	static final long SPIN_THRESHOLD = MICROSECONDS.toNanos(50);
+
+	public enum Scenario {
+
+		/**
+		 * Request is told to the echo actor which replies to the recording actor.
+		 */
+		TELL,
+
+		/**
+		 * Echo actor is asked and the response is recorded when the future completes.
+		 */
+		ASK,
+	}
+
+	private final int rate;
+	private final int duration;
+	private final int warmup;
+
+	LatencyHarness(final int rate, final int duration, final int warmup) {
+
+		if (rate < 1 || rate > SECONDS.toNanos(1)) {
+			throw new IllegalArgumentException("Rate must be between 1 and 1e9 per second, but is " + rate);
+		}
+		if ((long) rate * Math.max(duration, warmup) > Integer.MAX_VALUE) {
+			throw new IllegalArgumentException("Cannot record more than " + Integer.MAX_VALUE + " requests, reduce rate or duration");
+		}
+
+		this.rate = rate;
+		this.duration = duration;
+		this.warmup = warmup;
+	}
+
+	public static void main(String[] args) throws IOException, InterruptedException {
+
+		final var harness = new LatencyHarness(
+			Integer.getInteger("rate", 20_000),
+			Integer.getInteger("duration", 10),
+			Integer.getInteger("warmup", 3));
+
+		final var pools = Arrays
+			.stream(System.getProperty("pools", "1,4").split(","))
+			.mapToInt(Integer::parseInt)
+			.toArray();
+		final var strategies = Arrays
+			.stream(System.getProperty("idle", "PARK,BACKOFF,SPIN").split(","))
+			.map(IdleStrategy::valueOf)
+			.toArray(IdleStrategy[]::new);
+		final var scenarios = Arrays
+			.stream(System.getProperty("scenarios", "TELL,ASK").split(","))
+			.map(Scenario::valueOf)
+			.toArray(Scenario[]::new);
+
+		final List<LatencyReport> reports = new ArrayList<>();
+
+		System.out.println(LatencyReport.header());
+
+		for (final Scenario scenario : scenarios) {
+			for (final IdleStrategy strategy : strategies) {
+				for (final int parallelism : pools) {
+					final var report = harness.run(scenario, strategy, parallelism);
+					System.out.println(report);
+					reports.add(report);
+				}
+			}
+		}
+
+		final var json = reports
+			.stream()
+			.map(LatencyReport::toJson)
+			.collect(Collectors.joining(",\n  ", "[\n  ", "\n]\n"));
+
+		Files.createDirectories(Path.of("results"));
+		Files.writeString(Path.of("results", "latency.json"), json);
+	}
+
+	LatencyReport run(final Scenario scenario, final IdleStrategy strategy, final int parallelism) throws InterruptedException {
+
+		final var configuration = new Configuration();
+		configuration.setParallelism(parallelism);
+
+		final var system = new ActorSystem("latency-harness", configuration)
+			.withPool(strategy.apply(new ActorThreadPool(ActorSystem.DEFAULT_THREAD_POOL_NAME)))
+			.start();
+
+		try {
+
+			final var echo = system.actorOf(Props.create(Echo::new));
+
+			measure(system, echo, scenario, requests(warmup));
+
+			final var recording = measure(system, echo, scenario, requests(duration));
+
+			return new LatencyReport(scenario.name(), strategy, parallelism, rate, recording.corrected, recording.uncorrected);
+
+		} finally {
+
+			// all the responses are in, and the spinning threads are never seen idle anyway, so
+			// there is nothing to wait for
+
+			system.shutdown(Duration.ZERO);
+		}
+	}
+
+	/**
+	 * @param seconds the time to send the requests for
+	 * @return The number of requests sent in a given time
+	 */
+	private int requests(final int seconds) {
+		return (int) ((long) seconds * rate);
+	}
+
+	private Recording measure(final ActorSystem system, final ActorRef echo, final Scenario scenario, final int count) throws InterruptedException {
+
+		final var recording = new Recording(count);
+		final var recorder = system.actorOf(Props.create(() -> new Recorder(recording)));
+		final var interval = SECONDS.toNanos(1) / rate;
+		final var start = System.nanoTime();
+
+		for (int i = 0; i < count; i++) {
+
+			final var intended = start + i * interval;
+
+			// when generator is behind the schedule, the request is sent immediately, but its
+			// response time is still measured from the intended start
+
+			waitUntil(intended);
+
+			final var request = new Request(i, intended, System.nanoTime());
+
+			switch (scenario) {
+				case TELL:
+					echo.tell(request, recorder);
+					break;
+				case ASK:
+					echo
+						.<Request> ask(request)
+						.thenAccept(recording::record);
+					break;
+			}
+		}
+
+		if (!recording.done.await(duration + 30, SECONDS)) {
+			throw new IllegalStateException("Responses missing, " + recording.done.getCount() + " of " + count + " requests not completed");
+		}
+
+		system.stop(recorder);
+
+		return recording;
+	}
+
+	private static void waitUntil(final long deadline) {
+		for (long now; (now = System.nanoTime()) < deadline;) {
+			if (deadline - now > SPIN_THRESHOLD) {
+				LockSupport.parkNanos(deadline - now - SPIN_THRESHOLD);
+			} else {
+				Thread.onSpinWait();
+			}
+		}
+	}
+
+	static final class Request {
+
+		final int sequence;
+		final long intended;
+		final long sent;
+
+		Request(final int sequence, final long intended, final long sent) {
+			this.sequence = sequence;
+			this.intended = intended;
+			this.sent = sent;
+		}
+	}
+
+	/**
+	 * Response times indexed by the request sequence. Every slot is written once, and all of them
+	 * are visible to the generator after the {@link #done} latch is released.
+	 */
+	static final class Recording {
+
+		final long[] corrected;
+		final long[] uncorrected;
+		final CountDownLatch done;
+
+		Recording(final int count) {
+			this.corrected = new long[count];
+			this.uncorrected = new long[count];
+			this.done = new CountDownLatch(count);
+		}
+
+		void record(final Request request) {
+
+			final var now = System.nanoTime();
+
+			corrected[request.sequence] = now - request.intended;
+			uncorrected[request.sequence] = now - request.sent;
+
+			done.countDown();
+		}
+	}
+
+	static class Echo extends Actor implements Base {
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.matchAny(this::reply);
+		}
+	}
+
+	static class Recorder extends Actor {
+
+		final Recording recording;
+
+		Recorder(final Recording recording) {
+			this.recording = recording;
+		}
+
+		@Override
+		public Receive receive() {
+			return super.receive()
+				.match(Request.class, recording::record);
+		}
+	}
+}
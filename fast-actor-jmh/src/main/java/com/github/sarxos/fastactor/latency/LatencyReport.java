@@ -0,0 +1,108 @@
+package com.github.sarxos.fastactor.latency;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+
+/**
+ * Response time percentiles of a single harness run. The corrected values are measured from the
+ * moment request was scheduled to be sent, so they include the time request was delayed because
+ * the generator was stalled by the system under test. The uncorrected ones are measured from the
+ * moment request was actually sent and are reported only to show how much coordinated omission
+ * hides.
+ */
+public class LatencyReport {
+
+	static final double[] PERCENTILES = { 50, 90, 99, 99.9, 99.99, 100 };
+
+	private final String scenario;
+	private final IdleStrategy idleStrategy;
+	private final int parallelism;
+	private final int rate;
+	private final long[] corrected;
+	private final long[] uncorrected;
+
+	LatencyReport(final String scenario, final IdleStrategy idleStrategy, final int parallelism, final int rate, final long[] corrected, final long[] uncorrected) {
+		this.scenario = scenario;
+		this.idleStrategy = idleStrategy;
+		this.parallelism = parallelism;
+		this.rate = rate;
+		this.corrected = percentiles(corrected);
+		this.uncorrected = percentiles(uncorrected);
+	}
+
+	private static long[] percentiles(final long[] values) {
+
+		final var sorted = values.clone();
+		final var result = new long[PERCENTILES.length];
+
+		Arrays.sort(sorted);
+
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			final int rank = (int) Math.ceil(PERCENTILES[i] / 100 * sorted.length);
+			result[i] = sorted[Math.max(0, rank - 1)];
+		}
+
+		return result;
+	}
+
+	static String header() {
+
+		final var sb = new StringBuilder(String.format("%-6s %-8s %4s %8s", "Scen", "Idle", "Pool", "Rate"));
+
+		for (final double p : PERCENTILES) {
+			sb.append(String.format(" %9s", label(p)));
+		}
+
+		return sb.append(" [us]").toString();
+	}
+
+	@Override
+	public String toString() {
+
+		final var sb = new StringBuilder(String.format("%-6s %-8s %4d %8d", scenario, idleStrategy, parallelism, rate));
+
+		for (final long value : corrected) {
+			sb.append(String.format(Locale.ROOT, " %9.1f", value / 1000.0));
+		}
+
+		return sb.toString();
+	}
+
+	String toJson() {
+		return new StringBuilder()
+			.append("{ \"scenario\": \"").append(scenario)
+			.append("\", \"idleStrategy\": \"").append(idleStrategy)
+			.append("\", \"parallelism\": ").append(parallelism)
+			.append(", \"rate\": ").append(rate)
+			.append(", \"unit\": \"ns\"")
+			.append(", \"corrected\": ").append(toJson(corrected))
+			.append(", \"uncorrected\": ").append(toJson(uncorrected))
+			.append(" }")
+			.toString();
+	}
+
+	private static String toJson(final long[] values) {
+
+		final var sb = new StringBuilder("{ ");
+
+		for (int i = 0; i < PERCENTILES.length; i++) {
+			if (i > 0) {
+				sb.append(", ");
+			}
+			sb.append('"').append(label(PERCENTILES[i])).append("\": ").append(values[i]);
+		}
+
+		return sb.append(" }").toString();
+	}
+
+	private static String label(final double percentile) {
+		if (percentile == 100) {
+			return "max";
+		} else if (percentile == Math.rint(percentile)) {
+			return "p" + (int) percentile;
+		} else {
+			return "p" + percentile;
+		}
+	}
+}
@@ -0,0 +1,36 @@
+package com.github.sarxos.fastactor.runner;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+
+/**
+ * Runs the regression suite, i.e. all the benchmarks from the
+ * <code>com.github.sarxos.fastactor.benchmark.suite</code> package, and writes results in JSON
+ * to <code>results/suite.json</code>. The standard JMH command line options can be used to narrow
+ * the run, e.g. <code>RingBenchmark -p parallelism=8</code>.
+ */
+public final class SuiteRunner {
+
+	static final String SUITE = "com\\.github\\.sarxos\\.fastactor\\.benchmark\\.suite\\.";
+
+	public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+
+		final var commandLine = new CommandLineOptions(args);
+		final var builder = new OptionsBuilder()
+			.parent(commandLine)
+			.resultFormat(ResultFormatType.JSON)
+			.result("results/suite.json")
+			.shouldDoGC(true);
+
+		if (commandLine.getIncludes().isEmpty()) {
+			builder.include(SUITE + ".*");
+		}
+
+		new Runner(builder.build()).run();
+	}
+}